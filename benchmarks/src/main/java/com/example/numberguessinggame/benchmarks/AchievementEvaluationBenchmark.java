@@ -0,0 +1,130 @@
+package com.example.numberguessinggame.benchmarks;
+
+import com.example.numberguessinggame.benchmarks.support.InMemoryRepositories;
+import com.example.numberguessinggame.config.AchievementInitializer;
+import com.example.numberguessinggame.entity.Achievement;
+import com.example.numberguessinggame.entity.Game;
+import com.example.numberguessinggame.entity.User;
+import com.example.numberguessinggame.entity.UserAchievement;
+import com.example.numberguessinggame.repository.UserAchievementRepository;
+import com.example.numberguessinggame.service.AchievementCatalog;
+import com.example.numberguessinggame.service.AchievementRuleRegistry;
+import com.example.numberguessinggame.service.AchievementService;
+import com.example.numberguessinggame.service.UnlockedAchievementCache;
+import com.example.numberguessinggame.service.UserGameStatsService;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Achievement rule evaluation after a game, against the real catalogue (seeded
+ * through AchievementInitializer) and a synthetic game history held in memory.
+ * Repository cost is therefore close to zero and what remains is rule logic.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class AchievementEvaluationBenchmark {
+
+    @Param({"20", "200", "1000"})
+    public int historySize;
+
+    private AchievementService achievementService;
+    private List<UserAchievement> unlocked;
+    private UnlockedAchievementCache unlockedAchievementCache;
+    private User user;
+    private Game lastGame;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        List<Achievement> catalogue = new ArrayList<>();
+        List<Game> games = new ArrayList<>();
+        unlocked = new ArrayList<>();
+
+        AchievementRuleRegistry ruleRegistry = new AchievementRuleRegistry();
+        AchievementCatalog achievementCatalog = new AchievementCatalog();
+        InMemoryRepositories.inject(achievementCatalog, "achievementRepository", InMemoryRepositories.achievements(catalogue));
+
+        AchievementInitializer initializer = new AchievementInitializer();
+        InMemoryRepositories.inject(initializer, "achievementRepository", InMemoryRepositories.achievements(catalogue));
+        InMemoryRepositories.inject(initializer, "achievementRuleRegistry", ruleRegistry);
+        InMemoryRepositories.inject(initializer, "achievementCatalog", achievementCatalog);
+        initializer.run(null);
+
+        UserGameStatsService userGameStatsService = new UserGameStatsService();
+        InMemoryRepositories.inject(userGameStatsService, "userGameStatsRepository", InMemoryRepositories.gameStats(new HashMap<>()));
+        InMemoryRepositories.inject(userGameStatsService, "gameRepository", InMemoryRepositories.games(games));
+
+        UserAchievementRepository userAchievementRepository = InMemoryRepositories.userAchievements(unlocked);
+        unlockedAchievementCache = new UnlockedAchievementCache();
+        InMemoryRepositories.inject(unlockedAchievementCache, "userAchievementRepository", userAchievementRepository);
+        InMemoryRepositories.inject(unlockedAchievementCache, "achievementCatalog", achievementCatalog);
+
+        achievementService = new AchievementService();
+        InMemoryRepositories.inject(achievementService, "achievementCatalog", achievementCatalog);
+        InMemoryRepositories.inject(achievementService, "userAchievementRepository", userAchievementRepository);
+        InMemoryRepositories.inject(achievementService, "gameRepository", InMemoryRepositories.games(games));
+        InMemoryRepositories.inject(achievementService, "userGameStatsService", userGameStatsService);
+        InMemoryRepositories.inject(achievementService, "achievementRuleRegistry", ruleRegistry);
+        InMemoryRepositories.inject(achievementService, "unlockedAchievementCache", unlockedAchievementCache);
+
+        user = new User("benchmark", "benchmark@example.com", "x");
+        user.setId(1L);
+
+        Random random = new Random(7);
+        LocalDateTime playedAt = LocalDateTime.now().minusDays(historySize);
+        int wins = 0;
+        for (int i = 0; i < historySize; i++) {
+            boolean won = random.nextInt(4) != 0;
+            int attempts = won ? 1 + random.nextInt(12) : 10 + random.nextInt(10);
+            String timeTaken = String.format("%02d:%02d", random.nextInt(5), random.nextInt(60));
+            Game game = new Game(user, random.nextInt(3), 123, attempts, won, timeTaken, 0);
+            game.setId((long) i + 1);
+            game.setPlayedAt(playedAt.plusHours(i * 7L));
+            games.add(game);
+            if (won) {
+                wins++;
+            }
+        }
+        user.setTotalGames(historySize);
+        user.setTotalWins(wins);
+        lastGame = games.get(games.size() - 1);
+        userGameStatsService.rebuild(user);
+    }
+
+    /**
+     * Invocation-level so each call starts with nothing unlocked
+     */
+    @State(Scope.Thread)
+    public static class FreshUser {
+        @Setup(Level.Invocation)
+        public void reset(AchievementEvaluationBenchmark benchmark) {
+            benchmark.unlocked.clear();
+            benchmark.unlockedAchievementCache.evict(benchmark.user.getId());
+        }
+    }
+
+    @Benchmark
+    public List<Achievement> afterGameFirstUnlocks(FreshUser fresh) {
+        return achievementService.checkAndUnlockAchievements(user, lastGame);
+    }
+
+    @Benchmark
+    public List<Achievement> afterGameSteadyState() {
+        // After the first call everything reachable is unlocked; this is the common case
+        return achievementService.checkAndUnlockAchievements(user, lastGame);
+    }
+
+    @Benchmark
+    public List<Achievement> retroactive(FreshUser fresh) {
+        return achievementService.awardRetroactiveAchievements(user);
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.numberguessinggame.benchmarks;
+
+import com.example.numberguessinggame.util.BullsCowsEngine;
+import com.example.numberguessinggame.util.GameUtils;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Validation + scoring of one guess: BullsCowsEngine against the two loop
+ * styles it replaced (int[] two-pass in GameController/MultiplayerService,
+ * String.contains in the Survival/Time Attack/Daily controllers).
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class BullsCowsScoringBenchmark {
+
+    private static final int SAMPLES = 1024;
+
+    @Param({"0", "1", "2"})
+    public int difficulty;
+
+    private int digitCount;
+    private int[] secrets;
+    private int[] secretKeys;
+    private String[] guesses;
+    private int index;
+
+    @Setup
+    public void setUp() {
+        digitCount = 3 + difficulty;
+        secrets = new int[SAMPLES];
+        secretKeys = new int[SAMPLES];
+        guesses = new String[SAMPLES];
+        Random random = new Random(42);
+        for (int i = 0; i < SAMPLES; i++) {
+            secrets[i] = GameUtils.generateUniqueDigitNumber(digitCount);
+            secretKeys[i] = BullsCowsEngine.encodeSecret(secrets[i], digitCount);
+            // Mix valid guesses with the occasional repeated-digit one
+            guesses[i] = random.nextInt(16) == 0
+                    ? "1" + "1".repeat(digitCount - 1)
+                    : String.valueOf(GameUtils.generateUniqueDigitNumber(digitCount));
+        }
+    }
+
+    private int next() {
+        index = (index + 1) & (SAMPLES - 1);
+        return index;
+    }
+
+    @Benchmark
+    public void engine(Blackhole bh) {
+        int i = next();
+        String guess = guesses[i];
+        if (BullsCowsEngine.check(guess, digitCount) != BullsCowsEngine.GuessCheck.VALID) {
+            bh.consume(-1);
+            return;
+        }
+        bh.consume(BullsCowsEngine.score(secretKeys[i], guess));
+    }
+
+    @Benchmark
+    public void legacyDigitArrays(Blackhole bh) {
+        int i = next();
+        String guess = guesses[i];
+        if (!guess.matches("\\d+") || guess.length() != digitCount
+                || guess.chars().distinct().count() != guess.length()) {
+            bh.consume(-1);
+            return;
+        }
+
+        int[] target = getDigits(secrets[i]);
+        int[] guessDigits = getDigits(Integer.parseInt(guess));
+        int bulls = 0;
+        int cows = 0;
+        boolean[] used = new boolean[target.length];
+        for (int p = 0; p < target.length; p++) {
+            if (guessDigits[p] == target[p]) {
+                bulls++;
+                used[p] = true;
+            }
+        }
+        for (int p = 0; p < target.length; p++) {
+            if (guessDigits[p] != target[p]) {
+                for (int q = 0; q < target.length; q++) {
+                    if (!used[q] && guessDigits[p] == target[q]) {
+                        cows++;
+                        used[q] = true;
+                        break;
+                    }
+                }
+            }
+        }
+        bh.consume((bulls << 4) | cows);
+    }
+
+    @Benchmark
+    public void legacyStringContains(Blackhole bh) {
+        int i = next();
+        String guess = guesses[i];
+        if (!guess.matches("\\d+") || guess.length() != digitCount) {
+            bh.consume(-1);
+            return;
+        }
+        Set<Character> uniqueDigits = new HashSet<>();
+        for (char c : guess.toCharArray()) {
+            uniqueDigits.add(c);
+        }
+        if (uniqueDigits.size() != guess.length()) {
+            bh.consume(-1);
+            return;
+        }
+
+        String target = String.valueOf(secrets[i]);
+        int bulls = 0;
+        int cows = 0;
+        for (int p = 0; p < guess.length(); p++) {
+            char guessChar = guess.charAt(p);
+            if (guessChar == target.charAt(p)) {
+                bulls++;
+            } else if (target.contains(String.valueOf(guessChar))) {
+                cows++;
+            }
+        }
+        bh.consume((bulls << 4) | cows);
+    }
+
+    private static int[] getDigits(int number) {
+        String numberString = String.valueOf(number);
+        int[] digits = new int[numberString.length()];
+        for (int i = 0; i < numberString.length(); i++) {
+            digits[i] = Character.getNumericValue(numberString.charAt(i));
+        }
+        return digits;
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.numberguessinggame.benchmarks;
+
+import com.example.numberguessinggame.GameSession;
+import com.example.numberguessinggame.util.BullsCowsEngine;
+import com.example.numberguessinggame.util.GameUtils;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Hint bookkeeping on a GameSession: creating the session and revealing every
+ * position the way GameController.getHint does, cost lookup included.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class GameSessionHintBenchmark {
+
+    private static final String TAB_ID = UUID.randomUUID().toString();
+
+    @Param({"0", "1", "2"})
+    public int difficulty;
+
+    private int targetNumber;
+
+    @Setup
+    public void setUp() {
+        targetNumber = GameUtils.generateUniqueDigitNumber(difficulty + 3);
+    }
+
+    @Benchmark
+    public GameSession newSession() {
+        return new GameSession(TAB_ID, targetNumber, difficulty, 1L);
+    }
+
+    @Benchmark
+    public void revealAllHints(Blackhole bh) {
+        GameSession session = new GameSession(TAB_ID, targetNumber, difficulty, 1L);
+        int secretKey = session.getSecretKey();
+        int digitCount = BullsCowsEngine.digitCount(secretKey);
+
+        while (session.getRevealedHintCount() < digitCount) {
+            bh.consume(session.getNextHintCost());
+
+            List<Integer> unrevealedPositions = new ArrayList<>();
+            for (int i = 0; i < digitCount; i++) {
+                if (!session.isHintRevealed(i)) {
+                    unrevealedPositions.add(i);
+                }
+            }
+            int position = unrevealedPositions.get(ThreadLocalRandom.current().nextInt(unrevealedPositions.size()));
+            bh.consume(session.recordHint(position));
+        }
+        bh.consume(session);
+    }
+}
@@ -0,0 +1,181 @@
+package com.example.numberguessinggame.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Inserting history rows into PostgreSQL the two ways Hibernate can: one statement
+ * and key read-back per row (IDENTITY ids, which turn batching off), or JDBC batches
+ * with ids reserved 50 per sequence call (pooled sequences with
+ * hibernate.jdbc.batch_size=50). Rows go to temporary copies of the games and
+ * survival_sessions tables, so any database with the schema will do. Connection
+ * settings default to the SPRING_DATASOURCE_* variables the app reads; override them
+ * with -p url=... -p user=... -p password=...
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class HistoryInsertBenchmark {
+
+    private static final int ROWS = 500;
+    private static final int BATCH_SIZE = 50;
+
+    @Param({"games", "survival_sessions"})
+    public String table;
+
+    @Param({""})
+    public String url;
+
+    @Param({""})
+    public String user;
+
+    @Param({""})
+    public String password;
+
+    private Connection connection;
+    private PreparedStatement identityInsert;
+    private PreparedStatement pooledInsert;
+    private PreparedStatement nextIds;
+    private Timestamp now;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection(
+                setting(url, "SPRING_DATASOURCE_URL"),
+                setting(user, "SPRING_DATASOURCE_USERNAME"),
+                setting(password, "SPRING_DATASOURCE_PASSWORD"));
+        connection.setAutoCommit(false);
+
+        try (Statement statement = connection.createStatement()) {
+            // Same columns and indexes as the real table, without its foreign keys
+            statement.execute("CREATE TEMP SEQUENCE bench_identity_seq");
+            statement.execute("CREATE TEMP SEQUENCE bench_pooled_seq INCREMENT BY " + BATCH_SIZE);
+            statement.execute("CREATE TEMP TABLE bench_identity (LIKE " + table + " INCLUDING DEFAULTS INCLUDING INDEXES)");
+            statement.execute("ALTER TABLE bench_identity ALTER COLUMN id SET DEFAULT nextval('bench_identity_seq')");
+            statement.execute("CREATE TEMP TABLE bench_pooled (LIKE " + table + " INCLUDING DEFAULTS INCLUDING INDEXES)");
+            statement.execute("ALTER TABLE bench_pooled ALTER COLUMN id DROP DEFAULT");
+        }
+        connection.commit();
+
+        String columns = columns();
+        String values = "?, ".repeat(columns.split(",").length - 1) + "?";
+        identityInsert = connection.prepareStatement(
+                "INSERT INTO bench_identity (" + columns + ") VALUES (" + values + ")", new String[]{"id"});
+        pooledInsert = connection.prepareStatement(
+                "INSERT INTO bench_pooled (id, " + columns + ") VALUES (?, " + values + ")");
+        nextIds = connection.prepareStatement("SELECT nextval('bench_pooled_seq')");
+        now = Timestamp.valueOf(LocalDateTime.now());
+    }
+
+    @TearDown(Level.Iteration)
+    public void truncate() throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("TRUNCATE bench_identity, bench_pooled");
+        }
+        connection.commit();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    /**
+     * What IDENTITY ids force: execute each insert and read its generated key back
+     */
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long identityRowByRow() throws SQLException {
+        long lastId = 0;
+        for (int row = 0; row < ROWS; row++) {
+            bind(identityInsert, 1, row);
+            identityInsert.executeUpdate();
+            try (ResultSet keys = identityInsert.getGeneratedKeys()) {
+                keys.next();
+                lastId = keys.getLong(1);
+            }
+        }
+        connection.commit();
+        return lastId;
+    }
+
+    /**
+     * What pooled sequences allow: one sequence call per 50 ids, one round trip per 50 rows
+     */
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public long pooledBatched() throws SQLException {
+        long high = 0;
+        for (int row = 0; row < ROWS; row++) {
+            if (row % BATCH_SIZE == 0) {
+                try (ResultSet ids = nextIds.executeQuery()) {
+                    ids.next();
+                    high = ids.getLong(1);
+                }
+            }
+            pooledInsert.setLong(1, high - BATCH_SIZE + 1 + row % BATCH_SIZE);
+            bind(pooledInsert, 2, row);
+            pooledInsert.addBatch();
+            if ((row + 1) % BATCH_SIZE == 0) {
+                pooledInsert.executeBatch();
+            }
+        }
+        pooledInsert.executeBatch();
+        connection.commit();
+        return high;
+    }
+
+    private String columns() {
+        return switch (table) {
+            case "games" -> "user_id, difficulty, target_number, attempts, won, time_taken, hints_used, played_at";
+            case "survival_sessions" -> "user_id, difficulty, rounds_survived, total_attempts_used, completed, coins_earned, started_at, completed_at";
+            default -> throw new IllegalArgumentException("Unknown history table: " + table);
+        };
+    }
+
+    /**
+     * Plausible row values, varied a little so every row differs
+     */
+    private void bind(PreparedStatement insert, int first, int row) throws SQLException {
+        insert.setLong(first, 1 + row % 100);
+        insert.setInt(first + 1, row % 3);
+        if (table.equals("games")) {
+            insert.setInt(first + 2, 1234 + row % 8000);
+            insert.setInt(first + 3, 1 + row % 12);
+            insert.setBoolean(first + 4, row % 4 != 0);
+            insert.setString(first + 5, String.format("%02d:%02d", row % 10, row % 60));
+            insert.setInt(first + 6, row % 3);
+            insert.setTimestamp(first + 7, now);
+        } else {
+            insert.setInt(first + 2, row % 6);
+            insert.setInt(first + 3, 5 + row % 30);
+            insert.setBoolean(first + 4, row % 6 == 5);
+            insert.setInt(first + 5, row % 40);
+            insert.setTimestamp(first + 6, now);
+            insert.setTimestamp(first + 7, now);
+        }
+    }
+
+    private static String setting(String value, String environmentVariable) {
+        if (!value.isEmpty()) {
+            return value;
+        }
+        String fromEnvironment = System.getenv(environmentVariable);
+        if (fromEnvironment == null) {
+            throw new IllegalStateException("Set " + environmentVariable + " or pass it with -p");
+        }
+        return fromEnvironment;
+    }
+}
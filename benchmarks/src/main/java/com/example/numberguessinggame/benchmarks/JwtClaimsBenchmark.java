@@ -0,0 +1,41 @@
+package com.example.numberguessinggame.benchmarks;
+
+import com.example.numberguessinggame.benchmarks.support.InMemoryRepositories;
+import com.example.numberguessinggame.service.JwtUtil;
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Token parsing done on every authenticated request and WebSocket CONNECT.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class JwtClaimsBenchmark {
+
+    private JwtUtil jwtUtil;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        jwtUtil = new JwtUtil();
+        InMemoryRepositories.inject(jwtUtil, "secret", "benchmark-secret-key-that-is-at-least-256-bits-long");
+        InMemoryRepositories.inject(jwtUtil, "expiration", 86_400_000L);
+        token = jwtUtil.generateToken("benchmark-user", 42L);
+    }
+
+    @Benchmark
+    public Claims extractClaims() {
+        return jwtUtil.extractClaims(token);
+    }
+
+    @Benchmark
+    public Long extractUserId() {
+        return jwtUtil.extractUserId(token);
+    }
+}
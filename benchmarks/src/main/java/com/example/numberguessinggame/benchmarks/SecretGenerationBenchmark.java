@@ -0,0 +1,74 @@
+package com.example.numberguessinggame.benchmarks;
+
+import com.example.numberguessinggame.GameController;
+import com.example.numberguessinggame.util.GameUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Secret generation: the classic-mode generator in GameController and the
+ * shared GameUtils one used by the other modes, both backed by CandidateTable,
+ * against the shuffled boxed list every mode used to build per game.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class SecretGenerationBenchmark {
+
+    @Param({"0", "1", "2"})
+    public int difficulty;
+
+    private GameController controller;
+    private MethodHandle controllerGenerator;
+
+    @Setup
+    public void setUp() throws ReflectiveOperationException {
+        controller = new GameController();
+        // The generator is a private helper, so call it through a method handle
+        Method method = GameController.class.getDeclaredMethod("generateUniqueDigitNumber", int.class);
+        method.setAccessible(true);
+        controllerGenerator = MethodHandles.lookup().unreflect(method);
+    }
+
+    @Benchmark
+    public int gameController() throws Throwable {
+        return (int) controllerGenerator.invokeExact(controller, difficulty);
+    }
+
+    @Benchmark
+    public int gameUtils() {
+        return GameUtils.generateUniqueDigitNumber(difficulty + 3);
+    }
+
+    @Benchmark
+    public int shuffledList() {
+        List<Integer> digits = new ArrayList<>();
+        for (int i = 0; i <= 9; i++) {
+            digits.add(i);
+        }
+        Collections.shuffle(digits);
+
+        int result = 0;
+        int selected = 0;
+        for (int digit : digits) {
+            if (selected == 0 && digit == 0) {
+                continue;
+            }
+            result = result * 10 + digit;
+            if (++selected == difficulty + 3) {
+                break;
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.numberguessinggame.benchmarks;
+
+import com.example.numberguessinggame.GameSession;
+import com.example.numberguessinggame.benchmarks.support.LegacyGameSession;
+import com.example.numberguessinggame.util.BullsCowsEngine;
+import com.example.numberguessinggame.util.GameUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Memory footprint of one practice session: the old object graph (String tab id,
+ * LocalDateTime, boxed user id, HashMap of hints) against the packed GameSession
+ * and its 48-byte binary form in a direct buffer.
+ *
+ * Every method allocates exactly what the stored session keeps, so run with
+ * -prof gc and read gc.alloc.rate.norm as bytes per live session.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class SessionFootprintBenchmark {
+
+    private static final int SLOTS = 1024;
+
+    @Param({"0", "2"})
+    public int hints;
+
+    private final Long userId = 1_000_000L; // Boxed once, like the request parameter; not counted for either layout
+    private UUID tabId;
+    private int targetNumber;
+    private GameSession packed;
+    private ByteBuffer slots;
+    private int slot;
+
+    @Setup
+    public void setUp() {
+        tabId = UUID.randomUUID();
+        targetNumber = GameUtils.generateUniqueDigitNumber(5);
+        packed = packedSession();
+        slots = ByteBuffer.allocateDirect(SLOTS * GameSession.RECORD.size());
+    }
+
+    @Benchmark
+    public LegacyGameSession legacySession() {
+        LegacyGameSession session = new LegacyGameSession(tabId.toString(), targetNumber, 2, userId);
+        session.incrementAttempts();
+        for (int position = 0; position < hints; position++) {
+            session.recordHint(position, BullsCowsEngine.digitAt(session.getSecretKey(), position));
+        }
+        return session;
+    }
+
+    @Benchmark
+    public GameSession packedSession() {
+        GameSession session = new GameSession(tabId, targetNumber, 2, userId);
+        session.incrementAttempts();
+        for (int position = 0; position < hints; position++) {
+            session.recordHint(position);
+        }
+        return session;
+    }
+
+    /**
+     * Off-heap: no allocation at all, 48 bytes of direct memory per session
+     */
+    @Benchmark
+    public ByteBuffer packedIntoBuffer() {
+        slots.position((slot++ & (SLOTS - 1)) * GameSession.RECORD.size());
+        GameSession.RECORD.write(packed, slots);
+        return slots;
+    }
+}
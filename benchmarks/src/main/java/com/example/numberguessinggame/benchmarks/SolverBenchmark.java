@@ -0,0 +1,73 @@
+package com.example.numberguessinggame.benchmarks;
+
+import com.example.numberguessinggame.util.BullsCowsEngine;
+import com.example.numberguessinggame.util.BullsCowsSolver;
+import com.example.numberguessinggame.util.CandidateTable;
+import com.example.numberguessinggame.util.GuessHistory;
+import com.example.numberguessinggame.util.ResponseMatrix;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.file.Paths;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Solver requests after the opening guess, the slowest point of a game: counting the
+ * secrets still possible, and picking the best next guess within the default scoring
+ * budget. Sampled with -bm SampleTime to read the 99th percentile. Pass
+ * -p matrixDir=/some/dir to use memory-mapped matrices (5 digits is scored on the
+ * fly otherwise).
+ */
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+public class SolverBenchmark {
+
+    private static final int GAMES = 256;
+    private static final long MAX_SCORINGS = 500_000;
+
+    @Param({"0", "1", "2"})
+    public int difficulty;
+
+    @Param({""})
+    public String matrixDir;
+
+    private ResponseMatrix matrix;
+    private GuessHistory[] histories;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        int digitCount = CandidateTable.MIN_DIGITS + difficulty;
+        if (!matrixDir.isEmpty()) {
+            ResponseMatrix.useDirectory(Paths.get(matrixDir));
+        }
+        matrix = ResponseMatrix.forDigits(digitCount);
+        CandidateTable table = matrix.getTable();
+
+        // One opening guess against random secrets, like a player's first request
+        SplittableRandom random = new SplittableRandom(42);
+        int opening = table.secretAt(0);
+        histories = new GuessHistory[GAMES];
+        for (int i = 0; i < GAMES; i++) {
+            int secretKey = BullsCowsEngine.encodeSecret(table.random(random), digitCount);
+            histories[i] = new GuessHistory();
+            histories[i].add(opening, BullsCowsEngine.score(secretKey, table.keyAt(0)), 0);
+        }
+    }
+
+    @Benchmark
+    public int remaining() {
+        GuessHistory history = histories[next++ & (GAMES - 1)];
+        return BullsCowsSolver.count(BullsCowsSolver.consistent(matrix, history, 0, 0));
+    }
+
+    @Benchmark
+    public int bestGuess() {
+        GuessHistory history = histories[next++ & (GAMES - 1)];
+        return BullsCowsSolver.bestGuess(matrix, BullsCowsSolver.consistent(matrix, history, 0, 0), MAX_SCORINGS);
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.numberguessinggame.benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Friend search against a users table of a million rows: reading every row and
+ * matching in Java (what searchUsers did), against the prefix query on the C-collation
+ * LOWER(username) index and the substring query on the trigram index, each returning
+ * one page of 20. Rows go to a temporary table; pg_trgm must be installed (or
+ * installable) in the database. Sampled with -bm SampleTime to read the 99th
+ * percentile. Connection settings as in HistoryInsertBenchmark.
+ */
+@BenchmarkMode({Mode.AverageTime, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Thread)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class UserSearchBenchmark {
+
+    private static final int PAGE = 20;
+    private static final int QUERIES = 256;
+
+    @Param({"1000000"})
+    public int users;
+
+    @Param({""})
+    public String url;
+
+    @Param({""})
+    public String user;
+
+    @Param({""})
+    public String password;
+
+    private Connection connection;
+    private PreparedStatement scan;
+    private PreparedStatement prefix;
+    private PreparedStatement infix;
+    private String[] prefixes;
+    private String[] fragments;
+    private int next;
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException {
+        connection = DriverManager.getConnection(
+                setting(url, "SPRING_DATASOURCE_URL"),
+                setting(user, "SPRING_DATASOURCE_USERNAME"),
+                setting(password, "SPRING_DATASOURCE_PASSWORD"));
+
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+            statement.execute("CREATE TEMP TABLE bench_users (id BIGINT PRIMARY KEY, username VARCHAR(50) NOT NULL, " +
+                    "total_games INTEGER DEFAULT 0, total_wins INTEGER DEFAULT 0)");
+            // 'P' and 11 hex digits: a three-character prefix matches about 4,000 rows
+            statement.execute("INSERT INTO bench_users SELECT i, 'P' || substr(md5(i::text), 1, 11), i % 500, i % 200 " +
+                    "FROM generate_series(1, " + users + ") AS i");
+            statement.execute("CREATE INDEX ON bench_users ((LOWER(username)) COLLATE \"C\")");
+            statement.execute("CREATE INDEX ON bench_users USING GIN (LOWER(username) gin_trgm_ops)");
+            statement.execute("ANALYZE bench_users");
+        }
+        connection.setAutoCommit(false); // The driver only streams the scan inside a transaction
+
+        scan = connection.prepareStatement("SELECT id, username, total_games, total_wins FROM bench_users");
+        scan.setFetchSize(10_000);
+        prefix = connection.prepareStatement(
+                "SELECT id, username, total_games, total_wins FROM bench_users " +
+                "WHERE LOWER(username) COLLATE \"C\" LIKE ? AND id <> ? ORDER BY LOWER(username) COLLATE \"C\" LIMIT ?");
+        infix = connection.prepareStatement(
+                "SELECT id, username, total_games, total_wins FROM bench_users " +
+                "WHERE LOWER(username) LIKE ? AND LOWER(username) NOT LIKE ? AND id <> ? " +
+                "ORDER BY LOWER(username) COLLATE \"C\" LIMIT ?");
+
+        // Terms taken from names that exist, like players looking up someone they know
+        SplittableRandom random = new SplittableRandom(42);
+        prefixes = new String[QUERIES];
+        fragments = new String[QUERIES];
+        try (PreparedStatement names = connection.prepareStatement("SELECT LOWER(username) FROM bench_users WHERE id = ?")) {
+            for (int i = 0; i < QUERIES; i++) {
+                names.setLong(1, 1 + random.nextInt(users));
+                try (ResultSet rs = names.executeQuery()) {
+                    rs.next();
+                    String name = rs.getString(1);
+                    prefixes[i] = name.substring(0, 3 + random.nextInt(3));
+                    fragments[i] = name.substring(4, 8);
+                }
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws SQLException {
+        connection.close();
+    }
+
+    /**
+     * Every row to the application, filtered there (the old findAll path, without building entities)
+     */
+    @Benchmark
+    public List<Long> scanContains() throws SQLException {
+        String term = prefixes[next++ & (QUERIES - 1)];
+        List<Long> ids = new ArrayList<>(PAGE);
+        try (ResultSet rs = scan.executeQuery()) {
+            while (rs.next()) {
+                if (ids.size() < PAGE && rs.getString("username").toLowerCase().contains(term)) {
+                    ids.add(rs.getLong("id"));
+                }
+            }
+        }
+        return ids;
+    }
+
+    @Benchmark
+    public List<Long> indexedPrefix() throws SQLException {
+        prefix.setString(1, prefixes[next++ & (QUERIES - 1)] + "%");
+        prefix.setLong(2, 0);
+        prefix.setInt(3, PAGE);
+        return ids(prefix);
+    }
+
+    @Benchmark
+    public List<Long> trigramInfix() throws SQLException {
+        String fragment = fragments[next++ & (QUERIES - 1)];
+        infix.setString(1, "%" + fragment + "%");
+        infix.setString(2, fragment + "%");
+        infix.setLong(3, 0);
+        infix.setInt(4, PAGE);
+        return ids(infix);
+    }
+
+    private static List<Long> ids(PreparedStatement query) throws SQLException {
+        List<Long> ids = new ArrayList<>(PAGE);
+        try (ResultSet rs = query.executeQuery()) {
+            while (rs.next()) {
+                ids.add(rs.getLong("id"));
+            }
+        }
+        return ids;
+    }
+
+    private static String setting(String value, String environmentVariable) {
+        if (!value.isEmpty()) {
+            return value;
+        }
+        String fromEnvironment = System.getenv(environmentVariable);
+        if (fromEnvironment == null) {
+            throw new IllegalStateException("Set " + environmentVariable + " or pass it with -p");
+        }
+        return fromEnvironment;
+    }
+}
@@ -0,0 +1,195 @@
+package com.example.numberguessinggame.benchmarks.support;
+
+import com.example.numberguessinggame.entity.Achievement;
+import com.example.numberguessinggame.entity.Game;
+import com.example.numberguessinggame.entity.User;
+import com.example.numberguessinggame.entity.UserAchievement;
+import com.example.numberguessinggame.entity.UserGameStats;
+import com.example.numberguessinggame.repository.AchievementRepository;
+import com.example.numberguessinggame.repository.GameRepository;
+import com.example.numberguessinggame.repository.UserAchievementRepository;
+import com.example.numberguessinggame.repository.UserGameStatsRepository;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * List-backed stand-ins for the Spring Data repositories the benchmarks touch.
+ * Only the finder methods the services actually call are implemented; anything
+ * else throws so a new dependency shows up immediately instead of skewing results.
+ */
+public final class InMemoryRepositories {
+
+    private InMemoryRepositories() {
+    }
+
+    public static AchievementRepository achievements(List<Achievement> store) {
+        AtomicLong ids = new AtomicLong();
+        return proxy(AchievementRepository.class, (name, args) -> switch (name) {
+            case "findByCode" -> store.stream()
+                    .filter(a -> a.getCode().equals(args[0]))
+                    .findFirst();
+            case "findByActiveTrue" -> store.stream()
+                    .filter(Achievement::getActive)
+                    .collect(Collectors.toList());
+            case "findByTypeAndActiveTrue" -> store.stream()
+                    .filter(a -> a.getActive() && a.getType() == args[0])
+                    .collect(Collectors.toList());
+            case "findByCategoryAndActiveTrue" -> store.stream()
+                    .filter(a -> a.getActive() && a.getCategory() == args[0])
+                    .collect(Collectors.toList());
+            case "findAll" -> new ArrayList<>(store);
+            case "count" -> (long) store.size();
+            case "save" -> {
+                Achievement achievement = (Achievement) args[0];
+                if (achievement.getId() == null) {
+                    achievement.setId(ids.incrementAndGet());
+                    store.add(achievement);
+                }
+                yield achievement;
+            }
+            default -> unsupported(name);
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    public static UserAchievementRepository userAchievements(List<UserAchievement> store) {
+        AtomicLong ids = new AtomicLong();
+        return proxy(UserAchievementRepository.class, (name, args) -> switch (name) {
+            case "findAchievementIdsByUser" -> store.stream()
+                    .filter(ua -> sameUser(ua.getUser(), args[0]))
+                    .map(ua -> ua.getAchievement().getId())
+                    .collect(Collectors.toList());
+            case "existsByUserAndAchievement" -> store.stream()
+                    .anyMatch(ua -> sameUser(ua.getUser(), args[0])
+                            && ua.getAchievement().getId().equals(((Achievement) args[1]).getId()));
+            case "countByUser" -> store.stream()
+                    .filter(ua -> sameUser(ua.getUser(), args[0]))
+                    .count();
+            case "countUnnotifiedByUser" -> store.stream()
+                    .filter(ua -> sameUser(ua.getUser(), args[0]) && !ua.getNotified())
+                    .count();
+            case "findByUserOrderByUnlockedAtDesc" -> store.stream()
+                    .filter(ua -> sameUser(ua.getUser(), args[0]))
+                    .sorted(Comparator.comparing(UserAchievement::getUnlockedAt,
+                            Comparator.nullsLast(Comparator.reverseOrder())))
+                    .collect(Collectors.toList());
+            case "save" -> {
+                UserAchievement ua = (UserAchievement) args[0];
+                if (ua.getId() == null) {
+                    ua.setId(ids.incrementAndGet());
+                    store.add(ua);
+                }
+                yield ua;
+            }
+            case "insertIgnoringDuplicates" -> {
+                User user = new User();
+                user.setId((Long) args[0]);
+                List<Long> inserted = new ArrayList<>();
+                for (Long achievementId : (Collection<Long>) args[1]) {
+                    boolean exists = store.stream().anyMatch(ua -> sameUser(ua.getUser(), user)
+                            && ua.getAchievement().getId().equals(achievementId));
+                    if (!exists) {
+                        Achievement achievement = new Achievement();
+                        achievement.setId(achievementId);
+                        UserAchievement ua = new UserAchievement(user, achievement);
+                        ua.setId(ids.incrementAndGet());
+                        store.add(ua);
+                        inserted.add(achievementId);
+                    }
+                }
+                yield inserted;
+            }
+            default -> unsupported(name);
+        });
+    }
+
+    public static GameRepository games(List<Game> store) {
+        AtomicLong ids = new AtomicLong();
+        return proxy(GameRepository.class, (name, args) -> switch (name) {
+            case "findByUser" -> store.stream()
+                    .filter(g -> sameUser(g.getUser(), args[0]))
+                    .collect(Collectors.toList());
+            case "findByUserAndWonTrue" -> store.stream()
+                    .filter(g -> sameUser(g.getUser(), args[0]) && Boolean.TRUE.equals(g.getWon()))
+                    .collect(Collectors.toList());
+            case "countByUser" -> store.stream()
+                    .filter(g -> sameUser(g.getUser(), args[0]))
+                    .count();
+            case "save" -> {
+                Game game = (Game) args[0];
+                if (game.getId() == null) {
+                    game.setId(ids.incrementAndGet());
+                    store.add(game);
+                }
+                yield game;
+            }
+            default -> unsupported(name);
+        });
+    }
+
+    public static UserGameStatsRepository gameStats(Map<Long, UserGameStats> store) {
+        return proxy(UserGameStatsRepository.class, (name, args) -> switch (name) {
+            case "findById" -> Optional.ofNullable(store.get((Long) args[0]));
+            case "save" -> {
+                UserGameStats stats = (UserGameStats) args[0];
+                store.put(stats.getUserId(), stats);
+                yield stats;
+            }
+            case "insertIfAbsent" -> {
+                UserGameStats stats = (UserGameStats) args[0];
+                yield store.putIfAbsent(stats.getUserId(), stats) == null;
+            }
+            default -> unsupported(name);
+        });
+    }
+
+    /**
+     * Set an {@code @Autowired} / {@code @Value} field the way Spring would
+     */
+    public static void inject(Object target, String fieldName, Object value) {
+        try {
+            Field field = target.getClass().getDeclaredField(fieldName);
+            field.setAccessible(true);
+            field.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot inject " + fieldName + " into " + target.getClass().getSimpleName(), e);
+        }
+    }
+
+    private static boolean sameUser(User user, Object other) {
+        return user == other || (other instanceof User u && Objects.equals(user.getId(), u.getId()));
+    }
+
+    private static Object unsupported(String name) {
+        throw new UnsupportedOperationException("Not implemented by the in-memory stand-in: " + name);
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Object handle(String methodName, Object[] args);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, Handler handler) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> {
+            if (method.getDeclaringClass() == Object.class) {
+                return switch (method.getName()) {
+                    case "equals" -> proxy == args[0];
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    default -> "InMemory" + type.getSimpleName();
+                };
+            }
+            return handler.handle(method.getName(), args == null ? new Object[0] : args);
+        });
+    }
+}
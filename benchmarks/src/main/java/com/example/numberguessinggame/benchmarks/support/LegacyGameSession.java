@@ -0,0 +1,48 @@
+package com.example.numberguessinggame.benchmarks.support;
+
+import com.example.numberguessinggame.util.BullsCowsEngine;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * GameSession as it was laid out before it was packed into primitives, kept so
+ * SessionFootprintBenchmark can compare the two. Not used by the game.
+ */
+public final class LegacyGameSession {
+    private final String tabId;
+    private final int targetNumber;
+    private final int secretKey;
+    private final int difficulty;
+    private final Long userId;
+    private final LocalDateTime startTime;
+    private int attemptsCount;
+    private int hintsUsed;
+    private final Map<Integer, Integer> revealedHints; // position -> digit
+
+    public LegacyGameSession(String tabId, int targetNumber, int difficulty, Long userId) {
+        this.tabId = tabId;
+        this.targetNumber = targetNumber;
+        this.difficulty = difficulty;
+        this.secretKey = BullsCowsEngine.encodeSecret(targetNumber, difficulty + 3);
+        this.userId = userId;
+        this.startTime = LocalDateTime.now();
+        this.attemptsCount = 0;
+        this.hintsUsed = 0;
+        this.revealedHints = new HashMap<>();
+    }
+
+    public int getSecretKey() {
+        return secretKey;
+    }
+
+    public void incrementAttempts() {
+        this.attemptsCount++;
+    }
+
+    public void recordHint(int position, int digit) {
+        revealedHints.put(position, digit);
+        hintsUsed++;
+    }
+}
@@ -3,12 +3,10 @@ package com.example.numberguessinggame;
 import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.concurrent.ConcurrentHashMap;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -18,15 +16,16 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
-import com.example.numberguessinggame.entity.Achievement;
 import com.example.numberguessinggame.entity.Game;
 import com.example.numberguessinggame.entity.User;
-import com.example.numberguessinggame.repository.GameRepository;
 import com.example.numberguessinggame.repository.UserRepository;
-import com.example.numberguessinggame.service.AchievementService;
+import com.example.numberguessinggame.service.AntiCheatService;
+import com.example.numberguessinggame.service.GameWriteBehind;
+import com.example.numberguessinggame.service.SolverService;
 import com.example.numberguessinggame.service.UserService;
-
-import jakarta.servlet.http.HttpSession;
+import com.example.numberguessinggame.session.GameSessionStore;
+import com.example.numberguessinggame.util.BullsCowsEngine;
+import com.example.numberguessinggame.util.GameUtils;
 
 @RestController
 public class GameController {
@@ -40,8 +39,6 @@ public class GameController {
     private static final int EASY_DIGITS = 3;
     private static final int MEDIUM_DIGITS = 4;
     private static final int HARD_DIGITS = 5;
-    private static final int MIN_DIGIT = 0;
-    private static final int MAX_DIGIT = 9;
 
     @Autowired
     private UserService userService;
@@ -50,42 +47,46 @@ public class GameController {
     private UserRepository userRepository;
 
     @Autowired
-    private GameRepository gameRepository;
+    private GameWriteBehind gameWriteBehind;
+
+    @Autowired
+    private SolverService solverService;
 
     @Autowired
-    private AchievementService achievementService;
+    private AntiCheatService antiCheatService;
 
-    private Map<String, GameSession> gameSessions = new ConcurrentHashMap<>();
+    // Abandoned tabs expire after a while without a request (see SessionStoreConfig)
+    @Autowired
+    private GameSessionStore<GameSession> gameSessions;
 
     @PostMapping("/start-game")
     public ResponseEntity<Map<String, Object>> startNewGame(
             @RequestParam int difficulty,
-            @RequestParam(required = false) Long userId,
-            HttpSession session) {
+            @RequestParam(required = false) Long userId) {
         if (difficulty < DIFFICULTY_EASY || difficulty > DIFFICULTY_HARD) {
             Map<String, Object> errorResponse = new HashMap<>();
             errorResponse.put("error", "Please choose Easy, Medium, or Hard difficulty!");
             return ResponseEntity.badRequest().body(errorResponse);
         }
 
-        String sessionId = session.getId();
         // Generate tabId server-side for security
-        String tabId = java.util.UUID.randomUUID().toString();
-        String compositeKey = sessionId + ":" + tabId;
+        java.util.UUID tabUuid = java.util.UUID.randomUUID();
+        String tabId = tabUuid.toString();
+        String compositeKey = sessionKey(userId, tabId);
         int targetNumber = generateUniqueDigitNumber(difficulty);
-        GameSession gameSession = new GameSession(tabId, targetNumber, difficulty, userId);
+        GameSession gameSession = new GameSession(tabUuid, targetNumber, difficulty, userId);
         gameSessions.put(compositeKey, gameSession);
 
-        // Log target number for reference
+        // Log the start; never the target, which would let anyone reading the logs win
         String difficultyName = difficulty == DIFFICULTY_EASY ? "Easy" : difficulty == DIFFICULTY_MEDIUM ? "Medium" : "Hard";
         if (userId != null) {
             userRepository.findById(userId).ifPresent(user ->
-                logger.info("[ADMIN] Practice Mode Start | User: {} | Difficulty: {} | Target: {} | Session: {}",
-                        user.getUsername(), difficultyName, targetNumber, compositeKey)
+                logger.info("[ADMIN] Practice Mode Start | User: {} | Difficulty: {} | Session: {}",
+                        user.getUsername(), difficultyName, compositeKey)
             );
         } else {
-            logger.info("[ADMIN] Practice Mode Start | Guest | Difficulty: {} | Target: {} | Session: {}",
-                    difficultyName, targetNumber, compositeKey);
+            logger.info("[ADMIN] Practice Mode Start | Guest | Difficulty: {} | Session: {}",
+                    difficultyName, compositeKey);
         }
 
         Map<String, Object> response = new HashMap<>();
@@ -96,65 +97,37 @@ public class GameController {
 
     @PostMapping("/submit-guess")
     public Map<String, Object> processGuess(@RequestParam String guess, @RequestParam String tabId,
-            HttpSession session) {
-        String sessionId = session.getId();
-        String compositeKey = sessionId + ":" + tabId;
+            @RequestParam(required = false) Long userId) {
+        String compositeKey = sessionKey(userId, tabId);
         GameSession gameSession = gameSessions.get(compositeKey);
 
         if (gameSession == null) {
             throw new IllegalStateException("Your game session expired. Let's start a new one!");
         }
 
-        int targetNumber = gameSession.getTargetNumber();
         int difficulty = gameSession.getDifficulty();
         int expectedDigits = (difficulty == DIFFICULTY_EASY) ? EASY_DIGITS : (difficulty == DIFFICULTY_MEDIUM) ? MEDIUM_DIGITS : HARD_DIGITS;
 
         // Validate input
-        if (guess == null || guess.isEmpty()) {
-            throw new IllegalArgumentException("Please enter your guess!");
-        }
-        if (!guess.matches("\\d+")) {
-            throw new IllegalArgumentException("Only numbers allowed in your guess!");
-        }
-        if (guess.length() != expectedDigits) {
-            throw new IllegalArgumentException("Your guess needs exactly " + expectedDigits + " digits!");
-        }
-        if (guess.chars().distinct().count() != guess.length()) {
-            throw new IllegalArgumentException("Each digit must be different. No repeats!");
+        switch (BullsCowsEngine.check(guess, expectedDigits)) {
+            case EMPTY -> throw new IllegalArgumentException("Please enter your guess!");
+            case NOT_NUMERIC -> throw new IllegalArgumentException("Only numbers allowed in your guess!");
+            case WRONG_LENGTH -> throw new IllegalArgumentException("Your guess needs exactly " + expectedDigits + " digits!");
+            case REPEATED_DIGITS -> throw new IllegalArgumentException("Each digit must be different. No repeats!");
+            case VALID -> { }
         }
 
-        int[] target = getDigits(targetNumber);
-        int[] guessDigits = getDigits(Integer.parseInt(guess));
-        int correctPosition = 0;
-        int correctButWrongPosition = 0;
-        boolean[] used = new boolean[target.length];
-
-        // First pass: Check for correct positions
-        for (int i = 0; i < target.length; i++) {
-            if (guessDigits[i] == target[i]) {
-                correctPosition++;
-                used[i] = true;
-            }
-        }
+        int result = BullsCowsEngine.score(gameSession.getSecretKey(), guess);
+        int correctPosition = BullsCowsEngine.bulls(result);
+        int correctButWrongPosition = BullsCowsEngine.cows(result);
+        boolean isCorrect = BullsCowsEngine.isSolved(result, expectedDigits);
 
-        // Second pass: Check for correct digits in wrong positions
-        for (int i = 0; i < target.length; i++) {
-            if (guessDigits[i] != target[i]) {
-                for (int j = 0; j < target.length; j++) {
-                    if (!used[j] && guessDigits[i] == target[j]) {
-                        correctButWrongPosition++;
-                        used[j] = true;
-                        break;
-                    }
-                }
-            }
+        // Record the guess (counts the attempt)
+        gameSession.recordGuess(guess, result);
+        if (!isCorrect) {
+            gameSessions.update(compositeKey, gameSession);
         }
 
-        boolean isCorrect = correctPosition == target.length;
-
-        // Increment attempts count
-        gameSession.incrementAttempts();
-
         Map<String, Object> response = new HashMap<>();
         response.put("correct", isCorrect);
         response.put("correctPosition", correctPosition);
@@ -169,31 +142,12 @@ public class GameController {
                 response.put("coinsAwarded", saveResult.coinsAwarded);
             }
 
-            // Include newly unlocked achievements in response
-            if (!saveResult.newAchievements.isEmpty()) {
-                List<Map<String, Object>> achievementData = new ArrayList<>();
-                for (Achievement achievement : saveResult.newAchievements) {
-                    Map<String, Object> achData = new HashMap<>();
-                    achData.put("name", achievement.getName());
-                    achData.put("description", achievement.getDescription());
-                    achData.put("iconClass", achievement.getIconClass());
-                    achData.put("iconColor", achievement.getIconColor());
-                    achData.put("points", achievement.getPoints());
-                    achievementData.add(achData);
-                }
-                response.put("newAchievements", achievementData);
-            }
-
             // Include updated streak data and total coins in response
-            if (gameSession.getUserId() != null) {
-                Optional<User> userOptional = userService.findById(gameSession.getUserId());
-                if (userOptional.isPresent()) {
-                    User user = userOptional.get();
-                    response.put("currentWinStreak", user.getCurrentWinStreak() != null ? user.getCurrentWinStreak() : 0);
-                    response.put("bestWinStreak", user.getBestWinStreak() != null ? user.getBestWinStreak() : 0);
-                    response.put("consecutivePlayDays", user.getConsecutivePlayDays() != null ? user.getConsecutivePlayDays() : 0);
-                    response.put("totalCoins", user.getCoins() != null ? user.getCoins() : 0);
-                }
+            if (saveResult.totals != null) {
+                response.put("currentWinStreak", saveResult.totals.getCurrentWinStreak());
+                response.put("bestWinStreak", saveResult.totals.getBestWinStreak());
+                response.put("consecutivePlayDays", saveResult.totals.getConsecutivePlayDays());
+                response.put("totalCoins", saveResult.totals.getCoins());
             }
 
             gameSessions.remove(compositeKey);
@@ -205,8 +159,7 @@ public class GameController {
     @PostMapping("/get-hint")
     public ResponseEntity<Map<String, Object>> getHint(
             @RequestParam String tabId,
-            @RequestParam(required = false) Long userId,
-            HttpSession session) {
+            @RequestParam(required = false) Long userId) {
 
         Map<String, Object> response = new HashMap<>();
 
@@ -217,8 +170,7 @@ public class GameController {
         }
 
         // Retrieve game session
-        String sessionId = session.getId();
-        String compositeKey = sessionId + ":" + tabId;
+        String compositeKey = sessionKey(userId, tabId);
         GameSession gameSession = gameSessions.get(compositeKey);
 
         if (gameSession == null) {
@@ -232,11 +184,12 @@ public class GameController {
             return ResponseEntity.badRequest().body(response);
         }
 
-        // Get target number digits
-        int[] targetDigits = getDigits(gameSession.getTargetNumber());
+        // Get target number digit count
+        int secretKey = gameSession.getSecretKey();
+        int digitCount = BullsCowsEngine.digitCount(secretKey);
 
         // Check if all positions already revealed
-        if (gameSession.getRevealedHints().size() >= targetDigits.length) {
+        if (gameSession.getRevealedHintCount() >= digitCount) {
             response.put("error", "All positions already revealed!");
             return ResponseEntity.badRequest().body(response);
         }
@@ -267,43 +220,126 @@ public class GameController {
             return ResponseEntity.badRequest().body(response);
         }
 
-        // Deduct coins
-        if (!user.deductCoins(hintCost)) {
-            response.put("error", "Failed to deduct coins!");
-            return ResponseEntity.badRequest().body(response);
-        }
-        userRepository.save(user);
-
         // Select random unrevealed position
         List<Integer> unrevealedPositions = new ArrayList<>();
-        for (int i = 0; i < targetDigits.length; i++) {
-            if (!gameSession.getRevealedHints().containsKey(i)) {
+        for (int i = 0; i < digitCount; i++) {
+            if (!gameSession.isHintRevealed(i)) {
                 unrevealedPositions.add(i);
             }
         }
 
         int randomIndex = new java.util.Random().nextInt(unrevealedPositions.size());
         int position = unrevealedPositions.get(randomIndex);
-        int digit = targetDigits[position];
 
-        // Record hint
-        gameSession.recordHint(position, digit);
+        // Deduct coins first (checked again by the UPDATE, in case another request spent them meanwhile)
+        Integer remainingCoins = userRepository.spendCoins(userId, hintCost);
+        if (remainingCoins == null) {
+            response.put("error", "Failed to deduct coins!");
+            return ResponseEntity.badRequest().body(response);
+        }
+
+        // Record hint; refunded if the session cannot be written back
+        int digit = gameSession.recordHint(position);
+        updateOrRefund(compositeKey, gameSession, userId, hintCost);
 
         // Build success response
         response.put("success", true);
         response.put("position", position);
         response.put("digit", digit);
         response.put("costPaid", hintCost);
-        response.put("remainingCoins", user.getCoins());
+        response.put("remainingCoins", remainingCoins);
+        response.put("hintsUsed", gameSession.getHintsUsed());
+
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/remaining-possibilities")
+    public ResponseEntity<Map<String, Object>> getRemainingPossibilities(@RequestParam String tabId,
+            @RequestParam(required = false) Long userId) {
+        Map<String, Object> response = new HashMap<>();
+
+        String compositeKey = sessionKey(userId, tabId);
+        GameSession gameSession = gameSessions.get(compositeKey);
+        if (gameSession == null) {
+            response.put("error", "Game session not found. Please start a new game!");
+            return ResponseEntity.badRequest().body(response);
+        }
+
+        SolverService.Analysis analysis = solverService.analyze(gameSession.getDifficulty(),
+                gameSession.getGuessHistory(), gameSession.getRevealedHintMask(), gameSession.getSecretKey(), false);
+
+        response.put("remaining", analysis.getRemaining());
+        response.put("attempts", gameSession.getAttemptsCount());
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/get-best-guess")
+    public ResponseEntity<Map<String, Object>> getBestGuess(
+            @RequestParam String tabId,
+            @RequestParam(required = false) Long userId) {
+
+        Map<String, Object> response = new HashMap<>();
+
+        // Suggestions are a paid hint, so they require login
+        if (userId == null) {
+            response.put("error", "Please log in to use hints!");
+            return ResponseEntity.badRequest().body(response);
+        }
+
+        String compositeKey = sessionKey(userId, tabId);
+        GameSession gameSession = gameSessions.get(compositeKey);
+        if (gameSession == null) {
+            response.put("error", "Game session not found. Please start a new game!");
+            return ResponseEntity.badRequest().body(response);
+        }
+
+        if (!userId.equals(gameSession.getUserId())) {
+            response.put("error", "Invalid session!");
+            return ResponseEntity.badRequest().body(response);
+        }
+
+        int cost = solverService.getSuggestionCost(gameSession.getDifficulty());
+        Optional<User> userOptional = userService.findById(userId);
+        if (userOptional.isEmpty()) {
+            response.put("error", "User not found!");
+            return ResponseEntity.badRequest().body(response);
+        }
+
+        User user = userOptional.get();
+        if (user.getCoins() < cost) {
+            response.put("error", "Not enough coins! Need " + cost + " coins.");
+            response.put("required", cost);
+            response.put("current", user.getCoins());
+            return ResponseEntity.badRequest().body(response);
+        }
+
+        SolverService.Analysis analysis = solverService.analyze(gameSession.getDifficulty(),
+                gameSession.getGuessHistory(), gameSession.getRevealedHintMask(), gameSession.getSecretKey(), true);
+
+        Integer remainingCoins = userRepository.spendCoins(userId, cost);
+        if (remainingCoins == null) {
+            response.put("error", "Failed to deduct coins!");
+            return ResponseEntity.badRequest().body(response);
+        }
+
+        // Counted like any other hint
+        gameSession.setHintsUsed(gameSession.getHintsUsed() + 1);
+        updateOrRefund(compositeKey, gameSession, userId, cost);
+
+        response.put("success", true);
+        response.put("suggestion", String.valueOf(analysis.getSuggestion()));
+        response.put("remaining", analysis.getRemaining());
+        response.put("costPaid", cost);
+        response.put("remainingCoins", remainingCoins);
         response.put("hintsUsed", gameSession.getHintsUsed());
 
         return ResponseEntity.ok(response);
     }
 
     @PostMapping("/end-game")
-    public ResponseEntity<String> endGame(@RequestParam String tabId, HttpSession session) {
-        String sessionId = session.getId();
-        String compositeKey = sessionId + ":" + tabId;
+    public ResponseEntity<String> endGame(@RequestParam String tabId,
+            @RequestParam(required = false) Long userId) {
+        String compositeKey = sessionKey(userId, tabId);
         GameSession gameSession = gameSessions.get(compositeKey);
 
         // Save game as lost if session exists
@@ -315,70 +351,57 @@ public class GameController {
         return ResponseEntity.ok("Game session ended");
     }
 
-    private int[] getDigits(int number) {
-        String numberString = String.valueOf(number);
-        int[] digits = new int[numberString.length()];
-        for (int i = 0; i < numberString.length(); i++) {
-            digits[i] = Character.getNumericValue(numberString.charAt(i));
+    /**
+     * Sessions are keyed by the server-issued tabId and the player it was started for,
+     * not the HTTP session, so any node sharing the store can serve the next request
+     */
+    private static String sessionKey(Long userId, String tabId) {
+        return (userId != null ? userId.toString() : "guest") + ":" + tabId;
+    }
+
+    /**
+     * Write back a session a paid hint changed; if that fails (another request changed
+     * the game meanwhile), give the coins back before the error reaches the player
+     */
+    private void updateOrRefund(String compositeKey, GameSession gameSession, Long userId, int cost) {
+        try {
+            gameSessions.update(compositeKey, gameSession);
+        } catch (RuntimeException e) {
+            userRepository.addCoins(userId, cost);
+            throw e;
         }
-        return digits;
     }
 
     private int generateUniqueDigitNumber(int difficulty) {
         int digitCount = (difficulty == DIFFICULTY_EASY) ? EASY_DIGITS : (difficulty == DIFFICULTY_MEDIUM) ? MEDIUM_DIGITS : HARD_DIGITS;
-        List<Integer> digits = new ArrayList<>();
-        for (int i = MIN_DIGIT; i <= MAX_DIGIT; i++) {
-            digits.add(i);
-        }
-        Collections.shuffle(digits);
-
-        StringBuilder numberBuilder = new StringBuilder();
-        for (int i = 0; i < digitCount; i++) {
-            if (i == 0 && digits.get(i) == MIN_DIGIT) {
-                // Swap with a non-zero digit if the first digit is 0
-                Collections.swap(digits, i, digits.indexOf(Collections.max(digits)));
-            }
-            numberBuilder.append(digits.get(i));
-        }
-
-        return Integer.parseInt(numberBuilder.toString());
+        return GameUtils.generateUniqueDigitNumber(digitCount);
     }
 
     // Inner class to hold game save results
     private static class GameSaveResult {
-        List<Achievement> newAchievements;
         int coinsAwarded;
+        GameWriteBehind.Totals totals;  // Null for guests
 
-        GameSaveResult(List<Achievement> achievements, int coins) {
-            this.newAchievements = achievements;
+        GameSaveResult(int coins, GameWriteBehind.Totals totals) {
             this.coinsAwarded = coins;
+            this.totals = totals;
         }
     }
 
     private GameSaveResult saveGameToDatabase(GameSession gameSession, boolean won) {
-        List<Achievement> newAchievements = new ArrayList<>();
-        int coinsAwarded = 0;
-
         // Only save if user is logged in
         if (gameSession.getUserId() == null) {
-            return new GameSaveResult(newAchievements, coinsAwarded);
-        }
-
-        Optional<User> userOptional = userService.findById(gameSession.getUserId());
-        if (userOptional.isEmpty()) {
-            return new GameSaveResult(newAchievements, coinsAwarded);
+            return new GameSaveResult(0, null);
         }
 
-        User user = userOptional.get();
-
         // Calculate time taken
         Duration duration = Duration.between(gameSession.getStartTime(), LocalDateTime.now());
         long seconds = duration.getSeconds();
         String timeTaken = String.format("%02d:%02d", seconds / 60, seconds % 60);
 
-        // Create and save game record
+        // Game record, written with the user's stats by the write-behind buffer
         Game game = new Game(
-                user,
+                null,
                 gameSession.getDifficulty(),
                 gameSession.getTargetNumber(),
                 gameSession.getAttemptsCount(),
@@ -386,25 +409,21 @@ public class GameController {
                 timeTaken,
                 gameSession.getHintsUsed()
         );
-        gameRepository.save(game);
-
-        // Update user stats
-        userService.updateUserStats(user.getId(), won, gameSession.getAttemptsCount());
+        game.setGuessData(gameSession.getGuessHistory().toBytes());
 
         // Award coins if won
+        int coinsAwarded = 0;
         if (won) {
-            coinsAwarded = userService.awardCoins(user.getId(), gameSession.getDifficulty());
+            antiCheatService.analyzeWin("practice", gameSession.getUserId(), gameSession.getDifficulty(),
+                    gameSession.getGuessHistory(), gameSession.getRevealedHintMask(), gameSession.getSecretKey());
+            coinsAwarded = UserService.coinsForDifficulty(gameSession.getDifficulty());
         }
 
-        // Check and unlock achievements
-        try {
-            newAchievements = achievementService.checkAndUnlockAchievements(user, game);
-        } catch (Exception e) {
-            // Don't fail game save if achievement check fails
-            // Silent failure - achievements will be checked on next game
+        GameWriteBehind.Totals totals = gameWriteBehind.record(gameSession.getUserId(), game, coinsAwarded);
+        if (totals == null) {
+            return new GameSaveResult(0, null);  // Account deleted
         }
-
-        return new GameSaveResult(newAchievements, coinsAwarded);
+        return new GameSaveResult(coinsAwarded, totals);
     }
 
 }
\ No newline at end of file
@@ -1,101 +1,209 @@
 package com.example.numberguessinggame;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Instant;
 import java.time.LocalDateTime;
-import java.util.HashMap;
-import java.util.Map;
+import java.time.ZoneId;
+import java.util.UUID;
 
+import com.example.numberguessinggame.session.FixedSizeSessionCodec;
+import com.example.numberguessinggame.session.SessionCodec;
+import com.example.numberguessinggame.util.BullsCowsEngine;
+import com.example.numberguessinggame.util.GuessHistory;
+
+/**
+ * Practice game in progress, packed into primitives.
+ *
+ * The target number, the revealed-hint position mask and the difficulty share one
+ * long; the tab id is kept as the two halves of its UUID and the start time as epoch
+ * milliseconds. Revealed digits are read back from the secret key, so a hint only
+ * costs a bit. Guesses are kept in a GuessHistory with their timing, one long each.
+ */
 public class GameSession {
-    private String tabId;
-    private int targetNumber;
-    private int difficulty;
-    private Long userId;
-    private LocalDateTime startTime;
+    private static final long NO_USER = 0L; // Database ids start at 1
+
+    // packed layout: bits 0-31 target number, 32-39 revealed positions, 40-47 difficulty
+    private static final int REVEALED_SHIFT = 32;
+    private static final int DIFFICULTY_SHIFT = 40;
+    private static final long TARGET_BITS = 0xFFFFFFFFL;
+    private static final long BYTE_BITS = 0xFFL;
+
+    private long tabIdHigh;
+    private long tabIdLow;
+    private long packed;
+    private int secretKey;
+    private long userId;
+    private long startTimeMillis;
     private int attemptsCount;
+    private GuessHistory guesses = new GuessHistory();
 
     // Hint system fields
     private int hintsUsed;
-    private Map<Integer, Integer> revealedHints; // position -> digit
     private static final int[] HINT_COSTS = {3, 5, 8, 12, 17, 23, 30, 38, 47, 57};
 
+    /**
+     * Fixed 48-byte binary form of everything but the guesses, for off-heap buffers
+     */
+    public static final FixedSizeSessionCodec<GameSession> RECORD = new FixedSizeSessionCodec<>() {
+        @Override
+        public int size() {
+            return 48;
+        }
+
+        @Override
+        public void write(GameSession session, ByteBuffer buffer) {
+            buffer.putLong(session.tabIdHigh)
+                    .putLong(session.tabIdLow)
+                    .putLong(session.packed)
+                    .putLong(session.userId)
+                    .putLong(session.startTimeMillis)
+                    .putInt(session.attemptsCount)
+                    .putInt(session.hintsUsed);
+        }
+
+        @Override
+        public GameSession read(ByteBuffer buffer) {
+            GameSession session = new GameSession();
+            session.tabIdHigh = buffer.getLong();
+            session.tabIdLow = buffer.getLong();
+            session.packed = buffer.getLong();
+            session.userId = buffer.getLong();
+            session.startTimeMillis = buffer.getLong();
+            session.attemptsCount = buffer.getInt();
+            session.hintsUsed = buffer.getInt();
+            session.updateSecretKey();
+            return session;
+        }
+    };
+
+    /**
+     * The 48-byte record followed by the guesses, for persistent session stores
+     */
+    public static final SessionCodec<GameSession> CODEC = new SessionCodec<>() {
+        @Override
+        public void write(GameSession session, DataOutput out) throws IOException {
+            out.write(RECORD.encode(session));
+            session.guesses.write(out);
+        }
+
+        @Override
+        public GameSession read(DataInput in) throws IOException {
+            GameSession session = RECORD.read(in);
+            session.guesses = GuessHistory.read(in);
+            return session;
+        }
+    };
+
+    /**
+     * @param tabId UUID generated by GameController
+     */
     public GameSession(String tabId, int targetNumber, int difficulty, Long userId) {
-        this.tabId = tabId;
-        this.targetNumber = targetNumber;
-        this.difficulty = difficulty;
-        this.userId = userId;
-        this.startTime = LocalDateTime.now();
+        this(UUID.fromString(tabId), targetNumber, difficulty, userId);
+    }
+
+    public GameSession(UUID tabId, int targetNumber, int difficulty, Long userId) {
+        this.tabIdHigh = tabId.getMostSignificantBits();
+        this.tabIdLow = tabId.getLeastSignificantBits();
+        this.packed = (targetNumber & TARGET_BITS) | ((difficulty & BYTE_BITS) << DIFFICULTY_SHIFT);
+        updateSecretKey();
+        setUserId(userId);
+        this.startTimeMillis = System.currentTimeMillis();
         this.attemptsCount = 0;
         this.hintsUsed = 0;
-        this.revealedHints = new HashMap<>();
+    }
+
+    private GameSession() {
     }
 
     /**
      * @return String return the tabId
      */
     public String getTabId() {
-        return tabId;
+        return new UUID(tabIdHigh, tabIdLow).toString();
     }
 
     /**
      * @param tabId the tabId to set
      */
     public void setTabId(String tabId) {
-        this.tabId = tabId;
+        UUID uuid = UUID.fromString(tabId);
+        this.tabIdHigh = uuid.getMostSignificantBits();
+        this.tabIdLow = uuid.getLeastSignificantBits();
     }
 
     /**
      * @return int return the targetNumber
      */
     public int getTargetNumber() {
-        return targetNumber;
+        return (int) (packed & TARGET_BITS);
     }
 
     /**
      * @param targetNumber the targetNumber to set
      */
     public void setTargetNumber(int targetNumber) {
-        this.targetNumber = targetNumber;
+        this.packed = (packed & ~TARGET_BITS) | (targetNumber & TARGET_BITS);
+        updateSecretKey();
+    }
+
+    /**
+     * @return int return the packed BullsCowsEngine key of the targetNumber
+     */
+    public int getSecretKey() {
+        return secretKey;
     }
 
     /**
      * @return int return the difficulty
      */
     public int getDifficulty() {
-        return difficulty;
+        return (int) ((packed >>> DIFFICULTY_SHIFT) & BYTE_BITS);
     }
 
     /**
      * @param difficulty the difficulty to set
      */
     public void setDifficulty(int difficulty) {
-        this.difficulty = difficulty;
+        this.packed = (packed & ~(BYTE_BITS << DIFFICULTY_SHIFT)) | ((difficulty & BYTE_BITS) << DIFFICULTY_SHIFT);
+        updateSecretKey();
     }
 
     /**
-     * @return Long return the userId
+     * @return Long return the userId, null for guests
      */
     public Long getUserId() {
-        return userId;
+        return userId == NO_USER ? null : userId;
     }
 
     /**
      * @param userId the userId to set
      */
     public void setUserId(Long userId) {
-        this.userId = userId;
+        this.userId = userId == null ? NO_USER : userId;
     }
 
     /**
      * @return LocalDateTime return the startTime
      */
     public LocalDateTime getStartTime() {
-        return startTime;
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(startTimeMillis), ZoneId.systemDefault());
     }
 
     /**
      * @param startTime the startTime to set
      */
     public void setStartTime(LocalDateTime startTime) {
-        this.startTime = startTime;
+        this.startTimeMillis = startTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    /**
+     * @return long return the start time in epoch milliseconds
+     */
+    public long getStartTimeMillis() {
+        return startTimeMillis;
     }
 
     /**
@@ -119,6 +227,23 @@ public class GameSession {
         this.attemptsCount++;
     }
 
+    /**
+     * Record a scored guess, timed from the start of the game, and count the attempt
+     * @param guess the validated guess
+     * @param result the packed BullsCowsEngine result
+     */
+    public void recordGuess(String guess, int result) {
+        guesses.add(guess, result, System.currentTimeMillis() - startTimeMillis);
+        attemptsCount++;
+    }
+
+    /**
+     * @return GuessHistory return the guesses made so far
+     */
+    public GuessHistory getGuessHistory() {
+        return guesses;
+    }
+
     /**
      * @return int return the hintsUsed
      */
@@ -134,17 +259,25 @@ public class GameSession {
     }
 
     /**
-     * @return Map<Integer, Integer> return the revealedHints
+     * @return int return the revealed positions as a bit mask (bit 0 = leftmost digit)
      */
-    public Map<Integer, Integer> getRevealedHints() {
-        return revealedHints;
+    public int getRevealedHintMask() {
+        return (int) ((packed >>> REVEALED_SHIFT) & BYTE_BITS);
     }
 
     /**
-     * @param revealedHints the revealedHints to set
+     * @return int return how many positions have been revealed
      */
-    public void setRevealedHints(Map<Integer, Integer> revealedHints) {
-        this.revealedHints = revealedHints;
+    public int getRevealedHintCount() {
+        return Integer.bitCount(getRevealedHintMask());
+    }
+
+    /**
+     * @param position the position in the code (0-indexed)
+     * @return boolean whether a hint already revealed this position
+     */
+    public boolean isHintRevealed(int position) {
+        return (getRevealedHintMask() & (1 << position)) != 0;
     }
 
     /**
@@ -162,11 +295,16 @@ public class GameSession {
     /**
      * Record a hint that was revealed to the player
      * @param position the position in the code that was revealed (0-indexed)
-     * @param digit the digit at that position
+     * @return int the digit at that position
      */
-    public void recordHint(int position, int digit) {
-        revealedHints.put(position, digit);
+    public int recordHint(int position) {
+        packed |= (1L << position) << REVEALED_SHIFT;
         hintsUsed++;
+        return BullsCowsEngine.digitAt(secretKey, position);
+    }
+
+    private void updateSecretKey() {
+        this.secretKey = BullsCowsEngine.encodeSecret(getTargetNumber(), getDifficulty() + 3);
     }
 
 }
@@ -1,11 +1,16 @@
 package com.example.numberguessinggame;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.config.Customizer;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.security.provisioning.InMemoryUserDetailsManager;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.csrf.CookieCsrfTokenRepository;
 
@@ -13,14 +18,26 @@ import org.springframework.security.web.csrf.CookieCsrfTokenRepository;
 @EnableWebSecurity
 public class SecurityConfig {
 
+    // Account for the actuator endpoints other than health; none if either is empty
+    @Value("${actuator.username:}")
+    private String actuatorUsername;
+
+    @Value("${actuator.password:}")
+    private String actuatorPassword;
+
     @Bean
     public SecurityFilterChain securityFilterChain(HttpSecurity http) throws Exception {
         http
             // Allow all requests without authentication (since this is a simple game)
             // This includes WebSocket endpoints (/ws/**) for multiplayer functionality
             .authorizeHttpRequests(authorize -> authorize
+                // Metrics expose traffic and internals: actuator account only
+                .requestMatchers("/actuator/health/**").permitAll()
+                .requestMatchers("/actuator/**").hasRole("ACTUATOR")
                 .anyRequest().permitAll()
             )
+            // Only used by the actuator account; players authenticate with JWTs
+            .httpBasic(Customizer.withDefaults())
             // Disable CSRF protection for this simple game application
             // CSRF is not needed as there are no sensitive operations
             .csrf(csrf -> csrf.disable());
@@ -32,4 +49,16 @@ public class SecurityConfig {
     public PasswordEncoder passwordEncoder() {
         return new BCryptPasswordEncoder();
     }
+
+    @Bean
+    public UserDetailsService actuatorUsers(PasswordEncoder passwordEncoder) {
+        InMemoryUserDetailsManager users = new InMemoryUserDetailsManager();
+        if (!actuatorUsername.isBlank() && !actuatorPassword.isBlank()) {
+            users.createUser(User.withUsername(actuatorUsername)
+                    .password(passwordEncoder.encode(actuatorPassword))
+                    .roles("ACTUATOR")
+                    .build());
+        }
+        return users;
+    }
 }
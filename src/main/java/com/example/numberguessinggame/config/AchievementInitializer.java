@@ -3,7 +3,13 @@ package com.example.numberguessinggame.config;
 import com.example.numberguessinggame.entity.Achievement;
 import com.example.numberguessinggame.entity.Achievement.AchievementCategory;
 import com.example.numberguessinggame.entity.Achievement.AchievementType;
+import com.example.numberguessinggame.entity.UserGameStats;
 import com.example.numberguessinggame.repository.AchievementRepository;
+import com.example.numberguessinggame.service.AchievementCatalog;
+import com.example.numberguessinggame.service.AchievementContext;
+import com.example.numberguessinggame.service.AchievementRule;
+import com.example.numberguessinggame.service.AchievementRuleRegistry;
+import com.example.numberguessinggame.service.AchievementTrigger;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,6 +17,10 @@ import org.springframework.boot.ApplicationArguments;
 import org.springframework.boot.ApplicationRunner;
 import org.springframework.stereotype.Component;
 
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.function.BiPredicate;
+
 @Component
 public class AchievementInitializer implements ApplicationRunner {
 
@@ -19,9 +29,94 @@ public class AchievementInitializer implements ApplicationRunner {
     @Autowired
     private AchievementRepository achievementRepository;
 
+    @Autowired
+    private AchievementRuleRegistry achievementRuleRegistry;
+
+    @Autowired
+    private AchievementCatalog achievementCatalog;
+
     @Override
     public void run(ApplicationArguments args) throws Exception {
+        registerRules();
         initializeAchievements();
+
+        // Definitions are settled, take the in-memory snapshot
+        achievementCatalog.refresh();
+    }
+
+    /**
+     * Register the unlock rule for every achievement code.
+     * Triggers keep a game from evaluating rules it cannot possibly satisfy.
+     */
+    private void registerRules() {
+        Set<AchievementTrigger> anyGame = EnumSet.of(AchievementTrigger.GAME_FINISHED);
+        Set<AchievementTrigger> win = EnumSet.of(AchievementTrigger.WIN);
+        Set<AchievementTrigger> perfectWin = EnumSet.of(AchievementTrigger.PERFECT_WIN);
+        Set<AchievementTrigger> fastWin = EnumSet.of(AchievementTrigger.FAST_WIN);
+        Set<AchievementTrigger> hardWin = EnumSet.of(AchievementTrigger.HARD_WIN);
+        Set<AchievementTrigger> comebackWin = EnumSet.of(AchievementTrigger.COMEBACK_WIN);
+
+        // Milestones use the catalogue threshold
+        for (String code : new String[]{"GETTING_STARTED", "DEDICATED_PLAYER", "CENTURY_CLUB", "LEGEND"}) {
+            register(code, anyGame, (achievement, ctx) -> ctx.getUser().getTotalGames() != null &&
+                    ctx.getUser().getTotalGames() >= achievement.getThresholdValue());
+        }
+        for (String code : new String[]{"FIRST_WIN", "FIVE_WINS", "TWENTY_WINS", "FIFTY_WINS", "HUNDRED_WINS"}) {
+            register(code, win, (achievement, ctx) -> ctx.getUser().getTotalWins() != null &&
+                    ctx.getUser().getTotalWins() >= achievement.getThresholdValue());
+        }
+
+        // Attempts
+        register("PERFECT_SCORE", perfectWin, (achievement, ctx) -> ctx.getGame().getAttempts() <= 3);
+        register("EARLY_BIRD_VICTORY", perfectWin, (achievement, ctx) -> ctx.getGame().getAttempts() <= 3);
+        register("MIRACLE_GUESS", perfectWin, (achievement, ctx) -> ctx.getGame().getAttempts() == 1);
+        register("TWO_GUESS_WONDER", perfectWin, (achievement, ctx) -> ctx.getGame().getAttempts() == 2);
+        register("PERFECT_TRIFECTA", perfectWin, (achievement, ctx) -> ctx.getStats().getPerfectWinRun() >= 3);
+        register("EFFICIENT_PLAYER", win, (achievement, ctx) -> ctx.getStats().getEfficientWins() >= 10);
+        register("CLOSE_CALL", win, (achievement, ctx) -> ctx.getGame().getAttempts() == 10);
+        register("LUCKY_SEVEN", win, (achievement, ctx) -> ctx.getGame().getAttempts() == 7);
+
+        // Time taken
+        register("SPEED_RUNNER", fastWin, (achievement, ctx) -> ctx.getGameSeconds() < 120);
+        register("LIGHTNING_FAST", fastWin, (achievement, ctx) -> ctx.getGameSeconds() < 60);
+        register("INSTANT_WIN", fastWin, (achievement, ctx) -> ctx.getGameSeconds() < 30);
+        register("TIME_ATTACK_MASTER", fastWin, (achievement, ctx) -> ctx.getStats().getFastWins() >= 10);
+
+        // Time of day
+        register("MORNING_GLORY", win, (achievement, ctx) -> ctx.getStats().getMorningWins() >= 5);
+        register("MIDNIGHT_WARRIOR", win, (achievement, ctx) -> ctx.getStats().getMidnightWins() >= 5);
+        register("LUNCH_BREAK_PRO", win, (achievement, ctx) -> ctx.getStats().getLunchWins() >= 5);
+        register("EVENING_EXPERT", win, (achievement, ctx) -> ctx.getStats().getEveningWins() >= 5);
+
+        // Streaks and comebacks
+        register("CONSISTENCY_KING", win, (achievement, ctx) -> bestWinStreak(ctx) >= 5);
+        register("UNSTOPPABLE_STREAK", win, (achievement, ctx) -> bestWinStreak(ctx) >= 10);
+        register("COMEBACK_VICTORY", comebackWin, (achievement, ctx) -> ctx.getStats().getLossesBeforeLastWin() >= 3);
+        register("PHOENIX_RISING", comebackWin, (achievement, ctx) -> ctx.getStats().getLossesBeforeLastWin() >= 5);
+
+        // Difficulty
+        register("HARD_MODE_WIN", hardWin, (achievement, ctx) -> ctx.getGame().getDifficulty() == 2);
+        register("HARD_MODE_EXPERT", hardWin, (achievement, ctx) -> ctx.getStats().getHardWins() >= 10);
+        register("HARD_MODE_MASTER", hardWin, (achievement, ctx) -> ctx.getStats().getHardWins() >= 50);
+        register("MIXED_MASTER", win, (achievement, ctx) -> winsOnEveryDifficulty(ctx.getStats(), 1));
+        register("DIFFICULTY_BALANCED", win, (achievement, ctx) -> winsOnEveryDifficulty(ctx.getStats(), 10));
+
+        logger.info("Registered {} achievement rules", achievementRuleRegistry.getAllRules().size());
+    }
+
+    private void register(String code, Set<AchievementTrigger> triggers,
+                          BiPredicate<Achievement, AchievementContext> condition) {
+        achievementRuleRegistry.register(new AchievementRule(code, triggers, condition));
+    }
+
+    private static int bestWinStreak(AchievementContext ctx) {
+        Integer current = ctx.getUser().getCurrentWinStreak();
+        Integer best = ctx.getUser().getBestWinStreak();
+        return Math.max(current != null ? current : 0, best != null ? best : 0);
+    }
+
+    private static boolean winsOnEveryDifficulty(UserGameStats stats, int minimum) {
+        return stats.getEasyWins() >= minimum && stats.getMediumWins() >= minimum && stats.getHardWins() >= minimum;
     }
 
     private void initializeAchievements() {
@@ -0,0 +1,62 @@
+package com.example.numberguessinggame.config;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.apache.activemq.artemis.core.config.Configuration;
+import org.apache.activemq.artemis.core.config.impl.ConfigurationImpl;
+import org.apache.activemq.artemis.core.server.embedded.EmbeddedActiveMQ;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Stand-in for the external STOMP broker (websocket.broker.embedded): an ActiveMQ
+ * Artemis broker inside this JVM, listening where the relay connects, so relay mode
+ * can be run and tested without installing a broker. Nothing is persisted.
+ *
+ * Destinations are created on first use as publish-subscribe addresses, so /queue
+ * destinations behave as with the in-memory broker: a message nobody is subscribed to
+ * is dropped rather than kept for later. To try several nodes, start one with the
+ * embedded broker and point the others' websocket.broker.relay.host at it.
+ *
+ * Only created when websocket.broker.embedded is true, so the Artemis jars are not
+ * needed otherwise.
+ */
+@Component
+@ConditionalOnProperty(name = "websocket.broker.embedded", havingValue = "true")
+public class EmbeddedStompBroker {
+
+    private static final Logger logger = LoggerFactory.getLogger(EmbeddedStompBroker.class);
+
+    @Value("${websocket.broker.relay.host:localhost}")
+    private String host;
+
+    @Value("${websocket.broker.relay.port:61613}")
+    private int port;
+
+    private EmbeddedActiveMQ broker;
+
+    /**
+     * Started before the relay, which connects once the application context is up
+     */
+    @PostConstruct
+    public void start() throws Exception {
+        Configuration configuration = new ConfigurationImpl()
+                .setPersistenceEnabled(false)
+                .setSecurityEnabled(false)
+                .setJMXManagementEnabled(false)
+                .addAcceptorConfiguration("stomp", "tcp://" + host + ":" + port + "?protocols=STOMP");
+
+        broker = new EmbeddedActiveMQ();
+        broker.setConfiguration(configuration);
+        broker.start();
+        logger.info("Embedded STOMP broker listening on {}:{}", host, port);
+    }
+
+    @PreDestroy
+    public void stop() throws Exception {
+        broker.stop();
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.numberguessinggame.config;
+
+import com.example.numberguessinggame.GameSession;
+import com.example.numberguessinggame.controller.DailyChallengeController;
+import com.example.numberguessinggame.controller.DailyChallengeController.DailyChallengeSession;
+import com.example.numberguessinggame.controller.SurvivalController;
+import com.example.numberguessinggame.controller.SurvivalController.SurvivalGameSession;
+import com.example.numberguessinggame.controller.TimeAttackController;
+import com.example.numberguessinggame.controller.TimeAttackController.TimeAttackGameSession;
+import com.example.numberguessinggame.service.MultiplayerService.ActiveGameSession;
+import com.example.numberguessinggame.session.GameSessionStore;
+import com.example.numberguessinggame.session.InMemorySessionStore;
+import com.example.numberguessinggame.session.InMemorySessionStoreProvider;
+import com.example.numberguessinggame.session.JdbcSessionStoreProvider;
+import com.example.numberguessinggame.session.SessionCodecs;
+import com.example.numberguessinggame.session.SessionStoreProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.Duration;
+
+/**
+ * Session stores of the game modes, one bean each, injected where the mode's sessions
+ * are handled.
+ *
+ * game.sessions.store chooses where in-progress sessions live: "memory" keeps them in
+ * this JVM, "jdbc" keeps them in the game_sessions table so they survive restarts and
+ * any node can serve any game.
+ */
+@Configuration
+public class SessionStoreConfig {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionStoreConfig.class);
+
+    private static final Duration PRACTICE_IDLE_TTL = Duration.ofMinutes(30);  // Matches the HTTP session timeout
+    private static final Duration MULTIPLAYER_TTL = Duration.ofMinutes(40);  // Past the 30-minute abandon cutoff
+    private static final Duration EXPIRED_SESSION_GRACE = Duration.ofMinutes(10);  // Timed modes report the final score meanwhile
+    private static final Duration DAILY_ATTEMPTS_TTL = Duration.ofDays(2);  // Until the day is over
+    private static final int MAX_PRACTICE_SESSIONS = 100000;
+    private static final int MAX_SESSIONS = 50000;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${game.sessions.store:memory}")
+    private String storeType;
+
+    private InMemorySessionStoreProvider memoryProvider;
+    private JdbcSessionStoreProvider jdbcProvider;
+
+    @Bean
+    public SessionStoreProvider sessionStoreProvider() {
+        switch (storeType) {
+            case "memory" -> {
+                memoryProvider = new InMemorySessionStoreProvider();
+                logger.info("Game sessions are kept in memory");
+                return memoryProvider;
+            }
+            case "jdbc" -> {
+                jdbcProvider = new JdbcSessionStoreProvider(jdbcTemplate);
+                logger.info("Game sessions are kept in the game_sessions table");
+                return jdbcProvider;
+            }
+            default -> throw new IllegalArgumentException("Unknown game.sessions.store: " + storeType);
+        }
+    }
+
+    /**
+     * Practice tabs; abandoned ones expire after PRACTICE_IDLE_TTL without a request
+     */
+    @Bean
+    public GameSessionStore<GameSession> practiceSessions(SessionStoreProvider provider) {
+        return new GameSessionStore<>(provider, "practice", GameSession.CODEC, PRACTICE_IDLE_TTL, true,
+                MAX_PRACTICE_SESSIONS);
+    }
+
+    @Bean
+    public GameSessionStore<ActiveGameSession> multiplayerSessions(SessionStoreProvider provider) {
+        return new GameSessionStore<>(provider, "multiplayer", ActiveGameSession.CODEC, MULTIPLAYER_TTL, false,
+                MAX_SESSIONS);
+    }
+
+    @Bean
+    public GameSessionStore<TimeAttackGameSession> timeAttackSessions(SessionStoreProvider provider) {
+        Duration ttl = Duration.ofMillis(TimeAttackController.SESSION_DURATION_MS).plus(EXPIRED_SESSION_GRACE);
+        return new GameSessionStore<>(provider, "time-attack", TimeAttackGameSession.CODEC, ttl, false, MAX_SESSIONS);
+    }
+
+    @Bean
+    public GameSessionStore<SurvivalGameSession> survivalSessions(SessionStoreProvider provider) {
+        Duration ttl = Duration.ofMillis(SurvivalController.SESSION_DURATION_MS).plus(EXPIRED_SESSION_GRACE);
+        return new GameSessionStore<>(provider, "survival", SurvivalGameSession.CODEC, ttl, false, MAX_SESSIONS);
+    }
+
+    @Bean
+    public GameSessionStore<DailyChallengeSession> dailySessions(SessionStoreProvider provider) {
+        Duration ttl = Duration.ofMillis(DailyChallengeController.SESSION_DURATION_MS);
+        return new GameSessionStore<>(provider, "daily", DailyChallengeSession.CODEC, ttl, false, MAX_SESSIONS);
+    }
+
+    /**
+     * Cumulative attempts per user per day (userId-date -> attempts)
+     */
+    @Bean
+    public GameSessionStore<Integer> dailyAttempts(SessionStoreProvider provider) {
+        return new GameSessionStore<>(provider, "daily-attempts", SessionCodecs.INT, DAILY_ATTEMPTS_TTL, false,
+                MAX_SESSIONS);
+    }
+
+    /**
+     * Move the in-memory stores' expiry wheels on; reads skip expired sessions meanwhile
+     */
+    @Scheduled(fixedRate = InMemorySessionStore.TICK_MS)
+    public void expireMemorySessions() {
+        if (memoryProvider != null) {
+            memoryProvider.tick();
+        }
+    }
+
+    /**
+     * Delete expired sessions every minute (in memory see expireMemorySessions)
+     */
+    @Scheduled(fixedRate = 60000)
+    public void purgeExpiredSessions() {
+        if (jdbcProvider == null) {
+            return;
+        }
+        try {
+            int deleted = jdbcProvider.purgeExpired();
+            if (deleted > 0) {
+                logger.debug("Purged {} expired game sessions", deleted);
+            }
+        } catch (Exception e) {
+            logger.warn("Failed to purge expired game sessions: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package com.example.numberguessinggame.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Thread pools of the client inbound channel (frames from browsers to the broker and
+ * @MessageMapping methods) and outbound channel (frames to browsers), with their
+ * metrics and the handling of clients that read too slowly.
+ *
+ * A client that stops reading is disconnected by the transport once a send to it
+ * takes longer than websocket.transport.send-time-limit-ms or its buffer outgrows
+ * websocket.transport.send-buffer-size-limit (see WebSocketConfig). Before that, once
+ * websocket.outbound.max-pending-per-session messages to one session are waiting for
+ * the outbound pool, further messages to it are dropped, so one laggard does not fill
+ * the queue everyone else is waiting in. Multiplayer game state and challenges are
+ * never dropped: a client that misses one cannot catch up without reloading, so they
+ * are queued regardless and a client too slow for them is disconnected instead.
+ *
+ * With websocket.virtual-threads the pools run on virtual threads where the JVM has
+ * them (Java 21 and later), and on platform threads otherwise.
+ */
+@Component
+public class WebSocketChannels {
+
+    private static final Logger logger = LoggerFactory.getLogger(WebSocketChannels.class);
+
+    // Destinations whose messages are delivered however far behind the session is
+    private static final List<String> NEVER_DROPPED = List.of("/queue/game.", "/queue/challenges.");
+
+    // System.nanoTime() when a message was queued for its session; never written to the client
+    static final String QUEUED_AT_HEADER = "wsQueuedAt";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${websocket.inbound.core-pool-size:8}")
+    private int inboundCorePoolSize;
+
+    @Value("${websocket.inbound.max-pool-size:32}")
+    private int inboundMaxPoolSize;
+
+    @Value("${websocket.inbound.queue-capacity:10000}")
+    private int inboundQueueCapacity;
+
+    @Value("${websocket.outbound.core-pool-size:8}")
+    private int outboundCorePoolSize;
+
+    @Value("${websocket.outbound.max-pool-size:32}")
+    private int outboundMaxPoolSize;
+
+    @Value("${websocket.outbound.queue-capacity:10000}")
+    private int outboundQueueCapacity;
+
+    @Value("${websocket.outbound.max-pending-per-session:500}")
+    private int maxPendingPerSession;
+
+    @Value("${websocket.virtual-threads:false}")
+    private boolean virtualThreads;
+
+    // Threads per pool on virtual threads, where blocking is cheap
+    @Value("${websocket.virtual-threads.pool-size:1000}")
+    private int virtualPoolSize;
+
+    private final ThreadPoolTaskExecutor inboundExecutor = new ThreadPoolTaskExecutor();
+    private final ThreadPoolTaskExecutor outboundExecutor = new ThreadPoolTaskExecutor();
+
+    // Messages per session handed to the outbound channel and not yet written
+    private final Map<String, Integer> pendingBySession = new ConcurrentHashMap<>();
+
+    private Counter dropped;
+    private Counter slowDisconnects;
+    private Timer sendLatency;
+
+    /**
+     * Set up the executors; the channels initialize them when they are created
+     */
+    @PostConstruct
+    public void configure() {
+        boolean virtual = virtualThreads && configureVirtual(inboundExecutor, "ws-inbound-")
+                && configureVirtual(outboundExecutor, "ws-outbound-");
+        if (!virtual) {
+            if (virtualThreads) {
+                logger.warn("Virtual threads are not available on Java {}; WebSocket channels use platform threads",
+                        Runtime.version().feature());
+            }
+            configurePlatform(inboundExecutor, "ws-inbound-", inboundCorePoolSize, inboundMaxPoolSize);
+            configurePlatform(outboundExecutor, "ws-outbound-", outboundCorePoolSize, outboundMaxPoolSize);
+        }
+        inboundExecutor.setQueueCapacity(inboundQueueCapacity);
+        outboundExecutor.setQueueCapacity(outboundQueueCapacity);
+
+        registerMetrics("inbound", inboundExecutor);
+        registerMetrics("outbound", outboundExecutor);
+        dropped = Counter.builder("websocket.outbound.dropped")
+                .description("Messages dropped for sessions too far behind")
+                .register(meterRegistry);
+        slowDisconnects = Counter.builder("websocket.sessions.slow.disconnected")
+                .description("Sessions closed for exceeding the send time or buffer limit")
+                .register(meterRegistry);
+        sendLatency = Timer.builder("websocket.outbound.latency")
+                .description("Time from a message being queued for its session to being written to it")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+
+        logger.info("WebSocket channels on {} threads", virtual ? "virtual" : "platform");
+    }
+
+    public ThreadPoolTaskExecutor getInboundExecutor() {
+        return inboundExecutor;
+    }
+
+    public ThreadPoolTaskExecutor getOutboundExecutor() {
+        return outboundExecutor;
+    }
+
+    /**
+     * Interceptor for the outbound channel: drops messages to laggards and times sends.
+     * Messages carry no timestamp by default, so the time they were queued is stamped
+     * on the message handed to the executor.
+     */
+    public ExecutorChannelInterceptor getOutboundInterceptor() {
+        return new ExecutorChannelInterceptor() {
+            @Override
+            public Message<?> preSend(Message<?> message, MessageChannel channel) {
+                String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+                if (sessionId == null) {
+                    return message;
+                }
+                // Only subscription messages; connect acknowledgements and errors always go through
+                if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) == SimpMessageType.MESSAGE
+                        && pendingBySession.getOrDefault(sessionId, 0) >= maxPendingPerSession
+                        && droppable(message)) {
+                    dropped.increment();
+                    return null;
+                }
+                pendingBySession.merge(sessionId, 1, Integer::sum);
+                return MessageBuilder.fromMessage(message).setHeader(QUEUED_AT_HEADER, System.nanoTime()).build();
+            }
+
+            @Override
+            public void afterSendCompletion(Message<?> message, MessageChannel channel, boolean sent, Exception ex) {
+                if (!sent) {
+                    // Rejected by the executor, never handled
+                    handled(message);
+                }
+            }
+
+            @Override
+            public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler,
+                                            Exception ex) {
+                handled(message);
+                Long queuedAt = message.getHeaders().get(QUEUED_AT_HEADER, Long.class);
+                if (queuedAt != null) {
+                    sendLatency.record(System.nanoTime() - queuedAt, TimeUnit.NANOSECONDS);
+                }
+            }
+        };
+    }
+
+    /**
+     * Count sessions the transport closed for reading too slowly
+     */
+    @EventListener
+    public void handleSessionDisconnect(SessionDisconnectEvent event) {
+        CloseStatus status = event.getCloseStatus();
+        if (status != null && status.getCode() == CloseStatus.SESSION_NOT_RELIABLE.getCode()) {
+            slowDisconnects.increment();
+            logger.warn("Closed WebSocket session {}: client not keeping up with its messages", event.getSessionId());
+        }
+    }
+
+    private static boolean droppable(Message<?> message) {
+        String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+        if (destination == null) {
+            return true;
+        }
+        for (String prefix : NEVER_DROPPED) {
+            if (destination.startsWith(prefix)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void handled(Message<?> message) {
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        if (sessionId != null) {
+            pendingBySession.computeIfPresent(sessionId, (id, pending) -> pending > 1 ? pending - 1 : null);
+        }
+    }
+
+    private void configurePlatform(ThreadPoolTaskExecutor executor, String prefix, int corePoolSize, int maxPoolSize) {
+        executor.setThreadNamePrefix(prefix);
+        executor.setCorePoolSize(corePoolSize);
+        executor.setMaxPoolSize(maxPoolSize);
+        executor.setKeepAliveSeconds(60);
+    }
+
+    /**
+     * One virtual thread per running task, up to the pool size, ended when idle
+     *
+     * @return False if this JVM has no virtual threads
+     */
+    private boolean configureVirtual(ThreadPoolTaskExecutor executor, String prefix) {
+        ThreadFactory factory = virtualThreadFactory(prefix);
+        if (factory == null) {
+            return false;
+        }
+        executor.setThreadFactory(factory);
+        executor.setCorePoolSize(virtualPoolSize);
+        executor.setMaxPoolSize(virtualPoolSize);
+        executor.setKeepAliveSeconds(10);
+        executor.setAllowCoreThreadTimeOut(true);
+        return true;
+    }
+
+    /**
+     * Thread.ofVirtual().name(prefix, 0).factory(), looked up at runtime since the
+     * build targets Java 17
+     */
+    private static ThreadFactory virtualThreadFactory(String prefix) {
+        try {
+            Class<?> builderType = Class.forName("java.lang.Thread$Builder");
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null);
+            builder = builderType.getMethod("name", String.class, long.class).invoke(builder, prefix, 0L);
+            return (ThreadFactory) builderType.getMethod("factory").invoke(builder);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+
+    private void registerMetrics(String channel, ThreadPoolTaskExecutor executor) {
+        Gauge.builder("websocket.channel.queued", executor, WebSocketChannels::queued)
+                .description("Messages waiting for a channel thread")
+                .tag("channel", channel)
+                .register(meterRegistry);
+        Gauge.builder("websocket.channel.active", executor, WebSocketChannels::active)
+                .description("Channel threads handling a message")
+                .tag("channel", channel)
+                .register(meterRegistry);
+    }
+
+    private static double queued(ThreadPoolTaskExecutor executor) {
+        ThreadPoolExecutor pool = pool(executor);
+        return pool != null ? pool.getQueue().size() : 0;
+    }
+
+    private static double active(ThreadPoolTaskExecutor executor) {
+        ThreadPoolExecutor pool = pool(executor);
+        return pool != null ? pool.getActiveCount() : 0;
+    }
+
+    private static ThreadPoolExecutor pool(ThreadPoolTaskExecutor executor) {
+        try {
+            return executor.getThreadPoolExecutor();
+        } catch (IllegalStateException notInitialized) {
+            return null;
+        }
+    }
+}
@@ -1,31 +1,101 @@
 package com.example.numberguessinggame.config;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.http.server.ServerHttpRequest;
 import org.springframework.http.server.ServerHttpResponse;
 import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.messaging.simp.config.StompBrokerRelayRegistration;
+import org.springframework.scheduling.TaskScheduler;
 import org.springframework.web.socket.WebSocketHandler;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
 import org.springframework.web.socket.server.HandshakeInterceptor;
+import org.springframework.web.socket.server.support.DefaultHandshakeHandler;
 import com.example.numberguessinggame.service.JwtUtil;
 
+import java.security.Principal;
 import java.util.Map;
 
 /**
  * WebSocket configuration for multiplayer real-time communication
  * Enables STOMP over WebSocket with SockJS fallback
+ *
+ * The broker (websocket.broker.mode) is either "simple", in memory, which only
+ * reaches clients connected to this JVM, or "relay", which forwards /topic and /queue
+ * to an external STOMP broker (RabbitMQ, ActiveMQ Artemis) shared by every node, so a
+ * notification sent on one node reaches a player connected to another.
  */
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private static final Logger logger = LoggerFactory.getLogger(WebSocketConfig.class);
+
     @Autowired
     private JwtUtil jwtUtil;
 
+    // Created by the message broker configuration itself, hence lazy
+    @Autowired
+    @Lazy
+    @Qualifier("messageBrokerTaskScheduler")
+    private TaskScheduler messageBrokerTaskScheduler;
+
+    @Value("${websocket.broker.mode:simple}")
+    private String brokerMode;
+
+    @Value("${websocket.broker.relay.host:localhost}")
+    private String relayHost;
+
+    @Value("${websocket.broker.relay.port:61613}")
+    private int relayPort;
+
+    @Value("${websocket.broker.relay.login:guest}")
+    private String relayLogin;
+
+    @Value("${websocket.broker.relay.passcode:guest}")
+    private String relayPasscode;
+
+    @Value("${websocket.broker.relay.virtual-host:}")
+    private String relayVirtualHost;
+
+    @Value("${websocket.broker.heartbeat.send-ms:10000}")
+    private long heartbeatSendMs;
+
+    @Value("${websocket.broker.heartbeat.receive-ms:10000}")
+    private long heartbeatReceiveMs;
+
+    // 0: messages from the application reach the broker on the sending thread
+    @Value("${websocket.broker.channel.pool-size:0}")
+    private int brokerChannelPoolSize;
+
+    @Value("${websocket.broker.channel.queue-capacity:1000}")
+    private int brokerChannelQueueCapacity;
+
+    @Autowired
+    private WebSocketChannels webSocketChannels;
+
+    @Value("${websocket.transport.message-size-limit:65536}")
+    private int messageSizeLimit;
+
+    @Value("${websocket.transport.send-buffer-size-limit:262144}")
+    private int sendBufferSizeLimit;
+
+    @Value("${websocket.transport.send-time-limit-ms:5000}")
+    private int sendTimeLimitMs;
+
+    @Value("${websocket.transport.time-to-first-message-ms:30000}")
+    private int timeToFirstMessageMs;
+
     /**
      * Configure message broker for pub/sub messaging
      * - /topic: broadcast messages to multiple subscribers
@@ -34,8 +104,46 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
      */
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        // Enable simple in-memory message broker with /topic and /queue prefixes
-        config.enableSimpleBroker("/topic", "/queue");
+        switch (brokerMode) {
+            case "simple" -> {
+                // Enable simple in-memory message broker with /topic and /queue prefixes
+                config.enableSimpleBroker("/topic", "/queue")
+                        .setHeartbeatValue(new long[] {heartbeatSendMs, heartbeatReceiveMs})
+                        .setTaskScheduler(messageBrokerTaskScheduler);
+                logger.info("WebSocket messages go through the in-memory broker");
+            }
+            case "relay" -> {
+                // Clients' heartbeats are negotiated with the broker itself; these are for
+                // the shared connection the application sends on
+                StompBrokerRelayRegistration relay = config.enableStompBrokerRelay("/topic", "/queue")
+                        .setRelayHost(relayHost)
+                        .setRelayPort(relayPort)
+                        .setClientLogin(relayLogin)
+                        .setClientPasscode(relayPasscode)
+                        .setSystemLogin(relayLogin)
+                        .setSystemPasscode(relayPasscode)
+                        .setSystemHeartbeatSendInterval(heartbeatSendMs)
+                        .setSystemHeartbeatReceiveInterval(heartbeatReceiveMs);
+                if (!relayVirtualHost.isEmpty()) {
+                    relay.setVirtualHost(relayVirtualHost);
+                }
+                // /user destinations reach users connected to other nodes
+                relay.setUserDestinationBroadcast("/topic/unresolved-user")
+                        .setUserRegistryBroadcast("/topic/user-registry");
+                logger.info("WebSocket messages are relayed to the STOMP broker at {}:{}", relayHost, relayPort);
+            }
+            default -> throw new IllegalArgumentException("Unknown websocket.broker.mode: " + brokerMode);
+        }
+
+        // Hand messages to the broker on a pool instead, so a slow broker connection
+        // does not hold up request threads; messages to one destination may then be
+        // delivered out of order
+        if (brokerChannelPoolSize > 0) {
+            config.configureBrokerChannel().taskExecutor()
+                    .corePoolSize(brokerChannelPoolSize)
+                    .maxPoolSize(brokerChannelPoolSize)
+                    .queueCapacity(brokerChannelQueueCapacity);
+        }
 
         // Set application destination prefix for @MessageMapping methods
         config.setApplicationDestinationPrefixes("/app");
@@ -44,6 +152,36 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         config.setUserDestinationPrefix("/user");
     }
 
+    /**
+     * Frames from clients: STOMP commands and @MessageMapping calls
+     */
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor(webSocketChannels.getInboundExecutor());
+    }
+
+    /**
+     * Frames to clients, with laggards' messages dropped (see WebSocketChannels)
+     */
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor(webSocketChannels.getOutboundExecutor())
+                .interceptors(webSocketChannels.getOutboundInterceptor());
+    }
+
+    /**
+     * Limits per session: a client whose pending frames exceed the buffer limit, or
+     * that takes longer than the time limit to accept one, is disconnected instead of
+     * holding an outbound thread
+     */
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        registration.setMessageSizeLimit(messageSizeLimit)
+                .setSendBufferSizeLimit(sendBufferSizeLimit)
+                .setSendTimeLimit(sendTimeLimitMs)
+                .setTimeToFirstMessage(timeToFirstMessageMs);
+    }
+
     /**
      * Register WebSocket endpoint with SockJS fallback
      * Endpoint: /ws (accessible to all users, auth handled at connection)
@@ -81,6 +219,20 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
                         // Nothing to do after handshake
                     }
                 })
+                // The session belongs to the token's user (named by their id), so
+                // /user/queue/... destinations reach only that user's sessions
+                .setHandshakeHandler(new DefaultHandshakeHandler() {
+                    @Override
+                    protected Principal determineUser(ServerHttpRequest request, WebSocketHandler wsHandler,
+                                                      Map<String, Object> attributes) {
+                        Object userId = attributes.get("userId");
+                        if (userId == null) {
+                            return null;
+                        }
+                        String name = userId.toString();
+                        return () -> name;
+                    }
+                })
                 .withSockJS(); // Enable SockJS fallback for browsers without WebSocket support
     }
 }
@@ -1,22 +1,23 @@
 package com.example.numberguessinggame.config;
 
 import com.example.numberguessinggame.service.JwtUtil;
+import com.example.numberguessinggame.service.PresenceFanout;
+import com.example.numberguessinggame.service.PresenceService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.event.EventListener;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.messaging.SessionConnectedEvent;
 import org.springframework.web.socket.messaging.SessionDisconnectEvent;
 
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Listens to WebSocket connection and disconnection events
- * Tracks online users and broadcasts presence updates
+ * Records sessions in PresenceService and hands presence changes to PresenceFanout
+ * when a user's first session opens or their last one closes
  */
 @Component
 public class WebSocketEventListener {
@@ -24,16 +25,13 @@ public class WebSocketEventListener {
     private static final Logger logger = LoggerFactory.getLogger(WebSocketEventListener.class);
 
     @Autowired
-    private SimpMessagingTemplate messagingTemplate;
+    private PresenceFanout presenceFanout;
 
     @Autowired
     private JwtUtil jwtUtil;
 
-    // Map of userId -> WebSocket sessionId
-    private final Map<Long, String> onlineUsers = new ConcurrentHashMap<>();
-
-    // Map of sessionId -> userId (for reverse lookup on disconnect)
-    private final Map<String, Long> sessionToUser = new ConcurrentHashMap<>();
+    @Autowired
+    private PresenceService presenceService;
 
     /**
      * Handle WebSocket connection event
@@ -50,13 +48,14 @@ public class WebSocketEventListener {
             Long userId = (Long) sessionAttributes.get("userId");
 
             // Mark user as online
-            onlineUsers.put(userId, sessionId);
-            sessionToUser.put(sessionId, userId);
+            boolean cameOnline = presenceService.sessionConnected(userId, sessionId);
 
             logger.info("User {} connected with session {}", userId, sessionId);
 
-            // Broadcast presence update to topic
-            broadcastPresenceUpdate(userId, true);
+            // Tell their friends (not for a second tab or device)
+            if (cameOnline) {
+                broadcastPresenceUpdate(userId, true);
+            }
         } else {
             logger.warn("No userId found in WebSocket session attributes for session {}", sessionId);
         }
@@ -71,73 +70,39 @@ public class WebSocketEventListener {
         StompHeaderAccessor headerAccessor = StompHeaderAccessor.wrap(event.getMessage());
         String sessionId = headerAccessor.getSessionId();
 
-        // Get userId from session mapping
-        Long userId = sessionToUser.remove(sessionId);
-        if (userId != null) {
-            // Remove from online users
-            onlineUsers.remove(userId);
+        // Remove the session; the user stays online while other sessions remain
+        PresenceService.Disconnect disconnect = presenceService.sessionDisconnected(sessionId);
+        if (disconnect != null) {
+            logger.info("User {} disconnected (session {})", disconnect.userId(), sessionId);
 
-            logger.info("User {} disconnected (session {})", userId, sessionId);
-
-            // Broadcast presence update to topic
-            broadcastPresenceUpdate(userId, false);
+            // Tell their friends
+            if (disconnect.wentOffline()) {
+                broadcastPresenceUpdate(disconnect.userId(), false);
+            }
         }
     }
 
     /**
-     * Broadcast presence update to all subscribers
+     * Queue a presence update for the user's friends
      */
     private void broadcastPresenceUpdate(Long userId, boolean online) {
-        try {
-            Map<String, Object> presenceUpdate = Map.of(
-                "userId", userId,
-                "online", online,
-                "timestamp", System.currentTimeMillis()
-            );
-
-            messagingTemplate.convertAndSend("/topic/presence", presenceUpdate);
-        } catch (Exception e) {
-            logger.error("Failed to broadcast presence update: {}", e.getMessage());
-        }
-    }
-
-    /**
-     * Check if a user is currently online
-     */
-    public boolean isUserOnline(Long userId) {
-        return onlineUsers.containsKey(userId);
-    }
-
-    /**
-     * Get all online user IDs
-     */
-    public Map<Long, String> getOnlineUsers() {
-        return new ConcurrentHashMap<>(onlineUsers);
-    }
-
-    /**
-     * Get the session ID for a user (if online)
-     */
-    public String getUserSession(Long userId) {
-        return onlineUsers.get(userId);
+        presenceFanout.changed(userId, online);
     }
 
     /**
      * Manually register a user connection (for testing or manual management)
      */
     public void registerUserConnection(Long userId, String sessionId) {
-        onlineUsers.put(userId, sessionId);
-        sessionToUser.put(sessionId, userId);
-        broadcastPresenceUpdate(userId, true);
+        if (presenceService.sessionConnected(userId, sessionId)) {
+            broadcastPresenceUpdate(userId, true);
+        }
     }
 
     /**
-     * Manually unregister a user connection
+     * Manually unregister a user connection (all of the user's sessions)
      */
     public void unregisterUserConnection(Long userId) {
-        String sessionId = onlineUsers.remove(userId);
-        if (sessionId != null) {
-            sessionToUser.remove(sessionId);
+        if (presenceService.userDisconnected(userId)) {
             broadcastPresenceUpdate(userId, false);
         }
     }
@@ -5,28 +5,38 @@ import com.example.numberguessinggame.entity.DailyChallengeAttempt;
 import com.example.numberguessinggame.entity.User;
 import com.example.numberguessinggame.service.DailyChallengeService;
 import com.example.numberguessinggame.service.JwtUtil;
+import com.example.numberguessinggame.service.LeaderboardCache;
 import com.example.numberguessinggame.service.UserService;
+import com.example.numberguessinggame.session.GameSessionStore;
+import com.example.numberguessinggame.session.SessionCodec;
+import com.example.numberguessinggame.util.BullsCowsEngine;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.LocalDate;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 
 @RestController
 @RequestMapping("/api/daily-challenge")
 public class DailyChallengeController {
 
     private static final Logger logger = LoggerFactory.getLogger(DailyChallengeController.class);
-    private static final int SESSION_DURATION_MS = 1800000;  // 30 minutes
+    public static final int SESSION_DURATION_MS = 1800000;  // 30 minutes
 
     @Autowired
     private DailyChallengeService dailyChallengeService;
 
+    @Autowired
+    private LeaderboardCache leaderboardCache;
+
     @Autowired
     private UserService userService;
 
@@ -34,10 +44,12 @@ public class DailyChallengeController {
     private JwtUtil jwtUtil;
 
     // Store active daily challenge sessions
-    private final Map<String, DailyChallengeSession> activeSessions = new ConcurrentHashMap<>();
+    @Autowired
+    private GameSessionStore<DailyChallengeSession> activeSessions;
 
-    // Store cumulative attempts per user per day (userId-date -> attempts)
-    private final Map<String, Integer> dailyAttempts = new ConcurrentHashMap<>();
+    // Store cumulative attempts per user per day (userId-date -> attempts), kept until the day is over
+    @Autowired
+    private GameSessionStore<Integer> dailyAttempts;
 
     /**
      * Get today's daily challenge info
@@ -130,7 +142,8 @@ public class DailyChallengeController {
 
             // Get cumulative attempts for this user today
             String attemptKey = userId + "-" + challenge.getChallengeDate().toString();
-            int cumulativeAttempts = dailyAttempts.getOrDefault(attemptKey, 0);
+            Integer storedAttempts = dailyAttempts.get(attemptKey);
+            int cumulativeAttempts = storedAttempts != null ? storedAttempts : 0;
 
             // Create session with cumulative attempts
             String sessionId = UUID.randomUUID().toString();
@@ -144,10 +157,10 @@ public class DailyChallengeController {
             );
             activeSessions.put(sessionId, session);
 
-            // Log target number for reference
+            // Log the start; never the target, which would let anyone reading the logs win
             String difficultyName = challenge.getDifficulty() == 0 ? "Easy" : challenge.getDifficulty() == 1 ? "Medium" : "Hard";
-            logger.info("[ADMIN] Daily Challenge Start | User: {} | Difficulty: {} | Target: {} | Session: {} | Attempts: {}",
-                user.getUsername(), difficultyName, challenge.getTargetNumber(), sessionId, cumulativeAttempts);
+            logger.info("[ADMIN] Daily Challenge Start | User: {} | Difficulty: {} | Session: {} | Attempts: {}",
+                user.getUsername(), difficultyName, sessionId, cumulativeAttempts);
 
             Map<String, Object> response = new HashMap<>();
             response.put("sessionId", sessionId);
@@ -192,51 +205,30 @@ public class DailyChallengeController {
             // Validate guess format
             int expectedDigits = 3 + session.getDifficulty();
 
-            if (guess.isEmpty()) {
-                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                    .body(Map.of("error", "Please enter your guess! 🔢"));
-            }
-
-            if (!guess.matches("\\d+")) {
-                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                    .body(Map.of("error", "Only numbers allowed in your guess! 🔢"));
-            }
-
-            if (guess.length() != expectedDigits) {
+            String guessError = switch (BullsCowsEngine.check(guess, expectedDigits)) {
+                case EMPTY -> "Please enter your guess! 🔢";
+                case NOT_NUMERIC -> "Only numbers allowed in your guess! 🔢";
+                case WRONG_LENGTH -> "Your guess needs exactly " + expectedDigits + " digits! 🎯";
+                case REPEATED_DIGITS -> "Each digit must be different. No repeats! 🔢";
+                case VALID -> null;
+            };
+            if (guessError != null) {
                 return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                    .body(Map.of("error", "Your guess needs exactly " + expectedDigits + " digits! 🎯"));
-            }
-
-            // Check for unique digits
-            Set<Character> uniqueDigits = new HashSet<>();
-            for (char c : guess.toCharArray()) {
-                uniqueDigits.add(c);
-            }
-            if (uniqueDigits.size() != guess.length()) {
-                return ResponseEntity.status(HttpStatus.BAD_REQUEST)
-                    .body(Map.of("error", "Each digit must be different. No repeats! 🔢"));
+                    .body(Map.of("error", guessError));
             }
 
             // Calculate bulls and cows
-            String target = String.valueOf(session.getTargetNumber());
-            int bulls = 0;
-            int cows = 0;
-
-            for (int i = 0; i < guess.length(); i++) {
-                char guessChar = guess.charAt(i);
-                if (guessChar == target.charAt(i)) {
-                    bulls++;
-                } else if (target.contains(String.valueOf(guessChar))) {
-                    cows++;
-                }
-            }
+            int result = BullsCowsEngine.score(session.getSecretKey(), guess);
+            int bulls = BullsCowsEngine.bulls(result);
+            int cows = BullsCowsEngine.cows(result);
 
             // Increment attempts (both in session and cumulative map)
             session.incrementAttempts();
+            activeSessions.update(sessionId, session);
             dailyAttempts.put(session.getAttemptKey(), session.getAttempts());
 
             // Check if won
-            boolean won = (bulls == expectedDigits);
+            boolean won = BullsCowsEngine.isSolved(result, expectedDigits);
 
             Map<String, Object> response = new HashMap<>();
             response.put("bulls", bulls);
@@ -318,12 +310,9 @@ public class DailyChallengeController {
                 response.put("totalPlayers", dailyChallengeService.getTodayWinnersCount());
 
                 // Award coins for completing the daily challenge
-                int coinsAwarded = userService.awardCoins(user.getId(), session.getDifficulty());
+                int coinsAwarded = UserService.coinsForDifficulty(session.getDifficulty());
                 response.put("coinsAwarded", coinsAwarded);
-
-                // Get updated user with new coin total
-                User updatedUser = userService.findById(user.getId()).orElse(user);
-                response.put("totalCoins", updatedUser.getCoins() != null ? updatedUser.getCoins() : 0);
+                response.put("totalCoins", userService.awardCoinsAmount(user.getId(), coinsAwarded));
             } else {
                 // Lost - return cumulative attempts from session
                 response.put("attempts", session.getAttempts());
@@ -348,22 +337,11 @@ public class DailyChallengeController {
     @GetMapping("/leaderboard")
     public ResponseEntity<?> getLeaderboard(@RequestParam(defaultValue = "100") int limit) {
         try {
-            List<DailyChallengeAttempt> leaderboard = dailyChallengeService.getTodayLeaderboard(limit);
-
-            List<Map<String, Object>> response = new ArrayList<>();
-            int rank = 1;
-
-            for (DailyChallengeAttempt attempt : leaderboard) {
-                Map<String, Object> entry = new HashMap<>();
-                entry.put("rank", rank++);
-                entry.put("username", attempt.getUser().getUsername());
-                entry.put("attempts", attempt.getAttempts());
-                entry.put("timeDisplay", attempt.getTimeDisplay());
-                entry.put("completedAt", attempt.getCompletedAt().toString());
-                response.add(entry);
-            }
-
-            return ResponseEntity.ok(response);
+            // Keyed by date, so tomorrow's first request loads the new challenge's board
+            LocalDate today = LocalDate.now();
+            byte[] json = leaderboardCache.get(LeaderboardCache.daily(today), limit,
+                    () -> buildLeaderboard(today, limit));
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(json);
 
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -371,6 +349,24 @@ public class DailyChallengeController {
         }
     }
 
+    private List<Map<String, Object>> buildLeaderboard(LocalDate date, int limit) {
+        List<DailyChallengeAttempt> leaderboard = dailyChallengeService.getLeaderboard(date, limit);
+
+        List<Map<String, Object>> response = new ArrayList<>();
+        int rank = 1;
+
+        for (DailyChallengeAttempt attempt : leaderboard) {
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("rank", rank++);
+            entry.put("username", attempt.getUser().getUsername());
+            entry.put("attempts", attempt.getAttempts());
+            entry.put("timeDisplay", attempt.getTimeDisplay());
+            entry.put("completedAt", attempt.getCompletedAt().toString());
+            response.add(entry);
+        }
+        return response;
+    }
+
     /**
      * Get user's daily challenge stats
      */
@@ -398,32 +394,29 @@ public class DailyChallengeController {
     }
 
     /**
-     * Scheduled cleanup of expired sessions (runs every 10 minutes)
+     * Session data class
      */
-    @Scheduled(fixedRate = 600000)
-    public void cleanupExpiredSessions() {
-        int removed = 0;
-        Iterator<Map.Entry<String, DailyChallengeSession>> iterator = activeSessions.entrySet().iterator();
-
-        while (iterator.hasNext()) {
-            Map.Entry<String, DailyChallengeSession> entry = iterator.next();
-            if (entry.getValue().isExpired()) {
-                iterator.remove();
-                removed++;
+    public static class DailyChallengeSession {
+        public static final SessionCodec<DailyChallengeSession> CODEC = new SessionCodec<>() {
+            @Override
+            public void write(DailyChallengeSession session, DataOutput out) throws IOException {
+                out.writeLong(session.userId);
+                out.writeInt(session.targetNumber);
+                out.writeByte(session.difficulty);
+                out.writeLong(session.startTime);
+                out.writeInt(session.attempts);
+                out.writeUTF(session.attemptKey);
             }
-        }
 
-        if (removed > 0) {
-            logger.info("Cleaned up {} expired Daily Challenge sessions", removed);
-        }
-    }
+            @Override
+            public DailyChallengeSession read(DataInput in) throws IOException {
+                return new DailyChallengeSession(in.readLong(), in.readInt(), (int) in.readByte(), in.readLong(), in.readInt(), in.readUTF());
+            }
+        };
 
-    /**
-     * Session data class
-     */
-    private static class DailyChallengeSession {
         private final Long userId;
         private final Integer targetNumber;
+        private final int secretKey;
         private final Integer difficulty;
         private final Long startTime;
         private final String attemptKey;
@@ -432,6 +425,7 @@ public class DailyChallengeController {
         public DailyChallengeSession(Long userId, Integer targetNumber, Integer difficulty, Long startTime, int initialAttempts, String attemptKey) {
             this.userId = userId;
             this.targetNumber = targetNumber;
+            this.secretKey = BullsCowsEngine.encodeSecret(targetNumber, 3 + difficulty);
             this.difficulty = difficulty;
             this.startTime = startTime;
             this.attempts = initialAttempts;
@@ -446,6 +440,10 @@ public class DailyChallengeController {
             return targetNumber;
         }
 
+        public int getSecretKey() {
+            return secretKey;
+        }
+
         public Integer getDifficulty() {
             return difficulty;
         }
@@ -465,9 +463,5 @@ public class DailyChallengeController {
         public void incrementAttempts() {
             this.attempts++;
         }
-
-        public boolean isExpired() {
-            return System.currentTimeMillis() - startTime > SESSION_DURATION_MS;
-        }
     }
 }
@@ -2,9 +2,11 @@ package com.example.numberguessinggame.controller;
 
 import com.example.numberguessinggame.entity.User;
 import com.example.numberguessinggame.repository.UserRepository;
+import com.example.numberguessinggame.service.LeaderboardCache;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
@@ -23,14 +25,19 @@ public class LeaderboardController {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private LeaderboardCache leaderboardCache;
+
     @GetMapping
-    public ResponseEntity<Map<String, Object>> getLeaderboard(
+    public ResponseEntity<byte[]> getLeaderboard(
             @RequestParam(defaultValue = "10") int limit) {
 
-        if (limit < 1 || limit > 100) {
-            limit = 10;
-        }
+        int size = limit < 1 || limit > 100 ? 10 : limit;
+        byte[] json = leaderboardCache.get(LeaderboardCache.PLAYERS, size, () -> buildLeaderboard(size));
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(json);
+    }
 
+    private Map<String, Object> buildLeaderboard(int limit) {
         Pageable pageable = PageRequest.of(0, limit);
         List<User> topPlayers = userRepository.findTopPlayersByBestScore(pageable);
 
@@ -59,6 +66,6 @@ public class LeaderboardController {
         response.put("leaderboard", leaderboard);
         response.put("total", leaderboard.size());
 
-        return ResponseEntity.ok(response);
+        return response;
     }
 }
@@ -3,32 +3,48 @@ package com.example.numberguessinggame.controller;
 import com.example.numberguessinggame.entity.SurvivalSession;
 import com.example.numberguessinggame.entity.User;
 import com.example.numberguessinggame.repository.UserRepository;
+import com.example.numberguessinggame.service.AntiCheatService;
 import com.example.numberguessinggame.service.JwtUtil;
+import com.example.numberguessinggame.service.LeaderboardCache;
+import com.example.numberguessinggame.service.SolverService;
 import com.example.numberguessinggame.service.SurvivalService;
 import com.example.numberguessinggame.service.UserService;
+import com.example.numberguessinggame.session.GameSessionStore;
+import com.example.numberguessinggame.session.FixedSizeSessionCodec;
+import com.example.numberguessinggame.session.SessionCodec;
+import com.example.numberguessinggame.util.BullsCowsEngine;
 import com.example.numberguessinggame.util.GameUtils;
+import com.example.numberguessinggame.util.GuessHistory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 
 @RestController
 @RequestMapping("/api/survival")
 public class SurvivalController {
 
     private static final Logger logger = LoggerFactory.getLogger(SurvivalController.class);
-    private static final int SESSION_DURATION_MS = 1800000;  // 30 minutes
+    public static final int SESSION_DURATION_MS = 1800000;  // 30 minutes
 
     @Autowired
     private SurvivalService survivalService;
 
+    @Autowired
+    private LeaderboardCache leaderboardCache;
+
     @Autowired
     private UserService userService;
 
@@ -38,63 +54,191 @@ public class SurvivalController {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private SolverService solverService;
+
+    @Autowired
+    private AntiCheatService antiCheatService;
+
     // In-memory storage for active sessions
-    private final Map<String, SurvivalGameSession> activeSessions = new ConcurrentHashMap<>();
+    @Autowired
+    private GameSessionStore<SurvivalGameSession> activeSessions;
 
     /**
-     * Inner class to track active Survival sessions
+     * Inner class to track active Survival sessions, packed into primitives.
+     * The current target and its revealed-hint mask share one long, and the finished
+     * rounds fit in another: one byte per round (attempts, high bit set when won).
+     * The current round's guesses are kept in a GuessHistory.
      */
-    static class SurvivalGameSession {
-        private Long userId;  // Null for guests
-        private Integer difficulty;
-        private LocalDateTime startedAt;
-        private Integer currentRound;  // 1-5
-        private Integer totalAttemptsUsed;
-        private List<RoundResult> roundResults;
-
-        // Current round state
-        private Integer currentTargetNumber;
-        private Integer currentRoundAttempts;
-        private Set<Integer> revealedHintPositions;
+    public static class SurvivalGameSession {
+        static final int TOTAL_ROUNDS = 5;
+        private static final long NO_USER = 0L;
+        private static final int REVEALED_SHIFT = 32;
+        private static final long TARGET_BITS = 0xFFFFFFFFL;
+        private static final int ROUND_WON = 0x80;
+        private static final int ROUND_ATTEMPTS = 0x7F;
+
+        // Everything but the current round's guesses
+        static final FixedSizeSessionCodec<SurvivalGameSession> RECORD = new FixedSizeSessionCodec<>() {
+            @Override
+            public int size() {
+                return 48;
+            }
+
+            @Override
+            public void write(SurvivalGameSession session, ByteBuffer buffer) {
+                buffer.putLong(session.userId)
+                        .putLong(session.startedAtMillis)
+                        .putLong(session.current)
+                        .putLong(session.rounds)
+                        .putInt(session.difficulty)
+                        .putInt(session.currentRound)
+                        .putInt(session.currentRoundAttempts)
+                        .putInt(session.totalAttemptsUsed);
+            }
+
+            @Override
+            public SurvivalGameSession read(ByteBuffer buffer) {
+                long userId = buffer.getLong();
+                long startedAtMillis = buffer.getLong();
+                long current = buffer.getLong();
+                long rounds = buffer.getLong();
+                SurvivalGameSession session = new SurvivalGameSession(userId, buffer.getInt(), startedAtMillis);
+                session.current = current;
+                session.currentSecretKey = BullsCowsEngine.encodeSecret(session.getCurrentTargetNumber(), 3 + session.difficulty);
+                session.rounds = rounds;
+                session.currentRound = buffer.getInt();
+                session.currentRoundAttempts = buffer.getInt();
+                session.totalAttemptsUsed = buffer.getInt();
+                return session;
+            }
+        };
+
+        public static final SessionCodec<SurvivalGameSession> CODEC = new SessionCodec<>() {
+            @Override
+            public void write(SurvivalGameSession session, DataOutput out) throws IOException {
+                out.write(RECORD.encode(session));
+                session.roundGuesses.write(out);
+            }
+
+            @Override
+            public SurvivalGameSession read(DataInput in) throws IOException {
+                SurvivalGameSession session = RECORD.read(in);
+                session.roundGuesses = GuessHistory.read(in);
+                return session;
+            }
+        };
+
+        private final long userId;  // NO_USER for guests
+        private final int difficulty;
+        private final long startedAtMillis;
+        private int currentRound;  // 1-5
+        private int totalAttemptsUsed;
+        private long rounds;  // Byte i = round i+1; bits 56-63 = rounds finished
+
+        // Current round state: bits 0-31 target number, 32-39 revealed positions
+        private long current;
+        private int currentSecretKey;
+        private int currentRoundAttempts;
+        private GuessHistory roundGuesses = new GuessHistory();
 
         public SurvivalGameSession(Long userId, Integer difficulty) {
+            this(userId == null ? NO_USER : userId, difficulty, System.currentTimeMillis());
+        }
+
+        private SurvivalGameSession(long userId, int difficulty, long startedAtMillis) {
             this.userId = userId;
             this.difficulty = difficulty;
-            this.startedAt = LocalDateTime.now();
+            this.startedAtMillis = startedAtMillis;
             this.currentRound = 1;
-            this.totalAttemptsUsed = 0;
-            this.roundResults = new ArrayList<>();
-            this.currentRoundAttempts = 0;
-            this.revealedHintPositions = new HashSet<>();
         }
 
         public boolean isExpired() {
-            return java.time.Duration.between(startedAt, LocalDateTime.now()).toMillis() > SESSION_DURATION_MS;
+            return System.currentTimeMillis() - startedAtMillis > SESSION_DURATION_MS;
         }
 
         // Getters and setters
-        public Long getUserId() { return userId; }
+        public Long getUserId() { return userId == NO_USER ? null : userId; }
         public Integer getDifficulty() { return difficulty; }
-        public LocalDateTime getStartedAt() { return startedAt; }
+        public LocalDateTime getStartedAt() {
+            return LocalDateTime.ofInstant(Instant.ofEpochMilli(startedAtMillis), ZoneId.systemDefault());
+        }
         public Integer getCurrentRound() { return currentRound; }
         public void setCurrentRound(Integer currentRound) { this.currentRound = currentRound; }
         public Integer getTotalAttemptsUsed() { return totalAttemptsUsed; }
         public void setTotalAttemptsUsed(Integer totalAttemptsUsed) { this.totalAttemptsUsed = totalAttemptsUsed; }
-        public List<RoundResult> getRoundResults() { return roundResults; }
-        public Integer getCurrentTargetNumber() { return currentTargetNumber; }
-        public void setCurrentTargetNumber(Integer currentTargetNumber) { this.currentTargetNumber = currentTargetNumber; }
+        public Integer getCurrentTargetNumber() { return (int) (current & TARGET_BITS); }
+        public void setCurrentTargetNumber(Integer currentTargetNumber) {
+            this.current = (current & ~TARGET_BITS) | (currentTargetNumber & TARGET_BITS);
+            this.currentSecretKey = BullsCowsEngine.encodeSecret(currentTargetNumber, 3 + difficulty);
+        }
+        public int getCurrentSecretKey() { return currentSecretKey; }
         public Integer getCurrentRoundAttempts() { return currentRoundAttempts; }
         public void setCurrentRoundAttempts(Integer currentRoundAttempts) { this.currentRoundAttempts = currentRoundAttempts; }
-        public Set<Integer> getRevealedHintPositions() { return revealedHintPositions; }
-        public void resetRevealedHintPositions() { this.revealedHintPositions = new HashSet<>(); }
+        public boolean isHintRevealed(int position) { return (current & (1L << (REVEALED_SHIFT + position))) != 0; }
+        public void revealHint(int position) { this.current |= 1L << (REVEALED_SHIFT + position); }
+        public void resetRevealedHintPositions() { this.current &= TARGET_BITS; }
+        public int getRevealedHintMask() { return (int) (current >>> REVEALED_SHIFT) & 0xFF; }
+        public GuessHistory getRoundGuesses() { return roundGuesses; }
+
+        /**
+         * Record a scored guess in the current round and count the attempt.
+         * Guesses are timed from the start of the session; rounds are not timed separately.
+         */
+        public void recordGuess(String guess, int result) {
+            roundGuesses.add(guess, result, System.currentTimeMillis() - startedAtMillis);
+            currentRoundAttempts++;
+        }
+
+        public int getRoundsFinished() { return (int) (rounds >>> 56); }
+
+        /**
+         * No more rounds to play: all five are finished, or the last one was lost
+         */
+        public boolean isFinished() {
+            int finished = getRoundsFinished();
+            return finished >= TOTAL_ROUNDS || (finished > 0 && (roundByte(finished - 1) & ROUND_WON) == 0);
+        }
+
+        /**
+         * Record the current round as finished with its attempts
+         */
+        public void addRoundResult(boolean won) {
+            int finished = getRoundsFinished();
+            long roundBits = Math.min(currentRoundAttempts, ROUND_ATTEMPTS) | (won ? ROUND_WON : 0);
+            rounds = (rounds & ~(0xFFL << 56)) | ((long) (finished + 1) << 56) | (roundBits << (finished * 8));
+        }
+
+        public int getRoundsWon() {
+            int won = 0;
+            for (int i = 0; i < getRoundsFinished(); i++) {
+                if ((roundByte(i) & ROUND_WON) != 0) {
+                    won++;
+                }
+            }
+            return won;
+        }
+
+        public List<RoundResult> getRoundResults() {
+            List<RoundResult> results = new ArrayList<>(getRoundsFinished());
+            for (int i = 0; i < getRoundsFinished(); i++) {
+                int round = roundByte(i);
+                results.add(new RoundResult(i + 1, round & ROUND_ATTEMPTS, (round & ROUND_WON) != 0));
+            }
+            return results;
+        }
+
+        private int roundByte(int index) {
+            return (int) (rounds >>> (index * 8)) & 0xFF;
+        }
     }
 
     static class RoundResult {
-        private Integer roundNumber;
-        private Integer attempts;
-        private Boolean won;
+        private final int roundNumber;
+        private final int attempts;
+        private final boolean won;
 
-        public RoundResult(Integer roundNumber, Integer attempts, Boolean won) {
+        public RoundResult(int roundNumber, int attempts, boolean won) {
             this.roundNumber = roundNumber;
             this.attempts = attempts;
             this.won = won;
@@ -151,12 +295,12 @@ public class SurvivalController {
         String difficultyName = survivalService.getDifficultyText(difficulty);
         if (userId != null) {
             userRepository.findById(userId).ifPresent(user ->
-                logger.info("[ADMIN] Survival Start | User: {} | Difficulty: {} | Target: {} | Session: {}",
-                    user.getUsername(), difficultyName, session.getCurrentTargetNumber(), sessionId)
+                logger.info("[ADMIN] Survival Start | User: {} | Difficulty: {} | Session: {}",
+                    user.getUsername(), difficultyName, sessionId)
             );
         } else {
-            logger.info("[ADMIN] Survival Start | Guest | Difficulty: {} | Target: {} | Session: {}",
-                difficultyName, session.getCurrentTargetNumber(), sessionId);
+            logger.info("[ADMIN] Survival Start | Guest | Difficulty: {} | Session: {}",
+                difficultyName, sessionId);
         }
 
         // Response
@@ -198,50 +342,33 @@ public class SurvivalController {
             // Validate guess format
             int expectedDigits = 3 + session.getDifficulty();
 
-            if (guess.isEmpty()) {
-                return ResponseEntity.badRequest()
-                        .body(Map.of("error", "Please enter your guess"));
-            }
-
-            if (!guess.matches("\\d+")) {
-                return ResponseEntity.badRequest()
-                        .body(Map.of("error", "Only numbers allowed"));
-            }
-
-            if (guess.length() != expectedDigits) {
+            String guessError = switch (BullsCowsEngine.check(guess, expectedDigits)) {
+                case EMPTY -> "Please enter your guess";
+                case NOT_NUMERIC -> "Only numbers allowed";
+                case WRONG_LENGTH -> "Your guess needs exactly " + expectedDigits + " digits";
+                case REPEATED_DIGITS -> "Each digit must be different";
+                case VALID -> null;
+            };
+            if (guessError != null) {
                 return ResponseEntity.badRequest()
-                        .body(Map.of("error", "Your guess needs exactly " + expectedDigits + " digits"));
-            }
-
-            // Check for unique digits
-            Set<Character> uniqueDigits = new HashSet<>();
-            for (char c : guess.toCharArray()) {
-                uniqueDigits.add(c);
-            }
-            if (uniqueDigits.size() != guess.length()) {
-                return ResponseEntity.badRequest()
-                        .body(Map.of("error", "Each digit must be different"));
+                        .body(Map.of("error", guessError));
             }
 
             // Calculate bulls and cows
-            String target = String.valueOf(session.getCurrentTargetNumber());
-            int bulls = 0;
-            int cows = 0;
-
-            for (int i = 0; i < guess.length(); i++) {
-                char guessChar = guess.charAt(i);
-                if (guessChar == target.charAt(i)) {
-                    bulls++;
-                } else if (target.contains(String.valueOf(guessChar))) {
-                    cows++;
-                }
-            }
+            int result = BullsCowsEngine.score(session.getCurrentSecretKey(), guess);
+            int bulls = BullsCowsEngine.bulls(result);
+            int cows = BullsCowsEngine.cows(result);
 
-            // Increment attempts
-            session.setCurrentRoundAttempts(session.getCurrentRoundAttempts() + 1);
+            // Record the guess (counts the attempt)
+            session.recordGuess(guess, result);
+            activeSessions.update(sessionId, session);
 
             // Check if won this round
-            boolean wonRound = (bulls == expectedDigits);
+            boolean wonRound = BullsCowsEngine.isSolved(result, expectedDigits);
+            if (wonRound && session.getUserId() != null) {
+                antiCheatService.analyzeWin("survival", session.getUserId(), session.getDifficulty(),
+                        session.getRoundGuesses(), session.getRevealedHintMask(), session.getCurrentSecretKey());
+            }
 
             // Check if lost (max attempts reached)
             int maxAttempts = survivalService.getMaxAttemptsForDifficulty(session.getDifficulty());
@@ -335,7 +462,7 @@ public class SurvivalController {
         String target = String.valueOf(session.getCurrentTargetNumber());
         List<Integer> unrevealedPositions = new ArrayList<>();
         for (int i = 0; i < target.length(); i++) {
-            if (!session.getRevealedHintPositions().contains(i)) {
+            if (!session.isHintRevealed(i)) {
                 unrevealedPositions.add(i);
             }
         }
@@ -352,13 +479,12 @@ public class SurvivalController {
         int position = unrevealedPositions.get(random.nextInt(unrevealedPositions.size()));
         String digit = String.valueOf(target.charAt(position));
 
-        // Deduct coins
-        userService.spendCoins(user.getId(), hintCost);
-        User updatedUser = userService.findById(user.getId()).orElse(user);
-        int remainingCoins = updatedUser.getCoins() != null ? updatedUser.getCoins() : 0;
+        // Mark position as revealed (written back before charging)
+        session.revealHint(position);
+        activeSessions.update(sessionId, session);
 
-        // Mark position as revealed
-        session.getRevealedHintPositions().add(position);
+        // Deduct coins
+        int remainingCoins = userService.spendCoins(user.getId(), hintCost);
 
         logger.info("Survival hint purchased - User: {}, Session: {}, Round: {}, Position: {}, Digit: {}, Coins: {} -> {}",
                 username, sessionId, session.getCurrentRound(), position, digit, userCoins, remainingCoins);
@@ -371,6 +497,102 @@ public class SurvivalController {
         ));
     }
 
+    /**
+     * How many secrets are still consistent with the current round's guesses (free)
+     * POST /api/survival/remaining
+     */
+    @PostMapping("/remaining")
+    public ResponseEntity<?> getRemainingPossibilities(@RequestBody Map<String, String> request) {
+        String sessionId = request.get("sessionId");
+
+        SurvivalGameSession session = sessionId != null ? activeSessions.get(sessionId) : null;
+        if (session == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("error", "Session not found"));
+        }
+
+        SolverService.Analysis analysis = solverService.analyze(session.getDifficulty(), session.getRoundGuesses(),
+                session.getRevealedHintMask(), session.getCurrentSecretKey(), false);
+
+        return ResponseEntity.ok(Map.of(
+                "remaining", analysis.getRemaining(),
+                "currentRoundAttempts", session.getCurrentRoundAttempts()
+        ));
+    }
+
+    /**
+     * Suggest the best next guess for the current round (paid hint)
+     * POST /api/survival/best-guess
+     */
+    @PostMapping("/best-guess")
+    public ResponseEntity<?> getBestGuess(
+            @RequestBody Map<String, String> request,
+            @RequestHeader("Authorization") String authHeader) {
+
+        String sessionId = request.get("sessionId");
+
+        // Validate auth
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("success", false, "message", "Authentication required"));
+        }
+
+        String username;
+        try {
+            username = jwtUtil.extractUsername(authHeader.substring(7));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("success", false, "message", "Invalid token"));
+        }
+
+        Optional<User> userOpt = userRepository.findByUsername(username);
+        if (userOpt.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("success", false, "message", "User not found"));
+        }
+
+        User user = userOpt.get();
+
+        SurvivalGameSession session = activeSessions.get(sessionId);
+        if (session == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("success", false, "message", "Session not found"));
+        }
+
+        if (session.isExpired()) {
+            activeSessions.remove(sessionId);
+            return ResponseEntity.ok(Map.of(
+                    "success", false,
+                    "message", "Session expired"
+            ));
+        }
+
+        int cost = solverService.getSuggestionCost(session.getDifficulty());
+        Integer userCoins = user.getCoins() != null ? user.getCoins() : 0;
+        if (userCoins < cost) {
+            return ResponseEntity.ok(Map.of(
+                    "success", false,
+                    "message", "Insufficient coins. Need " + cost + " coins."
+            ));
+        }
+
+        SolverService.Analysis analysis = solverService.analyze(session.getDifficulty(), session.getRoundGuesses(),
+                session.getRevealedHintMask(), session.getCurrentSecretKey(), true);
+
+        int remainingCoins = userService.spendCoins(user.getId(), cost);
+
+        logger.info("Survival suggestion purchased - User: {}, Session: {}, Round: {}, Suggestion: {}, Remaining: {}, Coins: {} -> {}",
+                username, sessionId, session.getCurrentRound(), analysis.getSuggestion(), analysis.getRemaining(),
+                userCoins, remainingCoins);
+
+        return ResponseEntity.ok(Map.of(
+                "success", true,
+                "suggestion", String.valueOf(analysis.getSuggestion()),
+                "remaining", analysis.getRemaining(),
+                "remainingCoins", remainingCoins
+        ));
+    }
+
     /**
      * Complete current round (either won or lost)
      * POST /api/survival/round-complete
@@ -392,13 +614,13 @@ public class SurvivalController {
                         .body(Map.of("error", "Session not found"));
             }
 
+            if (session.isFinished()) {
+                return ResponseEntity.badRequest()
+                        .body(Map.of("error", "Session already finished"));
+            }
+
             // Save round result
-            RoundResult result = new RoundResult(
-                session.getCurrentRound(),
-                session.getCurrentRoundAttempts(),
-                won
-            );
-            session.getRoundResults().add(result);
+            session.addRoundResult(won);
             session.setTotalAttemptsUsed(session.getTotalAttemptsUsed() + session.getCurrentRoundAttempts());
 
             Map<String, Object> response = new HashMap<>();
@@ -424,6 +646,7 @@ public class SurvivalController {
                     session.setCurrentRound(session.getCurrentRound() + 1);
                     session.setCurrentRoundAttempts(0);
                     session.resetRevealedHintPositions();
+                    session.getRoundGuesses().clear();
 
                     // Generate new target for next round
                     int digitCount = 3 + session.getDifficulty();
@@ -433,14 +656,12 @@ public class SurvivalController {
                     String difficultyName = survivalService.getDifficultyText(session.getDifficulty());
                     if (session.getUserId() != null) {
                         userRepository.findById(session.getUserId()).ifPresent(user ->
-                            logger.info("[ADMIN] Survival Round {} | User: {} | Difficulty: {} | Target: {} | Session: {}",
-                                    session.getCurrentRound(), user.getUsername(), difficultyName,
-                                    session.getCurrentTargetNumber(), sessionId)
+                            logger.info("[ADMIN] Survival Round {} | User: {} | Difficulty: {} | Session: {}",
+                                    session.getCurrentRound(), user.getUsername(), difficultyName, sessionId)
                         );
                     } else {
-                        logger.info("[ADMIN] Survival Round {} | Guest | Difficulty: {} | Target: {} | Session: {}",
-                                session.getCurrentRound(), difficultyName,
-                                session.getCurrentTargetNumber(), sessionId);
+                        logger.info("[ADMIN] Survival Round {} | Guest | Difficulty: {} | Session: {}",
+                                session.getCurrentRound(), difficultyName, sessionId);
                     }
 
                     response.put("completed", false);
@@ -457,6 +678,7 @@ public class SurvivalController {
             }
 
             response.put("totalAttemptsUsed", session.getTotalAttemptsUsed());
+            activeSessions.update(sessionId, session);
 
             return ResponseEntity.ok(response);
 
@@ -490,9 +712,7 @@ public class SurvivalController {
             }
 
             // Calculate final stats - count how many rounds were actually won
-            int roundsSurvived = (int) session.getRoundResults().stream()
-                    .filter(RoundResult::getWon)
-                    .count();
+            int roundsSurvived = session.getRoundsWon();
 
             boolean completed = roundsSurvived >= 5;
 
@@ -534,9 +754,7 @@ public class SurvivalController {
 
                         // Award coins
                         if (totalCoins > 0) {
-                            userService.awardCoinsAmount(user.getId(), totalCoins);
-                            User updatedUser = userService.findById(user.getId()).orElse(user);
-                            totalCoinsAfter = updatedUser.getCoins() != null ? updatedUser.getCoins() : 0;
+                            totalCoinsAfter = userService.awardCoinsAmount(user.getId(), totalCoins);
                         }
 
                         // Get rank
@@ -579,23 +797,9 @@ public class SurvivalController {
             @RequestParam Integer difficulty,
             @RequestParam(defaultValue = "100") Integer limit) {
         try {
-            List<SurvivalSession> leaderboard = survivalService.getLeaderboard(difficulty, limit);
-
-            List<Map<String, Object>> response = new ArrayList<>();
-            int rank = 1;
-
-            for (SurvivalSession session : leaderboard) {
-                Map<String, Object> entry = new HashMap<>();
-                entry.put("rank", rank++);
-                entry.put("username", session.getUser().getUsername());
-                entry.put("roundsSurvived", session.getRoundsSurvived());
-                entry.put("totalAttemptsUsed", session.getTotalAttemptsUsed());
-                entry.put("completed", session.getCompleted());
-                entry.put("completedAt", session.getCompletedAt().toString());
-                response.add(entry);
-            }
-
-            return ResponseEntity.ok(response);
+            byte[] json = leaderboardCache.get(LeaderboardCache.survival(difficulty), limit,
+                    () -> buildLeaderboard(difficulty, limit));
+            return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(json);
 
         } catch (Exception e) {
             logger.error("Error fetching leaderboard", e);
@@ -604,6 +808,25 @@ public class SurvivalController {
         }
     }
 
+    private List<Map<String, Object>> buildLeaderboard(Integer difficulty, Integer limit) {
+        List<SurvivalSession> leaderboard = survivalService.getLeaderboard(difficulty, limit);
+
+        List<Map<String, Object>> response = new ArrayList<>();
+        int rank = 1;
+
+        for (SurvivalSession session : leaderboard) {
+            Map<String, Object> entry = new HashMap<>();
+            entry.put("rank", rank++);
+            entry.put("username", session.getUser().getUsername());
+            entry.put("roundsSurvived", session.getRoundsSurvived());
+            entry.put("totalAttemptsUsed", session.getTotalAttemptsUsed());
+            entry.put("completed", session.getCompleted());
+            entry.put("completedAt", session.getCompletedAt().toString());
+            response.add(entry);
+        }
+        return response;
+    }
+
     /**
      * Get user's survival stats
      * GET /api/survival/stats
@@ -632,25 +855,4 @@ public class SurvivalController {
         }
     }
 
-    /**
-     * Scheduled cleanup of expired sessions (runs every 10 minutes)
-     */
-    @Scheduled(fixedRate = 600000)
-    public void cleanupExpiredSessions() {
-        int removed = 0;
-        Iterator<Map.Entry<String, SurvivalGameSession>> iterator = activeSessions.entrySet().iterator();
-
-        while (iterator.hasNext()) {
-            Map.Entry<String, SurvivalGameSession> entry = iterator.next();
-            if (entry.getValue().isExpired()) {
-                iterator.remove();
-                removed++;
-            }
-        }
-
-        if (removed > 0) {
-            logger.info("Cleaned up {} expired Survival sessions", removed);
-        }
-    }
-
 }
@@ -3,23 +3,31 @@ package com.example.numberguessinggame.controller;
 import com.example.numberguessinggame.entity.TimeAttackSession;
 import com.example.numberguessinggame.entity.User;
 import com.example.numberguessinggame.repository.UserRepository;
+import com.example.numberguessinggame.service.AntiCheatService;
 import com.example.numberguessinggame.service.JwtUtil;
+import com.example.numberguessinggame.service.LeaderboardCache;
+import com.example.numberguessinggame.service.SolverService;
 import com.example.numberguessinggame.service.TimeAttackService;
 import com.example.numberguessinggame.service.UserService;
+import com.example.numberguessinggame.session.GameSessionStore;
+import com.example.numberguessinggame.session.SessionCodec;
+import com.example.numberguessinggame.util.BullsCowsEngine;
 import com.example.numberguessinggame.util.GameUtils;
+import com.example.numberguessinggame.util.GuessHistory;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.web.bind.annotation.*;
 
-import java.time.LocalDateTime;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 @RestController
@@ -27,11 +35,14 @@ import java.util.stream.Collectors;
 public class TimeAttackController {
 
     private static final Logger logger = LoggerFactory.getLogger(TimeAttackController.class);
-    private static final int SESSION_DURATION_MS = 300000;  // 5 minutes
+    public static final int SESSION_DURATION_MS = 300000;  // 5 minutes
 
     @Autowired
     private TimeAttackService timeAttackService;
 
+    @Autowired
+    private LeaderboardCache leaderboardCache;
+
     @Autowired
     private UserRepository userRepository;
 
@@ -41,37 +52,98 @@ public class TimeAttackController {
     @Autowired
     private JwtUtil jwtUtil;
 
+    @Autowired
+    private SolverService solverService;
+
+    @Autowired
+    private AntiCheatService antiCheatService;
+
     // In-memory storage for active sessions
-    private final Map<String, TimeAttackGameSession> activeSessions = new ConcurrentHashMap<>();
+    @Autowired
+    private GameSessionStore<TimeAttackGameSession> activeSessions;
 
     /**
-     * Inner class to track active Time Attack sessions
+     * Inner class to track active Time Attack sessions, packed into primitives.
+     * The current target and its revealed-hint mask share one long, and each finished
+     * game is one long in a growable array (see packResult). The current game's
+     * guesses are kept in a GuessHistory.
      */
-    static class TimeAttackGameSession {
-        private Long userId;  // Null for guests
-        private Integer difficulty;
-        private Long sessionStartTime;
-        private Integer totalScore;
-        private Integer gamesWon;
-        private Integer gamesPlayed;
-        private List<GameResult> gameResults;
-
-        // Current game state
-        private Integer currentTargetNumber;
-        private Long currentGameStartTime;
-        private Integer currentGameAttempts;
-        private Set<Integer> revealedHintPositions;
+    public static class TimeAttackGameSession {
+        private static final long NO_USER = 0L;
+        private static final int REVEALED_SHIFT = 32;
+        private static final long TARGET_BITS = 0xFFFFFFFFL;
+        private static final long[] NO_RESULTS = new long[0];
+
+        /**
+         * 52-byte header, 8 bytes per finished game, then the current game's guesses
+         */
+        public static final SessionCodec<TimeAttackGameSession> CODEC = new SessionCodec<>() {
+            @Override
+            public void write(TimeAttackGameSession session, DataOutput out) throws IOException {
+                out.writeLong(session.userId);
+                out.writeLong(session.sessionStartTime);
+                out.writeLong(session.current);
+                out.writeLong(session.currentGameStartTime);
+                out.writeInt(session.difficulty);
+                out.writeInt(session.totalScore);
+                out.writeInt(session.gamesWon);
+                out.writeInt(session.gamesPlayed);
+                out.writeInt(session.currentGameAttempts);
+                out.writeInt(session.resultCount);
+                for (int i = 0; i < session.resultCount; i++) {
+                    out.writeLong(session.results[i]);
+                }
+                session.currentGuesses.write(out);
+            }
+
+            @Override
+            public TimeAttackGameSession read(DataInput in) throws IOException {
+                long userId = in.readLong();
+                long sessionStartTime = in.readLong();
+                long current = in.readLong();
+                long currentGameStartTime = in.readLong();
+                TimeAttackGameSession session = new TimeAttackGameSession(userId, in.readInt(), sessionStartTime);
+                session.current = current;
+                session.currentSecretKey = BullsCowsEngine.encodeSecret(session.getCurrentTargetNumber(), 3 + session.difficulty);
+                session.currentGameStartTime = currentGameStartTime;
+                session.totalScore = in.readInt();
+                session.gamesWon = in.readInt();
+                session.gamesPlayed = in.readInt();
+                session.currentGameAttempts = in.readInt();
+                session.resultCount = in.readInt();
+                session.results = new long[session.resultCount];
+                for (int i = 0; i < session.resultCount; i++) {
+                    session.results[i] = in.readLong();
+                }
+                session.currentGuesses = GuessHistory.read(in);
+                return session;
+            }
+        };
+
+        private final long userId;  // NO_USER for guests
+        private final int difficulty;
+        private final long sessionStartTime;
+        private int totalScore;
+        private int gamesWon;
+        private int gamesPlayed;
+        private long[] results = NO_RESULTS;
+        private int resultCount;
+
+        // Current game state: bits 0-31 target number, 32-39 revealed positions
+        private long current;
+        private int currentSecretKey;
+        private long currentGameStartTime;
+        private int currentGameAttempts;
+        private GuessHistory currentGuesses = new GuessHistory();
 
         public TimeAttackGameSession(Long userId, Integer difficulty) {
+            this(userId == null ? NO_USER : userId, difficulty, System.currentTimeMillis());
+        }
+
+        private TimeAttackGameSession(long userId, int difficulty, long sessionStartTime) {
             this.userId = userId;
             this.difficulty = difficulty;
-            this.sessionStartTime = System.currentTimeMillis();
-            this.totalScore = 0;
-            this.gamesWon = 0;
-            this.gamesPlayed = 0;
-            this.gameResults = new ArrayList<>();
-            this.currentGameAttempts = 0;
-            this.revealedHintPositions = new HashSet<>();
+            this.sessionStartTime = sessionStartTime;
         }
 
         public boolean isExpired() {
@@ -84,7 +156,7 @@ public class TimeAttackController {
         }
 
         // Getters and setters
-        public Long getUserId() { return userId; }
+        public Long getUserId() { return userId == NO_USER ? null : userId; }
         public Integer getDifficulty() { return difficulty; }
         public Long getSessionStartTime() { return sessionStartTime; }
         public Integer getTotalScore() { return totalScore; }
@@ -93,25 +165,72 @@ public class TimeAttackController {
         public void setGamesWon(Integer gamesWon) { this.gamesWon = gamesWon; }
         public Integer getGamesPlayed() { return gamesPlayed; }
         public void setGamesPlayed(Integer gamesPlayed) { this.gamesPlayed = gamesPlayed; }
-        public List<GameResult> getGameResults() { return gameResults; }
-        public Integer getCurrentTargetNumber() { return currentTargetNumber; }
-        public void setCurrentTargetNumber(Integer currentTargetNumber) { this.currentTargetNumber = currentTargetNumber; }
-        public Long getCurrentGameStartTime() { return currentGameStartTime; }
-        public void setCurrentGameStartTime(Long currentGameStartTime) { this.currentGameStartTime = currentGameStartTime; }
+        public Integer getCurrentTargetNumber() { return (int) (current & TARGET_BITS); }
+        public void setCurrentTargetNumber(Integer currentTargetNumber) {
+            this.current = (current & ~TARGET_BITS) | (currentTargetNumber & TARGET_BITS);
+            this.currentSecretKey = BullsCowsEngine.encodeSecret(currentTargetNumber, 3 + difficulty);
+        }
+        public int getCurrentSecretKey() { return currentSecretKey; }
+        public long getCurrentGameStartTime() { return currentGameStartTime; }
+        public void setCurrentGameStartTime(long currentGameStartTime) { this.currentGameStartTime = currentGameStartTime; }
         public Integer getCurrentGameAttempts() { return currentGameAttempts; }
         public void setCurrentGameAttempts(Integer currentGameAttempts) { this.currentGameAttempts = currentGameAttempts; }
         public void incrementCurrentGameAttempts() { this.currentGameAttempts++; }
-        public Set<Integer> getRevealedHintPositions() { return revealedHintPositions; }
-        public void resetRevealedHintPositions() { this.revealedHintPositions = new HashSet<>(); }
+        public boolean isHintRevealed(int position) { return (current & (1L << (REVEALED_SHIFT + position))) != 0; }
+        public void revealHint(int position) { this.current |= 1L << (REVEALED_SHIFT + position); }
+        public void resetRevealedHintPositions() { this.current &= TARGET_BITS; }
+        public int getRevealedHintMask() { return (int) (current >>> REVEALED_SHIFT) & 0xFF; }
+        public GuessHistory getCurrentGuesses() { return currentGuesses; }
+
+        /**
+         * Record a scored guess in the current game, timed from its start, and count the attempt
+         */
+        public void recordGuess(String guess, int result) {
+            currentGuesses.add(guess, result, System.currentTimeMillis() - currentGameStartTime);
+            currentGameAttempts++;
+        }
+
+        public void addGameResult(int attempts, int timeSeconds, int points, boolean won) {
+            if (resultCount == results.length) {
+                results = Arrays.copyOf(results, Math.max(8, resultCount * 2));
+            }
+            results[resultCount++] = packResult(attempts, timeSeconds, points, won);
+        }
+
+        /**
+         * Finished games in play order, unpacked
+         */
+        public List<GameResult> getGameResults() {
+            List<GameResult> gameResults = new ArrayList<>(resultCount);
+            for (int i = 0; i < resultCount; i++) {
+                long result = results[i];
+                gameResults.add(new GameResult(
+                        (int) (result & 0xFFFF),
+                        (int) ((result >>> 16) & 0xFFFFF),
+                        (int) ((result >>> 36) & 0x7FFFFFF),
+                        result < 0));
+            }
+            return gameResults;
+        }
+
+        /**
+         * Bits 0-15 attempts, 16-35 seconds, 36-62 points, sign bit set when won
+         */
+        private static long packResult(int attempts, int timeSeconds, int points, boolean won) {
+            return Math.min(attempts, 0xFFFF)
+                    | ((long) Math.min(timeSeconds, 0xFFFFF) << 16)
+                    | ((long) Math.min(points, 0x7FFFFFF) << 36)
+                    | (won ? Long.MIN_VALUE : 0L);
+        }
     }
 
     static class GameResult {
-        private Integer attempts;
-        private Integer timeSeconds;
-        private Integer points;
-        private Boolean won;
+        private final int attempts;
+        private final int timeSeconds;
+        private final int points;
+        private final boolean won;
 
-        public GameResult(Integer attempts, Integer timeSeconds, Integer points, Boolean won) {
+        public GameResult(int attempts, int timeSeconds, int points, boolean won) {
             this.attempts = attempts;
             this.timeSeconds = timeSeconds;
             this.points = points;
@@ -169,16 +288,16 @@ public class TimeAttackController {
         // Store in active sessions
         activeSessions.put(sessionId, session);
 
-        // Log target number for reference
+        // Log the start; never the target, which would let anyone reading the logs win
         String difficultyName = difficulty == 0 ? "Easy" : difficulty == 1 ? "Medium" : "Hard";
         if (userId != null) {
             userRepository.findById(userId).ifPresent(user ->
-                logger.info("[ADMIN] Time Attack Start | User: {} | Difficulty: {} | Target: {} | Session: {} | Game: 1",
-                    user.getUsername(), difficultyName, targetNumber, sessionId)
+                logger.info("[ADMIN] Time Attack Start | User: {} | Difficulty: {} | Session: {} | Game: 1",
+                    user.getUsername(), difficultyName, sessionId)
             );
         } else {
-            logger.info("[ADMIN] Time Attack Start | Guest | Difficulty: {} | Target: {} | Session: {} | Game: 1",
-                difficultyName, targetNumber, sessionId);
+            logger.info("[ADMIN] Time Attack Start | Guest | Difficulty: {} | Session: {} | Game: 1",
+                difficultyName, sessionId);
         }
 
         return ResponseEntity.ok(Map.of(
@@ -217,18 +336,20 @@ public class TimeAttackController {
         session.setCurrentGameStartTime(System.currentTimeMillis());
         session.setCurrentGameAttempts(0);
         session.resetRevealedHintPositions();
+        session.getCurrentGuesses().clear();
+        activeSessions.update(sessionId, session);
 
-        // Log target number for reference
+        // Log the new game, without its target
         String difficultyName = session.getDifficulty() == 0 ? "Easy" : session.getDifficulty() == 1 ? "Medium" : "Hard";
         int gameNumber = session.getGamesPlayed() + 1;
         if (session.getUserId() != null) {
             userRepository.findById(session.getUserId()).ifPresent(user ->
-                logger.info("[ADMIN] Time Attack New Game | User: {} | Difficulty: {} | Target: {} | Session: {} | Game: {}",
-                    user.getUsername(), difficultyName, targetNumber, sessionId, gameNumber)
+                logger.info("[ADMIN] Time Attack New Game | User: {} | Difficulty: {} | Session: {} | Game: {}",
+                    user.getUsername(), difficultyName, sessionId, gameNumber)
             );
         } else {
-            logger.info("[ADMIN] Time Attack New Game | Guest | Difficulty: {} | Target: {} | Session: {} | Game: {}",
-                difficultyName, targetNumber, sessionId, gameNumber);
+            logger.info("[ADMIN] Time Attack New Game | Guest | Difficulty: {} | Session: {} | Game: {}",
+                difficultyName, sessionId, gameNumber);
         }
 
         return ResponseEntity.ok(Map.of(
@@ -263,59 +384,44 @@ public class TimeAttackController {
 
         // Validate guess
         int digitCount = 3 + session.getDifficulty();
-        if (guess == null || guess.length() != digitCount) {
-            return ResponseEntity.badRequest()
-                    .body(Map.of("error", "Guess must be " + digitCount + " digits"));
-        }
-
-        if (!guess.matches("\\d+")) {
+        // Time Attack reports the length before anything else, so "12a" is a length error
+        String guessError = guess == null || guess.length() != digitCount
+                ? "Guess must be " + digitCount + " digits"
+                : switch (BullsCowsEngine.check(guess, digitCount)) {
+                    case EMPTY, WRONG_LENGTH -> "Guess must be " + digitCount + " digits";
+                    case NOT_NUMERIC -> "Guess must contain only digits";
+                    case REPEATED_DIGITS -> "All digits must be unique";
+                    case VALID -> null;
+                };
+        if (guessError != null) {
             return ResponseEntity.badRequest()
-                    .body(Map.of("error", "Guess must contain only digits"));
+                    .body(Map.of("error", guessError));
         }
 
-        // Check for unique digits
-        Set<Character> uniqueDigits = new HashSet<>();
-        for (char c : guess.toCharArray()) {
-            uniqueDigits.add(c);
-        }
-        if (uniqueDigits.size() != guess.length()) {
-            return ResponseEntity.badRequest()
-                    .body(Map.of("error", "All digits must be unique"));
-        }
-
-        // Increment attempts
-        session.incrementCurrentGameAttempts();
-
         // Calculate bulls and cows
-        final String target = String.valueOf(session.getCurrentTargetNumber());
-        int bullsCount = 0;
-        int cowsCount = 0;
-
-        for (int i = 0; i < guess.length(); i++) {
-            char guessChar = guess.charAt(i);
-            if (target.charAt(i) == guessChar) {
-                bullsCount++;
-            } else if (target.contains(String.valueOf(guessChar))) {
-                cowsCount++;
-            }
-        }
-
-        final int bulls = bullsCount;
-        final int cows = cowsCount;
-        final boolean won = (bulls == digitCount);
+        final int result = BullsCowsEngine.score(session.getCurrentSecretKey(), guess);
+        session.recordGuess(guess, result);
+        final int bulls = BullsCowsEngine.bulls(result);
+        final int cows = BullsCowsEngine.cows(result);
+        final boolean won = BullsCowsEngine.isSolved(result, digitCount);
 
         // Log with username if available
         if (session.getUserId() != null) {
             userRepository.findById(session.getUserId()).ifPresent(user ->
-                logger.info("[ADMIN] Time Attack Target | User: {} | Session: {} | Target: {} | Guess: {} | Bulls: {} | Cows: {} | Won: {}",
-                        user.getUsername(), sessionId, target, guess, bulls, cows, won)
+                logger.info("[ADMIN] Time Attack Guess | User: {} | Session: {} | Guess: {} | Bulls: {} | Cows: {} | Won: {}",
+                        user.getUsername(), sessionId, guess, bulls, cows, won)
             );
         } else {
-            logger.info("[ADMIN] Time Attack Target | Guest | Session: {} | Target: {} | Guess: {} | Bulls: {} | Cows: {} | Won: {}",
-                    sessionId, target, guess, bulls, cows, won);
+            logger.info("[ADMIN] Time Attack Guess | Guest | Session: {} | Guess: {} | Bulls: {} | Cows: {} | Won: {}",
+                    sessionId, guess, bulls, cows, won);
         }
 
         if (won) {
+            if (session.getUserId() != null) {
+                antiCheatService.analyzeWin("time-attack", session.getUserId(), session.getDifficulty(),
+                        session.getCurrentGuesses(), session.getRevealedHintMask(), session.getCurrentSecretKey());
+            }
+
             // Calculate game time
             long gameTimeMs = System.currentTimeMillis() - session.getCurrentGameStartTime();
             int gameTimeSeconds = (int) (gameTimeMs / 1000);
@@ -333,12 +439,13 @@ public class TimeAttackController {
             session.setGamesPlayed(session.getGamesPlayed() + 1);
 
             // Record game result
-            session.getGameResults().add(new GameResult(
+            session.addGameResult(
                     session.getCurrentGameAttempts(),
                     gameTimeSeconds,
                     points,
                     true
-            ));
+            );
+            activeSessions.update(sessionId, session);
 
             logger.info("Time Attack game won - SessionID: {}, Attempts: {}, Time: {}s, Points: {}",
                     sessionId, session.getCurrentGameAttempts(), gameTimeSeconds, points);
@@ -353,6 +460,7 @@ public class TimeAttackController {
                     "gamesWon", session.getGamesWon()
             ));
         } else {
+            activeSessions.update(sessionId, session);
             return ResponseEntity.ok(Map.of(
                     "bulls", bulls,
                     "cows", cows,
@@ -433,7 +541,7 @@ public class TimeAttackController {
         String target = String.valueOf(session.getCurrentTargetNumber());
         List<Integer> unrevealedPositions = new ArrayList<>();
         for (int i = 0; i < target.length(); i++) {
-            if (!session.getRevealedHintPositions().contains(i)) {
+            if (!session.isHintRevealed(i)) {
                 unrevealedPositions.add(i);
             }
         }
@@ -450,13 +558,12 @@ public class TimeAttackController {
         int position = unrevealedPositions.get(random.nextInt(unrevealedPositions.size()));
         String digit = String.valueOf(target.charAt(position));
 
-        // Deduct coins
-        userService.spendCoins(user.getId(), hintCost);
-        User updatedUser = userService.findById(user.getId()).orElse(user);
-        int remainingCoins = updatedUser.getCoins() != null ? updatedUser.getCoins() : 0;
+        // Mark position as revealed (written back before charging)
+        session.revealHint(position);
+        activeSessions.update(sessionId, session);
 
-        // Mark position as revealed
-        session.getRevealedHintPositions().add(position);
+        // Deduct coins
+        int remainingCoins = userService.spendCoins(user.getId(), hintCost);
 
         logger.info("Time Attack hint purchased - User: {}, Session: {}, Position: {}, Digit: {}, Coins: {} -> {}",
                 username, sessionId, position, digit, userCoins, remainingCoins);
@@ -469,6 +576,101 @@ public class TimeAttackController {
         ));
     }
 
+    /**
+     * How many secrets are still consistent with the current game's guesses (free)
+     * POST /api/time-attack/remaining
+     */
+    @PostMapping("/remaining")
+    public ResponseEntity<?> getRemainingPossibilities(@RequestBody Map<String, String> request) {
+        String sessionId = request.get("sessionId");
+
+        TimeAttackGameSession session = sessionId != null ? activeSessions.get(sessionId) : null;
+        if (session == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("error", "Session not found"));
+        }
+
+        SolverService.Analysis analysis = solverService.analyze(session.getDifficulty(), session.getCurrentGuesses(),
+                session.getRevealedHintMask(), session.getCurrentSecretKey(), false);
+
+        return ResponseEntity.ok(Map.of(
+                "remaining", analysis.getRemaining(),
+                "attempts", session.getCurrentGameAttempts()
+        ));
+    }
+
+    /**
+     * Suggest the best next guess for the current game (paid hint)
+     * POST /api/time-attack/best-guess
+     */
+    @PostMapping("/best-guess")
+    public ResponseEntity<?> getBestGuess(
+            @RequestBody Map<String, String> request,
+            @RequestHeader("Authorization") String authHeader) {
+
+        String sessionId = request.get("sessionId");
+
+        // Validate auth
+        if (authHeader == null || !authHeader.startsWith("Bearer ")) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("success", false, "message", "Authentication required"));
+        }
+
+        String username;
+        try {
+            username = jwtUtil.extractUsername(authHeader.substring(7));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("success", false, "message", "Invalid token"));
+        }
+
+        Optional<User> userOpt = userRepository.findByUsername(username);
+        if (userOpt.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body(Map.of("success", false, "message", "User not found"));
+        }
+
+        User user = userOpt.get();
+
+        TimeAttackGameSession session = activeSessions.get(sessionId);
+        if (session == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                    .body(Map.of("success", false, "message", "Session not found"));
+        }
+
+        if (session.isExpired()) {
+            activeSessions.remove(sessionId);
+            return ResponseEntity.ok(Map.of(
+                    "success", false,
+                    "message", "Session expired"
+            ));
+        }
+
+        int cost = solverService.getSuggestionCost(session.getDifficulty());
+        Integer userCoins = user.getCoins() != null ? user.getCoins() : 0;
+        if (userCoins < cost) {
+            return ResponseEntity.ok(Map.of(
+                    "success", false,
+                    "message", "Insufficient coins. Need " + cost + " coins."
+            ));
+        }
+
+        SolverService.Analysis analysis = solverService.analyze(session.getDifficulty(), session.getCurrentGuesses(),
+                session.getRevealedHintMask(), session.getCurrentSecretKey(), true);
+
+        int remainingCoins = userService.spendCoins(user.getId(), cost);
+
+        logger.info("Time Attack suggestion purchased - User: {}, Session: {}, Suggestion: {}, Remaining: {}, Coins: {} -> {}",
+                username, sessionId, analysis.getSuggestion(), analysis.getRemaining(), userCoins, remainingCoins);
+
+        return ResponseEntity.ok(Map.of(
+                "success", true,
+                "suggestion", String.valueOf(analysis.getSuggestion()),
+                "remaining", analysis.getRemaining(),
+                "remainingCoins", remainingCoins
+        ));
+    }
+
     /**
      * End Time Attack session and save results (if authenticated)
      * POST /api/time-attack/end?sessionId={id}
@@ -486,7 +688,8 @@ public class TimeAttackController {
         }
 
         // Calculate final stats
-        List<GameResult> wonGames = session.getGameResults().stream()
+        List<GameResult> gameResults = session.getGameResults();
+        List<GameResult> wonGames = gameResults.stream()
                 .filter(GameResult::getWon)
                 .collect(Collectors.toList());
 
@@ -517,7 +720,7 @@ public class TimeAttackController {
                     User user = userOpt.get();
 
                     // Convert game results to JSON
-                    String gameDetailsJson = convertGameResultsToJson(session.getGameResults());
+                    String gameDetailsJson = convertGameResultsToJson(gameResults);
 
                     TimeAttackSession savedSession = timeAttackService.saveSession(
                             user,
@@ -542,11 +745,7 @@ public class TimeAttackController {
                             default -> 3;
                         };
                         coinsAwarded = coinsPerWin * session.getGamesWon();
-                        userService.awardCoinsAmount(user.getId(), coinsAwarded);
-
-                        // Get updated user with new coin total
-                        User updatedUser = userService.findById(user.getId()).orElse(user);
-                        totalCoins = updatedUser.getCoins() != null ? updatedUser.getCoins() : 0;
+                        totalCoins = userService.awardCoinsAmount(user.getId(), coinsAwarded);
                     }
                 }
             } catch (Exception e) {
@@ -563,7 +762,7 @@ public class TimeAttackController {
         response.put("gamesPlayed", session.getGamesPlayed());
         response.put("averageAttempts", averageAttempts);
         response.put("fastestWinSeconds", fastestWinSeconds);
-        response.put("gameDetails", session.getGameResults());
+        response.put("gameDetails", gameResults);
         if (rank != null) {
             response.put("rank", rank);
         }
@@ -594,6 +793,12 @@ public class TimeAttackController {
                     .body(Map.of("error", "Invalid difficulty"));
         }
 
+        byte[] json = leaderboardCache.get(LeaderboardCache.timeAttack(difficulty), limit,
+                () -> buildLeaderboard(difficulty, limit));
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(json);
+    }
+
+    private List<Map<String, Object>> buildLeaderboard(int difficulty, int limit) {
         List<TimeAttackSession> leaderboard = timeAttackService.getLeaderboard(difficulty, limit);
 
         List<Map<String, Object>> formattedLeaderboard = new ArrayList<>();
@@ -609,8 +814,7 @@ public class TimeAttackController {
             entry.put("playedAt", session.getPlayedAt());
             formattedLeaderboard.add(entry);
         }
-
-        return ResponseEntity.ok(formattedLeaderboard);
+        return formattedLeaderboard;
     }
 
     /**
@@ -639,27 +843,6 @@ public class TimeAttackController {
         }
     }
 
-    /**
-     * Scheduled cleanup of expired sessions (runs every 10 minutes)
-     */
-    @Scheduled(fixedRate = 600000)
-    public void cleanupExpiredSessions() {
-        int removed = 0;
-        Iterator<Map.Entry<String, TimeAttackGameSession>> iterator = activeSessions.entrySet().iterator();
-
-        while (iterator.hasNext()) {
-            Map.Entry<String, TimeAttackGameSession> entry = iterator.next();
-            if (entry.getValue().isExpired()) {
-                iterator.remove();
-                removed++;
-            }
-        }
-
-        if (removed > 0) {
-            logger.info("Cleaned up {} expired Time Attack sessions", removed);
-        }
-    }
-
     /**
      * Convert game results to JSON string
      */
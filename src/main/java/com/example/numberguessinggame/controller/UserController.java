@@ -4,6 +4,7 @@ import com.example.numberguessinggame.entity.Game;
 import com.example.numberguessinggame.entity.User;
 import com.example.numberguessinggame.repository.GameRepository;
 import com.example.numberguessinggame.service.AchievementService;
+import com.example.numberguessinggame.service.LeaderboardRanks;
 import com.example.numberguessinggame.service.UserService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
@@ -26,6 +27,9 @@ public class UserController {
     @Autowired
     private AchievementService achievementService;
 
+    @Autowired
+    private LeaderboardRanks leaderboardRanks;
+
     @Autowired
     private com.example.numberguessinggame.service.JwtUtil jwtUtil;
 
@@ -71,6 +75,7 @@ public class UserController {
             double winRateValue = totalGames > 0 ? (totalWins * 100.0 / totalGames) : 0.0;
             profile.put("winRate", String.format("%.1f%%", winRateValue));
             profile.put("bestScore", bestScore != null ? bestScore : "Not set");
+            profile.put("globalRank", leaderboardRanks.playerRank(user.getId())); // Null until the first win
 
             // Streak statistics
             Integer currentStreak = user.getCurrentWinStreak() != null ? user.getCurrentWinStreak() : 0;
@@ -8,7 +8,8 @@ import java.time.LocalDateTime;
 public class Achievement {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "achievements_id_seq")
+    @SequenceGenerator(name = "achievements_id_seq", sequenceName = "achievements_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(unique = true, nullable = false, length = 50)
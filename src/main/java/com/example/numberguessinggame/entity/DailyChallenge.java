@@ -9,7 +9,8 @@ import java.time.LocalDateTime;
 public class DailyChallenge {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "daily_challenges_id_seq")
+    @SequenceGenerator(name = "daily_challenges_id_seq", sequenceName = "daily_challenges_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(nullable = false, unique = true)
@@ -11,7 +11,8 @@ import java.time.LocalDateTime;
 public class DailyChallengeAttempt {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "daily_challenge_attempts_id_seq")
+    @SequenceGenerator(name = "daily_challenge_attempts_id_seq", sequenceName = "daily_challenge_attempts_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
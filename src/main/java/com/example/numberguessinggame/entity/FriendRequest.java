@@ -10,7 +10,8 @@ import java.time.LocalDateTime;
 public class FriendRequest {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "friend_requests_id_seq")
+    @SequenceGenerator(name = "friend_requests_id_seq", sequenceName = "friend_requests_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
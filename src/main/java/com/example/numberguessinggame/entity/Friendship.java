@@ -10,7 +10,8 @@ import java.time.LocalDateTime;
 public class Friendship {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "friendships_id_seq")
+    @SequenceGenerator(name = "friendships_id_seq", sequenceName = "friendships_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
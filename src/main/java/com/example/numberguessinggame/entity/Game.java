@@ -7,8 +7,14 @@ import java.time.LocalDateTime;
 @Table(name = "games")
 public class Game {
 
+    /**
+     * Ids handed out per games_id_seq call; the sequence must INCREMENT BY the same
+     */
+    public static final int ID_ALLOCATION_SIZE = 50;
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "games_id_seq")
+    @SequenceGenerator(name = "games_id_seq", sequenceName = "games_id_seq", allocationSize = ID_ALLOCATION_SIZE)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -33,6 +39,10 @@ public class Game {
     @Column(name = "hints_used")
     private Integer hintsUsed;
 
+    // Every guess with its result and timing, in GuessHistory.toBytes() form
+    @Column(name = "guess_data")
+    private byte[] guessData;
+
     @Column(name = "played_at", nullable = false, updatable = false)
     private LocalDateTime playedAt;
 
@@ -127,4 +137,12 @@ public class Game {
     public void setHintsUsed(Integer hintsUsed) {
         this.hintsUsed = hintsUsed;
     }
+
+    public byte[] getGuessData() {
+        return guessData;
+    }
+
+    public void setGuessData(byte[] guessData) {
+        this.guessData = guessData;
+    }
 }
@@ -8,7 +8,8 @@ import java.time.LocalDateTime;
 public class MultiplayerChallenge {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "multiplayer_challenges_id_seq")
+    @SequenceGenerator(name = "multiplayer_challenges_id_seq", sequenceName = "multiplayer_challenges_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -8,7 +8,8 @@ import java.time.LocalDateTime;
 public class MultiplayerGameSession {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "multiplayer_game_sessions_id_seq")
+    @SequenceGenerator(name = "multiplayer_game_sessions_id_seq", sequenceName = "multiplayer_game_sessions_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(name = "session_id", nullable = false, unique = true)
@@ -10,7 +10,8 @@ import java.time.LocalDateTime;
 public class MultiplayerPlayerProgress {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "multiplayer_player_progress_id_seq")
+    @SequenceGenerator(name = "multiplayer_player_progress_id_seq", sequenceName = "multiplayer_player_progress_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
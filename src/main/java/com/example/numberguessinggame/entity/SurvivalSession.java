@@ -10,7 +10,8 @@ import java.time.LocalDateTime;
 public class SurvivalSession {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "survival_sessions_id_seq")
+    @SequenceGenerator(name = "survival_sessions_id_seq", sequenceName = "survival_sessions_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
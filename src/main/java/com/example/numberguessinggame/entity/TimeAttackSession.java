@@ -10,7 +10,8 @@ import java.time.LocalDateTime;
 public class TimeAttackSession {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "time_attack_sessions_id_seq")
+    @SequenceGenerator(name = "time_attack_sessions_id_seq", sequenceName = "time_attack_sessions_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -9,7 +9,8 @@ import java.time.LocalDateTime;
 public class User {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "users_id_seq")
+    @SequenceGenerator(name = "users_id_seq", sequenceName = "users_id_seq", allocationSize = 50)
     private Long id;
 
     @Column(unique = true, nullable = false, length = 50)
@@ -52,6 +53,11 @@ public class User {
     @Column(name = "coins")
     private Integer coins = 0;
 
+    // Stat and coin updates are single UPDATE statements that bump this too
+    @Version
+    @Column(name = "version", nullable = false)
+    private Long version;
+
     @PrePersist
     protected void onCreate() {
         createdAt = LocalDateTime.now();
@@ -180,6 +186,10 @@ public class User {
         this.coins = coins;
     }
 
+    public Long getVersion() {
+        return version;
+    }
+
     public void addCoins(Integer amount) {
         if (amount > 0) {
             this.coins = (this.coins == null ? 0 : this.coins) + amount;
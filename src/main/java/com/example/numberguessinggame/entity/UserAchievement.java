@@ -9,7 +9,8 @@ import java.time.LocalDateTime;
 public class UserAchievement {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "user_achievements_id_seq")
+    @SequenceGenerator(name = "user_achievements_id_seq", sequenceName = "user_achievements_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
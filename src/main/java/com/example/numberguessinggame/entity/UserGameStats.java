@@ -0,0 +1,199 @@
+package com.example.numberguessinggame.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Running per-user counters derived from the games table.
+ * Updated once per finished game so achievement rules never rescan history.
+ */
+@Entity
+@Table(name = "user_game_stats")
+public class UserGameStats {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    // Wins per difficulty
+    @Column(name = "easy_wins", nullable = false)
+    private Integer easyWins = 0;
+
+    @Column(name = "medium_wins", nullable = false)
+    private Integer mediumWins = 0;
+
+    @Column(name = "hard_wins", nullable = false)
+    private Integer hardWins = 0;
+
+    // Wins by quality
+    @Column(name = "efficient_wins", nullable = false)
+    private Integer efficientWins = 0;  // <= 5 attempts
+
+    @Column(name = "fast_wins", nullable = false)
+    private Integer fastWins = 0;  // under 2 minutes
+
+    // Wins per time-of-day bucket
+    @Column(name = "morning_wins", nullable = false)
+    private Integer morningWins = 0;  // 06:00-09:00
+
+    @Column(name = "midnight_wins", nullable = false)
+    private Integer midnightWins = 0;  // 00:00-03:00
+
+    @Column(name = "lunch_wins", nullable = false)
+    private Integer lunchWins = 0;  // 12:00-14:00
+
+    @Column(name = "evening_wins", nullable = false)
+    private Integer eveningWins = 0;  // 18:00-21:00
+
+    // Run tracking
+    @Column(name = "perfect_win_run", nullable = false)
+    private Integer perfectWinRun = 0;  // most recent consecutive wins with <= 3 attempts
+
+    @Column(name = "current_loss_streak", nullable = false)
+    private Integer currentLossStreak = 0;
+
+    @Column(name = "losses_before_last_win", nullable = false)
+    private Integer lossesBeforeLastWin = 0;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    protected void onSave() {
+        updatedAt = LocalDateTime.now();
+    }
+
+    // Constructors
+    public UserGameStats() {
+    }
+
+    public UserGameStats(Long userId) {
+        this.userId = userId;
+    }
+
+    /**
+     * Wins recorded for a difficulty (0=Easy, 1=Medium, 2=Hard)
+     */
+    public int getWinsForDifficulty(int difficulty) {
+        return switch (difficulty) {
+            case 0 -> easyWins;
+            case 1 -> mediumWins;
+            case 2 -> hardWins;
+            default -> 0;
+        };
+    }
+
+    // Getters and Setters
+    public Long getUserId() {
+        return userId;
+    }
+
+    public void setUserId(Long userId) {
+        this.userId = userId;
+    }
+
+    public Integer getEasyWins() {
+        return easyWins;
+    }
+
+    public void setEasyWins(Integer easyWins) {
+        this.easyWins = easyWins;
+    }
+
+    public Integer getMediumWins() {
+        return mediumWins;
+    }
+
+    public void setMediumWins(Integer mediumWins) {
+        this.mediumWins = mediumWins;
+    }
+
+    public Integer getHardWins() {
+        return hardWins;
+    }
+
+    public void setHardWins(Integer hardWins) {
+        this.hardWins = hardWins;
+    }
+
+    public Integer getEfficientWins() {
+        return efficientWins;
+    }
+
+    public void setEfficientWins(Integer efficientWins) {
+        this.efficientWins = efficientWins;
+    }
+
+    public Integer getFastWins() {
+        return fastWins;
+    }
+
+    public void setFastWins(Integer fastWins) {
+        this.fastWins = fastWins;
+    }
+
+    public Integer getMorningWins() {
+        return morningWins;
+    }
+
+    public void setMorningWins(Integer morningWins) {
+        this.morningWins = morningWins;
+    }
+
+    public Integer getMidnightWins() {
+        return midnightWins;
+    }
+
+    public void setMidnightWins(Integer midnightWins) {
+        this.midnightWins = midnightWins;
+    }
+
+    public Integer getLunchWins() {
+        return lunchWins;
+    }
+
+    public void setLunchWins(Integer lunchWins) {
+        this.lunchWins = lunchWins;
+    }
+
+    public Integer getEveningWins() {
+        return eveningWins;
+    }
+
+    public void setEveningWins(Integer eveningWins) {
+        this.eveningWins = eveningWins;
+    }
+
+    public Integer getPerfectWinRun() {
+        return perfectWinRun;
+    }
+
+    public void setPerfectWinRun(Integer perfectWinRun) {
+        this.perfectWinRun = perfectWinRun;
+    }
+
+    public Integer getCurrentLossStreak() {
+        return currentLossStreak;
+    }
+
+    public void setCurrentLossStreak(Integer currentLossStreak) {
+        this.currentLossStreak = currentLossStreak;
+    }
+
+    public Integer getLossesBeforeLastWin() {
+        return lossesBeforeLastWin;
+    }
+
+    public void setLossesBeforeLastWin(Integer lossesBeforeLastWin) {
+        this.lossesBeforeLastWin = lossesBeforeLastWin;
+    }
+
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
@@ -27,12 +27,12 @@ public interface DailyChallengeAttemptRepository extends JpaRepository<DailyChal
 
     /**
      * Get leaderboard for a challenge
-     * Ranked by: won first, then fewest attempts, then fastest time
+     * Ranked by: won first, then fewest attempts, then fastest time, then id (as LeaderboardRanks)
      */
     @Query("SELECT a FROM DailyChallengeAttempt a " +
            "JOIN FETCH a.user " +
            "WHERE a.challenge = :challenge AND a.won = true " +
-           "ORDER BY a.attempts ASC, a.timeTakenSeconds ASC")
+           "ORDER BY a.attempts ASC, a.timeTakenSeconds ASC, a.id ASC")
     List<DailyChallengeAttempt> findTopAttemptsByChallenge(
         @Param("challenge") DailyChallenge challenge,
         Pageable pageable
@@ -11,7 +11,7 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface FriendshipRepository extends JpaRepository<Friendship, Long> {
+public interface FriendshipRepository extends JpaRepository<Friendship, Long>, FriendshipRepositoryCustom {
 
     /**
      * Find all friends for a user (bidirectional lookup)
@@ -0,0 +1,26 @@
+package com.example.numberguessinggame.repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hand-written lookups across friendships and friend_requests
+ */
+public interface FriendshipRepositoryCustom {
+
+    /**
+     * Relationship of one user to each of the others, in one query: FRIENDS,
+     * REQUEST_SENT or REQUEST_RECEIVED (a pending request either way), or NONE
+     *
+     * @return Status by other user id, with an entry for every id given
+     */
+    Map<Long, String> findRelationshipStatuses(Long userId, Collection<Long> otherUserIds);
+
+    /**
+     * Friends of each of the given users, in one query
+     *
+     * @return Friend ids by user id; users without friends are left out
+     */
+    Map<Long, List<Long>> findFriendIds(Collection<Long> userIds);
+}
@@ -17,13 +17,13 @@ public interface SurvivalSessionRepository extends JpaRepository<SurvivalSession
     /**
      * Get leaderboard for a specific difficulty
      * Shows only the BEST run per player (using cached is_best_run flag)
-     * Ranked by: completed DESC, roundsSurvived DESC, totalAttemptsUsed ASC
+     * Ranked by: completed DESC, roundsSurvived DESC, totalAttemptsUsed ASC, then id (as LeaderboardRanks)
      * Only includes authenticated users (user IS NOT NULL)
      */
     @Query("SELECT s FROM SurvivalSession s " +
            "JOIN FETCH s.user u " +
            "WHERE s.difficulty = :difficulty AND s.isBestRun = true " +
-           "ORDER BY s.completed DESC, s.roundsSurvived DESC, s.totalAttemptsUsed ASC")
+           "ORDER BY s.completed DESC, s.roundsSurvived DESC, s.totalAttemptsUsed ASC, s.id ASC")
     List<SurvivalSession> findLeaderboardByDifficulty(
         @Param("difficulty") Integer difficulty,
         Pageable pageable
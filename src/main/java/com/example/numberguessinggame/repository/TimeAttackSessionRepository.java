@@ -17,13 +17,13 @@ public interface TimeAttackSessionRepository extends JpaRepository<TimeAttackSes
     /**
      * Get leaderboard for a specific difficulty level
      * Shows only the BEST session per player (using cached is_best_run flag)
-     * Ranked by: totalScore DESC, gamesWon DESC, averageAttempts ASC
+     * Ranked by: totalScore DESC, gamesWon DESC, averageAttempts ASC, then id (as LeaderboardRanks)
      * Only includes authenticated users (user IS NOT NULL)
      */
     @Query("SELECT t FROM TimeAttackSession t " +
            "JOIN FETCH t.user u " +
            "WHERE t.difficulty = :difficulty AND t.isBestRun = true " +
-           "ORDER BY t.totalScore DESC, t.gamesWon DESC, t.averageAttempts ASC")
+           "ORDER BY t.totalScore DESC, t.gamesWon DESC, t.averageAttempts ASC, t.id ASC")
     List<TimeAttackSession> findLeaderboardByDifficulty(
         @Param("difficulty") Integer difficulty,
         Pageable pageable
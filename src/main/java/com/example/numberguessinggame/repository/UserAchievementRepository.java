@@ -11,7 +11,7 @@ import org.springframework.stereotype.Repository;
 import java.util.List;
 
 @Repository
-public interface UserAchievementRepository extends JpaRepository<UserAchievement, Long> {
+public interface UserAchievementRepository extends JpaRepository<UserAchievement, Long>, UserAchievementRepositoryCustom {
 
     List<UserAchievement> findByUserOrderByUnlockedAtDesc(User user);
 
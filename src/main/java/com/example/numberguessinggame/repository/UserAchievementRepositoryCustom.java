@@ -0,0 +1,18 @@
+package com.example.numberguessinggame.repository;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Hand-written bulk operations on user_achievements
+ */
+public interface UserAchievementRepositoryCustom {
+
+    /**
+     * Insert all unlocks in one statement, skipping rows that already exist
+     * (uk_user_achievement), so concurrent unlocks of the same achievement are harmless.
+     *
+     * @return IDs of the achievements that were actually inserted
+     */
+    List<Long> insertIgnoringDuplicates(Long userId, Collection<Long> achievementIds);
+}
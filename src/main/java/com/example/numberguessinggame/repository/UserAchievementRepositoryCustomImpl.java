@@ -0,0 +1,45 @@
+package com.example.numberguessinggame.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Plain JDBC for the unlock insert: one multi-row statement, with uk_user_achievement
+ * deciding which rows are new instead of an existence check per achievement.
+ */
+public class UserAchievementRepositoryCustomImpl implements UserAchievementRepositoryCustom {
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public List<Long> insertIgnoringDuplicates(Long userId, Collection<Long> achievementIds) {
+        if (achievementIds.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Timestamp unlockedAt = Timestamp.valueOf(LocalDateTime.now());
+        StringBuilder sql = new StringBuilder(
+                "INSERT INTO user_achievements (user_id, achievement_id, unlocked_at, notified) VALUES ");
+        List<Object> args = new ArrayList<>(achievementIds.size() * 3);
+        for (Long achievementId : achievementIds) {
+            if (!args.isEmpty()) {
+                sql.append(", ");
+            }
+            sql.append("(?, ?, ?, FALSE)");
+            args.add(userId);
+            args.add(achievementId);
+            args.add(unlockedAt);
+        }
+        sql.append(" ON CONFLICT (user_id, achievement_id) DO NOTHING RETURNING achievement_id");
+
+        return jdbcTemplate.queryForList(sql.toString(), Long.class, args.toArray());
+    }
+}
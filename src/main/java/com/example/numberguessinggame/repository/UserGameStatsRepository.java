@@ -0,0 +1,9 @@
+package com.example.numberguessinggame.repository;
+
+import com.example.numberguessinggame.entity.UserGameStats;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface UserGameStatsRepository extends JpaRepository<UserGameStats, Long>, UserGameStatsRepositoryCustom {
+}
@@ -0,0 +1,17 @@
+package com.example.numberguessinggame.repository;
+
+import com.example.numberguessinggame.entity.UserGameStats;
+
+/**
+ * Hand-written operations on user_game_stats
+ */
+public interface UserGameStatsRepositoryCustom {
+
+    /**
+     * Insert a user's first stats row unless one exists already (the primary key
+     * decides), so concurrent first builds of the same user are harmless.
+     *
+     * @return False if another transaction inserted the row first
+     */
+    boolean insertIfAbsent(UserGameStats stats);
+}
@@ -0,0 +1,43 @@
+package com.example.numberguessinggame.repository;
+
+import com.example.numberguessinggame.entity.UserGameStats;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+
+/**
+ * Plain JDBC for the first insert of a stats row: ON CONFLICT instead of the
+ * load-then-persist of save(), which two requests for a new user can both pass.
+ */
+public class UserGameStatsRepositoryCustomImpl implements UserGameStatsRepositoryCustom {
+
+    private static final String INSERT_IF_ABSENT =
+            "INSERT INTO user_game_stats (user_id, easy_wins, medium_wins, hard_wins, efficient_wins, fast_wins, " +
+            "morning_wins, midnight_wins, lunch_wins, evening_wins, perfect_win_run, current_loss_streak, " +
+            "losses_before_last_win, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?) " +
+            "ON CONFLICT (user_id) DO NOTHING";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public boolean insertIfAbsent(UserGameStats stats) {
+        return jdbcTemplate.update(INSERT_IF_ABSENT,
+                stats.getUserId(),
+                stats.getEasyWins(),
+                stats.getMediumWins(),
+                stats.getHardWins(),
+                stats.getEfficientWins(),
+                stats.getFastWins(),
+                stats.getMorningWins(),
+                stats.getMidnightWins(),
+                stats.getLunchWins(),
+                stats.getEveningWins(),
+                stats.getPerfectWinRun(),
+                stats.getCurrentLossStreak(),
+                stats.getLossesBeforeLastWin(),
+                Timestamp.valueOf(LocalDateTime.now())) > 0;
+    }
+}
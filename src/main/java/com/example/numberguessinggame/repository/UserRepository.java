@@ -10,7 +10,7 @@ import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface UserRepository extends JpaRepository<User, Long> {
+public interface UserRepository extends JpaRepository<User, Long>, UserRepositoryCustom {
 
     Optional<User> findByUsername(String username);
 
@@ -28,6 +28,6 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     boolean existsByEmail(String email);
 
-    @Query("SELECT u FROM User u WHERE u.bestScore IS NOT NULL ORDER BY u.bestScore ASC, u.totalWins DESC")
+    @Query("SELECT u FROM User u WHERE u.bestScore IS NOT NULL ORDER BY u.bestScore ASC, u.totalWins DESC, u.id ASC")
     List<User> findTopPlayersByBestScore(Pageable pageable);
 }
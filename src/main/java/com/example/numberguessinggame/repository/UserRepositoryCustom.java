@@ -0,0 +1,63 @@
+package com.example.numberguessinggame.repository;
+
+import com.example.numberguessinggame.entity.Game;
+
+import java.util.List;
+
+/**
+ * Hand-written SQL on users.
+ *
+ * The atomic updates are each one UPDATE, so concurrent changes to the same user add
+ * up instead of overwriting each other. All of them bump the version, so a User
+ * entity read before them can no longer be saved over them.
+ *
+ * The username searches read only the columns a result shows, through the indexes on
+ * LOWER(username) (db_migration_username_search.sql).
+ */
+public interface UserRepositoryCustom {
+
+    /**
+     * @return New balance, or null if the user does not exist
+     */
+    Integer addCoins(Long userId, int amount);
+
+    /**
+     * Deduct coins only if the balance covers them
+     *
+     * @return New balance, or null if the user does not exist or has too few coins
+     */
+    Integer spendCoins(Long userId, int amount);
+
+    /**
+     * Count finished games, in the order given: totals, best score, win streak and
+     * play-day streak, each computed from the row as the previous game left it. Games
+     * of users that do not exist are skipped.
+     */
+    void recordGameResults(List<Game> games);
+
+    /**
+     * Add to the game and win totals only (modes without streaks)
+     *
+     * @return Whether the user exists
+     */
+    boolean addGameCounts(Long userId, int games, int wins);
+
+    /**
+     * A user as listed in search results
+     */
+    record UsernameMatch(Long id, String username, Integer totalGames, Integer totalWins) {
+    }
+
+    /**
+     * Users whose lowercase name starts with the prefix, in name order: a range scan of
+     * idx_users_username_lower that stops at the limit
+     */
+    List<UsernameMatch> findByUsernamePrefix(String prefix, Long excludeUserId, int limit);
+
+    /**
+     * Users whose lowercase name contains the fragment without starting with it, in
+     * name order, looked up in idx_users_username_trgm. Fragments shorter than three
+     * characters have no trigram and would scan the table, so they match nothing.
+     */
+    List<UsernameMatch> findByUsernameInfix(String fragment, Long excludeUserId, int limit);
+}
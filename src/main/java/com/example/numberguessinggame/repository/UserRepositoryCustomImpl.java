@@ -0,0 +1,112 @@
+package com.example.numberguessinggame.repository;
+
+import com.example.numberguessinggame.entity.Game;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.sql.Date;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Plain JDBC for stat and coin arithmetic: the database computes the new values from
+ * the row it locks, with RETURNING where the caller shows the result, instead of a
+ * SELECT followed by a full-row UPDATE. Username searches compare LOWER(username) in
+ * the "C" collation, the one idx_users_username_lower is built with, so LIKE 'abc%'
+ * and the ORDER BY both use it.
+ */
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    // Every right-hand side sees the row as it was before the update
+    private static final String PLAY_DAYS =
+            "CASE WHEN u.last_played_date IS NULL OR u.last_played_date < p.today - 1 THEN 1 " +
+            "WHEN u.last_played_date = p.today - 1 THEN COALESCE(u.consecutive_play_days, 0) + 1 " +
+            "ELSE COALESCE(u.consecutive_play_days, 0) END";
+
+    private static final String RECORD_GAME_RESULT =
+            "UPDATE users u SET " +
+            "total_games = COALESCE(u.total_games, 0) + 1, " +
+            "total_wins = COALESCE(u.total_wins, 0) + CASE WHEN p.won THEN 1 ELSE 0 END, " +
+            "best_score = CASE WHEN p.won THEN LEAST(u.best_score, p.attempts) ELSE u.best_score END, " +
+            "current_win_streak = CASE WHEN p.won THEN COALESCE(u.current_win_streak, 0) + 1 ELSE 0 END, " +
+            "best_win_streak = CASE WHEN p.won " +
+            "THEN GREATEST(COALESCE(u.best_win_streak, 0), COALESCE(u.current_win_streak, 0) + 1) " +
+            "ELSE u.best_win_streak END, " +
+            "consecutive_play_days = " + PLAY_DAYS + ", " +
+            "best_play_day_streak = GREATEST(COALESCE(u.best_play_day_streak, 0), " + PLAY_DAYS + "), " +
+            "last_played_date = p.today, " +
+            "version = u.version + 1 " +
+            "FROM (SELECT CAST(? AS DATE) AS today, CAST(? AS BOOLEAN) AS won, CAST(? AS INTEGER) AS attempts) p " +
+            "WHERE u.id = ?";
+
+    private static final String LOWER_USERNAME = "LOWER(username) COLLATE \"C\"";
+
+    private static final String SEARCH_COLUMNS = "SELECT id, username, total_games, total_wins FROM users ";
+
+    private static final RowMapper<UsernameMatch> USERNAME_MATCH = (rs, row) -> new UsernameMatch(
+            rs.getLong("id"), rs.getString("username"), rs.getInt("total_games"), rs.getInt("total_wins"));
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Override
+    public Integer addCoins(Long userId, int amount) {
+        List<Integer> balance = jdbcTemplate.queryForList(
+                "UPDATE users SET coins = COALESCE(coins, 0) + ?, version = version + 1 WHERE id = ? RETURNING coins",
+                Integer.class, amount, userId);
+        return balance.isEmpty() ? null : balance.get(0);
+    }
+
+    @Override
+    public Integer spendCoins(Long userId, int amount) {
+        List<Integer> balance = jdbcTemplate.queryForList(
+                "UPDATE users SET coins = coins - ?, version = version + 1 WHERE id = ? AND coins >= ? RETURNING coins",
+                Integer.class, amount, userId, amount);
+        return balance.isEmpty() ? null : balance.get(0);
+    }
+
+    @Override
+    public void recordGameResults(List<Game> games) {
+        // One statement per game, so a player's streaks follow their games in order
+        List<Object[]> args = new ArrayList<>(games.size());
+        for (Game game : games) {
+            args.add(new Object[] {Date.valueOf(game.getPlayedAt().toLocalDate()), game.getWon(), game.getAttempts(),
+                    game.getUser().getId()});
+        }
+        jdbcTemplate.batchUpdate(RECORD_GAME_RESULT, args);
+    }
+
+    @Override
+    public boolean addGameCounts(Long userId, int games, int wins) {
+        return jdbcTemplate.update(
+                "UPDATE users SET total_games = COALESCE(total_games, 0) + ?, total_wins = COALESCE(total_wins, 0) + ?, " +
+                "version = version + 1 WHERE id = ?",
+                games, wins, userId) > 0;
+    }
+
+    @Override
+    public List<UsernameMatch> findByUsernamePrefix(String prefix, Long excludeUserId, int limit) {
+        return jdbcTemplate.query(
+                SEARCH_COLUMNS + "WHERE " + LOWER_USERNAME + " LIKE ? ESCAPE '\\' AND id <> ? " +
+                "ORDER BY " + LOWER_USERNAME + " LIMIT ?",
+                USERNAME_MATCH, escapeLike(prefix.toLowerCase()) + "%", excludeUserId, limit);
+    }
+
+    @Override
+    public List<UsernameMatch> findByUsernameInfix(String fragment, Long excludeUserId, int limit) {
+        if (fragment.length() < 3) {
+            return Collections.emptyList();
+        }
+        String escaped = escapeLike(fragment.toLowerCase());
+        return jdbcTemplate.query(
+                SEARCH_COLUMNS + "WHERE LOWER(username) LIKE ? ESCAPE '\\' AND LOWER(username) NOT LIKE ? ESCAPE '\\' " +
+                "AND id <> ? ORDER BY " + LOWER_USERNAME + " LIMIT ?",
+                USERNAME_MATCH, "%" + escaped + "%", escaped + "%", excludeUserId, limit);
+    }
+
+    private static String escapeLike(String text) {
+        return text.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
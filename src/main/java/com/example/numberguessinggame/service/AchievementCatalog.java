@@ -0,0 +1,132 @@
+package com.example.numberguessinggame.service;
+
+import com.example.numberguessinggame.entity.Achievement;
+import com.example.numberguessinggame.entity.Achievement.AchievementType;
+import com.example.numberguessinggame.repository.AchievementRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Immutable in-memory snapshot of the active achievements.
+ * The catalogue only changes when AchievementInitializer runs, which calls refresh()
+ * afterwards; everything else reads the snapshot instead of querying the table.
+ */
+@Component
+public class AchievementCatalog {
+
+    private static final Logger logger = LoggerFactory.getLogger(AchievementCatalog.class);
+
+    @Autowired
+    private AchievementRepository achievementRepository;
+
+    private volatile Snapshot snapshot;
+    private final AtomicInteger version = new AtomicInteger();
+
+    /**
+     * Reload the active achievements from the database.
+     * Ordinals are reassigned, so anything keyed by them must check getVersion().
+     */
+    public void refresh() {
+        snapshot = new Snapshot(achievementRepository.findByActiveTrue(), version.incrementAndGet());
+        logger.info("Achievement catalogue loaded: {} active achievements", snapshot.active.size());
+    }
+
+    /**
+     * @return All active achievements, in table order
+     */
+    public List<Achievement> getActive() {
+        return current().active;
+    }
+
+    public List<Achievement> getActiveByType(AchievementType type) {
+        return current().byType.getOrDefault(type, Collections.emptyList());
+    }
+
+    /**
+     * @return Active achievement with this code, or null if none
+     */
+    public Achievement getByCode(String code) {
+        return current().byCode.get(code);
+    }
+
+    public Map<String, Achievement> getActiveByCode() {
+        return current().byCode;
+    }
+
+    public int size() {
+        return current().active.size();
+    }
+
+    /**
+     * Dense ordinal (0..size-1) of an active achievement, -1 if it isn't active
+     */
+    public int getOrdinal(Long achievementId) {
+        Integer ordinal = current().ordinalById.get(achievementId);
+        return ordinal != null ? ordinal : -1;
+    }
+
+    /**
+     * Active achievement at a dense ordinal
+     */
+    public Achievement getByOrdinal(int ordinal) {
+        return current().active.get(ordinal);
+    }
+
+    /**
+     * Changes every time the snapshot is rebuilt
+     */
+    public int getVersion() {
+        return current().version;
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            // Requests can arrive before AchievementInitializer has finished
+            synchronized (this) {
+                if (snapshot == null) {
+                    refresh();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    private static final class Snapshot {
+        private final List<Achievement> active;
+        private final Map<String, Achievement> byCode;
+        private final Map<AchievementType, List<Achievement>> byType;
+        private final Map<Long, Integer> ordinalById;
+        private final int version;
+
+        private Snapshot(List<Achievement> achievements, int version) {
+            Map<String, Achievement> codes = new LinkedHashMap<>();
+            Map<AchievementType, List<Achievement>> types = new EnumMap<>(AchievementType.class);
+            Map<Long, Integer> ordinals = new HashMap<>();
+            for (Achievement achievement : achievements) {
+                codes.put(achievement.getCode(), achievement);
+                types.computeIfAbsent(achievement.getType(), t -> new ArrayList<>()).add(achievement);
+                ordinals.put(achievement.getId(), ordinals.size());
+            }
+            types.replaceAll((type, list) -> Collections.unmodifiableList(list));
+
+            this.active = Collections.unmodifiableList(new ArrayList<>(achievements));
+            this.byCode = Collections.unmodifiableMap(codes);
+            this.byType = Collections.unmodifiableMap(types);
+            this.ordinalById = Collections.unmodifiableMap(ordinals);
+            this.version = version;
+        }
+    }
+}
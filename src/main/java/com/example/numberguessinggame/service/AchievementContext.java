@@ -0,0 +1,44 @@
+package com.example.numberguessinggame.service;
+
+import com.example.numberguessinggame.entity.Game;
+import com.example.numberguessinggame.entity.User;
+import com.example.numberguessinggame.entity.UserGameStats;
+import com.example.numberguessinggame.util.GameUtils;
+
+/**
+ * What a rule gets to look at: the user, the game that fired the check and the
+ * user's stats including that game. The retroactive path replays history, so
+ * the game and stats are then those at that point in time.
+ */
+public class AchievementContext {
+
+    private final User user;
+    private final Game game;
+    private final UserGameStats stats;
+
+    public AchievementContext(User user, Game game, UserGameStats stats) {
+        this.user = user;
+        this.game = game;
+        this.stats = stats;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public Game getGame() {
+        return game;
+    }
+
+    public UserGameStats getStats() {
+        return stats;
+    }
+
+    /**
+     * Seconds taken by the game, Integer.MAX_VALUE when unknown
+     */
+    public int getGameSeconds() {
+        return game.getTimeTaken() == null ? Integer.MAX_VALUE
+                : GameUtils.parseTimeToSeconds(game.getTimeTaken());
+    }
+}
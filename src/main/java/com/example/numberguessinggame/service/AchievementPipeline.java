@@ -0,0 +1,290 @@
+package com.example.numberguessinggame.service;
+
+import com.example.numberguessinggame.entity.Achievement;
+import com.example.numberguessinggame.entity.Game;
+import com.example.numberguessinggame.entity.User;
+import com.example.numberguessinggame.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Evaluates achievements for finished games off the request thread.
+ *
+ * Events are sharded by user onto single-thread workers with bounded queues, so one
+ * user's games are evaluated in order and never concurrently. Unlocks are pushed to
+ * the user's own sessions on /user/queue/achievements. Failed evaluations are retried
+ * with backoff. When a user's queue is full the caller waits for room in it, up to
+ * achievements.pipeline.submit-timeout-ms, which is the backpressure; evaluating the
+ * game anywhere else could run it alongside the same user's queued games.
+ */
+@Service
+public class AchievementPipeline {
+
+    private static final Logger logger = LoggerFactory.getLogger(AchievementPipeline.class);
+
+    @Autowired
+    private AchievementService achievementService;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${achievements.pipeline.workers:2}")
+    private int workers;
+
+    @Value("${achievements.pipeline.queue-capacity:1000}")
+    private int queueCapacity;
+
+    @Value("${achievements.pipeline.max-attempts:3}")
+    private int maxAttempts;
+
+    @Value("${achievements.pipeline.retry-delay-ms:500}")
+    private long retryDelayMs;
+
+    @Value("${achievements.pipeline.submit-timeout-ms:5000}")
+    private long submitTimeoutMs;
+
+    private ThreadPoolExecutor[] shards;
+    private ScheduledExecutorService retryScheduler;
+    private final AtomicInteger pendingRetries = new AtomicInteger();
+
+    private Counter submitted;
+    private Counter blocked;
+    private Counter retried;
+    private Counter failed;
+    private Counter unlocked;
+    private Timer queueWait;
+    private Timer evaluation;
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger threadIds = new AtomicInteger();
+        shards = new ThreadPoolExecutor[workers];
+        for (int i = 0; i < workers; i++) {
+            shards[i] = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity),
+                    runnable -> daemon(runnable, "achievements-" + threadIds.incrementAndGet()));
+        }
+        retryScheduler = Executors.newSingleThreadScheduledExecutor(
+                runnable -> daemon(runnable, "achievements-retry"));
+
+        submitted = Counter.builder("achievements.pipeline.submitted")
+                .description("Finished games queued for achievement evaluation")
+                .register(meterRegistry);
+        blocked = Counter.builder("achievements.pipeline.blocked")
+                .description("Submissions that waited for room in a full queue")
+                .register(meterRegistry);
+        retried = Counter.builder("achievements.pipeline.retries")
+                .description("Evaluations scheduled for another attempt after a failure")
+                .register(meterRegistry);
+        failed = Counter.builder("achievements.pipeline.failed")
+                .description("Evaluations dropped after the last attempt failed")
+                .register(meterRegistry);
+        unlocked = Counter.builder("achievements.pipeline.unlocked")
+                .description("Achievements unlocked by the pipeline")
+                .register(meterRegistry);
+        queueWait = Timer.builder("achievements.pipeline.queue.wait")
+                .description("Time between a game finishing and its evaluation starting")
+                .register(meterRegistry);
+        evaluation = Timer.builder("achievements.pipeline.evaluation")
+                .description("Time spent evaluating achievements for one game")
+                .register(meterRegistry);
+        Gauge.builder("achievements.pipeline.queue.depth", this, AchievementPipeline::getQueueDepth)
+                .description("Games waiting for evaluation")
+                .register(meterRegistry);
+        Gauge.builder("achievements.pipeline.retries.pending", pendingRetries, AtomicInteger::get)
+                .description("Failed evaluations waiting for their next attempt")
+                .register(meterRegistry);
+
+        logger.info("Achievement pipeline started: {} workers, queue capacity {} each", workers, queueCapacity);
+    }
+
+    /**
+     * Drain what is already queued; retries that have not come due yet are dropped
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        retryScheduler.shutdownNow();
+        for (ThreadPoolExecutor shard : shards) {
+            shard.shutdown();
+        }
+        for (ThreadPoolExecutor shard : shards) {
+            if (!shard.awaitTermination(10, TimeUnit.SECONDS)) {
+                logger.warn("Achievement pipeline stopped with {} games still queued", shard.getQueue().size());
+                shard.shutdownNow();
+            }
+        }
+    }
+
+    /**
+     * Queue a saved game for achievement evaluation
+     */
+    public void gameCompleted(User user, Game game) {
+        submit(new GameCompletedEvent(user.getId(), game, 1));
+    }
+
+    public int getQueueDepth() {
+        int depth = 0;
+        for (ThreadPoolExecutor shard : shards) {
+            depth += shard.getQueue().size();
+        }
+        return depth;
+    }
+
+    private void submit(GameCompletedEvent event) {
+        ThreadPoolExecutor shard = shards[Math.floorMod(event.userId.hashCode(), shards.length)];
+        Runnable task = () -> process(event);
+        try {
+            shard.execute(task);
+            submitted.increment();
+            return;
+        } catch (RejectedExecutionException e) {
+            if (shard.isShutdown()) {
+                giveUp(event, "the pipeline is stopping");
+                return;
+            }
+        }
+
+        // Queue full: wait for room behind the user's earlier games. The worker
+        // thread exists already, since the queue only fills once it is running.
+        blocked.increment();
+        try {
+            if (shard.getQueue().offer(task, submitTimeoutMs, TimeUnit.MILLISECONDS)) {
+                submitted.increment();
+            } else {
+                giveUp(event, "its queue stayed full for " + submitTimeoutMs + "ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            giveUp(event, "the submitting thread was interrupted");
+        }
+    }
+
+    private void giveUp(GameCompletedEvent event, String reason) {
+        failed.increment();
+        logger.error("Dropped achievement evaluation for game {} of user {}: {}",
+                event.game.getId(), event.userId, reason);
+    }
+
+    private void process(GameCompletedEvent event) {
+        queueWait.record(System.nanoTime() - event.enqueuedAt, TimeUnit.NANOSECONDS);
+        long start = System.nanoTime();
+
+        List<Achievement> newlyUnlocked;
+        try {
+            // Reload so milestone rules see the totals the game write-behind just wrote
+            Optional<User> user = userRepository.findById(event.userId);
+            if (user.isEmpty()) {
+                return; // Account deleted in the meantime
+            }
+            newlyUnlocked = achievementService.checkAndUnlockAchievements(user.get(), event.game);
+        } catch (Exception e) {
+            retryOrGiveUp(event, e);
+            return;
+        } finally {
+            evaluation.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+
+        if (!newlyUnlocked.isEmpty()) {
+            unlocked.increment(newlyUnlocked.size());
+            notifyUser(event.userId, newlyUnlocked);
+        }
+    }
+
+    private void retryOrGiveUp(GameCompletedEvent event, Exception e) {
+        if (event.attempt >= maxAttempts || retryScheduler.isShutdown()) {
+            failed.increment();
+            logger.error("Achievement evaluation for game {} of user {} failed after {} attempts",
+                    event.game.getId(), event.userId, event.attempt, e);
+            return;
+        }
+
+        long delay = retryDelayMs << (event.attempt - 1);
+        logger.warn("Achievement evaluation for game {} of user {} failed (attempt {}), retrying in {}ms: {}",
+                event.game.getId(), event.userId, event.attempt, delay, e.getMessage());
+        retried.increment();
+        pendingRetries.incrementAndGet();
+        try {
+            retryScheduler.schedule(() -> {
+                pendingRetries.decrementAndGet();
+                submit(new GameCompletedEvent(event.userId, event.game, event.attempt + 1));
+            }, delay, TimeUnit.MILLISECONDS);
+        } catch (RejectedExecutionException shuttingDown) {
+            pendingRetries.decrementAndGet();
+            failed.increment();
+        }
+    }
+
+    /**
+     * Unlocks are already committed, so a failed push is only logged
+     */
+    private void notifyUser(Long userId, List<Achievement> achievements) {
+        List<Map<String, Object>> achievementData = new ArrayList<>();
+        for (Achievement achievement : achievements) {
+            Map<String, Object> achData = new HashMap<>();
+            achData.put("name", achievement.getName());
+            achData.put("description", achievement.getDescription());
+            achData.put("iconClass", achievement.getIconClass());
+            achData.put("iconColor", achievement.getIconColor());
+            achData.put("points", achievement.getPoints());
+            achievementData.add(achData);
+        }
+
+        Map<String, Object> notification = new HashMap<>();
+        notification.put("type", "achievements_unlocked");
+        notification.put("achievements", achievementData);
+
+        try {
+            messagingTemplate.convertAndSendToUser(userId.toString(), "/queue/achievements", notification);
+        } catch (Exception e) {
+            logger.warn("Failed to push {} unlocked achievements to user {}: {}", achievements.size(), userId, e.getMessage());
+        }
+    }
+
+    private static Thread daemon(Runnable runnable, String name) {
+        Thread thread = new Thread(runnable, name);
+        thread.setDaemon(true);
+        return thread;
+    }
+
+    private static final class GameCompletedEvent {
+        private final Long userId;
+        private final Game game;
+        private final int attempt;
+        private final long enqueuedAt = System.nanoTime();
+
+        private GameCompletedEvent(Long userId, Game game, int attempt) {
+            this.userId = userId;
+            this.game = game;
+            this.attempt = attempt;
+        }
+    }
+}
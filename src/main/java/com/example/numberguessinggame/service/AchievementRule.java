@@ -0,0 +1,44 @@
+package com.example.numberguessinggame.service;
+
+import com.example.numberguessinggame.entity.Achievement;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.function.BiPredicate;
+
+/**
+ * Unlock condition for one achievement code, plus the events that can make it true
+ */
+public class AchievementRule {
+
+    private final String code;
+    private final Set<AchievementTrigger> triggers;
+    private final BiPredicate<Achievement, AchievementContext> condition;
+
+    public AchievementRule(String code, Set<AchievementTrigger> triggers,
+                           BiPredicate<Achievement, AchievementContext> condition) {
+        if (triggers.isEmpty()) {
+            throw new IllegalArgumentException("Achievement rule " + code + " needs at least one trigger");
+        }
+        this.code = code;
+        this.triggers = Collections.unmodifiableSet(EnumSet.copyOf(triggers));
+        this.condition = condition;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public Set<AchievementTrigger> getTriggers() {
+        return triggers;
+    }
+
+    /**
+     * @param achievement The catalogue entry for this code (threshold, etc.)
+     * @param context The game being evaluated
+     */
+    public boolean isSatisfied(Achievement achievement, AchievementContext context) {
+        return condition.test(achievement, context);
+    }
+}
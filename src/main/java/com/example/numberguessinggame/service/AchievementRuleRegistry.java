@@ -0,0 +1,63 @@
+package com.example.numberguessinggame.service;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Achievement rules keyed by achievement code, indexed by trigger.
+ * Populated by AchievementInitializer at startup and read by AchievementService;
+ * registration swaps in a fresh copy so reads never lock.
+ */
+@Component
+public class AchievementRuleRegistry {
+
+    private volatile Map<String, AchievementRule> rulesByCode = Collections.emptyMap();
+    private volatile Map<AchievementTrigger, List<AchievementRule>> rulesByTrigger = new EnumMap<>(AchievementTrigger.class);
+
+    /**
+     * Register (or replace) the rule for an achievement code
+     */
+    public synchronized void register(AchievementRule rule) {
+        Map<String, AchievementRule> byCode = new LinkedHashMap<>(rulesByCode);
+        byCode.put(rule.getCode(), rule);
+
+        Map<AchievementTrigger, List<AchievementRule>> byTrigger = new EnumMap<>(AchievementTrigger.class);
+        for (AchievementRule registered : byCode.values()) {
+            for (AchievementTrigger trigger : registered.getTriggers()) {
+                byTrigger.computeIfAbsent(trigger, t -> new ArrayList<>()).add(registered);
+            }
+        }
+
+        rulesByTrigger = byTrigger;
+        rulesByCode = Collections.unmodifiableMap(byCode);
+    }
+
+    public AchievementRule getRule(String code) {
+        return rulesByCode.get(code);
+    }
+
+    public Collection<AchievementRule> getAllRules() {
+        return rulesByCode.values();
+    }
+
+    /**
+     * Rules listening to at least one of the fired triggers, each rule once
+     */
+    public Collection<AchievementRule> getRulesFor(Set<AchievementTrigger> fired) {
+        Map<AchievementTrigger, List<AchievementRule>> index = rulesByTrigger;
+        Set<AchievementRule> matching = new LinkedHashSet<>();
+        for (AchievementTrigger trigger : fired) {
+            matching.addAll(index.getOrDefault(trigger, Collections.emptyList()));
+        }
+        return matching;
+    }
+}
@@ -0,0 +1,47 @@
+package com.example.numberguessinggame.service;
+
+import com.example.numberguessinggame.entity.Game;
+import com.example.numberguessinggame.entity.UserGameStats;
+import com.example.numberguessinggame.util.GameUtils;
+
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Game events an achievement rule can react to.
+ * A finished game fires a set of these and only rules listening to one of them are evaluated.
+ */
+public enum AchievementTrigger {
+    GAME_FINISHED,  // every finished game
+    WIN,            // any win
+    HARD_WIN,       // win on Hard
+    PERFECT_WIN,    // win in 3 or fewer attempts
+    FAST_WIN,       // win in under 2 minutes
+    COMEBACK_WIN;   // win that ended a losing streak
+
+    /**
+     * Events fired by a game, once it has been folded into the user's stats
+     */
+    public static Set<AchievementTrigger> firedBy(Game game, UserGameStats stats) {
+        Set<AchievementTrigger> fired = EnumSet.of(GAME_FINISHED);
+        if (!Boolean.TRUE.equals(game.getWon())) {
+            return fired;
+        }
+
+        fired.add(WIN);
+        if (game.getDifficulty() == 2) {
+            fired.add(HARD_WIN);
+        }
+        if (game.getAttempts() <= UserGameStatsService.PERFECT_ATTEMPTS) {
+            fired.add(PERFECT_WIN);
+        }
+        if (game.getTimeTaken() != null
+                && GameUtils.parseTimeToSeconds(game.getTimeTaken()) < UserGameStatsService.FAST_WIN_SECONDS) {
+            fired.add(FAST_WIN);
+        }
+        if (stats.getLossesBeforeLastWin() > 0) {
+            fired.add(COMEBACK_WIN);
+        }
+        return fired;
+    }
+}
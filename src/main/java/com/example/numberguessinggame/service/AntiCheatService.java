@@ -0,0 +1,202 @@
+package com.example.numberguessinggame.service;
+
+import com.example.numberguessinggame.util.BullsCowsSolver;
+import com.example.numberguessinggame.util.CandidateTable;
+import com.example.numberguessinggame.util.GuessHistory;
+import com.example.numberguessinggame.util.ResponseMatrix;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Flags wins that are too lucky to be fair play.
+ *
+ * Each win is replayed against the candidate space: before every guess we know how
+ * many secrets were still consistent with the earlier feedback, so a player choosing
+ * among them at random hits the secret with probability 1 / remaining. The winning
+ * guess's probability flags single games (a first-guess win on Hard is 1 in 27,216).
+ * Per user, wins landing while at least game.anticheat.lucky-remaining secrets were
+ * left are counted against how many such wins fair play would produce (the sum of
+ * those 1 / remaining chances), and a Poisson tail below the user threshold flags the
+ * player. Digits revealed by hints are applied from the first guess, which only ever
+ * makes a game look less lucky.
+ */
+@Service
+public class AntiCheatService {
+
+    private static final Logger logger = LoggerFactory.getLogger(AntiCheatService.class);
+    private static final int MIN_LUCKY_WINS = 3;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${game.anticheat.flag-probability:0.001}")
+    private double gameFlagProbability;
+
+    @Value("${game.anticheat.user-flag-probability:0.0001}")
+    private double userFlagProbability;
+
+    @Value("${game.anticheat.lucky-remaining:20}")
+    private int luckyRemaining;
+
+    @Value("${game.anticheat.max-users:10000}")
+    private int maxUsers;
+
+    // Least recently analysed players are forgotten once full
+    private final Map<Long, UserLuck> users = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, UserLuck> eldest) {
+            return size() > maxUsers;
+        }
+    };
+
+    private Counter analyzed;
+    private Counter flaggedGames;
+    private Counter flaggedUsers;
+    private Timer analysis;
+
+    private static final class UserLuck {
+        private int wins;
+        private int luckyWins;
+        private double expectedLuckyWins;
+        private boolean flagged;
+    }
+
+    /**
+     * Outcome of analysing one win
+     */
+    public static class Verdict {
+        private final double probability;
+        private final boolean gameFlagged;
+        private final boolean userFlagged;
+
+        Verdict(double probability, boolean gameFlagged, boolean userFlagged) {
+            this.probability = probability;
+            this.gameFlagged = gameFlagged;
+            this.userFlagged = userFlagged;
+        }
+
+        /**
+         * @return Chance that the winning guess hits when picked among the secrets left
+         */
+        public double getProbability() { return probability; }
+        public boolean isGameFlagged() { return gameFlagged; }
+        public boolean isUserFlagged() { return userFlagged; }
+    }
+
+    @PostConstruct
+    public void start() {
+        analyzed = Counter.builder("anticheat.wins.analyzed")
+                .description("Wins replayed against the candidate space")
+                .register(meterRegistry);
+        flaggedGames = Counter.builder("anticheat.flagged")
+                .tag("scope", "game")
+                .description("Wins whose final guess was too unlikely to be luck")
+                .register(meterRegistry);
+        flaggedUsers = Counter.builder("anticheat.flagged")
+                .tag("scope", "user")
+                .description("Players whose lucky wins are far above what fair play gives")
+                .register(meterRegistry);
+        analysis = Timer.builder("anticheat.analysis")
+                .description("Time spent replaying a win")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Replay a finished win; the winning guess must be the last one in the history
+     *
+     * @param mode Game mode, for the log line
+     * @param difficulty 0=Easy(3), 1=Medium(4), 2=Hard(5)
+     * @param revealedMask Positions revealed by hints during the game
+     * @param secretKey Packed key of the secret
+     */
+    public Verdict analyzeWin(String mode, Long userId, int difficulty, GuessHistory history,
+                              int revealedMask, int secretKey) {
+        return analysis.record(() -> {
+            analyzed.increment();
+            ResponseMatrix matrix = ResponseMatrix.current(CandidateTable.MIN_DIGITS + difficulty);
+            long[] candidates = BullsCowsSolver.all(matrix.getTable());
+            BullsCowsSolver.applyRevealed(matrix.getTable(), candidates, revealedMask, secretKey);
+
+            // Fair-play chances of a lucky hit along the way, then the remaining count before the win
+            double luckyChances = 0;
+            int remaining = BullsCowsSolver.count(candidates);
+            for (int i = 0; i < history.size(); i++) {
+                if (remaining >= luckyRemaining) {
+                    luckyChances += 1.0 / remaining;
+                }
+                if (i == history.size() - 1) {
+                    break;
+                }
+                BullsCowsSolver.applyGuess(matrix, candidates, history.guessAt(i), history.resultAt(i));
+                remaining = BullsCowsSolver.count(candidates);
+            }
+
+            double probability = 1.0 / Math.max(1, remaining);
+            boolean gameFlagged = probability < gameFlagProbability;
+            if (gameFlagged) {
+                flaggedGames.increment();
+                logger.warn("[ADMIN] Anti-cheat | Mode: {} | User: {} | Difficulty: {} | Won in {} guesses with {} secrets left (p = {})",
+                        mode, userId, difficulty, history.size(), remaining, String.format("%.6f", probability));
+            }
+
+            boolean userFlagged = userId != null
+                    && recordUserWin(mode, userId, remaining >= luckyRemaining, luckyChances);
+            return new Verdict(probability, gameFlagged, userFlagged);
+        });
+    }
+
+    /**
+     * @return Whether the player is flagged (logged the first time only)
+     */
+    private boolean recordUserWin(String mode, Long userId, boolean lucky, double luckyChances) {
+        int wins;
+        int luckyWins;
+        double expected;
+        double tail;
+        synchronized (users) {
+            UserLuck luck = users.computeIfAbsent(userId, id -> new UserLuck());
+            luck.wins++;
+            luck.luckyWins += lucky ? 1 : 0;
+            luck.expectedLuckyWins += luckyChances;
+            if (luck.flagged || luck.luckyWins < MIN_LUCKY_WINS) {
+                return luck.flagged;
+            }
+            tail = poissonTail(luck.luckyWins, luck.expectedLuckyWins);
+            if (tail >= userFlagProbability) {
+                return false;
+            }
+            luck.flagged = true;
+            wins = luck.wins;
+            luckyWins = luck.luckyWins;
+            expected = luck.expectedLuckyWins;
+        }
+
+        flaggedUsers.increment();
+        logger.warn("[ADMIN] Anti-cheat | Mode: {} | User: {} | {} lucky wins out of {}, fair play expects {} (p = {})",
+                mode, userId, luckyWins, wins, String.format("%.2f", expected), String.format("%.2e", tail));
+        return true;
+    }
+
+    /**
+     * @return P(X &gt;= observed) for X ~ Poisson(expected)
+     */
+    static double poissonTail(int observed, double expected) {
+        double term = Math.exp(-expected);
+        double below = 0;
+        for (int k = 0; k < observed; k++) {
+            below += term;
+            term *= expected / (k + 1);
+        }
+        return Math.max(0, 1 - below);
+    }
+}
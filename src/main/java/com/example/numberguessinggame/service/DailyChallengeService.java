@@ -5,6 +5,7 @@ import com.example.numberguessinggame.entity.DailyChallengeAttempt;
 import com.example.numberguessinggame.entity.User;
 import com.example.numberguessinggame.repository.DailyChallengeAttemptRepository;
 import com.example.numberguessinggame.repository.DailyChallengeRepository;
+import com.example.numberguessinggame.util.CandidateTable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -27,6 +28,9 @@ public class DailyChallengeService {
     @Autowired
     private DailyChallengeAttemptRepository attemptRepository;
 
+    @Autowired
+    private LeaderboardRanks leaderboardRanks;
+
     /**
      * Get or create today's daily challenge
      * Uses date-based seeding to ensure same number for all players
@@ -65,8 +69,8 @@ public class DailyChallengeService {
         int targetNumber = generateUniqueDigitNumber(date, difficulty);
 
         // Log daily challenge creation (once per day)
-        logger.info("[ADMIN] Daily Challenge Created | Date: {} | Difficulty: {} ({}) | Target: {}",
-                date, difficulty, getDifficultyText(difficulty), targetNumber);
+        logger.info("[ADMIN] Daily Challenge Created | Date: {} | Difficulty: {} ({})",
+                date, difficulty, getDifficultyText(difficulty));
 
         DailyChallenge challenge = new DailyChallenge(date, targetNumber, difficulty);
         return dailyChallengeRepository.save(challenge);
@@ -82,35 +86,7 @@ public class DailyChallengeService {
         // Use date as seed: combine year, month, day into single long
         long seed = date.getYear() * 10000L + date.getMonthValue() * 100L + date.getDayOfMonth();
         Random random = new Random(seed);
-
-        int digitCount = 3 + difficulty;  // 3, 4, or 5 digits
-
-        // Generate unique digits
-        List<Integer> digits = new ArrayList<>();
-        for (int i = 0; i <= 9; i++) {
-            digits.add(i);
-        }
-        Collections.shuffle(digits, random);
-
-        // Take first digitCount digits, ensuring first digit is not 0
-        List<Integer> selectedDigits = new ArrayList<>();
-        for (int digit : digits) {
-            if (selectedDigits.isEmpty() && digit == 0) {
-                continue; // Skip 0 as first digit
-            }
-            selectedDigits.add(digit);
-            if (selectedDigits.size() == digitCount) {
-                break;
-            }
-        }
-
-        // Convert to number
-        int result = 0;
-        for (int digit : selectedDigits) {
-            result = result * 10 + digit;
-        }
-
-        return result;
+        return CandidateTable.forDifficulty(difficulty).random(random);
     }
 
     /**
@@ -170,23 +146,24 @@ public class DailyChallengeService {
             user, todayChallenge, attempts, won, timeTakenSeconds, timeDisplay
         );
 
-        return attemptRepository.save(attempt);
+        DailyChallengeAttempt saved = attemptRepository.save(attempt);
+        leaderboardRanks.dailyAttemptSaved(saved);
+        return saved;
     }
 
     /**
-     * Get today's leaderboard (top 100)
+     * Get the leaderboard of a day's challenge
      * Ranked by: won first, then fewest attempts, then fastest time
      */
-    public List<DailyChallengeAttempt> getTodayLeaderboard(int limit) {
-        LocalDate today = LocalDate.now();
-        Optional<DailyChallenge> todayChallenge = dailyChallengeRepository.findByChallengeDate(today);
+    public List<DailyChallengeAttempt> getLeaderboard(LocalDate date, int limit) {
+        Optional<DailyChallenge> challenge = dailyChallengeRepository.findByChallengeDate(date);
 
-        if (todayChallenge.isEmpty()) {
+        if (challenge.isEmpty()) {
             return new ArrayList<>();
         }
 
         return attemptRepository.findTopAttemptsByChallenge(
-            todayChallenge.get(),
+            challenge.get(),
             PageRequest.of(0, limit)
         );
     }
@@ -194,29 +171,16 @@ public class DailyChallengeService {
     /**
      * Get user's rank on today's leaderboard
      * @param user The user
-     * @return Rank (1-based) or null if not attempted
+     * @return Rank (1-based) or null if the user has not won today
      */
     public Integer getUserRankToday(User user) {
-        Optional<DailyChallengeAttempt> userAttempt = getUserAttemptToday(user);
-
-        if (userAttempt.isEmpty() || !userAttempt.get().getWon()) {
-            return null; // Only winners get ranked
-        }
-
-        List<DailyChallengeAttempt> leaderboard = getTodayLeaderboard(1000);
-
-        DailyChallengeAttempt attempt = userAttempt.get();
-
-        // Find rank by comparing attempts and time
-        int rank = 1;
-        for (DailyChallengeAttempt entry : leaderboard) {
-            if (entry.getId().equals(attempt.getId())) {
-                return rank;
-            }
-            rank++;
-        }
+        LocalDate today = LocalDate.now();
+        Optional<DailyChallenge> todayChallenge = dailyChallengeRepository.findByChallengeDate(today);
 
-        return null;
+        // Only wins are saved, so only winners get ranked
+        return todayChallenge
+                .map(challenge -> leaderboardRanks.dailyRank(challenge, user.getId()))
+                .orElse(null);
     }
 
     /**
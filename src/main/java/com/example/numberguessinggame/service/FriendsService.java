@@ -1,12 +1,12 @@
 package com.example.numberguessinggame.service;
 
-import com.example.numberguessinggame.config.WebSocketEventListener;
 import com.example.numberguessinggame.entity.FriendRequest;
 import com.example.numberguessinggame.entity.Friendship;
 import com.example.numberguessinggame.entity.User;
 import com.example.numberguessinggame.repository.FriendRequestRepository;
 import com.example.numberguessinggame.repository.FriendshipRepository;
 import com.example.numberguessinggame.repository.UserRepository;
+import com.example.numberguessinggame.repository.UserRepositoryCustom.UsernameMatch;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -17,6 +17,8 @@ import java.util.stream.Collectors;
 @Service
 public class FriendsService {
 
+    private static final int SEARCH_LIMIT = 20;
+
     @Autowired
     private UserRepository userRepository;
 
@@ -27,71 +29,72 @@ public class FriendsService {
     private FriendRequestRepository friendRequestRepository;
 
     @Autowired
-    private WebSocketEventListener webSocketEventListener;
+    private PresenceService presenceService;
+
+    @Autowired
+    private UsernameIndex usernameIndex;
 
     /**
      * Search users by username (limit to 20 results)
+     * Names starting with the query come first, then names containing it (queries of
+     * three characters or more); all in name order, through the username indexes.
      * Returns users with their relationship status to current user
      */
     public List<Map<String, Object>> searchUsers(String query, User currentUser) {
         if (query == null || query.trim().isEmpty() || query.length() < 2) {
             return new ArrayList<>();
         }
+        String term = query.trim();
 
-        // Find all users matching the query (case-insensitive)
-        List<User> allUsers = userRepository.findAll();
-        List<User> matchingUsers = allUsers.stream()
-                .filter(u -> !u.getId().equals(currentUser.getId())) // Exclude current user
-                .filter(u -> u.getUsername().toLowerCase().contains(query.toLowerCase()))
-                .limit(20)
-                .collect(Collectors.toList());
+        List<UsernameMatch> matches = findByPrefix(term, currentUser.getId());
+        if (matches.size() < SEARCH_LIMIT) {
+            matches.addAll(userRepository.findByUsernameInfix(term, currentUser.getId(), SEARCH_LIMIT - matches.size()));
+        }
+
+        // Relationship status for the whole page in one query
+        List<Long> ids = matches.stream().map(UsernameMatch::id).collect(Collectors.toList());
+        Map<Long, String> statuses = friendshipRepository.findRelationshipStatuses(currentUser.getId(), ids);
+        Map<Long, Boolean> online = presenceService.getUsersOnlineStatus(ids);
 
-        // Get relationship status for each user
-        return matchingUsers.stream()
+        return matches.stream()
                 .map(user -> {
                     Map<String, Object> userInfo = new HashMap<>();
-                    userInfo.put("id", user.getId());
-                    userInfo.put("username", user.getUsername());
-                    userInfo.put("totalGames", user.getTotalGames());
-                    userInfo.put("totalWins", user.getTotalWins());
-
-                    // Check relationship status
-                    String relationshipStatus = getRelationshipStatus(currentUser.getId(), user.getId());
-                    userInfo.put("relationshipStatus", relationshipStatus);
-
+                    userInfo.put("id", user.id());
+                    userInfo.put("username", user.username());
+                    userInfo.put("totalGames", user.totalGames());
+                    userInfo.put("totalWins", user.totalWins());
+                    userInfo.put("relationshipStatus", statuses.get(user.id()));
+                    userInfo.put("online", online.get(user.id()));
                     return userInfo;
                 })
                 .collect(Collectors.toList());
     }
 
-    /**
-     * Check if two users are friends
-     */
-    public boolean areFriends(Long userId, Long otherUserId) {
-        return friendshipRepository.areFriends(userId, otherUserId);
-    }
-
-    /**
-     * Get relationship status between two users
-     */
-    private String getRelationshipStatus(Long userId, Long otherUserId) {
-        // Check if already friends
-        if (friendshipRepository.areFriends(userId, otherUserId)) {
-            return "FRIENDS";
+    private List<UsernameMatch> findByPrefix(String prefix, Long currentUserId) {
+        if (!usernameIndex.isEnabled()) {
+            return new ArrayList<>(userRepository.findByUsernamePrefix(prefix, currentUserId, SEARCH_LIMIT));
         }
 
-        // Check for pending request
-        Optional<FriendRequest> pendingRequest = friendRequestRepository.findPendingRequest(userId, otherUserId);
-        if (pendingRequest.isPresent()) {
-            FriendRequest request = pendingRequest.get();
-            if (request.getFromUser().getId().equals(userId)) {
-                return "REQUEST_SENT";
-            } else {
-                return "REQUEST_RECEIVED";
+        // Ids from memory, then one lookup by primary key for the counts
+        List<Long> ids = usernameIndex.findByPrefix(prefix, currentUserId, SEARCH_LIMIT);
+        Map<Long, User> users = new HashMap<>();
+        userRepository.findAllById(ids).forEach(user -> users.put(user.getId(), user));
+
+        List<UsernameMatch> matches = new ArrayList<>(ids.size());
+        for (Long id : ids) {
+            User user = users.get(id);
+            if (user != null) {
+                matches.add(new UsernameMatch(user.getId(), user.getUsername(), user.getTotalGames(), user.getTotalWins()));
             }
         }
+        return matches;
+    }
 
-        return "NONE";
+    /**
+     * Check if two users are friends
+     */
+    public boolean areFriends(Long userId, Long otherUserId) {
+        return friendshipRepository.areFriends(userId, otherUserId);
     }
 
     /**
@@ -212,6 +215,9 @@ public class FriendsService {
     @Transactional(readOnly = true)
     public List<Map<String, Object>> getFriends(User user) {
         List<Friendship> friendships = friendshipRepository.findByUserId(user.getId());
+        Map<Long, Boolean> online = presenceService.getUsersOnlineStatus(friendships.stream()
+                .map(friendship -> friendship.getFriend().getId())
+                .collect(Collectors.toList()));
 
         return friendships.stream()
                 .map(friendship -> {
@@ -222,7 +228,7 @@ public class FriendsService {
                     friendInfo.put("totalGames", friend.getTotalGames());
                     friendInfo.put("totalWins", friend.getTotalWins());
                     friendInfo.put("createdAt", friendship.getCreatedAt());
-                    friendInfo.put("online", webSocketEventListener.isUserOnline(friend.getId()));
+                    friendInfo.put("online", online.get(friend.getId()));
                     return friendInfo;
                 })
                 .collect(Collectors.toList());
@@ -0,0 +1,646 @@
+package com.example.numberguessinggame.service;
+
+import com.example.numberguessinggame.entity.Game;
+import com.example.numberguessinggame.entity.User;
+import com.example.numberguessinggame.repository.UserRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Write-behind buffer for finished practice games.
+ *
+ * record() applies a game to the player's streaks and coins in memory and returns the
+ * totals for the response; the game rows and per-user deltas are written later by one
+ * flusher thread, every game.write-behind.flush-interval-ms or as soon as batch-size
+ * games are waiting. A flush is one transaction: the games in a JDBC batch, their
+ * results in another (UserRepositoryCustom.recordGameResults), one coin UPDATE per
+ * player however many games they finished, and their user_game_stats rows.
+ * Achievements are queued once it commits. Counters, streaks and play days are
+ * computed by the database from the locked row and coins are added to it, so changes
+ * made elsewhere in the meantime are kept; the buffered streaks only feed responses.
+ *
+ * On shutdown, which runs after the web server has finished its in-flight requests,
+ * the buffer is flushed; if that fails, the pending games are written to the spill
+ * file in game.write-behind.spill-dir, which must persist across restarts, and
+ * replayed on the next start. A failed scheduled flush puts its games back
+ * for the next one.
+ */
+@Service
+public class GameWriteBehind {
+
+    private static final Logger logger = LoggerFactory.getLogger(GameWriteBehind.class);
+    private static final int SPILL_FORMAT_VERSION = 2;
+
+    private static final String INSERT_GAME =
+            "INSERT INTO games (id, user_id, difficulty, target_number, attempts, won, time_taken, hints_used, guess_data, played_at) " +
+            "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
+    private static final String ADD_COINS =
+            "UPDATE users SET coins = COALESCE(coins, 0) + ?, version = version + 1 WHERE id = ?";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private UserGameStatsService userGameStatsService;
+
+    @Autowired
+    private AchievementPipeline achievementPipeline;
+
+    @Autowired
+    private LeaderboardRanks leaderboardRanks;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${game.write-behind.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    @Value("${game.write-behind.batch-size:100}")
+    private int batchSize;
+
+    @Value("${game.write-behind.max-pending:5000}")
+    private int maxPending;
+
+    @Value("${game.write-behind.spill-dir}")
+    private String spillDir;
+
+    // Players with games not written yet, or being written; guarded by itself
+    private final Map<Long, PendingUser> pending = new HashMap<>();
+    private int pendingGames;
+
+    private final ReentrantLock flushLock = new ReentrantLock();
+    private final AtomicBoolean flushRequested = new AtomicBoolean();
+    private final AtomicLong committedFlushes = new AtomicLong();
+    private ScheduledExecutorService flusher;
+    private Path spillFile;
+    private boolean spillReplayed;
+
+    private Counter queued;
+    private Counter written;
+    private Counter failedFlushes;
+    private Timer flushes;
+
+    /**
+     * Player totals right after a recorded game, including games not written yet
+     */
+    public static class Totals {
+        private final int currentWinStreak;
+        private final int bestWinStreak;
+        private final int consecutivePlayDays;
+        private final int coins;
+
+        Totals(User user, int coins) {
+            this.currentWinStreak = valueOf(user.getCurrentWinStreak());
+            this.bestWinStreak = valueOf(user.getBestWinStreak());
+            this.consecutivePlayDays = valueOf(user.getConsecutivePlayDays());
+            this.coins = coins;
+        }
+
+        public int getCurrentWinStreak() { return currentWinStreak; }
+        public int getBestWinStreak() { return bestWinStreak; }
+        public int getConsecutivePlayDays() { return consecutivePlayDays; }
+        public int getCoins() { return coins; }
+    }
+
+    /**
+     * A player's buffered state. stats is a detached copy of the user row with the
+     * queued games applied, for the responses; coins is what the queued games add.
+     */
+    private static final class PendingUser {
+        private final User stats;
+        private final List<Game> games = new ArrayList<>();
+        private int coins;
+        private int inFlightCoins; // Taken by the running flush, not committed yet
+
+        private PendingUser(User user) {
+            stats = copyStats(user);
+        }
+
+        private void add(Game game, int coinsAwarded) {
+            games.add(game);
+            coins += coinsAwarded;
+        }
+    }
+
+    /**
+     * What one flush writes for a player; stats is kept for the spill file only
+     */
+    private static final class UserDelta {
+        private final Long userId;
+        private final List<Game> games;
+        private final int coins;
+        private final User stats;
+
+        private UserDelta(Long userId, List<Game> games, int coins, User stats) {
+            this.userId = userId;
+            this.games = games;
+            this.coins = coins;
+            this.stats = copyStats(stats);
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        queued = Counter.builder("games.writebehind.queued")
+                .description("Finished games buffered for writing")
+                .register(meterRegistry);
+        written = Counter.builder("games.writebehind.written")
+                .description("Finished games written to the database")
+                .register(meterRegistry);
+        failedFlushes = Counter.builder("games.writebehind.flush.failures")
+                .description("Flushes rolled back, their games kept for the next one")
+                .register(meterRegistry);
+        flushes = Timer.builder("games.writebehind.flush")
+                .description("Time spent writing one batch of finished games")
+                .register(meterRegistry);
+        Gauge.builder("games.writebehind.pending", this, GameWriteBehind::getPendingGames)
+                .description("Finished games waiting to be written")
+                .register(meterRegistry);
+
+        spillFile = spillFile(spillDir);
+        replaySpill();
+
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "game-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::scheduledFlush, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+
+        logger.info("Game write-behind started: flush every {}ms or {} games", flushIntervalMs, batchSize);
+    }
+
+    /**
+     * Write what is left; spill it to disk if the database cannot take it
+     */
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        flusher.shutdown();
+        if (!flusher.awaitTermination(10, TimeUnit.SECONDS)) {
+            flusher.shutdownNow();
+        }
+        if (!flush()) {
+            spill();
+        }
+    }
+
+    /**
+     * Buffer a finished game of a logged-in player
+     *
+     * @param game Game without its user, which is set from the loaded account
+     * @return Player totals including this game, or null if the account no longer exists
+     */
+    public Totals record(Long userId, Game game, int coinsAwarded) {
+        if (game.getPlayedAt() == null) {
+            game.setPlayedAt(LocalDateTime.now());
+        }
+
+        Totals totals;
+        do {
+            // Read before loading, so a flush committing after the load is noticed
+            long flushesBefore = committedFlushes.get();
+            Optional<User> user = userRepository.findById(userId);
+            if (user.isEmpty()) {
+                return null;
+            }
+            game.setUser(user.get());
+            totals = buffer(user.get(), game, coinsAwarded, flushesBefore);
+        } while (totals == null);
+
+        queued.increment();
+        int waiting = getPendingGames();
+        if (waiting >= maxPending) {
+            // The database is not keeping up: write on this thread, which is the backpressure
+            flush();
+        } else if (waiting >= batchSize && flushRequested.compareAndSet(false, true)) {
+            try {
+                flusher.execute(this::scheduledFlush);
+            } catch (RejectedExecutionException shuttingDown) {
+                flushRequested.set(false); // stop() flushes what is left
+            }
+        }
+        return totals;
+    }
+
+    public int getPendingGames() {
+        synchronized (pending) {
+            return pendingGames;
+        }
+    }
+
+    /**
+     * @return Null if a flush committed since the user was loaded and the user has no
+     * buffered state, so the loaded row may be stale; the caller loads it again
+     */
+    private Totals buffer(User user, Game game, int coinsAwarded, long flushesBefore) {
+        synchronized (pending) {
+            PendingUser entry = pending.get(user.getId());
+            if (entry == null) {
+                if (committedFlushes.get() != flushesBefore) {
+                    return null;
+                }
+                entry = new PendingUser(user);
+                pending.put(user.getId(), entry);
+            }
+
+            UserService.applyGameResult(entry.stats, game.getWon(), game.getAttempts(), game.getPlayedAt().toLocalDate());
+            entry.add(game, coinsAwarded);
+            pendingGames++;
+
+            // The loaded row holds every committed coin; add what is buffered on top
+            return new Totals(entry.stats, valueOf(user.getCoins()) + entry.coins + entry.inFlightCoins);
+        }
+    }
+
+    private void scheduledFlush() {
+        flushRequested.set(false);
+        flush();
+    }
+
+    /**
+     * Write every buffered game in one transaction
+     *
+     * @return False if the transaction failed; its games stay buffered
+     */
+    boolean flush() {
+        flushLock.lock();
+        try {
+            List<UserDelta> deltas = takePending();
+            if (deltas.isEmpty()) {
+                return true;
+            }
+
+            long start = System.nanoTime();
+            List<UserDelta> saved;
+            try {
+                saved = transactionTemplate.execute(status -> write(deltas));
+            } catch (RuntimeException e) {
+                restore(deltas);
+                failedFlushes.increment();
+                logger.warn("Writing {} finished games failed, keeping them for the next flush: {}",
+                        countGames(deltas), e.getMessage());
+                return false;
+            } finally {
+                flushes.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+
+            committedFlushes.incrementAndGet();
+            release(deltas);
+            written.increment(countGames(saved));
+            deleteReplayedSpill();
+
+            // Achievements are evaluated in the background and pushed over WebSocket
+            for (UserDelta delta : saved) {
+                for (Game game : delta.games) {
+                    achievementPipeline.gameCompleted(game.getUser(), game);
+                }
+            }
+            return true;
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private List<UserDelta> takePending() {
+        synchronized (pending) {
+            List<UserDelta> deltas = new ArrayList<>();
+            for (PendingUser entry : pending.values()) {
+                if (entry.games.isEmpty()) {
+                    continue;
+                }
+                deltas.add(new UserDelta(entry.stats.getId(), new ArrayList<>(entry.games), entry.coins, entry.stats));
+                entry.inFlightCoins = entry.coins;
+                entry.games.clear();
+                entry.coins = 0;
+            }
+            pendingGames = 0;
+            return deltas;
+        }
+    }
+
+    /**
+     * Put a rolled-back flush back in front of the games buffered since
+     */
+    private void restore(List<UserDelta> deltas) {
+        synchronized (pending) {
+            for (UserDelta delta : deltas) {
+                PendingUser entry = pending.get(delta.userId); // Kept while in flight
+                entry.games.addAll(0, delta.games);
+                entry.coins += delta.coins;
+                entry.inFlightCoins = 0;
+                pendingGames += delta.games.size();
+            }
+        }
+    }
+
+    /**
+     * Forget players whose rows are now current
+     */
+    private void release(List<UserDelta> deltas) {
+        synchronized (pending) {
+            for (UserDelta delta : deltas) {
+                PendingUser entry = pending.get(delta.userId);
+                entry.inFlightCoins = 0;
+                if (entry.games.isEmpty()) {
+                    pending.remove(delta.userId);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The deltas written; games of accounts deleted since they were buffered are dropped
+     */
+    private List<UserDelta> write(List<UserDelta> buffered) {
+        List<Long> userIds = new ArrayList<>(buffered.size());
+        buffered.forEach(delta -> userIds.add(delta.userId));
+        Set<Long> existing = new HashSet<>();
+        userRepository.findAllById(userIds).forEach(user -> existing.add(user.getId()));
+
+        List<UserDelta> deltas = new ArrayList<>(existing.size());
+        List<Game> games = new ArrayList<>();
+        for (UserDelta delta : buffered) {
+            if (existing.contains(delta.userId)) {
+                deltas.add(delta);
+                games.addAll(delta.games);
+            }
+        }
+        if (deltas.isEmpty()) {
+            return deltas;
+        }
+
+        assignIds(games);
+
+        jdbcTemplate.batchUpdate(INSERT_GAME, games, batchSize, (ps, game) -> {
+            ps.setLong(1, game.getId());
+            ps.setLong(2, game.getUser().getId());
+            ps.setInt(3, game.getDifficulty());
+            ps.setInt(4, game.getTargetNumber());
+            ps.setInt(5, game.getAttempts());
+            ps.setBoolean(6, game.getWon());
+            ps.setString(7, game.getTimeTaken());
+            ps.setObject(8, game.getHintsUsed(), Types.INTEGER);
+            ps.setBytes(9, game.getGuessData());
+            ps.setTimestamp(10, Timestamp.valueOf(game.getPlayedAt()));
+        });
+
+        userRepository.recordGameResults(games);
+
+        List<UserDelta> earned = new ArrayList<>(deltas.size());
+        for (UserDelta delta : deltas) {
+            if (delta.coins != 0) {
+                earned.add(delta);
+            }
+        }
+        jdbcTemplate.batchUpdate(ADD_COINS, earned, batchSize, (ps, delta) -> {
+            ps.setInt(1, delta.coins);
+            ps.setLong(2, delta.userId);
+        });
+
+        userGameStatsService.recordGames(games);
+
+        List<Long> players = new ArrayList<>(deltas.size());
+        deltas.forEach(delta -> players.add(delta.userId));
+        leaderboardRanks.playersChanged(players);
+        return deltas;
+    }
+
+    /**
+     * Take ids the way Hibernate's pooled optimizer does: each games_id_seq value v
+     * reserves v - ID_ALLOCATION_SIZE + 1 .. v, so one round trip covers the whole batch
+     * and never overlaps ids handed out by the entity mapping
+     */
+    private void assignIds(List<Game> games) {
+        int next = 0;
+        while (next < games.size()) {
+            int blocks = (games.size() - next + Game.ID_ALLOCATION_SIZE - 1) / Game.ID_ALLOCATION_SIZE;
+            List<Long> highs = jdbcTemplate.queryForList(
+                    "SELECT nextval('games_id_seq') FROM generate_series(1, ?)", Long.class, blocks);
+            for (long high : highs) {
+                // A fresh sequence starts at 1, below a full block
+                for (long id = Math.max(1, high - Game.ID_ALLOCATION_SIZE + 1); id <= high && next < games.size(); id++) {
+                    games.get(next++).setId(id);
+                }
+            }
+        }
+    }
+
+    private static int countGames(List<UserDelta> deltas) {
+        int games = 0;
+        for (UserDelta delta : deltas) {
+            games += delta.games.size();
+        }
+        return games;
+    }
+
+    private static int valueOf(Integer value) {
+        return value != null ? value : 0;
+    }
+
+    private static User copyStats(User user) {
+        User stats = new User();
+        stats.setId(user.getId());
+        stats.setTotalGames(valueOf(user.getTotalGames()));
+        stats.setTotalWins(valueOf(user.getTotalWins()));
+        stats.setBestScore(user.getBestScore());
+        stats.setCurrentWinStreak(user.getCurrentWinStreak());
+        stats.setBestWinStreak(user.getBestWinStreak());
+        stats.setLastPlayedDate(user.getLastPlayedDate());
+        stats.setConsecutivePlayDays(user.getConsecutivePlayDays());
+        stats.setBestPlayDayStreak(user.getBestPlayDayStreak());
+        return stats;
+    }
+
+    // Spill file: what the last shutdown could not write, replayed on start
+
+    /**
+     * Fail now rather than lose games on shutdown: the directory must be set and writable
+     */
+    private static Path spillFile(String dir) {
+        if (dir == null || dir.isBlank()) {
+            throw new IllegalStateException("game.write-behind.spill-dir is not set");
+        }
+        Path path = Paths.get(dir);
+        try {
+            Files.createDirectories(path);
+        } catch (IOException e) {
+            throw new IllegalStateException("Cannot create game.write-behind.spill-dir " + path, e);
+        }
+        if (!Files.isWritable(path)) {
+            throw new IllegalStateException("game.write-behind.spill-dir " + path + " is not writable");
+        }
+        return path.resolve("pending-games.bin");
+    }
+
+    private void spill() {
+        List<UserDelta> deltas = takePending();
+        if (deltas.isEmpty()) {
+            return;
+        }
+        try {
+            Files.createDirectories(spillFile.getParent());
+            Path temp = Files.createTempFile(spillFile.getParent(), "pending-games-", ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+                out.writeInt(SPILL_FORMAT_VERSION);
+                out.writeInt(deltas.size());
+                for (UserDelta delta : deltas) {
+                    writeDelta(out, delta);
+                }
+            }
+            Files.move(temp, spillFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            logger.warn("Spilled {} finished games to {}, they are written on the next start",
+                    countGames(deltas), spillFile);
+        } catch (IOException e) {
+            logger.error("Lost {} finished games: could not write {}", countGames(deltas), spillFile, e);
+        }
+    }
+
+    private void replaySpill() {
+        if (!Files.isRegularFile(spillFile)) {
+            return;
+        }
+        int games = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(spillFile)))) {
+            if (in.readInt() != SPILL_FORMAT_VERSION) {
+                throw new IOException("Unknown spill file format");
+            }
+            int count = in.readInt();
+            synchronized (pending) {
+                for (int i = 0; i < count; i++) {
+                    PendingUser entry = readEntry(in);
+                    pending.put(entry.stats.getId(), entry);
+                    pendingGames += entry.games.size();
+                    games += entry.games.size();
+                }
+            }
+        } catch (IOException e) {
+            logger.error("Could not replay spilled games from {}, leaving the file in place", spillFile, e);
+            return;
+        }
+        // Deleted once the first flush has written them
+        spillReplayed = true;
+        logger.info("Replaying {} finished games spilled by the last shutdown", games);
+    }
+
+    private void deleteReplayedSpill() {
+        if (!spillReplayed) {
+            return;
+        }
+        spillReplayed = false;
+        try {
+            Files.deleteIfExists(spillFile);
+        } catch (IOException e) {
+            logger.warn("Could not delete replayed spill file {}: {}", spillFile, e.getMessage());
+        }
+    }
+
+    private static void writeDelta(DataOutputStream out, UserDelta delta) throws IOException {
+        User stats = delta.stats;
+        out.writeLong(delta.userId);
+        out.writeInt(delta.coins);
+        writeNullable(out, stats.getCurrentWinStreak());
+        writeNullable(out, stats.getBestWinStreak());
+        out.writeLong(stats.getLastPlayedDate() != null ? stats.getLastPlayedDate().toEpochDay() : Long.MIN_VALUE);
+        writeNullable(out, stats.getConsecutivePlayDays());
+        writeNullable(out, stats.getBestPlayDayStreak());
+
+        out.writeInt(delta.games.size());
+        for (Game game : delta.games) {
+            out.writeInt(game.getDifficulty());
+            out.writeInt(game.getTargetNumber());
+            out.writeInt(game.getAttempts());
+            out.writeBoolean(game.getWon());
+            out.writeUTF(game.getTimeTaken() != null ? game.getTimeTaken() : "");
+            writeNullable(out, game.getHintsUsed());
+            byte[] guessData = game.getGuessData() != null ? game.getGuessData() : new byte[0];
+            out.writeInt(guessData.length);
+            out.write(guessData);
+            out.writeUTF(game.getPlayedAt().toString());
+        }
+    }
+
+    private static PendingUser readEntry(DataInputStream in) throws IOException {
+        User user = new User();
+        user.setId(in.readLong());
+        int coins = in.readInt();
+        user.setCurrentWinStreak(readNullable(in));
+        user.setBestWinStreak(readNullable(in));
+        long lastPlayed = in.readLong();
+        user.setLastPlayedDate(lastPlayed != Long.MIN_VALUE ? LocalDate.ofEpochDay(lastPlayed) : null);
+        user.setConsecutivePlayDays(readNullable(in));
+        user.setBestPlayDayStreak(readNullable(in));
+
+        PendingUser entry = new PendingUser(user);
+        int games = in.readInt();
+        for (int i = 0; i < games; i++) {
+            Game game = new Game(user, in.readInt(), in.readInt(), in.readInt(), in.readBoolean(), null, null);
+            String timeTaken = in.readUTF();
+            game.setTimeTaken(timeTaken.isEmpty() ? null : timeTaken);
+            game.setHintsUsed(readNullable(in));
+            byte[] guessData = new byte[in.readInt()];
+            in.readFully(guessData);
+            game.setGuessData(guessData.length > 0 ? guessData : null);
+            game.setPlayedAt(LocalDateTime.parse(in.readUTF()));
+            entry.games.add(game);
+        }
+        entry.coins = coins;
+        return entry;
+    }
+
+    private static void writeNullable(DataOutputStream out, Integer value) throws IOException {
+        out.writeBoolean(value != null);
+        out.writeInt(value != null ? value : 0);
+    }
+
+    private static Integer readNullable(DataInputStream in) throws IOException {
+        boolean present = in.readBoolean();
+        int value = in.readInt();
+        return present ? value : null;
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.numberguessinggame.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Leaderboard responses as ready-to-send JSON, per board and limit.
+ *
+ * A cached response is kept until LeaderboardRanks reports a change that reaches
+ * into it: an entry landing at rank r drops the cached responses with a limit of r or
+ * more and keeps the shorter ones. Responses loaded while a change was being applied
+ * are not stored, so a read that raced a commit cannot put stale rows back. Least
+ * recently used boards are evicted (old days of the daily challenge, mostly).
+ *
+ * Only changes made on this instance are reported, so with several instances a board
+ * can lag scores written elsewhere; leaderboard.cache.max-age-ms bounds by how much,
+ * and leaderboard.cache.enabled=false reads every request from the database.
+ */
+@Component
+public class LeaderboardCache {
+
+    public static final String PLAYERS = "players";
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${leaderboard.cache.max-limit:100}")
+    private int maxLimit = 100;
+
+    @Value("${leaderboard.cache.max-boards:32}")
+    private int maxBoards = 32;
+
+    @Value("${leaderboard.cache.enabled:true}")
+    private boolean enabled = true;
+
+    // 0 keeps a response until a change on this instance reaches it
+    @Value("${leaderboard.cache.max-age-ms:5000}")
+    private long maxAgeMs = 5000;
+
+    private final Map<String, Board> boards = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Board> eldest) {
+            return size() > maxBoards;
+        }
+    };
+
+    private Counter hits;
+    private Counter misses;
+
+    private static final class Board {
+        private long generation; // Bumped by every change
+        private final Map<Integer, Cached> byLimit = new HashMap<>();
+    }
+
+    private record Cached(byte[] json, long cachedAt) {
+    }
+
+    public static String timeAttack(int difficulty) {
+        return "time-attack:" + difficulty;
+    }
+
+    public static String survival(int difficulty) {
+        return "survival:" + difficulty;
+    }
+
+    public static String daily(LocalDate challengeDate) {
+        return "daily:" + challengeDate;
+    }
+
+    @PostConstruct
+    public void registerMetrics() {
+        hits = Counter.builder("leaderboard.cache.requests")
+                .description("Leaderboard requests")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        misses = Counter.builder("leaderboard.cache.requests")
+                .description("Leaderboard requests")
+                .tag("result", "miss")
+                .register(meterRegistry);
+    }
+
+    /**
+     * @param load Builds the response body from the database; only called on a miss
+     * @return The response body as JSON
+     */
+    public byte[] get(String board, int limit, Supplier<?> load) {
+        if (!enabled || limit < 1 || limit > maxLimit) {
+            misses.increment();
+            return toJson(load.get()); // Not worth keeping
+        }
+
+        Board cached;
+        long generation;
+        long now = System.nanoTime();
+        synchronized (boards) {
+            cached = boards.computeIfAbsent(board, name -> new Board());
+            Cached response = cached.byLimit.get(limit);
+            if (response != null && !expired(response, now)) {
+                hits.increment();
+                return response.json();
+            }
+            generation = cached.generation;
+        }
+
+        // Miss: load outside the lock
+        misses.increment();
+        byte[] json = toJson(load.get());
+
+        synchronized (boards) {
+            // Not if the board changed or was evicted meanwhile
+            if (boards.get(board) == cached && cached.generation == generation) {
+                cached.byLimit.put(limit, new Cached(json, now));
+            }
+        }
+        return json;
+    }
+
+    /**
+     * An entry of the board changed and now sits at the given rank
+     *
+     * @param rank 1-based rank, or null if the change may affect every position
+     */
+    public void changed(String board, Integer rank) {
+        synchronized (boards) {
+            Board cached = boards.get(board);
+            if (cached == null) {
+                return;
+            }
+            cached.generation++;
+            if (rank == null) {
+                cached.byLimit.clear();
+            } else {
+                cached.byLimit.keySet().removeIf(limit -> limit >= rank);
+            }
+        }
+    }
+
+    public void clear() {
+        synchronized (boards) {
+            for (Board cached : boards.values()) {
+                cached.generation++;
+                cached.byLimit.clear();
+            }
+        }
+    }
+
+    /**
+     * Older than max-age-ms: changes made on other instances may be missing
+     */
+    private boolean expired(Cached response, long now) {
+        return maxAgeMs > 0 && now - response.cachedAt() > TimeUnit.MILLISECONDS.toNanos(maxAgeMs);
+    }
+
+    private byte[] toJson(Object body) {
+        try {
+            return objectMapper.writeValueAsBytes(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize leaderboard", e);
+        }
+    }
+}
@@ -0,0 +1,451 @@
+package com.example.numberguessinggame.service;
+
+import com.example.numberguessinggame.entity.DailyChallenge;
+import com.example.numberguessinggame.entity.DailyChallengeAttempt;
+import com.example.numberguessinggame.entity.SurvivalSession;
+import com.example.numberguessinggame.entity.TimeAttackSession;
+import com.example.numberguessinggame.repository.DailyChallengeRepository;
+import com.example.numberguessinggame.util.RankTree;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiPredicate;
+
+/**
+ * Rank of any entry on every leaderboard, without reading the leaderboard.
+ *
+ * Each board (Time Attack and Survival per difficulty, today's daily challenge, and
+ * the global best score) keeps one entry per player in a RankTree, ordered the same
+ * way as its leaderboard query, ties going to the lower id. The boards are loaded
+ * from the database at startup and changed by the services that write the rows, once
+ * their transaction commits, so a rank lookup is O(log n) however far down the
+ * player is.
+ *
+ * Only rows written on this instance are applied. With several instances, set
+ * leaderboard.ranks.reload-ms so each one reloads the boards from the database and
+ * picks up the others' scores; an update racing a reload may be undone until the next.
+ */
+@Service
+public class LeaderboardRanks {
+
+    private static final Logger logger = LoggerFactory.getLogger(LeaderboardRanks.class);
+
+    private static final Comparator<TimeAttackEntry> TIME_ATTACK_ORDER = Comparator
+            .comparingInt((TimeAttackEntry entry) -> -entry.totalScore())
+            .thenComparingInt(entry -> -entry.gamesWon())
+            .thenComparing(TimeAttackEntry::averageAttempts, Comparator.nullsLast(Comparator.naturalOrder()))
+            .thenComparingLong(TimeAttackEntry::id);
+
+    private static final Comparator<SurvivalEntry> SURVIVAL_ORDER = Comparator
+            .comparing((SurvivalEntry entry) -> !entry.completed())
+            .thenComparingInt(entry -> -entry.roundsSurvived())
+            .thenComparingInt(SurvivalEntry::totalAttemptsUsed)
+            .thenComparingLong(SurvivalEntry::id);
+
+    private static final Comparator<DailyEntry> DAILY_ORDER = Comparator
+            .comparingInt(DailyEntry::attempts)
+            .thenComparingInt(DailyEntry::timeTakenSeconds)
+            .thenComparingLong(DailyEntry::id);
+
+    private static final Comparator<PlayerEntry> PLAYER_ORDER = Comparator
+            .comparingInt(PlayerEntry::bestScore)
+            .thenComparingInt(entry -> -entry.totalWins())
+            .thenComparingLong(PlayerEntry::id);
+
+    // A player's best run only gets better, so a worse one is a late, stale update
+    private static final BiPredicate<TimeAttackEntry, TimeAttackEntry> BETTER_TIME_ATTACK_RUN =
+            (current, next) -> TIME_ATTACK_ORDER.compare(next, current) <= 0;
+    private static final BiPredicate<SurvivalEntry, SurvivalEntry> BETTER_SURVIVAL_RUN =
+            (current, next) -> SURVIVAL_ORDER.compare(next, current) <= 0;
+    private static final BiPredicate<PlayerEntry, PlayerEntry> NEWER_ROW =
+            (current, next) -> next.version() >= current.version();
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private DailyChallengeRepository dailyChallengeRepository;
+
+    @Autowired
+    private LeaderboardCache leaderboardCache;
+
+    // 0 never reloads; for a single instance, whose boards are always current
+    @Value("${leaderboard.ranks.reload-ms:0}")
+    private long reloadMs;
+
+    private ScheduledExecutorService reloader;
+
+    private final Map<Integer, Board<TimeAttackEntry>> timeAttack = new ConcurrentHashMap<>();
+    private final Map<Integer, Board<SurvivalEntry>> survival = new ConcurrentHashMap<>();
+    private final Board<PlayerEntry> players = new Board<>(PLAYER_ORDER, NEWER_ROW);
+    private final Board<DailyEntry> daily = new Board<>(DAILY_ORDER, (current, next) -> true);
+    private Long dailyChallengeId; // Challenge the daily board holds; guarded by daily
+
+    private interface Entry {
+        long id();
+        long userId();
+    }
+
+    private record TimeAttackEntry(long id, long userId, int totalScore, int gamesWon, Double averageAttempts)
+            implements Entry {
+    }
+
+    private record SurvivalEntry(long id, long userId, boolean completed, int roundsSurvived, int totalAttemptsUsed)
+            implements Entry {
+    }
+
+    private record DailyEntry(long id, long userId, int attempts, int timeTakenSeconds) implements Entry {
+    }
+
+    private record PlayerEntry(long id, int bestScore, int totalWins, long version) implements Entry {
+        @Override
+        public long userId() {
+            return id;
+        }
+    }
+
+    /**
+     * One leaderboard: a player's entry, found by player or by row id
+     */
+    private static final class Board<E extends Entry> {
+        private final RankTree<E> tree;
+        private final BiPredicate<E, E> replaces;
+        private final Map<Long, E> byUser = new HashMap<>();
+        private final Map<Long, E> byId = new HashMap<>();
+
+        private Board(Comparator<? super E> order, BiPredicate<E, E> replaces) {
+            this.tree = new RankTree<>(order);
+            this.replaces = replaces;
+        }
+
+        /**
+         * @return Rank of the entry, or null if it changed nothing
+         */
+        private synchronized Integer put(E entry) {
+            E current = byUser.get(entry.userId());
+            if (current != null) {
+                if (current.equals(entry) || !replaces.test(current, entry)) {
+                    return null;
+                }
+                tree.remove(current);
+                byId.remove(current.id());
+            }
+            tree.add(entry);
+            byUser.put(entry.userId(), entry);
+            byId.put(entry.id(), entry);
+            return tree.indexOf(entry) + 1;
+        }
+
+        /**
+         * @return Rank the player's entry had, or null if there was none
+         */
+        private synchronized Integer removeUser(long userId) {
+            E current = byUser.remove(userId);
+            if (current == null) {
+                return null;
+            }
+            int rank = tree.indexOf(current) + 1;
+            tree.remove(current);
+            byId.remove(current.id());
+            return rank;
+        }
+
+        private synchronized Integer rankOfId(long id) {
+            E entry = byId.get(id);
+            return entry != null ? tree.indexOf(entry) + 1 : null;
+        }
+
+        private synchronized Integer rankOfUser(long userId) {
+            E entry = byUser.get(userId);
+            return entry != null ? tree.indexOf(entry) + 1 : null;
+        }
+
+        private synchronized int size() {
+            return tree.size();
+        }
+
+        private synchronized void replaceAll(List<E> entries) {
+            tree.clear();
+            byUser.clear();
+            byId.clear();
+            entries.forEach(this::put);
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        long start = System.currentTimeMillis();
+        load();
+        logger.info("Leaderboard ranks loaded in {}ms: {} Time Attack runs, {} Survival runs, {} players",
+                System.currentTimeMillis() - start,
+                timeAttack.values().stream().mapToInt(Board::size).sum(),
+                survival.values().stream().mapToInt(Board::size).sum(),
+                players.size());
+
+        if (reloadMs > 0) {
+            reloader = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "leaderboard-ranks-reload");
+                thread.setDaemon(true);
+                return thread;
+            });
+            reloader.scheduleWithFixedDelay(this::reload, reloadMs, reloadMs, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (reloader != null) {
+            reloader.shutdownNow();
+        }
+    }
+
+    /**
+     * Read every board back, with the scores other instances wrote
+     */
+    private void reload() {
+        long start = System.currentTimeMillis();
+        try {
+            load();
+            logger.debug("Leaderboard ranks reloaded in {}ms", System.currentTimeMillis() - start);
+        } catch (Exception e) {
+            logger.warn("Failed to reload leaderboard ranks: {}", e.getMessage());
+        }
+    }
+
+    private void load() {
+
+        Map<Integer, List<TimeAttackEntry>> timeAttackRuns = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT id, user_id, difficulty, total_score, games_won, average_attempts FROM time_attack_sessions " +
+                "WHERE is_best_run = true AND user_id IS NOT NULL",
+                (ResultSet rs) -> {
+                    timeAttackRuns.computeIfAbsent(rs.getInt("difficulty"), difficulty -> new ArrayList<>())
+                            .add(timeAttackEntry(rs));
+                });
+        timeAttack.keySet().forEach(difficulty -> timeAttackRuns.putIfAbsent(difficulty, List.of()));
+        timeAttackRuns.forEach((difficulty, runs) -> timeAttackBoard(difficulty).replaceAll(runs));
+
+        Map<Integer, List<SurvivalEntry>> survivalRuns = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT id, user_id, difficulty, completed, rounds_survived, total_attempts_used FROM survival_sessions " +
+                "WHERE is_best_run = true AND user_id IS NOT NULL",
+                (ResultSet rs) -> {
+                    survivalRuns.computeIfAbsent(rs.getInt("difficulty"), difficulty -> new ArrayList<>())
+                            .add(survivalEntry(rs));
+                });
+        survival.keySet().forEach(difficulty -> survivalRuns.putIfAbsent(difficulty, List.of()));
+        survivalRuns.forEach((difficulty, runs) -> survivalBoard(difficulty).replaceAll(runs));
+
+        players.replaceAll(jdbcTemplate.query(
+                "SELECT id, best_score, total_wins, version FROM users WHERE best_score IS NOT NULL",
+                (rs, row) -> playerEntry(rs)));
+
+        dailyChallengeRepository.findByChallengeDate(LocalDate.now())
+                .ifPresent(challenge -> loadDaily(challenge.getId()));
+    }
+
+    // Updates, applied once the calling transaction commits
+
+    /**
+     * @param best The player's best run for its difficulty, after the best-run flags were updated
+     */
+    public void timeAttackRunSaved(TimeAttackSession best) {
+        if (best.getUser() == null) {
+            return;
+        }
+        TimeAttackEntry entry = new TimeAttackEntry(best.getId(), best.getUser().getId(),
+                best.getTotalScore(), best.getGamesWon(), best.getAverageAttempts());
+        Board<TimeAttackEntry> board = timeAttackBoard(best.getDifficulty());
+        String cached = LeaderboardCache.timeAttack(best.getDifficulty());
+        afterCommit(() -> changed(cached, board.put(entry)));
+    }
+
+    /**
+     * @param best The player's best run for its difficulty, after the best-run flags were updated
+     */
+    public void survivalRunSaved(SurvivalSession best) {
+        if (best.getUser() == null) {
+            return;
+        }
+        SurvivalEntry entry = new SurvivalEntry(best.getId(), best.getUser().getId(),
+                best.getCompleted(), best.getRoundsSurvived(), best.getTotalAttemptsUsed());
+        Board<SurvivalEntry> board = survivalBoard(best.getDifficulty());
+        String cached = LeaderboardCache.survival(best.getDifficulty());
+        afterCommit(() -> changed(cached, board.put(entry)));
+    }
+
+    /**
+     * @param attempt A winning attempt, the only kind on the daily leaderboard
+     */
+    public void dailyAttemptSaved(DailyChallengeAttempt attempt) {
+        Long challengeId = attempt.getChallenge().getId();
+        String cached = LeaderboardCache.daily(attempt.getChallenge().getChallengeDate());
+        DailyEntry entry = new DailyEntry(attempt.getId(), attempt.getUser().getId(),
+                attempt.getAttempts(), attempt.getTimeTakenSeconds());
+        afterCommit(() -> {
+            synchronized (daily) {
+                if (!challengeId.equals(dailyChallengeId)) {
+                    loadDaily(challengeId); // A new day: read back what was written for it
+                    leaderboardCache.changed(cached, null);
+                } else {
+                    changed(cached, daily.put(entry));
+                }
+            }
+        });
+    }
+
+    /**
+     * Re-read the best score and wins of players whose row was changed in the current
+     * transaction; the cached best-score leaderboard also shows their game counts, so
+     * pass every player who finished a game, not only winners
+     */
+    public void playersChanged(Collection<Long> userIds) {
+        if (userIds.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(new HashSet<>(userIds));
+        String placeholders = String.join(", ", Collections.nCopies(ids.size(), "?"));
+        List<PlayerEntry> rows = new ArrayList<>();
+        Set<Long> unranked = new HashSet<>(ids);
+        jdbcTemplate.query(
+                "SELECT id, best_score, total_wins, version FROM users WHERE id IN (" + placeholders + ")",
+                (ResultSet rs) -> {
+                    if (rs.getObject("best_score") != null) {
+                        PlayerEntry entry = playerEntry(rs);
+                        rows.add(entry);
+                        unranked.remove(entry.id());
+                    }
+                },
+                ids.toArray());
+        afterCommit(() -> {
+            rows.forEach(row -> changed(LeaderboardCache.PLAYERS, players.put(row)));
+            unranked.forEach(userId -> changed(LeaderboardCache.PLAYERS, players.removeUser(userId)));
+        });
+    }
+
+    /**
+     * Takes the player off every board; cached leaderboards are all dropped, since the
+     * player may be listed on any of them
+     */
+    public void userDeleted(Long userId) {
+        afterCommit(() -> {
+            timeAttack.values().forEach(board -> board.removeUser(userId));
+            survival.values().forEach(board -> board.removeUser(userId));
+            players.removeUser(userId);
+            synchronized (daily) {
+                daily.removeUser(userId);
+            }
+            leaderboardCache.clear();
+        });
+    }
+
+    // Rank lookups, 1-based; null when the entry is not on the leaderboard
+
+    public Integer timeAttackRank(int difficulty, long sessionId) {
+        return timeAttackBoard(difficulty).rankOfId(sessionId);
+    }
+
+    public Integer survivalRank(int difficulty, long sessionId) {
+        return survivalBoard(difficulty).rankOfId(sessionId);
+    }
+
+    public Integer dailyRank(DailyChallenge challenge, long userId) {
+        synchronized (daily) {
+            if (!challenge.getId().equals(dailyChallengeId)) {
+                loadDaily(challenge.getId());
+            }
+            return daily.rankOfUser(userId);
+        }
+    }
+
+    public Integer playerRank(long userId) {
+        return players.rankOfUser(userId);
+    }
+
+    /**
+     * Drop the cached responses that reach down to a changed entry
+     */
+    private void changed(String cachedBoard, Integer rank) {
+        if (rank != null) {
+            leaderboardCache.changed(cachedBoard, rank);
+        }
+    }
+
+    private Board<TimeAttackEntry> timeAttackBoard(int difficulty) {
+        return timeAttack.computeIfAbsent(difficulty, key -> new Board<>(TIME_ATTACK_ORDER, BETTER_TIME_ATTACK_RUN));
+    }
+
+    private Board<SurvivalEntry> survivalBoard(int difficulty) {
+        return survival.computeIfAbsent(difficulty, key -> new Board<>(SURVIVAL_ORDER, BETTER_SURVIVAL_RUN));
+    }
+
+    private void loadDaily(Long challengeId) {
+        synchronized (daily) {
+            daily.replaceAll(jdbcTemplate.query(
+                    "SELECT id, user_id, attempts, time_taken_seconds FROM daily_challenge_attempts " +
+                    "WHERE challenge_id = ? AND won = true",
+                    (rs, row) -> new DailyEntry(rs.getLong("id"), rs.getLong("user_id"),
+                            rs.getInt("attempts"), rs.getInt("time_taken_seconds")),
+                    challengeId));
+            dailyChallengeId = challengeId;
+        }
+    }
+
+    /**
+     * Run once the current transaction commits, so a rollback leaves the boards alone;
+     * right away when there is none
+     */
+    private static void afterCommit(Runnable update) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            update.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                update.run();
+            }
+        });
+    }
+
+    private static TimeAttackEntry timeAttackEntry(ResultSet rs) throws SQLException {
+        double averageAttempts = rs.getDouble("average_attempts");
+        boolean noWins = rs.wasNull();
+        return new TimeAttackEntry(rs.getLong("id"), rs.getLong("user_id"), rs.getInt("total_score"),
+                rs.getInt("games_won"), noWins ? null : averageAttempts);
+    }
+
+    private static SurvivalEntry survivalEntry(ResultSet rs) throws SQLException {
+        return new SurvivalEntry(rs.getLong("id"), rs.getLong("user_id"), rs.getBoolean("completed"),
+                rs.getInt("rounds_survived"), rs.getInt("total_attempts_used"));
+    }
+
+    private static PlayerEntry playerEntry(ResultSet rs) throws SQLException {
+        return new PlayerEntry(rs.getLong("id"), rs.getInt("best_score"), rs.getInt("total_wins"),
+                rs.getLong("version"));
+    }
+}
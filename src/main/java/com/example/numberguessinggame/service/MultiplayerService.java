@@ -2,6 +2,10 @@ package com.example.numberguessinggame.service;
 
 import com.example.numberguessinggame.entity.*;
 import com.example.numberguessinggame.repository.*;
+import com.example.numberguessinggame.session.GameSessionStore;
+import com.example.numberguessinggame.session.SessionCodec;
+import com.example.numberguessinggame.session.SessionCodecs;
+import com.example.numberguessinggame.util.BullsCowsEngine;
 import com.example.numberguessinggame.util.GameUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -11,6 +15,9 @@ import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
@@ -39,20 +46,25 @@ public class MultiplayerService {
     @Autowired
     private UserService userService;
 
+    @Autowired
+    private LeaderboardRanks leaderboardRanks;
+
     @Autowired
     private SimpMessagingTemplate messagingTemplate;
 
-    // In-memory session tracking (ConcurrentHashMap for thread safety)
-    private final Map<String, ActiveGameSession> activeSessions = new ConcurrentHashMap<>();
+    // In-memory session tracking; expiry is a backstop for games cleanupAbandonedSessions never sees
+    @Autowired
+    private GameSessionStore<ActiveGameSession> activeSessions;
 
     /**
      * Active game session data stored in memory
      */
-    static class ActiveGameSession {
+    public static class ActiveGameSession {
         String sessionId;
         Long player1Id;
         Long player2Id;
         Integer secretNumber;
+        int secretKey;
         Integer digitCount;
         Integer difficulty;
         Integer maxAttempts;
@@ -64,14 +76,55 @@ public class MultiplayerService {
             Boolean solved = false;
             LocalDateTime solvedAt;
             LocalDateTime lastActivity;
+
+            void write(DataOutput out) throws IOException {
+                out.writeInt(attempts);
+                out.writeBoolean(solved);
+                SessionCodecs.writeDateTime(out, solvedAt);
+                SessionCodecs.writeDateTime(out, lastActivity);
+            }
+
+            void read(DataInput in) throws IOException {
+                attempts = in.readInt();
+                solved = in.readBoolean();
+                solvedAt = SessionCodecs.readDateTime(in);
+                lastActivity = SessionCodecs.readDateTime(in);
+            }
         }
 
+        public static final SessionCodec<ActiveGameSession> CODEC = new SessionCodec<>() {
+            @Override
+            public void write(ActiveGameSession session, DataOutput out) throws IOException {
+                out.writeUTF(session.sessionId);
+                out.writeLong(session.player1Id);
+                out.writeLong(session.player2Id);
+                out.writeInt(session.secretNumber);
+                out.writeByte(session.digitCount);
+                out.writeByte(session.difficulty);
+                out.writeByte(session.maxAttempts);
+                SessionCodecs.writeDateTime(out, session.startedAt);
+                session.playerStates.get(session.player1Id).write(out);
+                session.playerStates.get(session.player2Id).write(out);
+            }
+
+            @Override
+            public ActiveGameSession read(DataInput in) throws IOException {
+                ActiveGameSession session = new ActiveGameSession(in.readUTF(), in.readLong(), in.readLong(),
+                        in.readInt(), (int) in.readByte(), (int) in.readByte(), (int) in.readByte());
+                session.startedAt = SessionCodecs.readDateTime(in);
+                session.playerStates.get(session.player1Id).read(in);
+                session.playerStates.get(session.player2Id).read(in);
+                return session;
+            }
+        };
+
         ActiveGameSession(String sessionId, Long player1Id, Long player2Id,
                           Integer secretNumber, Integer digitCount, Integer difficulty, Integer maxAttempts) {
             this.sessionId = sessionId;
             this.player1Id = player1Id;
             this.player2Id = player2Id;
             this.secretNumber = secretNumber;
+            this.secretKey = BullsCowsEngine.encodeSecret(secretNumber, digitCount);
             this.digitCount = digitCount;
             this.difficulty = difficulty;
             this.maxAttempts = maxAttempts;
@@ -210,8 +263,6 @@ public class MultiplayerService {
 
         logger.info("Game session created: {} vs {} (session: {}, max attempts: {})",
                     challenge.getChallenger().getUsername(), user.getUsername(), sessionId, maxAttempts);
-        logger.info("[ADMIN] Multiplayer Target | Session: {} | Players: {} vs {} | Target: {}",
-                    sessionId, challenge.getChallenger().getUsername(), user.getUsername(), secretNumber);
 
         Map<String, Object> result = new HashMap<>();
         result.put("success", true);
@@ -253,52 +304,29 @@ public class MultiplayerService {
         }
 
         // Validate guess
-        if (guess == null || guess.isEmpty()) {
-            throw new IllegalArgumentException("Please enter your guess");
-        }
-        if (!guess.matches("\\d+")) {
-            throw new IllegalArgumentException("Only numbers allowed in your guess");
-        }
-        if (guess.length() != session.digitCount) {
-            throw new IllegalArgumentException("Your guess needs exactly " + session.digitCount + " digits");
-        }
-        if (guess.chars().distinct().count() != guess.length()) {
-            throw new IllegalArgumentException("Each digit must be different. No repeats");
+        switch (BullsCowsEngine.check(guess, session.digitCount)) {
+            case EMPTY -> throw new IllegalArgumentException("Please enter your guess");
+            case NOT_NUMERIC -> throw new IllegalArgumentException("Only numbers allowed in your guess");
+            case WRONG_LENGTH -> throw new IllegalArgumentException("Your guess needs exactly " + session.digitCount + " digits");
+            case REPEATED_DIGITS -> throw new IllegalArgumentException("Each digit must be different. No repeats");
+            case VALID -> { }
         }
 
         // Calculate bulls and cows
-        int[] target = getDigits(session.secretNumber);
-        int[] guessDigits = getDigits(Integer.parseInt(guess));
-        int bulls = 0;
-        int cows = 0;
-        boolean[] used = new boolean[target.length];
-
-        // First pass: Check for bulls (correct position)
-        for (int i = 0; i < target.length; i++) {
-            if (guessDigits[i] == target[i]) {
-                bulls++;
-                used[i] = true;
-            }
-        }
-
-        // Second pass: Check for cows (correct digit, wrong position)
-        for (int i = 0; i < target.length; i++) {
-            if (guessDigits[i] != target[i]) {
-                for (int j = 0; j < target.length; j++) {
-                    if (!used[j] && guessDigits[i] == target[j]) {
-                        cows++;
-                        used[j] = true;
-                        break;
-                    }
-                }
-            }
-        }
-
-        boolean isCorrect = bulls == target.length;
+        int result = BullsCowsEngine.score(session.secretKey, guess);
+        int bulls = BullsCowsEngine.bulls(result);
+        int cows = BullsCowsEngine.cows(result);
+        boolean isCorrect = BullsCowsEngine.isSolved(result, session.digitCount);
 
         // Update player state
         playerState.attempts++;
         playerState.lastActivity = LocalDateTime.now();
+        if (isCorrect) {
+            playerState.solved = true;
+            playerState.solvedAt = LocalDateTime.now();
+        }
+        // Written back before the opponent hears about it
+        activeSessions.update(sessionId, session);
 
         Map<String, Object> response = new HashMap<>();
         response.put("success", true);
@@ -320,9 +348,6 @@ public class MultiplayerService {
 
         // Check game completion scenarios
         if (isCorrect) {
-            playerState.solved = true;
-            playerState.solvedAt = LocalDateTime.now();
-
             // If opponent also solved, determine winner by fewest attempts
             if (opponentState.solved) {
                 Long winnerId = playerState.attempts < opponentState.attempts ? user.getId() :
@@ -441,20 +466,10 @@ public class MultiplayerService {
         int coinsAwarded = userService.awardCoins(winnerId, session.difficulty);
 
         // Update user stats (totalGames, totalWins)
-        User winner = userRepository.findById(winnerId).orElse(null);
         Long loserId = winnerId.equals(session.player1Id) ? session.player2Id : session.player1Id;
-        User loser = userRepository.findById(loserId).orElse(null);
-
-        if (winner != null) {
-            winner.setTotalGames((winner.getTotalGames() != null ? winner.getTotalGames() : 0) + 1);
-            winner.setTotalWins((winner.getTotalWins() != null ? winner.getTotalWins() : 0) + 1);
-            userRepository.save(winner);
-        }
-
-        if (loser != null) {
-            loser.setTotalGames((loser.getTotalGames() != null ? loser.getTotalGames() : 0) + 1);
-            userRepository.save(loser);
-        }
+        userRepository.addGameCounts(winnerId, 1, 1);
+        userRepository.addGameCounts(loserId, 1, 0);
+        leaderboardRanks.playersChanged(List.of(winnerId, loserId));
 
         // Get attempt counts from session
         ActiveGameSession.PlayerState winnerState = session.playerStates.get(winnerId);
@@ -515,18 +530,9 @@ public class MultiplayerService {
         }
 
         // Update user stats (totalGames for both, no wins)
-        User player1 = userRepository.findById(session.player1Id).orElse(null);
-        User player2 = userRepository.findById(session.player2Id).orElse(null);
-
-        if (player1 != null) {
-            player1.setTotalGames((player1.getTotalGames() != null ? player1.getTotalGames() : 0) + 1);
-            userRepository.save(player1);
-        }
-
-        if (player2 != null) {
-            player2.setTotalGames((player2.getTotalGames() != null ? player2.getTotalGames() : 0) + 1);
-            userRepository.save(player2);
-        }
+        userRepository.addGameCounts(session.player1Id, 1, 0);
+        userRepository.addGameCounts(session.player2Id, 1, 0);
+        leaderboardRanks.playersChanged(List.of(session.player1Id, session.player2Id));
 
         // Get attempt counts from session
         ActiveGameSession.PlayerState player1State = session.playerStates.get(session.player1Id);
@@ -733,19 +739,9 @@ public class MultiplayerService {
         sessionRepository.save(dbSession);
 
         // Update stats (no coins awarded for forfeit)
-        User winner = userRepository.findById(opponentId).orElse(null);
-        User loser = user;
-
-        if (winner != null) {
-            winner.setTotalGames((winner.getTotalGames() != null ? winner.getTotalGames() : 0) + 1);
-            winner.setTotalWins((winner.getTotalWins() != null ? winner.getTotalWins() : 0) + 1);
-            userRepository.save(winner);
-        }
-
-        if (loser != null) {
-            loser.setTotalGames((loser.getTotalGames() != null ? loser.getTotalGames() : 0) + 1);
-            userRepository.save(loser);
-        }
+        userRepository.addGameCounts(opponentId, 1, 1);
+        userRepository.addGameCounts(user.getId(), 1, 0);
+        leaderboardRanks.playersChanged(List.of(opponentId, user.getId()));
 
         // Get attempt counts from session
         ActiveGameSession.PlayerState winnerState = session.playerStates.get(opponentId);
@@ -776,16 +772,4 @@ public class MultiplayerService {
 
         logger.info("Player {} left game session {}, opponent {} wins by forfeit", user.getId(), sessionId, opponentId);
     }
-
-    /**
-     * Helper: Convert number to digit array
-     */
-    private int[] getDigits(int number) {
-        String numberString = String.valueOf(number);
-        int[] digits = new int[numberString.length()];
-        for (int i = 0; i < numberString.length(); i++) {
-            digits[i] = Character.getNumericValue(numberString.charAt(i));
-        }
-        return digits;
-    }
 }
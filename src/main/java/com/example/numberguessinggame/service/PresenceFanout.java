@@ -0,0 +1,173 @@
+package com.example.numberguessinggame.service;
+
+import com.example.numberguessinggame.repository.FriendshipRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sends presence changes to the friends of the user who changed, instead of to
+ * every connected client.
+ *
+ * Changes are collected and sent every tick (presence.fanout.tick-ms), as one frame
+ * per online friend on /queue/presence.{friendId} holding all the changes they get
+ * in that tick. Going offline waits for presence.fanout.offline-grace-ms first: a
+ * page reload or a dropped connection that comes back within it is never sent.
+ */
+@Service
+public class PresenceFanout {
+
+    private static final Logger logger = LoggerFactory.getLogger(PresenceFanout.class);
+
+    // Users per friendships query
+    private static final int LOOKUP_CHUNK = 500;
+
+    @Autowired
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Autowired
+    private FriendshipRepository friendshipRepository;
+
+    @Autowired
+    private PresenceService presenceService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${presence.fanout.tick-ms:250}")
+    private long tickMs;
+
+    @Value("${presence.fanout.offline-grace-ms:3000}")
+    private long offlineGraceMs;
+
+    @Value("${websocket.broker.mode:simple}")
+    private String brokerMode;
+
+    // Latest change per user not sent yet
+    private final Map<Long, Pending> pending = new ConcurrentHashMap<>();
+    private ScheduledExecutorService ticker;
+
+    private Counter frames;
+    private Counter suppressed;
+
+    /**
+     * @param online State to send
+     * @param published State the friends were last sent
+     * @param changedAt When the state last changed, in epoch millis
+     */
+    private record Pending(boolean online, boolean published, long changedAt) {
+    }
+
+    private record Change(Long userId, boolean online, long changedAt) {
+    }
+
+    @PostConstruct
+    public void start() {
+        frames = Counter.builder("presence.fanout.frames")
+                .description("Presence frames sent, one per recipient per tick")
+                .register(meterRegistry);
+        suppressed = Counter.builder("presence.fanout.suppressed")
+                .description("Presence changes undone within the offline grace period, never sent")
+                .register(meterRegistry);
+
+        ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "presence-fanout");
+            thread.setDaemon(true);
+            return thread;
+        });
+        ticker.scheduleWithFixedDelay(this::tick, tickMs, tickMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        ticker.shutdownNow();
+    }
+
+    /**
+     * A user came online or went offline; sent to their friends on a later tick
+     */
+    public void changed(Long userId, boolean online) {
+        long now = System.currentTimeMillis();
+        // A user with nothing pending had the opposite state before this change
+        pending.compute(userId, (id, previous) ->
+                new Pending(online, previous != null ? previous.published() : !online, now));
+    }
+
+    private void tick() {
+        try {
+            List<Change> ready = takeReady(System.currentTimeMillis());
+            if (!ready.isEmpty()) {
+                send(ready);
+            }
+        } catch (Exception e) {
+            // Those changes are lost; friends catch up when they reload their friends list
+            logger.error("Failed to send presence updates: {}", e.getMessage());
+        }
+    }
+
+    private List<Change> takeReady(long now) {
+        List<Change> ready = new ArrayList<>();
+        for (Map.Entry<Long, Pending> entry : pending.entrySet()) {
+            Pending change = entry.getValue();
+            if (change.online() == change.published()) {
+                // Went offline and came back (or the reverse) before anything was sent
+                if (pending.remove(entry.getKey(), change)) {
+                    suppressed.increment();
+                }
+            } else if (change.online() || now - change.changedAt() >= offlineGraceMs) {
+                if (pending.remove(entry.getKey(), change)) {
+                    ready.add(new Change(entry.getKey(), change.online(), change.changedAt()));
+                }
+            }
+        }
+        return ready;
+    }
+
+    private void send(List<Change> ready) {
+        // Updates per recipient
+        Map<Long, List<Map<String, Object>>> byRecipient = new HashMap<>();
+        for (int from = 0; from < ready.size(); from += LOOKUP_CHUNK) {
+            List<Change> chunk = ready.subList(from, Math.min(from + LOOKUP_CHUNK, ready.size()));
+            Map<Long, List<Long>> friendIds = friendshipRepository.findFriendIds(
+                    chunk.stream().map(Change::userId).toList());
+
+            for (Change change : chunk) {
+                Map<String, Object> update = Map.of(
+                    "userId", change.userId(),
+                    "online", change.online(),
+                    "timestamp", change.changedAt()
+                );
+                for (Long friendId : friendIds.getOrDefault(change.userId(), List.of())) {
+                    byRecipient.computeIfAbsent(friendId, id -> new ArrayList<>()).add(update);
+                }
+            }
+        }
+
+        // Only friends who are connected to receive them; behind a relay they may be
+        // connected to another node, which this one does not know about
+        boolean relayed = "relay".equals(brokerMode);
+        Map<Long, Boolean> online = relayed ? Map.of() : presenceService.getUsersOnlineStatus(byRecipient.keySet());
+        byRecipient.forEach((recipientId, updates) -> {
+            if (relayed || online.getOrDefault(recipientId, false)) {
+                messagingTemplate.convertAndSend("/queue/presence." + recipientId, updates);
+                frames.increment();
+            }
+        });
+    }
+}
@@ -1,22 +1,103 @@
 package com.example.numberguessinggame.service;
 
-import com.example.numberguessinggame.config.WebSocketEventListener;
-import org.springframework.beans.factory.annotation.Autowired;
+import com.example.numberguessinggame.util.ConcurrentBitmap;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
+import java.util.PrimitiveIterator;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * Service for checking user online/offline presence status
- * Wraps WebSocketEventListener for cleaner API
+ * Registry of online users and their WebSocket sessions
+ *
+ * A user is online while they have at least one session (several tabs or devices
+ * each hold their own). Who is online is kept in a bitmap over user ids, so a friends
+ * list or a page of search results is checked in one pass and the online users can be
+ * walked without copying anything. Sessions per user are updated under the user's map
+ * entry, so the bitmap and the sessions always agree.
  */
 @Service
 public class PresenceService {
 
-    @Autowired
-    private WebSocketEventListener webSocketEventListener;
+    /**
+     * Outcome of a session ending
+     *
+     * @param userId Owner of the session
+     * @param wentOffline Whether it was the user's last session
+     */
+    public record Disconnect(Long userId, boolean wentOffline) {
+    }
+
+    private final ConcurrentBitmap online = new ConcurrentBitmap();
+
+    // Map of userId -> WebSocket sessionIds
+    private final Map<Long, Set<String>> sessionsByUser = new ConcurrentHashMap<>();
+
+    // Map of sessionId -> userId (for reverse lookup on disconnect)
+    private final Map<String, Long> sessionToUser = new ConcurrentHashMap<>();
+
+    /**
+     * Record a new session
+     *
+     * @return True if the user was offline until now
+     */
+    public boolean sessionConnected(Long userId, String sessionId) {
+        boolean[] cameOnline = {false};
+        sessionToUser.put(sessionId, userId);
+        sessionsByUser.compute(userId, (id, sessions) -> {
+            if (sessions == null) {
+                sessions = ConcurrentHashMap.newKeySet();
+                online.add(id);
+                cameOnline[0] = true;
+            }
+            sessions.add(sessionId);
+            return sessions;
+        });
+        return cameOnline[0];
+    }
+
+    /**
+     * Record the end of a session
+     *
+     * @return Null if the session is unknown (no user, or already removed)
+     */
+    public Disconnect sessionDisconnected(String sessionId) {
+        Long userId = sessionToUser.remove(sessionId);
+        if (userId == null) {
+            return null;
+        }
+        boolean[] wentOffline = {false};
+        sessionsByUser.computeIfPresent(userId, (id, sessions) -> {
+            sessions.remove(sessionId);
+            if (!sessions.isEmpty()) {
+                return sessions;
+            }
+            online.remove(id);
+            wentOffline[0] = true;
+            return null;
+        });
+        return new Disconnect(userId, wentOffline[0]);
+    }
+
+    /**
+     * Drop every session of a user
+     *
+     * @return True if the user was online
+     */
+    public boolean userDisconnected(Long userId) {
+        boolean[] wasOnline = {false};
+        sessionsByUser.computeIfPresent(userId, (id, sessions) -> {
+            sessions.forEach(sessionToUser::remove);
+            online.remove(id);
+            wasOnline[0] = true;
+            return null;
+        });
+        return wasOnline[0];
+    }
 
     /**
      * Check if a single user is online
@@ -25,38 +106,45 @@ public class PresenceService {
         if (userId == null) {
             return false;
         }
-        return webSocketEventListener.isUserOnline(userId);
+        return online.contains(userId);
     }
 
     /**
      * Get online status for multiple users (batch check)
      * Useful for friends list where we need to check many users at once
      */
-    public Map<Long, Boolean> getUsersOnlineStatus(List<Long> userIds) {
+    public Map<Long, Boolean> getUsersOnlineStatus(Collection<Long> userIds) {
         Map<Long, Boolean> statusMap = new HashMap<>();
 
         if (userIds == null || userIds.isEmpty()) {
             return statusMap;
         }
 
-        for (Long userId : userIds) {
-            statusMap.put(userId, isUserOnline(userId));
+        long[] ids = userIds.stream().filter(id -> id != null).mapToLong(Long::longValue).sorted().toArray();
+        boolean[] present = online.containsEach(ids);
+        for (int i = 0; i < ids.length; i++) {
+            statusMap.put(ids[i], present[i]);
         }
 
         return statusMap;
     }
 
     /**
-     * Get all currently online users
+     * Ids of the users online, in ascending order; reads the live set, without a copy
      */
-    public Map<Long, String> getAllOnlineUsers() {
-        return webSocketEventListener.getOnlineUsers();
+    public PrimitiveIterator.OfLong getOnlineUserIds() {
+        return online.iterator();
+    }
+
+    public long getOnlineUserCount() {
+        return online.cardinality();
     }
 
     /**
-     * Get the WebSocket session ID for a user (if online)
+     * Get the WebSocket session IDs of a user (empty if offline)
      */
-    public String getUserSession(Long userId) {
-        return webSocketEventListener.getUserSession(userId);
+    public Set<String> getUserSessions(Long userId) {
+        Set<String> sessions = sessionsByUser.get(userId);
+        return sessions != null ? Set.copyOf(sessions) : Collections.emptySet();
     }
 }
@@ -0,0 +1,155 @@
+package com.example.numberguessinggame.service;
+
+import com.example.numberguessinggame.util.BullsCowsEngine;
+import com.example.numberguessinggame.util.BullsCowsSolver;
+import com.example.numberguessinggame.util.CandidateTable;
+import com.example.numberguessinggame.util.GuessHistory;
+import com.example.numberguessinggame.util.ResponseMatrix;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.file.Paths;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Remaining-possibilities feedback and best-next-guess suggestions for every game mode.
+ *
+ * At startup a background thread loads the response matrices and works out the best
+ * opening move for each digit count across the fork-join pool. By default the 3- and
+ * 4-digit matrices are computed on the heap and 5-digit results are scored from the
+ * packed keys. Setting game.solver.matrix-dir opts in to mapping the 4- and 5-digit
+ * matrices from files there, written on first boot unless shipped with the image;
+ * they take about 760 MB of disk.
+ * Requests never wait for that: until a matrix is loaded, results are scored on the
+ * fly. Later moves are analysed per request within the game.solver.max-scorings
+ * budget, which keeps a request to a few milliseconds.
+ */
+@Service
+public class SolverService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SolverService.class);
+    private static final int NOT_READY = -1;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${game.solver.max-scorings:500000}")
+    private long maxScorings;
+
+    @Value("${game.solver.matrix-dir:}")
+    private String matrixDirectory;
+
+    // Table index of the best opening guess by digit count, NOT_READY until worked out
+    private final AtomicIntegerArray openingMoves = new AtomicIntegerArray(BullsCowsEngine.MAX_DIGITS + 1);
+
+    private Timer remainingTimer;
+    private Timer suggestionTimer;
+
+    /**
+     * What a game's guesses and revealed digits leave open
+     */
+    public static class Analysis {
+        private final int remaining;
+        private final Integer suggestion;
+
+        Analysis(int remaining, Integer suggestion) {
+            this.remaining = remaining;
+            this.suggestion = suggestion;
+        }
+
+        /**
+         * @return Number of secrets still consistent with the game so far
+         */
+        public int getRemaining() { return remaining; }
+
+        /**
+         * @return Best next guess, null when not asked for or nothing is consistent
+         */
+        public Integer getSuggestion() { return suggestion; }
+    }
+
+    @PostConstruct
+    public void start() {
+        remainingTimer = Timer.builder("solver.analysis")
+                .tag("suggest", "false")
+                .description("Time spent counting the secrets still possible")
+                .publishPercentiles(0.99)
+                .register(meterRegistry);
+        suggestionTimer = Timer.builder("solver.analysis")
+                .tag("suggest", "true")
+                .description("Time spent counting the secrets still possible and picking the best next guess")
+                .publishPercentiles(0.99)
+                .register(meterRegistry);
+
+        for (int digitCount = 0; digitCount < openingMoves.length(); digitCount++) {
+            openingMoves.set(digitCount, NOT_READY);
+        }
+        if (!matrixDirectory.isBlank()) {
+            ResponseMatrix.useDirectory(Paths.get(matrixDirectory));
+        }
+        Thread warmup = new Thread(this::computeOpeningMoves, "solver-warmup");
+        warmup.setDaemon(true);
+        warmup.start();
+    }
+
+    /**
+     * @param difficulty 0=Easy(3), 1=Medium(4), 2=Hard(5)
+     * @param history Guesses made so far in the current game or round
+     * @param revealedMask Positions revealed by hints (bit 0 = leftmost digit)
+     * @param secretKey Packed key of the secret, only read at revealed positions
+     * @param suggest Whether to pick the best next guess as well
+     */
+    public Analysis analyze(int difficulty, GuessHistory history, int revealedMask, int secretKey, boolean suggest) {
+        Timer timer = suggest ? suggestionTimer : remainingTimer;
+        return timer.record(() -> {
+            ResponseMatrix matrix = ResponseMatrix.current(CandidateTable.MIN_DIGITS + difficulty);
+            long[] candidates = BullsCowsSolver.consistent(matrix, history, revealedMask, secretKey);
+            int remaining = BullsCowsSolver.count(candidates);
+            if (!suggest || remaining == 0) {
+                return new Analysis(remaining, null);
+            }
+
+            int digitCount = matrix.getTable().getDigitCount();
+            int best = history.isEmpty() && revealedMask == 0 ? openingMoves.get(digitCount) : NOT_READY;
+            if (best == NOT_READY) {
+                best = BullsCowsSolver.bestGuess(matrix, candidates, maxScorings);
+            }
+            return new Analysis(remaining, matrix.getTable().secretAt(best));
+        });
+    }
+
+    /**
+     * Coins charged for a best-next-guess suggestion: Easy=8, Medium=12, Hard=15
+     */
+    public int getSuggestionCost(int difficulty) {
+        return switch (difficulty) {
+            case 0 -> 8;
+            case 1 -> 12;
+            default -> 15;
+        };
+    }
+
+    private void computeOpeningMoves() {
+        for (int digitCount = CandidateTable.MIN_DIGITS; digitCount < openingMoves.length(); digitCount++) {
+            try {
+                long started = System.nanoTime();
+                ResponseMatrix matrix = ResponseMatrix.forDigits(digitCount);
+                long[] everything = BullsCowsSolver.consistent(matrix, new GuessHistory(), 0, 0);
+                int best = BullsCowsSolver.bestGuess(matrix, everything, Long.MAX_VALUE);
+                openingMoves.set(digitCount, best);
+                logger.info("Solver ready for {} digits: opening guess {} ({} ms, matrix {})",
+                        digitCount, matrix.getTable().secretAt(best), (System.nanoTime() - started) / 1_000_000,
+                        matrix.isMapped() ? "mapped" : matrix.isPrecomputed() ? "on heap" : "scored on the fly");
+            } catch (RuntimeException e) {
+                // Requests keep scoring on the fly
+                logger.warn("Could not prepare the {}-digit solver: {}", digitCount, e.getMessage());
+            }
+        }
+    }
+}
@@ -11,6 +11,7 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -23,6 +24,9 @@ public class SurvivalService {
     @Autowired
     private SurvivalSessionRepository survivalSessionRepository;
 
+    @Autowired
+    private LeaderboardRanks leaderboardRanks;
+
     /**
      * Save a completed survival session
      */
@@ -42,7 +46,10 @@ public class SurvivalService {
                 user.getId(), difficulty, roundsSurvived, completed, coinsEarned);
 
         // Update best run flags for this user-difficulty combination
-        updateBestRunFlags(user, difficulty);
+        SurvivalSession best = updateBestRunFlags(user, difficulty);
+        if (best != null) {
+            leaderboardRanks.survivalRunSaved(best);
+        }
 
         return saved;
     }
@@ -50,16 +57,17 @@ public class SurvivalService {
     /**
      * Update best run flags for a user-difficulty combination
      * Ensures only the user's best session for this difficulty has isBestRun = true
+     * @return The user's best session for this difficulty, or null if there is none
      */
     @Transactional
-    public void updateBestRunFlags(User user, Integer difficulty) {
+    public SurvivalSession updateBestRunFlags(User user, Integer difficulty) {
         // Get user's actual best session for this difficulty
         List<SurvivalSession> bestSessions = survivalSessionRepository.findUserSessionsByDifficulty(
             user, difficulty, PageRequest.of(0, 1)
         );
 
         if (bestSessions.isEmpty()) {
-            return; // No sessions for this user-difficulty
+            return null; // No sessions for this user-difficulty
         }
 
         SurvivalSession actualBest = bestSessions.get(0);
@@ -71,21 +79,23 @@ public class SurvivalService {
 
         // If the actual best is already marked as best run and no others are, we're done
         if (currentBestRuns.size() == 1 && currentBestRuns.get(0).getId().equals(actualBest.getId())) {
-            return;
+            return actualBest;
         }
 
         // Clear all best run flags for this user-difficulty
+        List<SurvivalSession> changed = new ArrayList<>(currentBestRuns);
         for (SurvivalSession session : currentBestRuns) {
             session.setIsBestRun(false);
-            survivalSessionRepository.save(session);
         }
 
-        // Set the actual best as best run
+        // Set the actual best as best run (written together with the cleared flags as one batch)
         actualBest.setIsBestRun(true);
-        survivalSessionRepository.save(actualBest);
+        changed.add(actualBest);
+        survivalSessionRepository.saveAll(changed);
 
         logger.info("Updated best run flag for user {} difficulty {} - session {} is now best",
                 user.getId(), difficulty, actualBest.getId());
+        return actualBest;
     }
 
     /**
@@ -136,32 +146,10 @@ public class SurvivalService {
      * Get user's rank on leaderboard for a specific session
      * @param sessionId The session ID to find rank for
      * @param difficulty Difficulty level
-     * @return Rank (1-based) or null if outside top 1000 or not found
+     * @return Rank (1-based) or null if the session is not the player's best run
      */
     public Integer getUserRank(Long sessionId, Integer difficulty) {
-        try {
-            List<SurvivalSession> leaderboard = survivalSessionRepository
-                .findLeaderboardByDifficulty(difficulty, PageRequest.of(0, 1000));
-
-            for (int i = 0; i < leaderboard.size(); i++) {
-                if (leaderboard.get(i).getId().equals(sessionId)) {
-                    return i + 1;
-                }
-            }
-
-            // Session not in top 1000 - check if it exists at all
-            boolean sessionExists = survivalSessionRepository.existsById(sessionId);
-            if (!sessionExists) {
-                logger.warn("Session {} not found in database for difficulty {}", sessionId, difficulty);
-            } else {
-                logger.info("Session {} ranked outside top 1000 for difficulty {}", sessionId, difficulty);
-            }
-
-            return null;  // Outside top 1000 or not found
-        } catch (Exception e) {
-            logger.error("Failed to get rank for session {} difficulty {}: {}", sessionId, difficulty, e.getMessage());
-            return null;
-        }
+        return leaderboardRanks.survivalRank(difficulty, sessionId);
     }
 
     /**
@@ -22,6 +22,9 @@ public class TimeAttackService {
     @Autowired
     private TimeAttackSessionRepository repository;
 
+    @Autowired
+    private LeaderboardRanks leaderboardRanks;
+
     /**
      * Calculate points for a single game win
      *
@@ -85,7 +88,10 @@ public class TimeAttackService {
                 user.getUsername(), difficulty, totalScore, gamesWon, gamesPlayed);
 
         // Update best run flags for this user-difficulty combination
-        updateBestRunFlags(user, difficulty);
+        TimeAttackSession best = updateBestRunFlags(user, difficulty);
+        if (best != null) {
+            leaderboardRanks.timeAttackRunSaved(best);
+        }
 
         return saved;
     }
@@ -93,16 +99,17 @@ public class TimeAttackService {
     /**
      * Update best run flags for a user-difficulty combination
      * Ensures only the user's best session for this difficulty has isBestRun = true
+     * @return The user's best session for this difficulty, or null if there is none
      */
     @Transactional
-    public void updateBestRunFlags(User user, Integer difficulty) {
+    public TimeAttackSession updateBestRunFlags(User user, Integer difficulty) {
         // Get user's actual best session for this difficulty
         List<TimeAttackSession> bestSessions = repository.findUserSessionsByDifficulty(
             user, difficulty, PageRequest.of(0, 1)
         );
 
         if (bestSessions.isEmpty()) {
-            return; // No sessions for this user-difficulty
+            return null; // No sessions for this user-difficulty
         }
 
         TimeAttackSession actualBest = bestSessions.get(0);
@@ -114,7 +121,7 @@ public class TimeAttackService {
 
         // If the actual best is already marked as best run and no others are, we're done
         if (currentBestRuns.size() == 1 && currentBestRuns.get(0).getId().equals(actualBest.getId())) {
-            return;
+            return actualBest;
         }
 
         // Clear all best run flags for this user-difficulty
@@ -129,6 +136,7 @@ public class TimeAttackService {
 
         logger.info("Updated best run flag for user {} difficulty {} - session {} is now best",
                 user.getId(), difficulty, actualBest.getId());
+        return actualBest;
     }
 
     /**
@@ -147,31 +155,10 @@ public class TimeAttackService {
      *
      * @param sessionId The session ID to find rank for
      * @param difficulty Difficulty level
-     * @return Rank (1-based) or null if outside top 1000 or not found
+     * @return Rank (1-based) or null if the session is not the player's best run
      */
     public Integer getUserRank(Long sessionId, int difficulty) {
-        try {
-            List<TimeAttackSession> leaderboard = getLeaderboard(difficulty, 1000);
-
-            for (int i = 0; i < leaderboard.size(); i++) {
-                if (leaderboard.get(i).getId().equals(sessionId)) {
-                    return i + 1;  // 1-based rank
-                }
-            }
-
-            // Session not in top 1000 - check if it exists at all
-            boolean sessionExists = repository.existsById(sessionId);
-            if (!sessionExists) {
-                logger.warn("Session {} not found in database for difficulty {}", sessionId, difficulty);
-            } else {
-                logger.info("Session {} ranked outside top 1000 for difficulty {}", sessionId, difficulty);
-            }
-
-            return null;  // Outside top 1000 or not found
-        } catch (Exception e) {
-            logger.error("Failed to get rank for session {} difficulty {}: {}", sessionId, difficulty, e.getMessage());
-            return null;
-        }
+        return leaderboardRanks.timeAttackRank(difficulty, sessionId);
     }
 
     /**
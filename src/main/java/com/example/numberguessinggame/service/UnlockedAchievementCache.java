@@ -0,0 +1,116 @@
+package com.example.numberguessinggame.service;
+
+import com.example.numberguessinggame.entity.Achievement;
+import com.example.numberguessinggame.entity.User;
+import com.example.numberguessinggame.repository.UserAchievementRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Per-user set of unlocked achievements as a bitset over AchievementCatalog ordinals.
+ * Least recently used users are evicted once the cache is full; entries built
+ * against an older catalogue snapshot are reloaded.
+ */
+@Component
+public class UnlockedAchievementCache {
+
+    @Autowired
+    private UserAchievementRepository userAchievementRepository;
+
+    @Autowired
+    private AchievementCatalog achievementCatalog;
+
+    @Value("${achievements.unlocked-cache.max-users:10000}")
+    private int maxUsers = 10000;
+
+    private final Map<Long, Entry> entries = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+            return size() > maxUsers;
+        }
+    };
+
+    /**
+     * @return A copy of the user's unlocked bits, safe to modify
+     */
+    public BitSet getUnlocked(User user) {
+        int version = achievementCatalog.getVersion();
+        synchronized (entries) {
+            Entry entry = entries.get(user.getId());
+            if (entry != null && entry.version == version) {
+                return (BitSet) entry.bits.clone();
+            }
+        }
+
+        // Miss: load outside the lock
+        BitSet bits = new BitSet(achievementCatalog.size());
+        for (Long achievementId : userAchievementRepository.findAchievementIdsByUser(user)) {
+            int ordinal = achievementCatalog.getOrdinal(achievementId);
+            if (ordinal >= 0) {
+                bits.set(ordinal);
+            }
+        }
+
+        synchronized (entries) {
+            entries.put(user.getId(), new Entry(version, bits));
+        }
+        return (BitSet) bits.clone();
+    }
+
+    /**
+     * Record unlocks that were just written to the database.
+     * Inside a transaction the bits are only set once it commits.
+     */
+    public void markUnlocked(Long userId, Collection<Achievement> achievements) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    applyUnlocked(userId, achievements);
+                }
+            });
+        } else {
+            applyUnlocked(userId, achievements);
+        }
+    }
+
+    public void evict(Long userId) {
+        synchronized (entries) {
+            entries.remove(userId);
+        }
+    }
+
+    private void applyUnlocked(Long userId, Collection<Achievement> achievements) {
+        synchronized (entries) {
+            Entry entry = entries.get(userId);
+            if (entry == null || entry.version != achievementCatalog.getVersion()) {
+                entries.remove(userId);
+                return;
+            }
+            for (Achievement achievement : achievements) {
+                int ordinal = achievementCatalog.getOrdinal(achievement.getId());
+                if (ordinal >= 0) {
+                    entry.bits.set(ordinal);
+                }
+            }
+        }
+    }
+
+    private static final class Entry {
+        private final int version;
+        private final BitSet bits;
+
+        private Entry(int version, BitSet bits) {
+            this.version = version;
+            this.bits = bits;
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.example.numberguessinggame.service;
+
+import com.example.numberguessinggame.entity.Game;
+import com.example.numberguessinggame.entity.User;
+import com.example.numberguessinggame.entity.UserGameStats;
+import com.example.numberguessinggame.repository.GameRepository;
+import com.example.numberguessinggame.repository.UserGameStatsRepository;
+import com.example.numberguessinggame.util.GameUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Maintains the user_game_stats aggregate used by achievement rules
+ */
+@Service
+public class UserGameStatsService {
+
+    public static final int EFFICIENT_ATTEMPTS = 5;
+    public static final int PERFECT_ATTEMPTS = 3;
+    public static final int FAST_WIN_SECONDS = 120;
+
+    @Autowired
+    private UserGameStatsRepository userGameStatsRepository;
+
+    @Autowired
+    private GameRepository gameRepository;
+
+    /**
+     * Fold a batch of just-saved games into their users' counters, loading and saving
+     * each user's row once. Games of one user must be in the order they were played.
+     */
+    @Transactional
+    public void recordGames(List<Game> games) {
+        Map<Long, List<Game>> gamesByUser = new LinkedHashMap<>();
+        for (Game game : games) {
+            gamesByUser.computeIfAbsent(game.getUser().getId(), id -> new ArrayList<>()).add(game);
+        }
+
+        Map<Long, UserGameStats> existing = new HashMap<>();
+        for (UserGameStats stats : userGameStatsRepository.findAllById(gamesByUser.keySet())) {
+            existing.put(stats.getUserId(), stats);
+        }
+
+        List<UserGameStats> updated = new ArrayList<>();
+        for (Map.Entry<Long, List<Game>> entry : gamesByUser.entrySet()) {
+            UserGameStats stats = existing.get(entry.getKey());
+            if (stats == null) {
+                // The history read by rebuild already includes these games; a row
+                // another transaction built first does not, they are applied to it
+                if (rebuild(entry.getValue().get(0).getUser()).isPresent()) {
+                    continue;
+                }
+                stats = userGameStatsRepository.findById(entry.getKey()).orElseThrow();
+            }
+            for (Game game : entry.getValue()) {
+                apply(stats, game);
+            }
+            updated.add(stats);
+        }
+        userGameStatsRepository.saveAll(updated);
+    }
+
+    /**
+     * Get a user's counters, building them from history if they don't exist yet
+     */
+    @Transactional
+    public UserGameStats getStats(User user) {
+        return userGameStatsRepository.findById(user.getId())
+                .or(() -> rebuild(user))
+                .or(() -> userGameStatsRepository.findById(user.getId()))
+                .orElseThrow();
+    }
+
+    /**
+     * Build a user's first counters from the games table (oldest game first)
+     *
+     * @return Empty if another transaction inserted the user's row meanwhile
+     */
+    private Optional<UserGameStats> rebuild(User user) {
+        UserGameStats stats = new UserGameStats(user.getId());
+        gameRepository.findByUser(user).stream()
+                .sorted(Comparator.comparing(Game::getPlayedAt, Comparator.nullsFirst(Comparator.naturalOrder())))
+                .forEach(game -> apply(stats, game));
+        return userGameStatsRepository.insertIfAbsent(stats) ? Optional.of(stats) : Optional.empty();
+    }
+
+    /**
+     * Fold one game into a stats row (also used to replay history for retroactive achievements)
+     */
+    static void apply(UserGameStats stats, Game game) {
+        if (!Boolean.TRUE.equals(game.getWon())) {
+            stats.setCurrentLossStreak(stats.getCurrentLossStreak() + 1);
+            return;
+        }
+
+        // Wins per difficulty
+        switch (game.getDifficulty()) {
+            case 0 -> stats.setEasyWins(stats.getEasyWins() + 1);
+            case 1 -> stats.setMediumWins(stats.getMediumWins() + 1);
+            case 2 -> stats.setHardWins(stats.getHardWins() + 1);
+            default -> { }
+        }
+
+        // Attempts
+        if (game.getAttempts() <= EFFICIENT_ATTEMPTS) {
+            stats.setEfficientWins(stats.getEfficientWins() + 1);
+        }
+        stats.setPerfectWinRun(game.getAttempts() <= PERFECT_ATTEMPTS ? stats.getPerfectWinRun() + 1 : 0);
+
+        // Time taken
+        if (game.getTimeTaken() != null && GameUtils.parseTimeToSeconds(game.getTimeTaken()) < FAST_WIN_SECONDS) {
+            stats.setFastWins(stats.getFastWins() + 1);
+        }
+
+        // Time of day
+        LocalDateTime playedAt = game.getPlayedAt();
+        if (playedAt != null) {
+            int hour = playedAt.getHour();
+            if (hour >= 6 && hour < 9) {
+                stats.setMorningWins(stats.getMorningWins() + 1);
+            } else if (hour < 3) {
+                stats.setMidnightWins(stats.getMidnightWins() + 1);
+            } else if (hour >= 12 && hour < 14) {
+                stats.setLunchWins(stats.getLunchWins() + 1);
+            } else if (hour >= 18 && hour < 21) {
+                stats.setEveningWins(stats.getEveningWins() + 1);
+            }
+        }
+
+        // Losses leading into this win (comeback achievements)
+        stats.setLossesBeforeLastWin(stats.getCurrentLossStreak());
+        stats.setCurrentLossStreak(0);
+    }
+}
@@ -23,6 +23,12 @@ public class UserService {
     @Autowired
     private PasswordEncoder passwordEncoder;
 
+    @Autowired
+    private LeaderboardRanks leaderboardRanks;
+
+    @Autowired
+    private UsernameIndex usernameIndex;
+
     @Transactional
     public User registerUser(String username, String email, String password) {
         // Check for duplicate username (case-insensitive)
@@ -41,7 +47,9 @@ public class UserService {
         user.setTotalGames(0);
         user.setTotalWins(0);
 
-        return userRepository.save(user);
+        User saved = userRepository.save(user);
+        usernameIndex.added(saved);
+        return saved;
     }
 
     public String authenticateUser(String username, String password) {
@@ -73,12 +81,11 @@ public class UserService {
         return userRepository.findById(id);
     }
 
-    @Transactional
-    public void updateUserStats(Long userId, boolean won, int attempts) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new IllegalArgumentException("Couldn't find your account. Try logging in again!"));
-
-        LocalDate today = LocalDate.now();
+    /**
+     * Fold one finished game into the user's counters, streaks and play days (not saved);
+     * the in-memory twin of UserRepositoryCustom.recordGameResults
+     */
+    public static void applyGameResult(User user, boolean won, int attempts, LocalDate today) {
         LocalDate lastPlayed = user.getLastPlayedDate();
 
         // Initialize play day streak fields if null (for existing users)
@@ -149,59 +156,54 @@ public class UserService {
             // Lost - reset win streak
             user.setCurrentWinStreak(0);
         }
-
-        userRepository.save(user);
     }
 
     /**
      * Award coins to user based on difficulty
      * Easy: 3 coins, Medium: 6 coins, Hard: 9 coins
      */
-    @Transactional
     public int awardCoins(Long userId, int difficulty) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
+        int coinsToAward = coinsForDifficulty(difficulty);
+        awardCoinsAmount(userId, coinsToAward);
+        return coinsToAward;
+    }
 
-        int coinsToAward = switch(difficulty) {
+    public static int coinsForDifficulty(int difficulty) {
+        return switch(difficulty) {
             case 0 -> 3;  // Easy
             case 1 -> 6;  // Medium
             case 2 -> 9;  // Hard
             default -> 3;
         };
-
-        user.addCoins(coinsToAward);
-        userRepository.save(user);
-
-        return coinsToAward;
     }
 
     /**
      * Award multiple coins (for Time Attack session totals)
+     * @return New balance
      */
-    @Transactional
-    public void awardCoinsAmount(Long userId, int amount) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
-
-        user.addCoins(amount);
-        userRepository.save(user);
+    public int awardCoinsAmount(Long userId, int amount) {
+        Integer balance = userRepository.addCoins(userId, amount);
+        if (balance == null) {
+            throw new IllegalArgumentException("User not found");
+        }
+        return balance;
     }
 
     /**
      * Spend coins (for hints, power-ups, etc.)
+     * The balance check and the deduction are one UPDATE, so two requests cannot both spend the same coins
+     * @return New balance
      */
-    @Transactional
-    public void spendCoins(Long userId, int amount) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new IllegalArgumentException("User not found"));
-
-        Integer currentCoins = user.getCoins() != null ? user.getCoins() : 0;
-        if (currentCoins < amount) {
+    public int spendCoins(Long userId, int amount) {
+        Integer balance = userRepository.spendCoins(userId, amount);
+        if (balance == null) {
+            // Nothing updated: tell a missing account from a short balance
+            if (!userRepository.existsById(userId)) {
+                throw new IllegalArgumentException("User not found");
+            }
             throw new IllegalArgumentException("Insufficient coins");
         }
-
-        user.setCoins(currentCoins - amount);
-        userRepository.save(user);
+        return balance;
     }
 
     /**
@@ -216,8 +218,10 @@ public class UserService {
      */
     @Transactional
     public void updatePassword(User user, String newPassword) {
-        user.setPassword(passwordEncoder.encode(newPassword));
-        userRepository.save(user);
+        String encoded = passwordEncoder.encode(newPassword);
+        User current = reload(user);
+        current.setPassword(encoded);
+        userRepository.save(current);
     }
 
     /**
@@ -225,8 +229,18 @@ public class UserService {
      */
     @Transactional
     public void updateEmail(User user, String newEmail) {
-        user.setEmail(newEmail);
-        userRepository.save(user);
+        User current = reload(user);
+        current.setEmail(newEmail);
+        userRepository.save(current);
+    }
+
+    /**
+     * Fresh copy of a user read earlier in the request, so the version check on save
+     * only spans this transaction and coins earned meanwhile do not fail it
+     */
+    private User reload(User user) {
+        return userRepository.findById(user.getId())
+                .orElseThrow(() -> new IllegalArgumentException("User not found"));
     }
 
     /**
@@ -245,5 +259,7 @@ public class UserService {
                 .orElseThrow(() -> new IllegalArgumentException("User not found"));
 
         userRepository.delete(user);
+        leaderboardRanks.userDeleted(userId);
+        usernameIndex.removed(user);
     }
 }
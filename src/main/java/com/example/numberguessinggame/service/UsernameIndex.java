@@ -0,0 +1,112 @@
+package com.example.numberguessinggame.service;
+
+import com.example.numberguessinggame.entity.User;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Optional in-memory prefix index of usernames (friends.search.memory-index), so a
+ * prefix search does not touch the database until the page of results is known.
+ *
+ * A sorted map from "lowercase name, NUL, id" to id: the names starting with a prefix
+ * are one contiguous range, found in O(log n) like a walk down a trie, at a fraction
+ * of a trie's per-character nodes. Loaded at startup and kept in sync by registration
+ * and account deletion on this instance, so leave it off when several instances share
+ * the database; the indexed SQL prefix search is used then.
+ */
+@Component
+public class UsernameIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(UsernameIndex.class);
+    private static final char SEPARATOR = '\u0000';
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${friends.search.memory-index:false}")
+    private boolean enabled;
+
+    private final ConcurrentSkipListMap<String, Long> names = new ConcurrentSkipListMap<>();
+
+    @PostConstruct
+    public void load() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.currentTimeMillis();
+        jdbcTemplate.query("SELECT id, username FROM users",
+                (ResultSet rs) -> {
+                    names.put(key(rs.getString("username"), rs.getLong("id")), rs.getLong("id"));
+                });
+        logger.info("Username index loaded in {}ms: {} users", System.currentTimeMillis() - start, names.size());
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return Ids of users whose lowercase name starts with the prefix, in name order
+     */
+    public List<Long> findByPrefix(String prefix, Long excludeUserId, int limit) {
+        String from = prefix.toLowerCase();
+        List<Long> ids = new ArrayList<>(limit);
+        for (Map.Entry<String, Long> entry : names.tailMap(from).entrySet()) {
+            if (ids.size() >= limit || !entry.getKey().startsWith(from)) {
+                break;
+            }
+            if (!entry.getValue().equals(excludeUserId)) {
+                ids.add(entry.getValue());
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Index a new user once the registering transaction commits
+     */
+    public void added(User user) {
+        if (enabled) {
+            afterCommit(() -> names.put(key(user.getUsername(), user.getId()), user.getId()));
+        }
+    }
+
+    /**
+     * Drop a deleted user once the deleting transaction commits
+     */
+    public void removed(User user) {
+        if (enabled) {
+            afterCommit(() -> names.remove(key(user.getUsername(), user.getId())));
+        }
+    }
+
+    private static String key(String username, long id) {
+        return username.toLowerCase() + SEPARATOR + id;
+    }
+
+    private static void afterCommit(Runnable update) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            update.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                update.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.numberguessinggame.session;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Codec whose binary form always has the same length, so sessions can live in
+ * fixed-size slots of a (direct) ByteBuffer as well as in a table row.
+ */
+public interface FixedSizeSessionCodec<V> extends SessionCodec<V> {
+
+    /**
+     * @return Encoded length in bytes
+     */
+    int size();
+
+    /**
+     * Write at the buffer's position, advancing it by size()
+     */
+    void write(V value, ByteBuffer buffer);
+
+    /**
+     * Read at the buffer's position, advancing it by size()
+     */
+    V read(ByteBuffer buffer);
+
+    @Override
+    default void write(V value, DataOutput out) throws IOException {
+        out.write(encode(value));
+    }
+
+    @Override
+    default V read(DataInput in) throws IOException {
+        byte[] data = new byte[size()];
+        in.readFully(data);
+        return decode(data);
+    }
+
+    @Override
+    default byte[] encode(V value) {
+        ByteBuffer buffer = ByteBuffer.allocate(size());
+        write(value, buffer);
+        return buffer.array();
+    }
+
+    @Override
+    default V decode(byte[] data) {
+        if (data.length != size()) {
+            throw new IllegalArgumentException("Expected " + size() + " bytes, got " + data.length);
+        }
+        return read(ByteBuffer.wrap(data));
+    }
+}
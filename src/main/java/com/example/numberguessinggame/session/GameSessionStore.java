@@ -0,0 +1,92 @@
+package com.example.numberguessinggame.session;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Session store for one game mode.
+ *
+ * Each mode's store is a bean declared in SessionStoreConfig and backed by a store
+ * from the configured SessionStoreProvider (in memory unless game.sessions.store says
+ * otherwise). Lookups are counted for GameSessionStoreMetrics.
+ */
+public class GameSessionStore<V> implements SessionStore<V> {
+
+    private final String mode;
+    private final int maxSessions;
+    private final SessionStore<V> delegate;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * @param provider Creates the backing store
+     * @param mode Game mode name, used for metrics and as the key namespace
+     * @param codec Binary form of the session, used when sessions are kept outside the JVM
+     * @param ttl How long a session lives after it is stored (or last read, when sliding)
+     * @param slidingExpiry Whether get() pushes the deadline back by ttl
+     * @param maxSessions Cap on sessions held in memory; the least recently used go first
+     */
+    public GameSessionStore(SessionStoreProvider provider, String mode, SessionCodec<V> codec, Duration ttl,
+                            boolean slidingExpiry, int maxSessions) {
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("Session TTL for " + mode + " must be positive");
+        }
+        this.mode = mode;
+        this.maxSessions = maxSessions;
+        this.delegate = provider.create(mode, codec, ttl, slidingExpiry, maxSessions);
+    }
+
+    @Override
+    public V get(String key) {
+        V value = delegate.get(key);
+        (value != null ? hits : misses).incrementAndGet();
+        return value;
+    }
+
+    @Override
+    public void put(String key, V value) {
+        delegate.put(key, value);
+    }
+
+    @Override
+    public void update(String key, V value) {
+        delegate.update(key, value);
+    }
+
+    @Override
+    public V remove(String key) {
+        return delegate.remove(key);
+    }
+
+    @Override
+    public int size() {
+        return delegate.size();
+    }
+
+    public String getMode() {
+        return mode;
+    }
+
+    public int getMaxSessions() {
+        return maxSessions;
+    }
+
+    public long getHits() {
+        return hits.get();
+    }
+
+    public long getMisses() {
+        return misses.get();
+    }
+
+    @Override
+    public long getExpired() {
+        return delegate.getExpired();
+    }
+
+    @Override
+    public long getEvicted() {
+        return delegate.getEvicted();
+    }
+}
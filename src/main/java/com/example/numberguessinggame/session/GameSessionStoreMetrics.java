@@ -0,0 +1,58 @@
+package com.example.numberguessinggame.session;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Publishes per-mode session store metrics (game.sessions.*, tagged by mode)
+ */
+@Component
+public class GameSessionStoreMetrics {
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private List<GameSessionStore<?>> stores;
+
+    @PostConstruct
+    public void bindStores() {
+        for (GameSessionStore<?> store : stores) {
+            bind(store);
+        }
+    }
+
+    private void bind(GameSessionStore<?> store) {
+        String mode = store.getMode();
+        Gauge.builder("game.sessions.active", store, GameSessionStore::size)
+                .description("In-progress sessions in the store")
+                .tag("mode", mode)
+                .register(meterRegistry);
+        Gauge.builder("game.sessions.max", store, GameSessionStore::getMaxSessions)
+                .description("Session cap before least recently used sessions are evicted")
+                .tag("mode", mode)
+                .register(meterRegistry);
+        FunctionCounter.builder("game.sessions.lookups", store, GameSessionStore::getHits)
+                .description("Session lookups")
+                .tags("mode", mode, "result", "hit")
+                .register(meterRegistry);
+        FunctionCounter.builder("game.sessions.lookups", store, GameSessionStore::getMisses)
+                .description("Session lookups")
+                .tags("mode", mode, "result", "miss")
+                .register(meterRegistry);
+        FunctionCounter.builder("game.sessions.removed", store, GameSessionStore::getExpired)
+                .description("Sessions dropped by the store rather than finished by the game")
+                .tags("mode", mode, "cause", "expired")
+                .register(meterRegistry);
+        FunctionCounter.builder("game.sessions.removed", store, GameSessionStore::getEvicted)
+                .description("Sessions dropped by the store rather than finished by the game")
+                .tags("mode", mode, "cause", "evicted")
+                .register(meterRegistry);
+    }
+}
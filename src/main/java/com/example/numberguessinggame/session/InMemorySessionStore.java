@@ -0,0 +1,267 @@
+package com.example.numberguessinggame.session;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded in-memory store for the in-progress game sessions of one game mode.
+ *
+ * Keys are spread over lock-striped shards, each an LRU map capped at its share of
+ * maxSessions. Every entry carries a deadline; a hashed timer wheel per store visits
+ * each entry once per lap and drops it when the deadline has passed, so expiry costs
+ * are proportional to what is due rather than to the whole map. Reads never return
+ * an entry past its deadline even if the wheel has not reached it yet.
+ *
+ * Sessions are held as live objects, so update() only matters when the value differs.
+ * The wheel only moves when tick() runs: InMemorySessionStoreProvider ticks the stores
+ * it created, and SessionStoreConfig schedules that every TICK_MS.
+ */
+public class InMemorySessionStore<V> implements SessionStore<V> {
+
+    /**
+     * Width of one wheel slot, and how often tick() should run
+     */
+    public static final long TICK_MS = 1000;
+
+    private static final int SHARDS = 16;
+    private static final int WHEEL_SLOTS = 512; // ~8.5 minutes per lap, longer TTLs take several laps
+
+    private final String mode;
+    private final Clock clock;
+    private final long ttlMs;
+    private final boolean slidingExpiry;
+    private final int maxSessions;
+    private final Shard<V>[] shards;
+    private final Bucket<V>[] wheel;
+    private volatile long processedTick;
+
+    private final AtomicLong expired = new AtomicLong();
+    private final AtomicLong evicted = new AtomicLong();
+
+    /**
+     * @param maxSessions Cap across all shards; the least recently used sessions go first
+     */
+    public InMemorySessionStore(String mode, Duration ttl, boolean slidingExpiry, int maxSessions) {
+        this(mode, ttl, slidingExpiry, maxSessions, Clock.systemUTC());
+    }
+
+    @SuppressWarnings("unchecked")
+    InMemorySessionStore(String mode, Duration ttl, boolean slidingExpiry, int maxSessions, Clock clock) {
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("Session TTL for " + mode + " must be positive");
+        }
+        this.mode = mode;
+        this.clock = clock;
+        this.ttlMs = ttl.toMillis();
+        this.slidingExpiry = slidingExpiry;
+        this.maxSessions = maxSessions;
+
+        int perShard = Math.max(1, (maxSessions + SHARDS - 1) / SHARDS);
+        this.shards = new Shard[SHARDS];
+        for (int i = 0; i < SHARDS; i++) {
+            shards[i] = new Shard<>(perShard, evicted);
+        }
+        this.wheel = new Bucket[WHEEL_SLOTS];
+        for (int i = 0; i < WHEEL_SLOTS; i++) {
+            wheel[i] = new Bucket<>();
+        }
+        this.processedTick = clock.millis() / TICK_MS;
+    }
+
+    @Override
+    public void put(String key, V value) {
+        store(new Entry<>(key, value, clock.millis() + ttlMs));
+    }
+
+    @Override
+    public void update(String key, V value) {
+        Shard<V> shard = shardFor(key);
+        Entry<V> current;
+        Entry<V> replacement;
+        synchronized (shard) {
+            current = shard.map.get(key);
+            if (current == null || current.value == value) {
+                return;
+            }
+            replacement = new Entry<>(key, value, current.deadline);
+            shard.map.put(key, replacement);
+        }
+        current.removed = true;
+        schedule(replacement);
+    }
+
+    private void store(Entry<V> entry) {
+        String key = entry.key;
+        Entry<V> previous;
+        Shard<V> shard = shardFor(key);
+        synchronized (shard) {
+            previous = shard.map.put(key, entry);
+        }
+        if (previous != null) {
+            previous.removed = true;
+        }
+        schedule(entry);
+    }
+
+    @Override
+    public V get(String key) {
+        Shard<V> shard = shardFor(key);
+        Entry<V> entry;
+        synchronized (shard) {
+            entry = shard.map.get(key);
+        }
+        if (entry == null) {
+            return null;
+        }
+
+        long now = clock.millis();
+        if (entry.deadline <= now) {
+            expire(shard, entry);
+            return null;
+        }
+        if (slidingExpiry) {
+            entry.deadline = now + ttlMs; // The wheel reschedules lazily when it reaches the old slot
+        }
+        return entry.value;
+    }
+
+    @Override
+    public V remove(String key) {
+        Shard<V> shard = shardFor(key);
+        Entry<V> entry;
+        synchronized (shard) {
+            entry = shard.map.remove(key);
+        }
+        if (entry == null) {
+            return null;
+        }
+        entry.removed = true;
+        return entry.value;
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (Shard<V> shard : shards) {
+            synchronized (shard) {
+                size += shard.map.size();
+            }
+        }
+        return size;
+    }
+
+    public String getMode() {
+        return mode;
+    }
+
+    public int getMaxSessions() {
+        return maxSessions;
+    }
+
+    @Override
+    public long getExpired() {
+        return expired.get();
+    }
+
+    @Override
+    public long getEvicted() {
+        return evicted.get();
+    }
+
+    private Shard<V> shardFor(String key) {
+        int hash = key.hashCode();
+        return shards[(hash ^ (hash >>> 16)) & (SHARDS - 1)];
+    }
+
+    private void schedule(Entry<V> entry) {
+        // Never behind the wheel; a put racing a tick at worst waits one extra lap
+        long tick = Math.max(entry.deadline / TICK_MS, processedTick + 1);
+        wheel[(int) (tick % WHEEL_SLOTS)].add(entry);
+    }
+
+    private void expire(Shard<V> shard, Entry<V> entry) {
+        boolean removed;
+        synchronized (shard) {
+            removed = shard.map.remove(entry.key, entry);
+        }
+        if (removed) {
+            entry.removed = true;
+            expired.incrementAndGet();
+        }
+    }
+
+    /**
+     * Advance the wheel to now, expiring or rescheduling what each passed slot holds
+     */
+    void tick() {
+        long now = clock.millis();
+        long target = now / TICK_MS;
+        long tick = processedTick;
+        // After a long pause one full lap already covers every slot
+        long from = Math.max(tick + 1, target - WHEEL_SLOTS + 1);
+
+        for (long t = from; t <= target; t++) {
+            processedTick = t;
+            for (Entry<V> entry : wheel[(int) (t % WHEEL_SLOTS)].drain()) {
+                if (entry.removed) {
+                    continue;
+                }
+                if (entry.deadline <= now) {
+                    expire(shardFor(entry.key), entry);
+                } else {
+                    schedule(entry); // Refreshed by a sliding read, or due on a later lap
+                }
+            }
+        }
+    }
+
+    private static final class Entry<V> {
+        private final String key;
+        private final V value;
+        private volatile long deadline;
+        private volatile boolean removed;
+
+        private Entry(String key, V value, long deadline) {
+            this.key = key;
+            this.value = value;
+            this.deadline = deadline;
+        }
+    }
+
+    private static final class Shard<V> {
+        private final Map<String, Entry<V>> map;
+
+        private Shard(int capacity, AtomicLong evicted) {
+            this.map = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, Entry<V>> eldest) {
+                    if (size() <= capacity) {
+                        return false;
+                    }
+                    eldest.getValue().removed = true;
+                    evicted.incrementAndGet();
+                    return true;
+                }
+            };
+        }
+    }
+
+    private static final class Bucket<V> {
+        private List<Entry<V>> entries = new ArrayList<>();
+
+        private synchronized void add(Entry<V> entry) {
+            entries.add(entry);
+        }
+
+        private synchronized List<Entry<V>> drain() {
+            List<Entry<V>> due = entries;
+            entries = new ArrayList<>();
+            return due;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.numberguessinggame.session;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Creates InMemorySessionStores and advances their expiry wheels; sessions live in
+ * this JVM only. Stores belong to the provider that created them, so they go away
+ * with it rather than with the JVM.
+ */
+public class InMemorySessionStoreProvider implements SessionStoreProvider {
+
+    private static final Logger logger = LoggerFactory.getLogger(InMemorySessionStoreProvider.class);
+
+    private final List<InMemorySessionStore<?>> stores = new CopyOnWriteArrayList<>();
+
+    @Override
+    public <V> SessionStore<V> create(String mode, SessionCodec<V> codec, Duration ttl, boolean slidingExpiry, int maxSessions) {
+        InMemorySessionStore<V> store = new InMemorySessionStore<>(mode, ttl, slidingExpiry, maxSessions);
+        stores.add(store);
+        return store;
+    }
+
+    /**
+     * Expire what is due in every store; run every InMemorySessionStore.TICK_MS
+     */
+    public void tick() {
+        for (InMemorySessionStore<?> store : stores) {
+            try {
+                store.tick();
+            } catch (RuntimeException e) {
+                // The other stores still tick, and this one retries on the next tick
+                logger.warn("Failed to expire {} sessions: {}", store.getMode(), e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.example.numberguessinggame.session;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Session store backed by the game_sessions table, shared by every app node.
+ *
+ * Sessions are stored in their codec's binary form with a version number. get()
+ * remembers which version this thread decoded, and update() only writes if the row
+ * is still at that version, so two nodes changing the same game cannot silently
+ * overwrite each other. Expiry uses the database clock; expired rows are invisible
+ * straight away and deleted by purgeExpired().
+ */
+public class JdbcSessionStore<V> implements SessionStore<V> {
+
+    private static final int MAX_STAMPS_PER_THREAD = 64;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String mode;
+    private final SessionCodec<V> codec;
+    private final long ttlMs;
+    private final boolean slidingExpiry;
+
+    // Version of each session this thread last read or wrote, keyed by session key
+    private final ThreadLocal<Map<String, Stamp>> stamps = ThreadLocal.withInitial(HashMap::new);
+
+    private final AtomicLong expired = new AtomicLong();
+
+    public JdbcSessionStore(JdbcTemplate jdbcTemplate, String mode, SessionCodec<V> codec, Duration ttl, boolean slidingExpiry) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.mode = mode;
+        this.codec = codec;
+        this.ttlMs = ttl.toMillis();
+        this.slidingExpiry = slidingExpiry;
+    }
+
+    @Override
+    public V get(String key) {
+        String sql = slidingExpiry
+                ? "UPDATE game_sessions SET expires_at = now() + ? * INTERVAL '1 millisecond' " +
+                  "WHERE mode = ? AND session_key = ? AND expires_at > now() RETURNING data, version"
+                : "SELECT data, version FROM game_sessions WHERE mode = ? AND session_key = ? AND expires_at > now()";
+        Object[] args = slidingExpiry ? new Object[]{ttlMs, mode, key} : new Object[]{mode, key};
+
+        List<Row> rows = jdbcTemplate.query(sql, (rs, rowNum) -> new Row(rs.getBytes("data"), rs.getLong("version")), args);
+        if (rows.isEmpty()) {
+            stamps.get().remove(key);
+            return null;
+        }
+
+        Row row = rows.get(0);
+        V value = codec.decode(row.data);
+        stamp(key, value, row.version);
+        return value;
+    }
+
+    @Override
+    public void put(String key, V value) {
+        Long version = jdbcTemplate.queryForObject(
+                "INSERT INTO game_sessions (mode, session_key, data, version, expires_at) " +
+                "VALUES (?, ?, ?, 0, now() + ? * INTERVAL '1 millisecond') " +
+                "ON CONFLICT (mode, session_key) DO UPDATE SET data = EXCLUDED.data, " +
+                "version = game_sessions.version + 1, expires_at = EXCLUDED.expires_at " +
+                "RETURNING version",
+                Long.class, mode, key, codec.encode(value), ttlMs);
+        stamp(key, value, version);
+    }
+
+    /**
+     * @throws IllegalStateException if another request changed the session since this thread read it
+     */
+    @Override
+    public void update(String key, V value) {
+        byte[] data = codec.encode(value);
+        Stamp stamp = stamps.get().get(key);
+
+        if (stamp == null || stamp.value != value) {
+            // Not read through this store on this thread: last write wins, but never resurrect
+            jdbcTemplate.update(
+                    "UPDATE game_sessions SET data = ?, version = version + 1 " +
+                    "WHERE mode = ? AND session_key = ? AND expires_at > now()",
+                    data, mode, key);
+            stamps.get().remove(key);
+            return;
+        }
+
+        int updated = jdbcTemplate.update(
+                "UPDATE game_sessions SET data = ?, version = version + 1 " +
+                "WHERE mode = ? AND session_key = ? AND version = ? AND expires_at > now()",
+                data, mode, key, stamp.version);
+        if (updated == 1) {
+            stamp.version++;
+            return;
+        }
+
+        stamps.get().remove(key);
+        Integer live = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM game_sessions WHERE mode = ? AND session_key = ? AND expires_at > now()",
+                Integer.class, mode, key);
+        if (live != null && live > 0) {
+            throw new IllegalStateException("This game was changed by another request. Please try again!");
+        }
+        // Removed or expired in the meantime, same as the in-memory store
+    }
+
+    @Override
+    public V remove(String key) {
+        stamps.get().remove(key);
+        List<Row> rows = jdbcTemplate.query(
+                "DELETE FROM game_sessions WHERE mode = ? AND session_key = ? RETURNING data, expires_at > now() AS live",
+                (rs, rowNum) -> rs.getBoolean("live") ? new Row(rs.getBytes("data"), 0) : null,
+                mode, key);
+        if (rows.isEmpty() || rows.get(0) == null) {
+            return null;
+        }
+        return codec.decode(rows.get(0).data);
+    }
+
+    @Override
+    public int size() {
+        Integer count = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM game_sessions WHERE mode = ? AND expires_at > now()",
+                Integer.class, mode);
+        return count != null ? count : 0;
+    }
+
+    /**
+     * Delete this mode's expired rows
+     * @return Number of rows deleted
+     */
+    public int purgeExpired() {
+        int deleted = jdbcTemplate.update("DELETE FROM game_sessions WHERE mode = ? AND expires_at <= now()", mode);
+        expired.addAndGet(deleted);
+        return deleted;
+    }
+
+    public String getMode() {
+        return mode;
+    }
+
+    @Override
+    public long getExpired() {
+        return expired.get();
+    }
+
+    /**
+     * The table has no size cap, so nothing is ever evicted
+     */
+    @Override
+    public long getEvicted() {
+        return 0;
+    }
+
+    private void stamp(String key, V value, long version) {
+        Map<String, Stamp> threadStamps = stamps.get();
+        if (threadStamps.size() >= MAX_STAMPS_PER_THREAD && !threadStamps.containsKey(key)) {
+            threadStamps.clear(); // Pooled threads serve many games; only the current one matters
+        }
+        threadStamps.put(key, new Stamp(value, version));
+    }
+
+    private static final class Row {
+        private final byte[] data;
+        private final long version;
+
+        private Row(byte[] data, long version) {
+            this.data = data;
+            this.version = version;
+        }
+    }
+
+    private static final class Stamp {
+        private final Object value;
+        private long version;
+
+        private Stamp(Object value, long version) {
+            this.value = value;
+            this.version = version;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.numberguessinggame.session;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Creates JdbcSessionStores and purges their expired rows.
+ * maxSessions does not apply; the table grows with the number of running games.
+ */
+public class JdbcSessionStoreProvider implements SessionStoreProvider {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final List<JdbcSessionStore<?>> stores = new CopyOnWriteArrayList<>();
+
+    public JdbcSessionStoreProvider(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public <V> SessionStore<V> create(String mode, SessionCodec<V> codec, Duration ttl, boolean slidingExpiry, int maxSessions) {
+        JdbcSessionStore<V> store = new JdbcSessionStore<>(jdbcTemplate, mode, codec, ttl, slidingExpiry);
+        stores.add(store);
+        return store;
+    }
+
+    /**
+     * @return Number of expired sessions deleted across all modes
+     */
+    public int purgeExpired() {
+        int deleted = 0;
+        for (JdbcSessionStore<?> store : stores) {
+            deleted += store.purgeExpired();
+        }
+        return deleted;
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.numberguessinggame.session;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+
+/**
+ * Field helpers shared by the session codecs
+ */
+public final class SessionCodecs {
+
+    public static final SessionCodec<Integer> INT = new SessionCodec<>() {
+        @Override
+        public void write(Integer value, DataOutput out) throws IOException {
+            out.writeInt(value);
+        }
+
+        @Override
+        public Integer read(DataInput in) throws IOException {
+            return in.readInt();
+        }
+    };
+
+    private SessionCodecs() {
+    }
+
+    public static void writeNullableLong(DataOutput out, Long value) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeLong(value);
+        }
+    }
+
+    public static Long readNullableLong(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readLong() : null;
+    }
+
+    /**
+     * LocalDateTime as epoch milliseconds in the server's zone (null allowed)
+     */
+    public static void writeDateTime(DataOutput out, LocalDateTime value) throws IOException {
+        writeNullableLong(out, value == null ? null : value.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+    }
+
+    public static LocalDateTime readDateTime(DataInput in) throws IOException {
+        Long millis = readNullableLong(in);
+        return millis == null ? null : LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZoneId.systemDefault());
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.numberguessinggame.session;
+
+/**
+ * Storage for the in-progress sessions of one game mode.
+ *
+ * Callers get() a session, change it and must then call update() so the change
+ * reaches stores that hold copies rather than live objects.
+ */
+public interface SessionStore<V> {
+
+    /**
+     * @return The session, or null if there is none or it has expired
+     */
+    V get(String key);
+
+    /**
+     * Store a new session (or replace one), starting its TTL
+     */
+    void put(String key, V value);
+
+    /**
+     * Write back a session changed after get(). Keeps the current expiry, and does
+     * nothing if the session has been removed or has expired in the meantime.
+     */
+    void update(String key, V value);
+
+    /**
+     * @return The removed session, or null if there was none
+     */
+    V remove(String key);
+
+    int size();
+
+    /**
+     * Sessions dropped because their TTL ran out
+     */
+    long getExpired();
+
+    /**
+     * Sessions dropped to stay under the size cap
+     */
+    long getEvicted();
+}
@@ -0,0 +1,18 @@
+package com.example.numberguessinggame.session;
+
+import java.time.Duration;
+
+/**
+ * Creates the backing store for each game mode; chosen by game.sessions.store in SessionStoreConfig
+ */
+public interface SessionStoreProvider {
+
+    /**
+     * @param mode Game mode name, unique per store
+     * @param codec Binary form of the mode's session, for stores that keep copies
+     * @param ttl How long a session lives after it is stored (or last read, when sliding)
+     * @param slidingExpiry Whether get() pushes the deadline back by ttl
+     * @param maxSessions Cap for stores that hold sessions in memory
+     */
+    <V> SessionStore<V> create(String mode, SessionCodec<V> codec, Duration ttl, boolean slidingExpiry, int maxSessions);
+}
@@ -0,0 +1,148 @@
+package com.example.numberguessinggame.util;
+
+/**
+ * Bulls &amp; Cows scoring shared by every game mode.
+ *
+ * Secrets and guesses are packed into a single int key: the low 10 bits are a
+ * digit mask (bit d is set when digit d occurs) and the next 20 bits hold one
+ * 4-bit nibble per position, position 0 being the leftmost digit. Scoring two
+ * keys is a handful of bit operations and never allocates.
+ */
+public final class BullsCowsEngine {
+
+    /**
+     * Result of validating a raw guess string
+     */
+    public enum GuessCheck {
+        VALID,
+        EMPTY,
+        NOT_NUMERIC,
+        WRONG_LENGTH,
+        REPEATED_DIGITS
+    }
+
+    public static final int MAX_DIGITS = 5;
+
+    private static final int MASK_BITS = 10;
+    private static final int DIGIT_MASK = (1 << MASK_BITS) - 1;
+    private static final int NIBBLE_LOW_BITS = 0x11111;
+
+    private BullsCowsEngine() {
+    }
+
+    /**
+     * Encode a secret number into its packed key
+     *
+     * @param secret Secret number with unique digits
+     * @param digitCount Number of digits in the secret (3-5)
+     * @return Packed digit mask and position word
+     */
+    public static int encodeSecret(int secret, int digitCount) {
+        if (digitCount < 1 || digitCount > MAX_DIGITS) {
+            throw new IllegalArgumentException("digitCount must be between 1 and " + MAX_DIGITS);
+        }
+
+        int mask = 0;
+        int positions = 0;
+        int remaining = secret;
+        for (int position = digitCount - 1; position >= 0; position--) {
+            int digit = remaining % 10;
+            remaining /= 10;
+            mask |= 1 << digit;
+            positions |= digit << (position * 4);
+        }
+        return (positions << MASK_BITS) | mask;
+    }
+
+    /**
+     * Validate a raw guess in a single pass over its characters.
+     * Checks run in the order the modes report them: empty, non-numeric,
+     * wrong length, repeated digits. Time Attack checks the length itself first.
+     */
+    public static GuessCheck check(CharSequence guess, int expectedDigits) {
+        if (guess == null || guess.length() == 0) {
+            return GuessCheck.EMPTY;
+        }
+
+        int seen = 0;
+        boolean repeated = false;
+        for (int i = 0; i < guess.length(); i++) {
+            int digit = guess.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return GuessCheck.NOT_NUMERIC;
+            }
+            int bit = 1 << digit;
+            if ((seen & bit) != 0) {
+                repeated = true;
+            }
+            seen |= bit;
+        }
+
+        if (guess.length() != expectedDigits) {
+            return GuessCheck.WRONG_LENGTH;
+        }
+        return repeated ? GuessCheck.REPEATED_DIGITS : GuessCheck.VALID;
+    }
+
+    /**
+     * Encode a guess that already passed {@link #check(CharSequence, int)}
+     */
+    public static int encodeGuess(CharSequence guess) {
+        int mask = 0;
+        int positions = 0;
+        for (int position = 0; position < guess.length(); position++) {
+            int digit = guess.charAt(position) - '0';
+            mask |= 1 << digit;
+            positions |= digit << (position * 4);
+        }
+        return (positions << MASK_BITS) | mask;
+    }
+
+    /**
+     * Score two packed keys of the same length
+     *
+     * @return Packed result, read it with {@link #bulls(int)} and {@link #cows(int)}
+     */
+    public static int score(int secretKey, int guessKey) {
+        // A nibble is non-zero exactly where the two position words disagree
+        int diff = (secretKey ^ guessKey) >>> MASK_BITS;
+        int mismatched = (diff | (diff >>> 1) | (diff >>> 2) | (diff >>> 3)) & NIBBLE_LOW_BITS;
+
+        int bulls = digitCount(secretKey) - Integer.bitCount(mismatched);
+        int shared = Integer.bitCount(secretKey & guessKey & DIGIT_MASK);
+        return (bulls << 4) | (shared - bulls);
+    }
+
+    /**
+     * Score a validated guess string against a packed secret
+     */
+    public static int score(int secretKey, CharSequence guess) {
+        return score(secretKey, encodeGuess(guess));
+    }
+
+    public static int bulls(int result) {
+        return result >>> 4;
+    }
+
+    public static int cows(int result) {
+        return result & 0xF;
+    }
+
+    /**
+     * Number of digits in a packed key (digits are unique, so this is the mask population)
+     */
+    public static int digitCount(int key) {
+        return Integer.bitCount(key & DIGIT_MASK);
+    }
+
+    /**
+     * Digit stored at a position (0 = leftmost) of a packed key
+     */
+    public static int digitAt(int key, int position) {
+        return (key >>> (MASK_BITS + position * 4)) & 0xF;
+    }
+
+    public static boolean isSolved(int result, int digitCount) {
+        return bulls(result) == digitCount;
+    }
+}
@@ -0,0 +1,194 @@
+package com.example.numberguessinggame.util;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Works out which secrets are still possible after a game's guesses and which guess
+ * narrows them down best.
+ *
+ * Candidates are filtered as a bitset over the CandidateTable, one guess at a time.
+ * A guess is rated by partitioning the remaining candidates by the result it would
+ * get: the sum of squared partition sizes is proportional to how many candidates are
+ * expected to be left, so lower is better; ties go to guesses that could be the
+ * secret, then to the lower table index. Large analyses are split across the common
+ * fork-join pool, and a scoring budget bounds how many guesses are tried.
+ */
+public final class BullsCowsSolver {
+
+    // Below this many scorings a fork-join split costs more than it saves
+    private static final long SEQUENTIAL_SCORINGS = 100_000;
+
+    private BullsCowsSolver() {
+    }
+
+    /**
+     * @param history Guesses made so far with their results
+     * @param revealedMask Positions revealed by hints (bit 0 = leftmost digit)
+     * @param secretKey Packed key of the secret, only read at revealed positions
+     * @return Bitset over the table of candidates consistent with all of it
+     */
+    public static long[] consistent(ResponseMatrix matrix, GuessHistory history, int revealedMask, int secretKey) {
+        long[] bits = all(matrix.getTable());
+        // Revealed digits first, they are the cheapest to check
+        applyRevealed(matrix.getTable(), bits, revealedMask, secretKey);
+        for (int i = 0; i < history.size(); i++) {
+            applyGuess(matrix, bits, history.guessAt(i), history.resultAt(i));
+        }
+        return bits;
+    }
+
+    /**
+     * @return Bitset with every candidate of the table set
+     */
+    public static long[] all(CandidateTable table) {
+        int size = table.size();
+        long[] bits = new long[(size + 63) >>> 6];
+        Arrays.fill(bits, -1L);
+        if ((size & 63) != 0) {
+            bits[bits.length - 1] = (1L << size) - 1; // shift count is taken mod 64
+        }
+        return bits;
+    }
+
+    /**
+     * Clear candidates whose digit differs from the secret's at a revealed position
+     */
+    public static void applyRevealed(CandidateTable table, long[] bits, int revealedMask, int secretKey) {
+        for (int position = 0; position < table.getDigitCount(); position++) {
+            if ((revealedMask & (1 << position)) == 0) {
+                continue;
+            }
+            int digit = BullsCowsEngine.digitAt(secretKey, position);
+            for (int word = 0; word < bits.length; word++) {
+                for (long remaining = bits[word]; remaining != 0; remaining &= remaining - 1) {
+                    int index = (word << 6) + Long.numberOfTrailingZeros(remaining);
+                    if (BullsCowsEngine.digitAt(table.keyAt(index), position) != digit) {
+                        bits[word] &= ~(1L << index);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Clear candidates that would not have given this result to this guess
+     * @param guess Guess as a number, as kept by GuessHistory
+     */
+    public static void applyGuess(ResponseMatrix matrix, long[] bits, int guess, int result) {
+        CandidateTable table = matrix.getTable();
+        int guessIndex = table.indexOf(guess); // -1 for guesses starting with 0
+        int guessKey = BullsCowsEngine.encodeSecret(guess, table.getDigitCount());
+        for (int word = 0; word < bits.length; word++) {
+            for (long remaining = bits[word]; remaining != 0; remaining &= remaining - 1) {
+                int index = (word << 6) + Long.numberOfTrailingZeros(remaining);
+                int actual = guessIndex >= 0
+                        ? matrix.result(guessIndex, index)
+                        : BullsCowsEngine.score(table.keyAt(index), guessKey);
+                if (actual != result) {
+                    bits[word] &= ~(1L << index);
+                }
+            }
+        }
+    }
+
+    public static int count(long[] bits) {
+        int count = 0;
+        for (long word : bits) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * @return Table indices of the set bits, in ascending order
+     */
+    public static int[] indices(long[] bits) {
+        int[] indices = new int[count(bits)];
+        int next = 0;
+        for (int word = 0; word < bits.length; word++) {
+            for (long remaining = bits[word]; remaining != 0; remaining &= remaining - 1) {
+                indices[next++] = (word << 6) + Long.numberOfTrailingZeros(remaining);
+            }
+        }
+        return indices;
+    }
+
+    /**
+     * Pick the guess that leaves the fewest candidates on average
+     *
+     * @param bits Remaining candidates, as returned by consistent()
+     * @param maxScorings Budget of guess/candidate scorings; guesses are sampled evenly
+     *                    across the table to stay within it
+     * @return Table index of the best guess, or -1 if nothing is consistent
+     */
+    public static int bestGuess(ResponseMatrix matrix, long[] bits, long maxScorings) {
+        int[] remaining = indices(bits);
+        if (remaining.length <= 2) {
+            // Guessing either of two candidates is as good as any split
+            return remaining.length == 0 ? -1 : remaining[0];
+        }
+
+        int tableSize = matrix.getTable().size();
+        long scorings = (long) tableSize * remaining.length;
+        long stride = scorings <= maxScorings ? 1 : (scorings + maxScorings - 1) / maxScorings;
+        int guesses = (int) ((tableSize + stride - 1) / stride);
+
+        BestGuessTask task = new BestGuessTask(matrix, bits, remaining, (int) stride, 0, guesses);
+        long best = (long) guesses * remaining.length > SEQUENTIAL_SCORINGS
+                ? ForkJoinPool.commonPool().invoke(task)
+                : task.compute();
+        return (int) (best & Integer.MAX_VALUE);
+    }
+
+    /**
+     * Rates guesses [from, to) of the sampled pool; results are packed so the smallest wins:
+     * sum of squared partition sizes, then 0 for a consistent guess and 1 otherwise, then index.
+     */
+    private static final class BestGuessTask extends RecursiveTask<Long> {
+        private final ResponseMatrix matrix;
+        private final long[] bits;
+        private final int[] remaining;
+        private final int stride;
+        private final int from;
+        private final int to;
+
+        private BestGuessTask(ResponseMatrix matrix, long[] bits, int[] remaining, int stride, int from, int to) {
+            this.matrix = matrix;
+            this.bits = bits;
+            this.remaining = remaining;
+            this.stride = stride;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected Long compute() {
+            if (to - from > 1 && (long) (to - from) * remaining.length > SEQUENTIAL_SCORINGS) {
+                int middle = (from + to) >>> 1;
+                BestGuessTask left = new BestGuessTask(matrix, bits, remaining, stride, from, middle);
+                BestGuessTask right = new BestGuessTask(matrix, bits, remaining, stride, middle, to);
+                left.fork();
+                long rightBest = right.compute();
+                return Math.min(left.join(), rightBest);
+            }
+
+            long best = Long.MAX_VALUE;
+            int[] partitions = new int[ResponseMatrix.RESULT_LIMIT];
+            for (int i = from; i < to; i++) {
+                int guess = i * stride;
+                Arrays.fill(partitions, 0);
+                long sumOfSquares = 0;
+                for (int candidate : remaining) {
+                    int result = matrix.result(guess, candidate);
+                    sumOfSquares += 2L * partitions[result] + 1;
+                    partitions[result]++;
+                }
+                long inconsistent = (bits[guess >>> 6] & (1L << guess)) != 0 ? 0 : 1;
+                best = Math.min(best, (sumOfSquares << 32) | (inconsistent << 31) | guess);
+            }
+            return best;
+        }
+    }
+}
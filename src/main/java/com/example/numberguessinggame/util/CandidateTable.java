@@ -0,0 +1,139 @@
+package com.example.numberguessinggame.util;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.random.RandomGenerator;
+
+/**
+ * Every valid secret for one digit count: unique digits, no leading zero.
+ *
+ * Secrets are kept in ascending order in a primitive array alongside their packed
+ * BullsCowsEngine keys, with a reverse index from secret to position, so both
+ * directions are a single array read. The three tables (648, 4,536 and 27,216
+ * secrets) are built once when the class loads and never change.
+ */
+public final class CandidateTable {
+
+    public static final int MIN_DIGITS = 3;
+
+    private static final CandidateTable[] TABLES = new CandidateTable[BullsCowsEngine.MAX_DIGITS + 1];
+
+    static {
+        for (int digitCount = MIN_DIGITS; digitCount <= BullsCowsEngine.MAX_DIGITS; digitCount++) {
+            TABLES[digitCount] = new CandidateTable(digitCount);
+        }
+    }
+
+    private final int digitCount;
+    private final int[] secrets;
+    private final int[] keys;
+    private final int[] indexBySecret; // secret -> index, -1 if not a valid secret
+
+    private CandidateTable(int digitCount) {
+        this.digitCount = digitCount;
+
+        int lowest = pow10(digitCount - 1);
+        int highest = pow10(digitCount);
+        int[] found = new int[highest - lowest];
+        int count = 0;
+        this.indexBySecret = new int[highest];
+        Arrays.fill(indexBySecret, -1);
+
+        for (int candidate = lowest; candidate < highest; candidate++) {
+            if (hasUniqueDigits(candidate)) {
+                indexBySecret[candidate] = count;
+                found[count++] = candidate;
+            }
+        }
+
+        this.secrets = Arrays.copyOf(found, count);
+        this.keys = new int[count];
+        for (int i = 0; i < count; i++) {
+            keys[i] = BullsCowsEngine.encodeSecret(secrets[i], digitCount);
+        }
+    }
+
+    /**
+     * @param digitCount Number of digits (3-5)
+     */
+    public static CandidateTable forDigits(int digitCount) {
+        if (digitCount < MIN_DIGITS || digitCount > BullsCowsEngine.MAX_DIGITS) {
+            throw new IllegalArgumentException("digitCount must be between " + MIN_DIGITS + " and " + BullsCowsEngine.MAX_DIGITS);
+        }
+        return TABLES[digitCount];
+    }
+
+    /**
+     * @param difficulty 0=Easy(3), 1=Medium(4), 2=Hard(5)
+     */
+    public static CandidateTable forDifficulty(int difficulty) {
+        return forDigits(MIN_DIGITS + difficulty);
+    }
+
+    public int getDigitCount() {
+        return digitCount;
+    }
+
+    public int size() {
+        return secrets.length;
+    }
+
+    public int secretAt(int index) {
+        return secrets[index];
+    }
+
+    /**
+     * @return Packed BullsCowsEngine key of the secret at index
+     */
+    public int keyAt(int index) {
+        return keys[index];
+    }
+
+    /**
+     * @return Position of the secret in this table, or -1 if it is not a valid secret
+     */
+    public int indexOf(int secret) {
+        if (secret < 0 || secret >= indexBySecret.length) {
+            return -1;
+        }
+        return indexBySecret[secret];
+    }
+
+    public boolean contains(int secret) {
+        return indexOf(secret) >= 0;
+    }
+
+    /**
+     * @return Uniformly chosen secret
+     */
+    public int random() {
+        return random(ThreadLocalRandom.current());
+    }
+
+    /**
+     * @return Uniformly chosen secret; a seeded generator gives a reproducible one
+     */
+    public int random(RandomGenerator random) {
+        return secrets[random.nextInt(secrets.length)];
+    }
+
+    private static boolean hasUniqueDigits(int number) {
+        int seen = 0;
+        for (int remaining = number; remaining > 0; remaining /= 10) {
+            int bit = 1 << (remaining % 10);
+            if ((seen & bit) != 0) {
+                return false;
+            }
+            seen |= bit;
+        }
+        return true;
+    }
+
+    private static int pow10(int exponent) {
+        int result = 1;
+        for (int i = 0; i < exponent; i++) {
+            result *= 10;
+        }
+        return result;
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.numberguessinggame.util;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Set of non-negative longs (user ids) stored as bits, safe for concurrent use
+ * without locks.
+ *
+ * Ids are split into pages of 4096 bits, created the first time one of their ids is
+ * added, as a roaring bitmap splits them into containers; ids from a sequence fill
+ * their pages densely, so a million ids take about 125 KB. Bits are set and cleared
+ * with compare-and-set. Iteration walks the pages in id order and is weakly
+ * consistent: it sees every id present for its whole duration, and may or may not see
+ * ids added or removed meanwhile.
+ */
+public final class ConcurrentBitmap {
+
+    private static final int PAGE_BITS = 12;
+    private static final int WORDS_PER_PAGE = (1 << PAGE_BITS) / Long.SIZE;
+
+    private final ConcurrentSkipListMap<Long, AtomicLongArray> pages = new ConcurrentSkipListMap<>();
+    private final LongAdder cardinality = new LongAdder();
+
+    /**
+     * @return False if the id was already present
+     */
+    public boolean add(long id) {
+        if (id < 0) {
+            throw new IllegalArgumentException("Negative id " + id);
+        }
+        AtomicLongArray page = pages.computeIfAbsent(id >>> PAGE_BITS, key -> new AtomicLongArray(WORDS_PER_PAGE));
+        long mask = 1L << id;
+        if ((page.getAndUpdate(word(id), bits -> bits | mask) & mask) != 0) {
+            return false;
+        }
+        cardinality.increment();
+        return true;
+    }
+
+    /**
+     * @return False if the id was not present
+     */
+    public boolean remove(long id) {
+        AtomicLongArray page = page(id);
+        if (page == null) {
+            return false;
+        }
+        long mask = 1L << id;
+        if ((page.getAndUpdate(word(id), bits -> bits & ~mask) & mask) == 0) {
+            return false;
+        }
+        cardinality.decrement();
+        return true;
+    }
+
+    public boolean contains(long id) {
+        AtomicLongArray page = page(id);
+        return page != null && (page.get(word(id)) & (1L << id)) != 0;
+    }
+
+    /**
+     * Membership of many ids in one pass; consecutive ids on the same page share one
+     * page lookup, so sorted input is cheapest
+     *
+     * @return For each id, whether it is present
+     */
+    public boolean[] containsEach(long[] ids) {
+        boolean[] present = new boolean[ids.length];
+        long pageKey = -1;
+        AtomicLongArray page = null;
+        for (int i = 0; i < ids.length; i++) {
+            long id = ids[i];
+            if (id < 0) {
+                continue;
+            }
+            if (id >>> PAGE_BITS != pageKey) {
+                pageKey = id >>> PAGE_BITS;
+                page = pages.get(pageKey);
+            }
+            present[i] = page != null && (page.get(word(id)) & (1L << id)) != 0;
+        }
+        return present;
+    }
+
+    /**
+     * Number of ids present; exact when no add or remove is in progress
+     */
+    public long cardinality() {
+        return cardinality.sum();
+    }
+
+    /**
+     * @return The ids present, in ascending order, without copying the set
+     */
+    public PrimitiveIterator.OfLong iterator() {
+        return new PrimitiveIterator.OfLong() {
+            private final Iterator<Map.Entry<Long, AtomicLongArray>> pageIterator = pages.entrySet().iterator();
+            private long base;
+            private AtomicLongArray page;
+            private int wordIndex;
+            private long word;
+
+            @Override
+            public boolean hasNext() {
+                while (word == 0) {
+                    if (page != null && wordIndex + 1 < WORDS_PER_PAGE) {
+                        word = page.get(++wordIndex);
+                    } else if (pageIterator.hasNext()) {
+                        Map.Entry<Long, AtomicLongArray> next = pageIterator.next();
+                        base = next.getKey() << PAGE_BITS;
+                        page = next.getValue();
+                        wordIndex = 0;
+                        word = page.get(0);
+                    } else {
+                        return false;
+                    }
+                }
+                return true;
+            }
+
+            @Override
+            public long nextLong() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                long bit = Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+                return base + (long) wordIndex * Long.SIZE + bit;
+            }
+        };
+    }
+
+    private AtomicLongArray page(long id) {
+        return id < 0 ? null : pages.get(id >>> PAGE_BITS);
+    }
+
+    private static int word(long id) {
+        return (int) (id >>> 6) & (WORDS_PER_PAGE - 1);
+    }
+}
@@ -1,9 +1,5 @@
 package com.example.numberguessinggame.util;
 
-import java.util.ArrayList;
-import java.util.Collections;
-import java.util.List;
-
 /**
  * Utility class for game-related helper methods
  */
@@ -16,34 +12,23 @@ public class GameUtils {
      * @return Integer with unique digits, first digit is never 0
      */
     public static int generateUniqueDigitNumber(int digitCount) {
-        if (digitCount < 3 || digitCount > 10) {
-            throw new IllegalArgumentException("digitCount must be between 3 and 10");
-        }
-
-        List<Integer> digits = new ArrayList<>();
-        for (int i = 0; i <= 9; i++) {
-            digits.add(i);
-        }
-        Collections.shuffle(digits);
-
-        // Select digits, ensuring first digit is not 0
-        List<Integer> selectedDigits = new ArrayList<>();
-        for (int digit : digits) {
-            if (selectedDigits.isEmpty() && digit == 0) {
-                continue; // Skip 0 for first digit
-            }
-            selectedDigits.add(digit);
-            if (selectedDigits.size() == digitCount) {
-                break;
-            }
-        }
+        return CandidateTable.forDigits(digitCount).random();
+    }
 
-        // Build the number
-        int result = 0;
-        for (int digit : selectedDigits) {
-            result = result * 10 + digit;
+    /**
+     * Parse a time string (MM:SS) to seconds
+     *
+     * @param timeTaken Time as stored on a game record
+     * @return Seconds, or Integer.MAX_VALUE if the value cannot be parsed
+     */
+    public static int parseTimeToSeconds(String timeTaken) {
+        try {
+            String[] parts = timeTaken.split(":");
+            int minutes = Integer.parseInt(parts[0]);
+            int seconds = Integer.parseInt(parts[1]);
+            return minutes * 60 + seconds;
+        } catch (Exception e) {
+            return Integer.MAX_VALUE; // If parsing fails, return max value
         }
-
-        return result;
     }
 }
@@ -0,0 +1,187 @@
+package com.example.numberguessinggame.util;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Guesses made in one game with their scores and timing, one long each.
+ *
+ * Each entry holds the guess as a number in bits 0-23 (leading zeros come back from
+ * the digit count), the packed BullsCowsEngine result in bits 24-31 and the guess's
+ * offset from the start of the game in milliseconds in bits 32-63. The array grows on
+ * demand, so a game without guesses costs nothing but the object.
+ *
+ * toBytes() is the compact form stored with finished games: column by column, so
+ * similar values sit together (see toBytes for the layout).
+ */
+public final class GuessHistory {
+
+    private static final long[] NO_ENTRIES = new long[0];
+    private static final int GUESS_BITS = 0xFFFFFF;
+    private static final int RESULT_SHIFT = 24;
+    private static final int OFFSET_SHIFT = 32;
+    private static final long MAX_OFFSET_MS = 0xFFFFFFFFL; // About 49 days
+    private static final byte FORMAT_VERSION = 1;
+
+    private long[] entries = NO_ENTRIES;
+    private int size;
+
+    /**
+     * @param guess Validated guess string
+     * @param result Packed result of scoring it
+     * @param offsetMillis Time since the game started
+     */
+    public void add(CharSequence guess, int result, long offsetMillis) {
+        int number = 0;
+        for (int i = 0; i < guess.length(); i++) {
+            number = number * 10 + (guess.charAt(i) - '0');
+        }
+        add(number, result, offsetMillis);
+    }
+
+    public void add(int guess, int result, long offsetMillis) {
+        if (size == entries.length) {
+            entries = Arrays.copyOf(entries, Math.max(8, size * 2));
+        }
+        long offset = Math.max(0, Math.min(offsetMillis, MAX_OFFSET_MS));
+        entries[size++] = (offset << OFFSET_SHIFT) | ((long) (result & 0xFF) << RESULT_SHIFT) | (guess & GUESS_BITS);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return Guess as a number; a guess starting with 0 has one digit fewer
+     */
+    public int guessAt(int index) {
+        return (int) entries[index] & GUESS_BITS;
+    }
+
+    /**
+     * @return Packed BullsCowsEngine result of the guess
+     */
+    public int resultAt(int index) {
+        return (int) (entries[index] >>> RESULT_SHIFT) & 0xFF;
+    }
+
+    /**
+     * @return Milliseconds between the start of the game and the guess
+     */
+    public long offsetAt(int index) {
+        return entries[index] >>> OFFSET_SHIFT;
+    }
+
+    /**
+     * @return Packed BullsCowsEngine key of the guess
+     */
+    public int keyAt(int index, int digitCount) {
+        return BullsCowsEngine.encodeSecret(guessAt(index), digitCount);
+    }
+
+    /**
+     * Forget every guess, for the next round of a multi-round mode
+     */
+    public void clear() {
+        entries = NO_ENTRIES;
+        size = 0;
+    }
+
+    /**
+     * Count followed by 8 bytes per guess, for session stores
+     */
+    public void write(DataOutput out) throws IOException {
+        out.writeInt(size);
+        for (int i = 0; i < size; i++) {
+            out.writeLong(entries[i]);
+        }
+    }
+
+    public static GuessHistory read(DataInput in) throws IOException {
+        GuessHistory history = new GuessHistory();
+        history.size = in.readInt();
+        history.entries = history.size == 0 ? NO_ENTRIES : new long[history.size];
+        for (int i = 0; i < history.size; i++) {
+            history.entries[i] = in.readLong();
+        }
+        return history;
+    }
+
+    /**
+     * Compact columnar form: format version byte, varint count, then 3 bytes per guess,
+     * 1 byte per result, and a varint per guess of the milliseconds since the previous
+     * one (since the start for the first). A typical guess takes 6 bytes.
+     */
+    public byte[] toBytes() {
+        byte[] data = new byte[1 + 5 + size * (3 + 1 + 5)];
+        int position = 0;
+        data[position++] = FORMAT_VERSION;
+        position = writeVarint(data, position, size);
+        for (int i = 0; i < size; i++) {
+            int guess = guessAt(i);
+            data[position++] = (byte) (guess >>> 16);
+            data[position++] = (byte) (guess >>> 8);
+            data[position++] = (byte) guess;
+        }
+        for (int i = 0; i < size; i++) {
+            data[position++] = (byte) resultAt(i);
+        }
+        long previous = 0;
+        for (int i = 0; i < size; i++) {
+            long offset = offsetAt(i);
+            position = writeVarint(data, position, Math.max(0, offset - previous));
+            previous = Math.max(previous, offset);
+        }
+        return Arrays.copyOf(data, position);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the data is not in a known format
+     */
+    public static GuessHistory fromBytes(byte[] data) {
+        if (data.length == 0 || data[0] != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Unknown guess history format");
+        }
+        int[] position = {1};
+        int count = (int) readVarint(data, position);
+        int guesses = position[0];
+        int results = guesses + count * 3;
+        position[0] = results + count; // Offsets follow the results
+
+        GuessHistory history = new GuessHistory();
+        long offset = 0;
+        for (int i = 0; i < count; i++) {
+            int at = guesses + i * 3;
+            int guess = ((data[at] & 0xFF) << 16) | ((data[at + 1] & 0xFF) << 8) | (data[at + 2] & 0xFF);
+            offset += readVarint(data, position);
+            history.add(guess, data[results + i] & 0xFF, offset);
+        }
+        return history;
+    }
+
+    private static int writeVarint(byte[] data, int position, long value) {
+        while ((value & ~0x7FL) != 0) {
+            data[position++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        data[position++] = (byte) value;
+        return position;
+    }
+
+    private static long readVarint(byte[] data, int[] position) {
+        long value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte next = data[position[0]++];
+            value |= (long) (next & 0x7F) << shift;
+            if (next >= 0) {
+                return value;
+            }
+        }
+    }
+}
@@ -0,0 +1,163 @@
+package com.example.numberguessinggame.util;
+
+import java.util.Comparator;
+import java.util.SplittableRandom;
+
+/**
+ * Sorted set that also answers "how many elements come before this one", in
+ * O(log n) expected time for adds, removes and lookups.
+ *
+ * A treap: a binary search tree on the comparator whose nodes are also a heap on
+ * random priorities, which keeps it balanced whatever order elements arrive in, with
+ * every node counting the nodes below it. Elements comparing equal are treated as the
+ * same element, so the comparator should end with a unique tie-break such as an id.
+ *
+ * Not thread-safe; callers lock around it.
+ */
+public final class RankTree<T> {
+
+    private static final class Node<T> {
+        private final T value;
+        private final int priority;
+        private Node<T> left;
+        private Node<T> right;
+        private int size = 1;
+
+        private Node(T value, int priority) {
+            this.value = value;
+            this.priority = priority;
+        }
+    }
+
+    private final Comparator<? super T> order;
+    private final SplittableRandom priorities = new SplittableRandom(0x5EED);
+    private Node<T> root;
+
+    public RankTree(Comparator<? super T> order) {
+        this.order = order;
+    }
+
+    public int size() {
+        return size(root);
+    }
+
+    public boolean isEmpty() {
+        return root == null;
+    }
+
+    public void clear() {
+        root = null;
+    }
+
+    /**
+     * @return False if an equal element is already present
+     */
+    public boolean add(T value) {
+        if (indexOf(value) >= 0) {
+            return false;
+        }
+        Node<T>[] parts = split(root, value, false);
+        root = merge(merge(parts[0], new Node<>(value, priorities.nextInt())), parts[1]);
+        return true;
+    }
+
+    /**
+     * @return False if no equal element was present
+     */
+    public boolean remove(T value) {
+        Node<T>[] below = split(root, value, false);
+        Node<T>[] rest = split(below[1], value, true);
+        root = merge(below[0], rest[1]);
+        return rest[0] != null;
+    }
+
+    /**
+     * @return Position of the element in sorted order, from 0, or -1 if it is not present
+     */
+    public int indexOf(T value) {
+        int before = 0;
+        Node<T> node = root;
+        while (node != null) {
+            int comparison = order.compare(value, node.value);
+            if (comparison < 0) {
+                node = node.left;
+            } else if (comparison > 0) {
+                before += size(node.left) + 1;
+                node = node.right;
+            } else {
+                return before + size(node.left);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @return Element at the given position in sorted order
+     */
+    public T get(int index) {
+        if (index < 0 || index >= size()) {
+            throw new IndexOutOfBoundsException("Index " + index + " out of bounds for size " + size());
+        }
+        Node<T> node = root;
+        while (true) {
+            int leftSize = size(node.left);
+            if (index < leftSize) {
+                node = node.left;
+            } else if (index > leftSize) {
+                index -= leftSize + 1;
+                node = node.right;
+            } else {
+                return node.value;
+            }
+        }
+    }
+
+    /**
+     * Split into the elements before the key and the rest; with inclusive set, elements
+     * equal to the key go to the first part
+     */
+    @SuppressWarnings("unchecked")
+    private Node<T>[] split(Node<T> node, T key, boolean inclusive) {
+        if (node == null) {
+            return (Node<T>[]) new Node[2];
+        }
+        int comparison = order.compare(node.value, key);
+        if (comparison < 0 || (inclusive && comparison == 0)) {
+            Node<T>[] parts = split(node.right, key, inclusive);
+            node.right = parts[0];
+            parts[0] = update(node);
+            return parts;
+        }
+        Node<T>[] parts = split(node.left, key, inclusive);
+        node.left = parts[1];
+        parts[1] = update(node);
+        return parts;
+    }
+
+    /**
+     * Join two trees where every element of the first comes before the second
+     */
+    private Node<T> merge(Node<T> first, Node<T> second) {
+        if (first == null) {
+            return second;
+        }
+        if (second == null) {
+            return first;
+        }
+        if (first.priority > second.priority) {
+            first.right = merge(first.right, second);
+            return update(first);
+        }
+        second.left = merge(first, second.left);
+        return update(second);
+    }
+
+    private static <T> Node<T> update(Node<T> node) {
+        node.size = size(node.left) + size(node.right) + 1;
+        return node;
+    }
+
+    private static int size(Node<?> node) {
+        return node != null ? node.size : 0;
+    }
+}
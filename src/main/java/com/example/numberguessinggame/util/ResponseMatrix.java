@@ -0,0 +1,141 @@
+package com.example.numberguessinggame.util;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+/**
+ * Bulls &amp; Cows result of every candidate guessed against every candidate.
+ *
+ * Results take one byte per pair, indexed by CandidateTable position. The 3-digit
+ * matrix (420 KB) is computed on the heap. The 4- and 5-digit ones (20 MB and 740 MB)
+ * are memory-mapped from files in the directory given to useDirectory(), written the
+ * first time they are needed (see ResponseMatrixFile); without a directory the 4-digit
+ * matrix is computed on the heap and 5-digit results are scored from the packed keys.
+ */
+public final class ResponseMatrix {
+
+    public static final int MAX_HEAP_DIGITS = 4;
+
+    /**
+     * Packed results are (bulls &lt;&lt; 4) | cows, so they all fit below this
+     */
+    public static final int RESULT_LIMIT = (BullsCowsEngine.MAX_DIGITS << 4) + 1;
+
+    private static final ResponseMatrix[] MATRICES = new ResponseMatrix[BullsCowsEngine.MAX_DIGITS + 1];
+    private static final ResponseMatrix[] SCORED = new ResponseMatrix[BullsCowsEngine.MAX_DIGITS + 1];
+
+    static {
+        for (int digitCount = CandidateTable.MIN_DIGITS; digitCount <= BullsCowsEngine.MAX_DIGITS; digitCount++) {
+            SCORED[digitCount] = new ResponseMatrix(CandidateTable.forDigits(digitCount), null, false);
+        }
+    }
+
+    private static volatile Path directory;
+
+    private final CandidateTable table;
+    private final int size;
+    private final ByteBuffer results; // null when scored on the fly
+    private final boolean mapped;
+
+    private ResponseMatrix(CandidateTable table, ByteBuffer results, boolean mapped) {
+        this.table = table;
+        this.size = table.size();
+        this.results = results;
+        this.mapped = mapped;
+    }
+
+    /**
+     * Map 4- and 5-digit matrices from files in this directory, for matrices not loaded yet
+     */
+    public static void useDirectory(Path matrixDirectory) {
+        directory = matrixDirectory;
+    }
+
+    /**
+     * Load the matrix on first use; the first call for 5 digits can take seconds while
+     * its file is written
+     */
+    public static ResponseMatrix forDigits(int digitCount) {
+        CandidateTable table = CandidateTable.forDigits(digitCount);
+        ResponseMatrix matrix = MATRICES[digitCount];
+        if (matrix == null) {
+            synchronized (MATRICES) {
+                matrix = MATRICES[digitCount];
+                if (matrix == null) {
+                    matrix = load(table);
+                    MATRICES[digitCount] = matrix;
+                }
+            }
+        }
+        return matrix;
+    }
+
+    /**
+     * Never blocks: the loaded matrix if there is one, otherwise one that scores on the fly
+     */
+    public static ResponseMatrix current(int digitCount) {
+        CandidateTable.forDigits(digitCount); // Validates digitCount
+        ResponseMatrix matrix = MATRICES[digitCount];
+        return matrix != null ? matrix : SCORED[digitCount];
+    }
+
+    private static ResponseMatrix load(CandidateTable table) {
+        Path matrixDirectory = directory;
+        if (matrixDirectory != null && table.getDigitCount() > CandidateTable.MIN_DIGITS) {
+            try {
+                return new ResponseMatrix(table, ResponseMatrixFile.map(matrixDirectory, table), true);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not map the " + table.getDigitCount() + "-digit response matrix", e);
+            }
+        }
+        if (table.getDigitCount() > MAX_HEAP_DIGITS) {
+            return SCORED[table.getDigitCount()];
+        }
+        return new ResponseMatrix(table, ByteBuffer.wrap(compute(table)), false);
+    }
+
+    /**
+     * @return Row-major results: row = guess index, column = secret index
+     */
+    static byte[] compute(CandidateTable table) {
+        int size = table.size();
+        byte[] results = new byte[size * size];
+        for (int guess = 0; guess < size; guess++) {
+            computeRow(table, guess, results, guess * size);
+        }
+        return results;
+    }
+
+    static void computeRow(CandidateTable table, int guess, byte[] row, int offset) {
+        int guessKey = table.keyAt(guess);
+        for (int secret = 0; secret < table.size(); secret++) {
+            row[offset + secret] = (byte) BullsCowsEngine.score(table.keyAt(secret), guessKey);
+        }
+    }
+
+    public CandidateTable getTable() {
+        return table;
+    }
+
+    public boolean isPrecomputed() {
+        return results != null;
+    }
+
+    public boolean isMapped() {
+        return mapped;
+    }
+
+    /**
+     * @param guess CandidateTable index of the guess
+     * @param secret CandidateTable index of the secret
+     * @return Packed result, read it with BullsCowsEngine.bulls() and cows()
+     */
+    public int result(int guess, int secret) {
+        if (results != null) {
+            return results.get(guess * size + secret);
+        }
+        return BullsCowsEngine.score(table.keyAt(secret), table.keyAt(guess));
+    }
+}
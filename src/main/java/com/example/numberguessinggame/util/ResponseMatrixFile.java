@@ -0,0 +1,123 @@
+package com.example.numberguessinggame.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.IntStream;
+
+/**
+ * On-disk form of a ResponseMatrix: a 16-byte header (magic, format version, digit
+ * count, table size) followed by the row-major result bytes.
+ *
+ * Files are written to a temporary name and renamed into place, so nodes sharing a
+ * directory never map a half-written matrix. Run main() at build time to ship the
+ * files; otherwise they are written on first boot.
+ */
+public final class ResponseMatrixFile {
+
+    private static final int MAGIC = 0x42434D58; // "BCMX"
+    private static final int FORMAT_VERSION = 1;
+    private static final int HEADER_BYTES = 16;
+    private static final int ROWS_PER_WRITE = 256;
+
+    private ResponseMatrixFile() {
+    }
+
+    public static Path pathFor(Path directory, int digitCount) {
+        return directory.resolve("responses-" + digitCount + ".bin");
+    }
+
+    /**
+     * Map the table's matrix read-only, writing the file first if it is missing or stale
+     */
+    public static MappedByteBuffer map(Path directory, CandidateTable table) throws IOException {
+        Path file = pathFor(directory, table.getDigitCount());
+        if (!isValid(file, table)) {
+            write(directory, table);
+        }
+
+        long length = (long) table.size() * table.size();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            // The mapping stays valid after the channel is closed
+            return channel.map(FileChannel.MapMode.READ_ONLY, HEADER_BYTES, length);
+        }
+    }
+
+    /**
+     * Compute the table's matrix and write it, replacing any existing file
+     */
+    public static Path write(Path directory, CandidateTable table) throws IOException {
+        Files.createDirectories(directory);
+        Path file = pathFor(directory, table.getDigitCount());
+        Path temp = Files.createTempFile(directory, "responses-" + table.getDigitCount() + "-", ".tmp");
+
+        int size = table.size();
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.WRITE)) {
+            writeFully(channel, header(table));
+
+            byte[] rows = new byte[ROWS_PER_WRITE * size];
+            for (int first = 0; first < size; first += ROWS_PER_WRITE) {
+                int start = first;
+                int count = Math.min(ROWS_PER_WRITE, size - first);
+                // Rows are independent, so fill each batch across the fork-join pool
+                IntStream.range(0, count).parallel()
+                        .forEach(row -> ResponseMatrix.computeRow(table, start + row, rows, row * size));
+                writeFully(channel, ByteBuffer.wrap(rows, 0, count * size));
+            }
+            channel.force(false);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temp);
+            throw e;
+        }
+
+        Files.move(temp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        return file;
+    }
+
+    private static boolean isValid(Path file, CandidateTable table) throws IOException {
+        if (!Files.isRegularFile(file) || Files.size(file) != HEADER_BYTES + (long) table.size() * table.size()) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // Keep reading until the header is complete
+            }
+            return header.flip().equals(header(table));
+        }
+    }
+
+    private static ByteBuffer header(CandidateTable table) {
+        return ByteBuffer.allocate(HEADER_BYTES)
+                .putInt(MAGIC)
+                .putInt(FORMAT_VERSION)
+                .putInt(table.getDigitCount())
+                .putInt(table.size())
+                .flip();
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    /**
+     * Build-time generator: writes the 4- and 5-digit matrices
+     * @param args Target directory (default: current directory)
+     */
+    public static void main(String[] args) throws IOException {
+        Path directory = Paths.get(args.length > 0 ? args[0] : ".");
+        for (int digitCount = CandidateTable.MIN_DIGITS + 1; digitCount <= BullsCowsEngine.MAX_DIGITS; digitCount++) {
+            long started = System.nanoTime();
+            Path file = write(directory, CandidateTable.forDigits(digitCount));
+            System.out.printf("%s: %,d bytes in %d ms%n", file, Files.size(file), (System.nanoTime() - started) / 1_000_000);
+        }
+    }
+}
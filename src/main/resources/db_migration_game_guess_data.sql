@@ -0,0 +1,15 @@
+-- Migration script for per-guess history of regular games
+-- Execute this script manually on your database before deploying (ddl-auto=validate checks the column).
+-- Games finished before the migration keep guess_data NULL.
+
+-- Add guess_data column to games table
+ALTER TABLE games
+ADD COLUMN IF NOT EXISTS guess_data BYTEA;
+
+-- Add comment for documentation
+COMMENT ON COLUMN games.guess_data IS 'Every guess with its bulls/cows result and time offset, packed column by column (GuessHistory.toBytes)';
+
+-- Verify the column was added
+SELECT column_name, data_type, is_nullable
+FROM information_schema.columns
+WHERE table_name = 'games' AND column_name = 'guess_data';
@@ -0,0 +1,27 @@
+-- Migration script for the persistent game session store
+-- Execute this script manually on your database before setting game.sessions.store=jdbc.
+-- Sessions already running in memory are not copied; games started before the switch are lost.
+
+CREATE TABLE IF NOT EXISTS game_sessions (
+    mode VARCHAR(32) NOT NULL,
+    session_key VARCHAR(128) NOT NULL,
+    data BYTEA NOT NULL,
+    version BIGINT NOT NULL DEFAULT 0,
+    expires_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (mode, session_key)
+);
+
+CREATE INDEX IF NOT EXISTS idx_game_sessions_expires_at ON game_sessions(expires_at);
+
+-- Add comments for documentation
+COMMENT ON TABLE game_sessions IS 'In-progress game sessions when game.sessions.store=jdbc, shared by all app nodes';
+COMMENT ON COLUMN game_sessions.mode IS 'Game mode that owns the session (practice, daily, survival, time-attack, multiplayer, daily-attempts)';
+COMMENT ON COLUMN game_sessions.data IS 'Session in the binary form written by the mode''s SessionCodec';
+COMMENT ON COLUMN game_sessions.version IS 'Incremented on every write; updates check it to detect concurrent changes';
+COMMENT ON COLUMN game_sessions.expires_at IS 'Database time after which the session is ignored and purged';
+
+-- Verify the table was created
+SELECT table_name, column_name, data_type, is_nullable
+FROM information_schema.columns
+WHERE table_name = 'game_sessions'
+ORDER BY ordinal_position;
@@ -0,0 +1,26 @@
+-- Migration script for pooled id generation
+-- Execute this script manually on your database before deploying: entities now take ids from
+-- these sequences 50 at a time (allocationSize = 50), and Hibernate refuses to start if the
+-- sequence increment does not match.
+-- Existing ids are kept; new ones continue above the current sequence values.
+-- Inserts relying on the column default still work, they just skip ahead 50 at a time.
+
+ALTER SEQUENCE IF EXISTS users_id_seq INCREMENT BY 50;
+ALTER SEQUENCE IF EXISTS games_id_seq INCREMENT BY 50;
+ALTER SEQUENCE IF EXISTS achievements_id_seq INCREMENT BY 50;
+ALTER SEQUENCE IF EXISTS user_achievements_id_seq INCREMENT BY 50;
+ALTER SEQUENCE IF EXISTS daily_challenges_id_seq INCREMENT BY 50;
+ALTER SEQUENCE IF EXISTS daily_challenge_attempts_id_seq INCREMENT BY 50;
+ALTER SEQUENCE IF EXISTS time_attack_sessions_id_seq INCREMENT BY 50;
+ALTER SEQUENCE IF EXISTS survival_sessions_id_seq INCREMENT BY 50;
+ALTER SEQUENCE IF EXISTS friendships_id_seq INCREMENT BY 50;
+ALTER SEQUENCE IF EXISTS friend_requests_id_seq INCREMENT BY 50;
+ALTER SEQUENCE IF EXISTS multiplayer_challenges_id_seq INCREMENT BY 50;
+ALTER SEQUENCE IF EXISTS multiplayer_game_sessions_id_seq INCREMENT BY 50;
+ALTER SEQUENCE IF EXISTS multiplayer_player_progress_id_seq INCREMENT BY 50;
+
+-- Verify the increments
+SELECT sequence_name, increment
+FROM information_schema.sequences
+WHERE sequence_name LIKE '%_id_seq'
+ORDER BY sequence_name;
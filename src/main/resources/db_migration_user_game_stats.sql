@@ -0,0 +1,36 @@
+-- Migration script for the user_game_stats aggregate
+-- Execute this script manually on your database before deploying (ddl-auto=validate).
+-- Rows are built lazily from each user's game history the first time they are needed,
+-- so no backfill is required.
+
+CREATE TABLE IF NOT EXISTS user_game_stats (
+    user_id BIGINT PRIMARY KEY,
+    easy_wins INTEGER NOT NULL DEFAULT 0,
+    medium_wins INTEGER NOT NULL DEFAULT 0,
+    hard_wins INTEGER NOT NULL DEFAULT 0,
+    efficient_wins INTEGER NOT NULL DEFAULT 0,
+    fast_wins INTEGER NOT NULL DEFAULT 0,
+    morning_wins INTEGER NOT NULL DEFAULT 0,
+    midnight_wins INTEGER NOT NULL DEFAULT 0,
+    lunch_wins INTEGER NOT NULL DEFAULT 0,
+    evening_wins INTEGER NOT NULL DEFAULT 0,
+    perfect_win_run INTEGER NOT NULL DEFAULT 0,
+    current_loss_streak INTEGER NOT NULL DEFAULT 0,
+    losses_before_last_win INTEGER NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT fk_user_game_stats_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+-- Add comments for documentation
+COMMENT ON TABLE user_game_stats IS 'Per-user running counters for achievement checks, updated once per finished game';
+COMMENT ON COLUMN user_game_stats.efficient_wins IS 'Wins with 5 or fewer attempts';
+COMMENT ON COLUMN user_game_stats.fast_wins IS 'Wins in under 2 minutes';
+COMMENT ON COLUMN user_game_stats.morning_wins IS 'Wins played 06:00-09:00 (midnight 00-03, lunch 12-14, evening 18-21)';
+COMMENT ON COLUMN user_game_stats.perfect_win_run IS 'Consecutive most recent wins with 3 or fewer attempts';
+COMMENT ON COLUMN user_game_stats.losses_before_last_win IS 'Length of the losing streak that the latest win ended';
+
+-- Verify the table was created
+SELECT table_name, column_name, data_type, is_nullable
+FROM information_schema.columns
+WHERE table_name = 'user_game_stats'
+ORDER BY ordinal_position;
@@ -0,0 +1,16 @@
+-- Migration script for optimistic versioning of user rows
+-- Execute this script manually on your database before deploying (ddl-auto=validate checks the column).
+-- Stats and coins are now changed by single UPDATE statements that bump the version;
+-- saving a User entity read before such an update fails instead of overwriting it.
+
+-- Add version column to users table
+ALTER TABLE users
+ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+-- Add comment for documentation
+COMMENT ON COLUMN users.version IS 'Bumped by every update; entity saves fail if the row changed since it was read';
+
+-- Verify the column was added
+SELECT column_name, data_type, is_nullable, column_default
+FROM information_schema.columns
+WHERE table_name = 'users' AND column_name = 'version';
@@ -0,0 +1,21 @@
+-- Migration script for the indexed username search (friend search)
+-- Execute this script manually on your database before deploying; without the indexes
+-- the search still works but scans the users table.
+-- Prefix searches (LIKE 'abc%') range-scan a C-collation index on LOWER(username);
+-- substring searches (LIKE '%abc%') use a trigram index, which needs pg_trgm.
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+-- C collation, so LIKE prefixes and ORDER BY LOWER(username) COLLATE "C" can use it
+CREATE INDEX IF NOT EXISTS idx_users_username_lower ON users ((LOWER(username)) COLLATE "C");
+
+CREATE INDEX IF NOT EXISTS idx_users_username_trgm ON users USING GIN (LOWER(username) gin_trgm_ops);
+
+-- Add comments for documentation
+COMMENT ON INDEX idx_users_username_lower IS 'Friend search by username prefix, in name order';
+COMMENT ON INDEX idx_users_username_trgm IS 'Friend search by username substring (3+ characters)';
+
+-- Verify the indexes were created
+SELECT indexname, indexdef
+FROM pg_indexes
+WHERE tablename = 'users' AND indexname IN ('idx_users_username_lower', 'idx_users_username_trgm');
@@ -24,13 +24,18 @@ CREATE TABLE IF NOT EXISTS users (
     last_played_date DATE,
     consecutive_play_days INTEGER DEFAULT 0,
     best_play_day_streak INTEGER DEFAULT 0,
-    coins INTEGER DEFAULT 0
+    coins INTEGER DEFAULT 0,
+    version BIGINT NOT NULL DEFAULT 0
 );
 
 -- Indexes for users
 CREATE INDEX IF NOT EXISTS idx_users_username ON users(username);
 CREATE INDEX IF NOT EXISTS idx_users_email ON users(email);
 CREATE INDEX IF NOT EXISTS idx_users_last_played_date ON users(last_played_date);
+-- Friend search: username prefix (C collation, for LIKE 'abc%') and substring (pg_trgm)
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS idx_users_username_lower ON users ((LOWER(username)) COLLATE "C");
+CREATE INDEX IF NOT EXISTS idx_users_username_trgm ON users USING GIN (LOWER(username) gin_trgm_ops);
 
 -- Comments for users
 COMMENT ON TABLE users IS 'Core user accounts with statistics and streak tracking';
@@ -40,6 +45,7 @@ COMMENT ON COLUMN users.best_win_streak IS 'Best streak of consecutive wins';
 COMMENT ON COLUMN users.consecutive_play_days IS 'Current consecutive days played';
 COMMENT ON COLUMN users.best_play_day_streak IS 'Best streak of consecutive play days';
 COMMENT ON COLUMN users.coins IS 'Virtual currency earned from game modes';
+COMMENT ON COLUMN users.version IS 'Bumped by every update; entity saves fail if the row changed since it was read';
 
 -- =====================================================
 -- TABLE: games
@@ -54,6 +60,7 @@ CREATE TABLE IF NOT EXISTS games (
     won BOOLEAN NOT NULL,
     time_taken VARCHAR(20),
     hints_used INTEGER DEFAULT 0,
+    guess_data BYTEA,
     played_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
     CONSTRAINT fk_games_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
 );
@@ -69,6 +76,7 @@ CREATE INDEX IF NOT EXISTS idx_games_hints_used ON games(hints_used);
 COMMENT ON TABLE games IS 'Regular game mode play history';
 COMMENT ON COLUMN games.difficulty IS 'Difficulty level: 0=Easy, 1=Medium, 2=Hard';
 COMMENT ON COLUMN games.hints_used IS 'Number of hints used during this game';
+COMMENT ON COLUMN games.guess_data IS 'Every guess with its bulls/cows result and time offset, packed column by column (GuessHistory.toBytes)';
 
 -- =====================================================
 -- TABLE: achievements
@@ -256,6 +264,76 @@ COMMENT ON COLUMN survival_sessions.coins_earned IS 'Total coins earned from thi
 COMMENT ON COLUMN survival_sessions.started_at IS 'When the survival session was started';
 COMMENT ON COLUMN survival_sessions.completed_at IS 'When the survival session was completed/ended';
 
+-- =====================================================
+-- TABLE: user_game_stats
+-- Incremental per-user aggregates for achievement rules
+-- =====================================================
+CREATE TABLE IF NOT EXISTS user_game_stats (
+    user_id BIGINT PRIMARY KEY,
+    easy_wins INTEGER NOT NULL DEFAULT 0,
+    medium_wins INTEGER NOT NULL DEFAULT 0,
+    hard_wins INTEGER NOT NULL DEFAULT 0,
+    efficient_wins INTEGER NOT NULL DEFAULT 0,
+    fast_wins INTEGER NOT NULL DEFAULT 0,
+    morning_wins INTEGER NOT NULL DEFAULT 0,
+    midnight_wins INTEGER NOT NULL DEFAULT 0,
+    lunch_wins INTEGER NOT NULL DEFAULT 0,
+    evening_wins INTEGER NOT NULL DEFAULT 0,
+    perfect_win_run INTEGER NOT NULL DEFAULT 0,
+    current_loss_streak INTEGER NOT NULL DEFAULT 0,
+    losses_before_last_win INTEGER NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    CONSTRAINT fk_user_game_stats_user FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE
+);
+
+-- Comments for user_game_stats
+COMMENT ON TABLE user_game_stats IS 'Per-user running counters for achievement checks, updated once per finished game';
+COMMENT ON COLUMN user_game_stats.efficient_wins IS 'Wins with 5 or fewer attempts';
+COMMENT ON COLUMN user_game_stats.fast_wins IS 'Wins in under 2 minutes';
+COMMENT ON COLUMN user_game_stats.morning_wins IS 'Wins played 06:00-09:00 (midnight 00-03, lunch 12-14, evening 18-21)';
+COMMENT ON COLUMN user_game_stats.perfect_win_run IS 'Consecutive most recent wins with 3 or fewer attempts';
+COMMENT ON COLUMN user_game_stats.losses_before_last_win IS 'Length of the losing streak that the latest win ended';
+
+-- =====================================================
+-- TABLE: game_sessions
+-- Persistent store for in-progress games (optional)
+-- =====================================================
+CREATE TABLE IF NOT EXISTS game_sessions (
+    mode VARCHAR(32) NOT NULL,
+    session_key VARCHAR(128) NOT NULL,
+    data BYTEA NOT NULL,
+    version BIGINT NOT NULL DEFAULT 0,
+    expires_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (mode, session_key)
+);
+
+CREATE INDEX IF NOT EXISTS idx_game_sessions_expires_at ON game_sessions(expires_at);
+
+-- Comments for game_sessions
+COMMENT ON TABLE game_sessions IS 'In-progress game sessions when game.sessions.store=jdbc, shared by all app nodes';
+COMMENT ON COLUMN game_sessions.mode IS 'Game mode that owns the session (practice, daily, survival, time-attack, multiplayer, daily-attempts)';
+COMMENT ON COLUMN game_sessions.data IS 'Session in the binary form written by the mode''s SessionCodec';
+COMMENT ON COLUMN game_sessions.version IS 'Incremented on every write; updates check it to detect concurrent changes';
+COMMENT ON COLUMN game_sessions.expires_at IS 'Database time after which the session is ignored and purged';
+
+-- =====================================================
+-- SEQUENCES: pooled id allocation
+-- Entities reserve 50 ids per nextval (allocationSize = 50) so inserts can be batched
+-- =====================================================
+ALTER SEQUENCE IF EXISTS users_id_seq INCREMENT BY 50;
+ALTER SEQUENCE IF EXISTS games_id_seq INCREMENT BY 50;
+ALTER SEQUENCE IF EXISTS achievements_id_seq INCREMENT BY 50;
+ALTER SEQUENCE IF EXISTS user_achievements_id_seq INCREMENT BY 50;
+ALTER SEQUENCE IF EXISTS daily_challenges_id_seq INCREMENT BY 50;
+ALTER SEQUENCE IF EXISTS daily_challenge_attempts_id_seq INCREMENT BY 50;
+ALTER SEQUENCE IF EXISTS time_attack_sessions_id_seq INCREMENT BY 50;
+ALTER SEQUENCE IF EXISTS survival_sessions_id_seq INCREMENT BY 50;
+ALTER SEQUENCE IF EXISTS friendships_id_seq INCREMENT BY 50;
+ALTER SEQUENCE IF EXISTS friend_requests_id_seq INCREMENT BY 50;
+ALTER SEQUENCE IF EXISTS multiplayer_challenges_id_seq INCREMENT BY 50;
+ALTER SEQUENCE IF EXISTS multiplayer_game_sessions_id_seq INCREMENT BY 50;
+ALTER SEQUENCE IF EXISTS multiplayer_player_progress_id_seq INCREMENT BY 50;
+
 -- =====================================================
 -- END OF SCHEMA
 -- =====================================================
@@ -101,6 +101,49 @@ window.Achievements = {
         this.displayAchievementToast(achievement);
     },
 
+    // ==========================================
+    // LIVE UNLOCKS (WebSocket)
+    // ==========================================
+
+    unlockClient: null,
+
+    /**
+     * Achievements are evaluated after the winning guess has been answered,
+     * so unlocks arrive on /user/queue/achievements (this user's sessions only)
+     * instead of in the response
+     */
+    connectUnlockChannel: function() {
+        if (this.unlockClient || !GameState.authToken || !GameState.currentUser) return;
+        if (typeof SockJS === 'undefined' || typeof Stomp === 'undefined') return;
+
+        const socket = new SockJS('/ws?token=' + encodeURIComponent(GameState.authToken));
+        const client = Stomp.over(socket);
+        client.debug = null;
+        this.unlockClient = client;
+
+        client.connect({}, () => {
+            client.subscribe('/user/queue/achievements', (message) => {
+                const data = JSON.parse(message.body);
+                this.showAchievementNotifications(data.achievements);
+            });
+        }, (error) => {
+            debug.error('Achievement channel error:', error);
+            this.unlockClient = null;
+
+            // Reconnect while still logged in
+            setTimeout(() => this.connectUnlockChannel(), 5000);
+        });
+    },
+
+    disconnectUnlockChannel: function() {
+        if (this.unlockClient) {
+            if (this.unlockClient.connected) {
+                this.unlockClient.disconnect();
+            }
+            this.unlockClient = null;
+        }
+    },
+
     // ==========================================
     // ACHIEVEMENT TOAST NOTIFICATIONS
     // ==========================================
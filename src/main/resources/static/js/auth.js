@@ -123,6 +123,11 @@ window.Auth = {
             if (coinCount) {
                 coinCount.textContent = GameState.currentUser.coins || 0;
             }
+
+            // Listen for achievements unlocked after each game
+            if (Achievements) {
+                Achievements.connectUnlockChannel();
+            }
         } else {
             // Show guest controls, hide user controls
             guestControls.style.display = 'flex';
@@ -465,6 +470,9 @@ window.Auth = {
                 GameState.multiplayer.stompClient.disconnect();
             }
         }
+        if (Achievements) {
+            Achievements.disconnectUnlockChannel();
+        }
 
         // Clear all game states
         GameState.currentUser = null;
@@ -476,6 +484,7 @@ window.Auth = {
         GameState.attempts = 0;
         GameState.guessHistory = [];
         GameState.tabId = null;
+        GameState.tabUserId = '';
         GameState.hintsUsed = 0;
         GameState.revealedHints = new Map();
         GameState.isSubmitting = false;
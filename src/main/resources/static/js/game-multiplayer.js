@@ -71,9 +71,9 @@ const MultiplayerGame = {
                     this.handleGameNotification(JSON.parse(message.body));
                 });
 
-                // Presence updates
-                stompClient.subscribe('/topic/presence', (message) => {
-                    this.handlePresenceUpdate(JSON.parse(message.body));
+                // Presence updates of friends, batched per frame
+                stompClient.subscribe(`/queue/presence.${userId}`, (message) => {
+                    JSON.parse(message.body).forEach((update) => this.handlePresenceUpdate(update));
                 });
 
                 this.updateConnectionStatus(true);
@@ -60,6 +60,7 @@ window.RegularGame = {
 
                 if (data.tabId) {
                     GameState.tabId = data.tabId;
+                    GameState.tabUserId = userId;
                     this.updateInputFields(difficulty);
                     this.updateGuessHistory();
                 } else {
@@ -220,7 +221,7 @@ window.RegularGame = {
             headers: {
                 'Content-Type': 'application/x-www-form-urlencoded'
             },
-            body: `guess=${guess}&tabId=${GameState.tabId}`,
+            body: `guess=${guess}&tabId=${GameState.tabId}&userId=${GameState.tabUserId}`,
             credentials: 'include'
         })
             .then(response => response.json())
@@ -271,10 +272,7 @@ window.RegularGame = {
                             }
                         }
 
-                        // Show achievements
-                        if (data.newAchievements && data.newAchievements.length > 0 && Achievements) {
-                            Achievements.showAchievementNotifications(data.newAchievements);
-                        }
+                        // Achievements arrive separately over the unlock channel (Achievements.connectUnlockChannel)
                     }, 50);
                 } else {
                     if (GameState.soundVolume > 0 && GameConfig) {
@@ -652,7 +650,7 @@ window.RegularGame = {
                 headers: {
                     'Content-Type': 'application/x-www-form-urlencoded'
                 },
-                body: `tabId=${GameState.tabId}`,
+                body: `tabId=${GameState.tabId}&userId=${GameState.tabUserId}`,
                 credentials: 'include'
             }).catch(() => { });
         }
@@ -14,6 +14,7 @@ window.GameState = {
     isSubmitting: false,
     guessHistory: [],
     tabId: null, // Will be generated server-side for security
+    tabUserId: '', // Player the tab's game was started for (empty for guests), part of its session key
 
     // Best score and recent scores
     bestScore: localStorage.getItem('bestScore') || 'Not set',
@@ -1,41 +1,37 @@
 package com.example.numberguessinggame;
 
+import java.time.Duration;
 import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
-import static org.mockito.Mockito.when;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.RepeatedTest;
 import org.junit.jupiter.api.Test;
-import org.mockito.Mock;
-import org.mockito.MockitoAnnotations;
 import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
 
-import jakarta.servlet.http.HttpSession;
+import com.example.numberguessinggame.session.GameSessionStore;
+import com.example.numberguessinggame.session.InMemorySessionStoreProvider;
 
 class GameControllerTest {
 
     private GameController gameController;
-    private static final String MOCK_SESSION_ID = "test-session-123";
     private String currentTabId;
 
-    @Mock
-    private HttpSession mockSession;
-
     @BeforeEach
     void setUp() {
-        MockitoAnnotations.openMocks(this);
         gameController = new GameController();
-        // Properly configure mock session to return a session ID
-        when(mockSession.getId()).thenReturn(MOCK_SESSION_ID);
+        ReflectionTestUtils.setField(gameController, "gameSessions", new GameSessionStore<>(
+                new InMemorySessionStoreProvider(), "practice", GameSession.CODEC, Duration.ofMinutes(30), true, 1000));
     }
 
     @Test
     void testStartNewGame_ValidDifficulty() {
-        ResponseEntity<Map<String, Object>> response = gameController.startNewGame(1, null, mockSession);
+        ResponseEntity<Map<String, Object>> response = gameController.startNewGame(1, null);
         assertEquals(200, response.getStatusCodeValue());
         assertNotNull(response.getBody());
         assertTrue(response.getBody().containsKey("tabId"));
@@ -45,7 +41,7 @@ class GameControllerTest {
 
     @Test
     void testStartNewGame_InvalidDifficulty() {
-        ResponseEntity<Map<String, Object>> response = gameController.startNewGame(3, null, mockSession);
+        ResponseEntity<Map<String, Object>> response = gameController.startNewGame(3, null);
         assertEquals(400, response.getStatusCodeValue());
         assertNotNull(response.getBody());
         assertTrue(response.getBody().containsKey("error"));
@@ -53,10 +49,10 @@ class GameControllerTest {
 
     @Test
     void testProcessGuess_ValidGuess() {
-        ResponseEntity<Map<String, Object>> startResponse = gameController.startNewGame(1, null, mockSession);
+        ResponseEntity<Map<String, Object>> startResponse = gameController.startNewGame(1, null);
         String tabId = (String) startResponse.getBody().get("tabId");
 
-        Map<String, Object> result = gameController.processGuess("1234", tabId, mockSession);
+        Map<String, Object> result = gameController.processGuess("1234", tabId, null);
         // We can't assert exact values without knowing the target number
         assertNotNull(result.get("correct"));
         assertNotNull(result.get("correctPosition"));
@@ -65,19 +61,29 @@ class GameControllerTest {
 
     @Test
     void testProcessGuess_AnotherValidGuess() {
-        ResponseEntity<Map<String, Object>> startResponse = gameController.startNewGame(1, null, mockSession);
+        ResponseEntity<Map<String, Object>> startResponse = gameController.startNewGame(1, null);
         String tabId = (String) startResponse.getBody().get("tabId");
 
-        Map<String, Object> result = gameController.processGuess("5678", tabId, mockSession);
+        Map<String, Object> result = gameController.processGuess("5678", tabId, null);
         assertNotNull(result.get("correct"));
         assertNotNull(result.get("correctPosition"));
         assertNotNull(result.get("correctButWrongPosition"));
     }
 
+    @Test
+    void testProcessGuess_TabOfAnotherPlayer() {
+        ResponseEntity<Map<String, Object>> startResponse = gameController.startNewGame(1, null);
+        String tabId = (String) startResponse.getBody().get("tabId");
+
+        // The tab was started as a guest, so it is not found under a player id
+        assertThrows(IllegalStateException.class, () -> gameController.processGuess("1234", tabId, 7L));
+        assertNotNull(gameController.processGuess("1234", tabId, null).get("correct"));
+    }
+
     @RepeatedTest(10)
     void testGenerateUniqueDigitNumber() {
         for (int difficulty = 0; difficulty <= 2; difficulty++) {
-            ResponseEntity<Map<String, Object>> response = gameController.startNewGame(difficulty, null, mockSession);
+            ResponseEntity<Map<String, Object>> response = gameController.startNewGame(difficulty, null);
             assertNotNull(response.getBody());
             assertTrue(response.getBody().containsKey("tabId"));
         }
@@ -0,0 +1,84 @@
+package com.example.numberguessinggame.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class WebSocketChannelsTest {
+
+    private MeterRegistry meterRegistry;
+    private ExecutorChannelInterceptor interceptor;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        WebSocketChannels channels = new WebSocketChannels();
+        ReflectionTestUtils.setField(channels, "meterRegistry", meterRegistry);
+        ReflectionTestUtils.setField(channels, "inboundCorePoolSize", 1);
+        ReflectionTestUtils.setField(channels, "inboundMaxPoolSize", 1);
+        ReflectionTestUtils.setField(channels, "inboundQueueCapacity", 10);
+        ReflectionTestUtils.setField(channels, "outboundCorePoolSize", 1);
+        ReflectionTestUtils.setField(channels, "outboundMaxPoolSize", 1);
+        ReflectionTestUtils.setField(channels, "outboundQueueCapacity", 10);
+        ReflectionTestUtils.setField(channels, "maxPendingPerSession", 2);
+        channels.configure();
+        interceptor = channels.getOutboundInterceptor();
+    }
+
+    @Test
+    void testSend_RecordsLatency() {
+        Message<?> queued = interceptor.preSend(message("s1", "/queue/notifications.1"), null);
+        assertNotNull(queued.getHeaders().get(WebSocketChannels.QUEUED_AT_HEADER, Long.class));
+
+        interceptor.afterMessageHandled(queued, null, null, null);
+
+        assertEquals(1, meterRegistry.get("websocket.outbound.latency").timer().count());
+    }
+
+    @Test
+    void testSend_WithoutSessionIsNotTimed() {
+        Message<?> queued = interceptor.preSend(message(null, "/topic/leaderboard"), null);
+
+        interceptor.afterMessageHandled(queued, null, null, null);
+
+        assertEquals(0, meterRegistry.get("websocket.outbound.latency").timer().count());
+    }
+
+    @Test
+    void testLaggard_DropsOnlyDroppableMessages() {
+        interceptor.preSend(message("s1", "/queue/presence.1"), null);
+        interceptor.preSend(message("s1", "/queue/presence.1"), null);
+
+        assertNull(interceptor.preSend(message("s1", "/queue/presence.1"), null));
+        assertNotNull(interceptor.preSend(message("s1", "/queue/game.42"), null));
+        assertNotNull(interceptor.preSend(message("s2", "/queue/presence.2"), null));
+        assertEquals(1, meterRegistry.get("websocket.outbound.dropped").counter().count());
+    }
+
+    @Test
+    void testHandled_MakesRoomAgain() {
+        Message<?> first = interceptor.preSend(message("s1", "/queue/presence.1"), null);
+        interceptor.preSend(message("s1", "/queue/presence.1"), null);
+
+        interceptor.afterMessageHandled(first, null, null, null);
+
+        assertNotNull(interceptor.preSend(message("s1", "/queue/presence.1"), null));
+    }
+
+    private static Message<byte[]> message(String sessionId, String destination) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setSessionId(sessionId);
+        accessor.setDestination(destination);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+}
@@ -0,0 +1,140 @@
+package com.example.numberguessinggame.config;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Type;
+import java.net.ServerSocket;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.messaging.converter.StringMessageConverter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.broker.AbstractBrokerMessageHandler;
+import org.springframework.messaging.simp.stomp.ReactorNettyTcpStompClient;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import com.example.numberguessinggame.service.JwtUtil;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Relay mode against the embedded broker: only the WebSocket configuration is loaded,
+ * so no database is needed
+ */
+@SpringBootTest(
+        classes = {WebSocketConfig.class, WebSocketChannels.class, EmbeddedStompBroker.class,
+                WebSocketRelayTest.Metrics.class},
+        properties = {
+                "websocket.broker.mode=relay",
+                "websocket.broker.embedded=true",
+                "websocket.broker.relay.host=127.0.0.1"
+        })
+class WebSocketRelayTest {
+
+    private static final int BROKER_PORT = freePort();
+    private static final long TIMEOUT_SECONDS = 15;
+
+    @TestConfiguration
+    static class Metrics {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @DynamicPropertySource
+    static void brokerPort(DynamicPropertyRegistry registry) {
+        registry.add("websocket.broker.relay.port", () -> BROKER_PORT);
+    }
+
+    @MockBean
+    private JwtUtil jwtUtil;
+
+    @Autowired
+    @Qualifier("stompBrokerRelayMessageHandler")
+    private AbstractBrokerMessageHandler relay;
+
+    @Autowired
+    @Qualifier("brokerMessagingTemplate")
+    private SimpMessagingTemplate messagingTemplate;
+
+    @Test
+    void relayConnectsToEmbeddedBroker() throws InterruptedException {
+        assertTrue(awaitBroker(), "Relay did not connect to the embedded broker");
+    }
+
+    @Test
+    void messagesSentOnThisNodeReachBrokerSubscribers() throws Exception {
+        assertTrue(awaitBroker(), "Relay did not connect to the embedded broker");
+
+        // Subscribed straight to the broker, as another node's relay would be
+        ReactorNettyTcpStompClient client = new ReactorNettyTcpStompClient("127.0.0.1", BROKER_PORT);
+        client.setMessageConverter(new StringMessageConverter());
+        client.setDefaultHeartbeat(new long[] {0, 0});
+        StompSession session = client.connectAsync(new StompSessionHandlerAdapter() { })
+                .get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+        try {
+            BlockingQueue<String> received = new LinkedBlockingQueue<>();
+            CountDownLatch subscribed = new CountDownLatch(1);
+            session.setAutoReceipt(true);
+            session.subscribe("/topic/relay-test", new StompFrameHandler() {
+                @Override
+                public Type getPayloadType(StompHeaders headers) {
+                    return String.class;
+                }
+
+                @Override
+                public void handleFrame(StompHeaders headers, Object payload) {
+                    received.add((String) payload);
+                }
+            }).addReceiptTask(subscribed::countDown);
+            assertTrue(subscribed.await(TIMEOUT_SECONDS, TimeUnit.SECONDS), "Subscription was not confirmed");
+
+            messagingTemplate.convertAndSend("/topic/relay-test", "hello from the relay");
+
+            assertEquals("hello from the relay", received.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS));
+        } finally {
+            session.disconnect();
+            client.shutdown();
+        }
+    }
+
+    /**
+     * The relay connects once the context has started, and retries every few seconds
+     */
+    private boolean awaitBroker() throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+        while (!relay.isBrokerAvailable()) {
+            if (System.nanoTime() > deadline) {
+                return false;
+            }
+            Thread.sleep(100);
+        }
+        return true;
+    }
+
+    private static int freePort() {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
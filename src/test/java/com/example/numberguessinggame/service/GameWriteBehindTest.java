@@ -0,0 +1,208 @@
+package com.example.numberguessinggame.service;
+
+import com.example.numberguessinggame.entity.Game;
+import com.example.numberguessinggame.entity.User;
+import com.example.numberguessinggame.repository.UserRepository;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doNothing;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+class GameWriteBehindTest {
+
+    private static final long USER_ID = 1L;
+    private static final String SPILL_FILE = "pending-games.bin";
+
+    @TempDir
+    Path spillDir;
+
+    private UserRepository userRepository;
+    private UserGameStatsService userGameStatsService;
+    private AchievementPipeline achievementPipeline;
+    private LeaderboardRanks leaderboardRanks;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private GameWriteBehind writeBehind;
+
+    @BeforeEach
+    void setUp() {
+        userRepository = mock(UserRepository.class);
+        userGameStatsService = mock(UserGameStatsService.class);
+        achievementPipeline = mock(AchievementPipeline.class);
+        leaderboardRanks = mock(LeaderboardRanks.class);
+        jdbcTemplate = mock(JdbcTemplate.class);
+        transactionTemplate = mock(TransactionTemplate.class);
+
+        User user = new User("player", "player@example.com", "secret");
+        user.setId(USER_ID);
+        user.setCoins(10);
+        user.setCurrentWinStreak(2);
+        when(userRepository.findById(USER_ID)).thenReturn(Optional.of(user));
+        when(userRepository.findAllById(any())).thenReturn(List.of(user));
+        when(jdbcTemplate.queryForList(any(), eq(Long.class), any(Object[].class)))
+                .thenReturn(List.of((long) Game.ID_ALLOCATION_SIZE));
+        when(transactionTemplate.execute(any())).thenAnswer(invocation -> {
+            TransactionCallback<?> callback = invocation.getArgument(0);
+            return callback.doInTransaction(null);
+        });
+
+        writeBehind = newWriteBehind();
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        writeBehind.stop();
+    }
+
+    @Test
+    void testRecord_TotalsIncludeBufferedGames() {
+        GameWriteBehind.Totals first = writeBehind.record(USER_ID, wonGame(), 5);
+        GameWriteBehind.Totals second = writeBehind.record(USER_ID, wonGame(), 5);
+
+        assertEquals(3, first.getCurrentWinStreak());
+        assertEquals(4, second.getCurrentWinStreak());
+        assertEquals(20, second.getCoins());
+        assertEquals(2, writeBehind.getPendingGames());
+        verify(transactionTemplate, never()).execute(any());
+    }
+
+    @Test
+    void testRecord_DeletedAccount() {
+        when(userRepository.findById(2L)).thenReturn(Optional.empty());
+
+        assertNull(writeBehind.record(2L, wonGame(), 5));
+        assertEquals(0, writeBehind.getPendingGames());
+    }
+
+    @Test
+    void testFlush_WritesBufferedGamesInOneTransaction() {
+        writeBehind.record(USER_ID, wonGame(), 5);
+        writeBehind.record(USER_ID, wonGame(), 5);
+
+        assertTrue(writeBehind.flush());
+
+        assertEquals(0, writeBehind.getPendingGames());
+        verify(transactionTemplate, times(1)).execute(any());
+        verify(userRepository).recordGameResults(argThat(games -> games.size() == 2));
+        verify(userGameStatsService).recordGames(argThat(games -> games.size() == 2));
+        verify(leaderboardRanks).playersChanged(List.of(USER_ID));
+        verify(achievementPipeline, times(2)).gameCompleted(any(), any());
+    }
+
+    @Test
+    void testFlush_FailureKeepsGamesForTheNextFlush() {
+        writeBehind.record(USER_ID, wonGame(), 5);
+        doThrow(new RuntimeException("database down")).when(userRepository).recordGameResults(anyList());
+
+        assertFalse(writeBehind.flush());
+        assertEquals(1, writeBehind.getPendingGames());
+        verify(achievementPipeline, never()).gameCompleted(any(), any());
+
+        // Buffered after the failure, so written after the restored game
+        writeBehind.record(USER_ID, wonGame(), 5);
+        doNothing().when(userRepository).recordGameResults(anyList());
+
+        assertTrue(writeBehind.flush());
+        assertEquals(0, writeBehind.getPendingGames());
+        verify(userRepository).recordGameResults(argThat(games -> games.size() == 2));
+        verify(achievementPipeline, times(2)).gameCompleted(any(), any());
+    }
+
+    @Test
+    void testStop_SpillsAndNextStartReplays() throws InterruptedException {
+        writeBehind.record(USER_ID, wonGame(), 5);
+        writeBehind.record(USER_ID, lostGame(), 0);
+        doThrow(new RuntimeException("database down")).when(userRepository).recordGameResults(anyList());
+
+        writeBehind.stop();
+
+        assertTrue(Files.isRegularFile(spillDir.resolve(SPILL_FILE)));
+        assertEquals(0, writeBehind.getPendingGames());
+
+        doNothing().when(userRepository).recordGameResults(anyList());
+        writeBehind = newWriteBehind();
+        assertEquals(2, writeBehind.getPendingGames());
+
+        assertTrue(writeBehind.flush());
+        assertFalse(Files.exists(spillDir.resolve(SPILL_FILE)));
+        // Once for the failed shutdown flush, once for the replay
+        verify(userRepository, times(2)).recordGameResults(argThat(games -> games.size() == 2
+                && games.get(0).getWon() && !games.get(1).getWon()));
+    }
+
+    @Test
+    void testStop_NothingToSpill() throws InterruptedException {
+        writeBehind.record(USER_ID, wonGame(), 5);
+
+        writeBehind.stop();
+
+        assertFalse(Files.exists(spillDir.resolve(SPILL_FILE)));
+        verify(userRepository).recordGameResults(anyList());
+    }
+
+    @Test
+    void testStart_RequiresSpillDir() {
+        GameWriteBehind unset = wire(new GameWriteBehind(), "");
+
+        assertThrows(IllegalStateException.class, unset::start);
+    }
+
+    /**
+     * A started instance that never flushes on its own during a test
+     */
+    private GameWriteBehind newWriteBehind() {
+        GameWriteBehind started = wire(new GameWriteBehind(), spillDir.toString());
+        started.start();
+        return started;
+    }
+
+    private GameWriteBehind wire(GameWriteBehind target, String dir) {
+        ReflectionTestUtils.setField(target, "userRepository", userRepository);
+        ReflectionTestUtils.setField(target, "userGameStatsService", userGameStatsService);
+        ReflectionTestUtils.setField(target, "achievementPipeline", achievementPipeline);
+        ReflectionTestUtils.setField(target, "leaderboardRanks", leaderboardRanks);
+        ReflectionTestUtils.setField(target, "jdbcTemplate", jdbcTemplate);
+        ReflectionTestUtils.setField(target, "transactionTemplate", transactionTemplate);
+        ReflectionTestUtils.setField(target, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(target, "flushIntervalMs", 60_000L);
+        ReflectionTestUtils.setField(target, "batchSize", 100);
+        ReflectionTestUtils.setField(target, "maxPending", 5000);
+        ReflectionTestUtils.setField(target, "spillDir", dir);
+        return target;
+    }
+
+    private static Game wonGame() {
+        return new Game(null, 4, 1234, 5, true, "00:42", 0);
+    }
+
+    private static Game lostGame() {
+        return new Game(null, 4, 5678, 10, false, "01:30", 1);
+    }
+}
@@ -0,0 +1,212 @@
+package com.example.numberguessinggame.session;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class InMemorySessionStoreTest {
+
+    // The store's shard count; the cap is split evenly across the shards
+    private static final int SHARDS = 16;
+
+    private TestClock clock;
+
+    @BeforeEach
+    void setUp() {
+        clock = new TestClock();
+    }
+
+    @Test
+    void testPutGetRemove() {
+        InMemorySessionStore<String> store = newStore(Duration.ofMinutes(1), false, 100);
+
+        store.put("a", "first");
+        store.put("b", "second");
+
+        assertEquals("first", store.get("a"));
+        assertEquals(2, store.size());
+        assertEquals("first", store.remove("a"));
+        assertNull(store.get("a"));
+        assertNull(store.remove("a"));
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void testGet_ExpiredEntryIsGone() {
+        InMemorySessionStore<String> store = newStore(Duration.ofMillis(50), false, 100);
+        store.put("a", "value");
+
+        clock.advance(49);
+        assertEquals("value", store.get("a"));
+        clock.advance(1);
+
+        assertNull(store.get("a"));
+        assertEquals(0, store.size());
+        assertEquals(1, store.getExpired());
+    }
+
+    @Test
+    void testTick_ExpiresUnreadEntries() {
+        InMemorySessionStore<String> store = newStore(Duration.ofMillis(100), false, 100);
+        for (int i = 0; i < 50; i++) {
+            store.put("key-" + i, "value");
+        }
+
+        store.tick();
+        assertEquals(50, store.size());
+
+        // Entries wait for the next slot of the wheel
+        clock.advance(InMemorySessionStore.TICK_MS + 100);
+        store.tick();
+
+        assertEquals(0, store.size());
+        assertEquals(50, store.getExpired());
+    }
+
+    @Test
+    void testTick_ReschedulesEntriesKeptAliveByReads() {
+        InMemorySessionStore<String> store = newStore(Duration.ofMillis(1500), true, 100);
+        store.put("a", "value");
+
+        clock.advance(1000);
+        assertEquals("value", store.get("a"));  // Deadline now 2500 ms after the put
+        clock.advance(1200);
+        store.tick();
+        assertEquals(1, store.size());
+
+        clock.advance(1400);
+        store.tick();
+        assertEquals(0, store.size());
+        assertEquals(1, store.getExpired());
+    }
+
+    @Test
+    void testSlidingExpiry_ReadsKeepEntryAlive() {
+        InMemorySessionStore<String> sliding = newStore(Duration.ofMillis(300), true, 100);
+        InMemorySessionStore<String> fixed = newStore(Duration.ofMillis(300), false, 100);
+        sliding.put("a", "value");
+        fixed.put("a", "value");
+
+        for (int i = 0; i < 6; i++) {
+            clock.advance(100);
+            assertEquals("value", sliding.get("a"));
+        }
+
+        assertNull(fixed.get("a"));
+        clock.advance(300);
+        assertNull(sliding.get("a"));
+    }
+
+    @Test
+    void testUpdate_KeepsDeadlineAndIgnoresMissingKeys() {
+        InMemorySessionStore<String> store = newStore(Duration.ofMillis(250), false, 100);
+        store.put("a", "first");
+
+        clock.advance(150);
+        store.update("a", "second");
+        assertEquals("second", store.get("a"));
+
+        clock.advance(100);
+        assertNull(store.get("a"));
+
+        store.update("missing", "value");
+        assertNull(store.get("missing"));
+    }
+
+    @Test
+    void testCap_EvictsLeastRecentlyUsed() {
+        // Two sessions per shard
+        InMemorySessionStore<String> store = newStore(Duration.ofMinutes(1), false, 2 * SHARDS);
+        List<String> keys = keysInOneShard(3);
+
+        store.put(keys.get(0), "a");
+        store.put(keys.get(1), "b");
+        store.get(keys.get(0));  // Now the most recently used
+        store.put(keys.get(2), "c");
+
+        assertEquals("a", store.get(keys.get(0)));
+        assertNull(store.get(keys.get(1)));
+        assertEquals("c", store.get(keys.get(2)));
+        assertEquals(1, store.getEvicted());
+    }
+
+    @Test
+    void testProviderTick_TicksEveryStoreItCreated() {
+        InMemorySessionStoreProvider provider = new InMemorySessionStoreProvider();
+        SessionStore<Integer> first = provider.create("practice", SessionCodecs.INT, Duration.ofMinutes(1), false, 100);
+        SessionStore<Integer> second = provider.create("practice", SessionCodecs.INT, Duration.ofMinutes(1), false, 100);
+        first.put("a", 1);
+        second.put("a", 2);
+
+        provider.tick();
+
+        // Same mode name, still separate stores
+        assertEquals(1, first.get("a").intValue());
+        assertEquals(2, second.get("a").intValue());
+    }
+
+    @Test
+    void testConstructor_RejectsNonPositiveTtl() {
+        assertThrows(IllegalArgumentException.class, () -> newStore(Duration.ZERO, false, 100));
+    }
+
+    private InMemorySessionStore<String> newStore(Duration ttl, boolean slidingExpiry, int maxSessions) {
+        return new InMemorySessionStore<>("test", ttl, slidingExpiry, maxSessions, clock);
+    }
+
+    /**
+     * Keys the store puts in the same shard, so their order decides what is evicted
+     */
+    private static List<String> keysInOneShard(int count) {
+        List<String> keys = new ArrayList<>();
+        for (int i = 0; keys.size() < count; i++) {
+            String key = "key-" + i;
+            int hash = key.hashCode();
+            if (((hash ^ (hash >>> 16)) & (SHARDS - 1)) == 0) {
+                keys.add(key);
+            }
+        }
+        return keys;
+    }
+
+    /**
+     * Clock that only moves when the test advances it
+     */
+    private static final class TestClock extends Clock {
+        private long millis = 1_000_000_000L;
+
+        void advance(long ms) {
+            millis += ms;
+        }
+
+        @Override
+        public long millis() {
+            return millis;
+        }
+
+        @Override
+        public Instant instant() {
+            return Instant.ofEpochMilli(millis);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package com.example.numberguessinggame.session;
+
+import java.sql.ResultSet;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+class JdbcSessionStoreTest {
+
+    private static final String VERSIONED = "AND version = ?";
+
+    private JdbcTemplate jdbcTemplate;
+    private JdbcSessionStore<Integer> store;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        store = new JdbcSessionStore<>(jdbcTemplate, "practice", SessionCodecs.INT, Duration.ofMinutes(30), false);
+    }
+
+    @Test
+    void testGet_MissingRow() {
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Object[].class))).thenReturn(List.of());
+
+        assertNull(store.get("k"));
+    }
+
+    @Test
+    void testUpdate_WritesAtTheVersionRead() {
+        Integer session = readRow(1000, 3);
+        when(jdbcTemplate.update(argThat(sql -> sql.contains(VERSIONED)), any(Object[].class))).thenReturn(1);
+
+        store.update("k", session);
+        store.update("k", session);
+
+        verify(jdbcTemplate).update(argThat(sql -> sql.contains(VERSIONED)), any(), eq("practice"), eq("k"), eq(3L));
+        verify(jdbcTemplate).update(argThat(sql -> sql.contains(VERSIONED)), any(), eq("practice"), eq("k"), eq(4L));
+    }
+
+    @Test
+    void testUpdate_ConflictingChangeIsRejected() {
+        Integer session = readRow(1000, 3);
+        when(jdbcTemplate.update(argThat(sql -> sql.contains(VERSIONED)), any(Object[].class))).thenReturn(0);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), any(Object[].class))).thenReturn(1);
+
+        assertThrows(IllegalStateException.class, () -> store.update("k", session));
+    }
+
+    @Test
+    void testUpdate_RemovedSessionIsIgnored() {
+        Integer session = readRow(1000, 3);
+        when(jdbcTemplate.update(argThat(sql -> sql.contains(VERSIONED)), any(Object[].class))).thenReturn(0);
+        when(jdbcTemplate.queryForObject(anyString(), eq(Integer.class), any(Object[].class))).thenReturn(0);
+
+        assertDoesNotThrow(() -> store.update("k", session));
+    }
+
+    @Test
+    void testUpdate_WithoutReadIsLastWriteWins() {
+        store.update("k", 2000);
+
+        verify(jdbcTemplate).update(argThat(sql -> !sql.contains(VERSIONED)), any(), eq("practice"), eq("k"));
+        verify(jdbcTemplate, never()).update(argThat(sql -> sql.contains(VERSIONED)), any(Object[].class));
+    }
+
+    @Test
+    void testPut_StampsTheReturnedVersion() {
+        when(jdbcTemplate.queryForObject(anyString(), eq(Long.class), any(Object[].class))).thenReturn(7L);
+        when(jdbcTemplate.update(argThat(sql -> sql.contains(VERSIONED)), any(Object[].class))).thenReturn(1);
+        Integer session = 3000;
+
+        store.put("k", session);
+        store.update("k", session);
+
+        verify(jdbcTemplate).update(argThat(sql -> sql.contains(VERSIONED)), any(), eq("practice"), eq("k"), eq(7L));
+    }
+
+    /**
+     * Have get() find a row holding value at version, and read it
+     */
+    private Integer readRow(int value, long version) {
+        byte[] data = SessionCodecs.INT.encode(value);
+        when(jdbcTemplate.query(anyString(), any(RowMapper.class), any(Object[].class))).thenAnswer(invocation -> {
+            ResultSet rs = mock(ResultSet.class);
+            when(rs.getBytes("data")).thenReturn(data);
+            when(rs.getLong("version")).thenReturn(version);
+            RowMapper<?> mapper = invocation.getArgument(1);
+            return List.of(mapper.mapRow(rs, 0));
+        });
+
+        Integer session = store.get("k");
+        assertEquals(value, session.intValue());
+        return session;
+    }
+}
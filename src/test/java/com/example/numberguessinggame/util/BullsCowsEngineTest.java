@@ -0,0 +1,110 @@
+package com.example.numberguessinggame.util;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+import com.example.numberguessinggame.util.BullsCowsEngine.GuessCheck;
+
+class BullsCowsEngineTest {
+
+    @Test
+    void testScore_BullsAndCows() {
+        int secret = BullsCowsEngine.encodeSecret(1234, 4);
+
+        assertScore(4, 0, secret, "1234");
+        assertScore(0, 4, secret, "4321");
+        assertScore(2, 2, secret, "1243");
+        assertScore(1, 1, secret, "1562");
+        assertScore(0, 0, secret, "5678");
+    }
+
+    @Test
+    void testScore_LeadingZero() {
+        int secret = BullsCowsEngine.encodeSecret(123, 4);  // 0123
+
+        assertScore(4, 0, secret, "0123");
+        assertScore(0, 1, secret, "4560");
+        assertEquals(0, BullsCowsEngine.digitAt(secret, 0));
+        assertEquals(3, BullsCowsEngine.digitAt(secret, 3));
+    }
+
+    @Test
+    void testScore_MatchesDigitByDigitCount() {
+        Random random = new Random(42);
+        for (int digits = 3; digits <= BullsCowsEngine.MAX_DIGITS; digits++) {
+            for (int i = 0; i < 2000; i++) {
+                String secret = randomUniqueDigits(random, digits);
+                String guess = randomUniqueDigits(random, digits);
+                int result = BullsCowsEngine.score(
+                        BullsCowsEngine.encodeSecret(Integer.parseInt(secret), digits), guess);
+
+                int bulls = 0;
+                int cows = 0;
+                for (int p = 0; p < digits; p++) {
+                    if (secret.charAt(p) == guess.charAt(p)) {
+                        bulls++;
+                    } else if (secret.indexOf(guess.charAt(p)) >= 0) {
+                        cows++;
+                    }
+                }
+                assertEquals(bulls, BullsCowsEngine.bulls(result), secret + " vs " + guess);
+                assertEquals(cows, BullsCowsEngine.cows(result), secret + " vs " + guess);
+            }
+        }
+    }
+
+    @Test
+    void testIsSolved() {
+        int secret = BullsCowsEngine.encodeSecret(98765, 5);
+        assertTrue(BullsCowsEngine.isSolved(BullsCowsEngine.score(secret, "98765"), 5));
+        assertFalse(BullsCowsEngine.isSolved(BullsCowsEngine.score(secret, "98756"), 5));
+        assertEquals(5, BullsCowsEngine.digitCount(secret));
+    }
+
+    @Test
+    void testEncodeSecret_InvalidDigitCount() {
+        assertThrows(IllegalArgumentException.class, () -> BullsCowsEngine.encodeSecret(123, 0));
+        assertThrows(IllegalArgumentException.class, () -> BullsCowsEngine.encodeSecret(123456, 6));
+    }
+
+    @Test
+    void testCheck_EachOutcome() {
+        assertEquals(GuessCheck.VALID, BullsCowsEngine.check("1234", 4));
+        assertEquals(GuessCheck.EMPTY, BullsCowsEngine.check("", 4));
+        assertEquals(GuessCheck.EMPTY, BullsCowsEngine.check(null, 4));
+        assertEquals(GuessCheck.NOT_NUMERIC, BullsCowsEngine.check("12a4", 4));
+        assertEquals(GuessCheck.WRONG_LENGTH, BullsCowsEngine.check("123", 4));
+        assertEquals(GuessCheck.REPEATED_DIGITS, BullsCowsEngine.check("1224", 4));
+    }
+
+    @Test
+    void testCheck_ReportsInModeOrder() {
+        // Non-numeric comes before length, length before repeats; Time Attack checks length before calling check
+        assertEquals(GuessCheck.NOT_NUMERIC, BullsCowsEngine.check("11a", 4));
+        assertEquals(GuessCheck.NOT_NUMERIC, BullsCowsEngine.check("-123", 4));
+        assertEquals(GuessCheck.WRONG_LENGTH, BullsCowsEngine.check("11", 4));
+        assertEquals(GuessCheck.WRONG_LENGTH, BullsCowsEngine.check("112345", 5));
+    }
+
+    private static void assertScore(int bulls, int cows, int secretKey, String guess) {
+        int result = BullsCowsEngine.score(secretKey, guess);
+        assertEquals(bulls, BullsCowsEngine.bulls(result), "bulls for " + guess);
+        assertEquals(cows, BullsCowsEngine.cows(result), "cows for " + guess);
+    }
+
+    private static String randomUniqueDigits(Random random, int digits) {
+        StringBuilder number = new StringBuilder();
+        while (number.length() < digits) {
+            char digit = (char) ('0' + random.nextInt(10));
+            if (number.indexOf(String.valueOf(digit)) < 0) {
+                number.append(digit);
+            }
+        }
+        return number.toString();
+    }
+}
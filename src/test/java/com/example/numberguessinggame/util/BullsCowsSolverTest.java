@@ -0,0 +1,130 @@
+package com.example.numberguessinggame.util;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class BullsCowsSolverTest {
+
+    @Test
+    void testAll_SetsEveryCandidateOnly() {
+        for (int digits = CandidateTable.MIN_DIGITS; digits <= BullsCowsEngine.MAX_DIGITS; digits++) {
+            CandidateTable table = CandidateTable.forDigits(digits);
+            long[] bits = BullsCowsSolver.all(table);
+            assertEquals(table.size(), BullsCowsSolver.count(bits));
+            assertEquals(table.size() - 1, BullsCowsSolver.indices(bits)[table.size() - 1]);
+        }
+    }
+
+    @Test
+    void testConsistent_MatchesBruteForce() {
+        Random random = new Random(3);
+        ResponseMatrix matrix = ResponseMatrix.current(4);
+        CandidateTable table = matrix.getTable();
+
+        for (int game = 0; game < 20; game++) {
+            int secretIndex = random.nextInt(table.size());
+            int secretKey = table.keyAt(secretIndex);
+            GuessHistory history = new GuessHistory();
+            for (int turn = 0; turn < 3; turn++) {
+                int guess = table.secretAt(random.nextInt(table.size()));
+                history.add(guess, BullsCowsEngine.score(secretKey, BullsCowsEngine.encodeSecret(guess, 4)), 0);
+            }
+
+            long[] bits = BullsCowsSolver.consistent(matrix, history, 0, secretKey);
+
+            int expected = 0;
+            for (int i = 0; i < table.size(); i++) {
+                boolean fits = true;
+                for (int turn = 0; turn < history.size() && fits; turn++) {
+                    int guessKey = BullsCowsEngine.encodeSecret(history.guessAt(turn), 4);
+                    fits = BullsCowsEngine.score(table.keyAt(i), guessKey) == history.resultAt(turn);
+                }
+                if (fits) {
+                    expected++;
+                }
+            }
+            assertEquals(expected, BullsCowsSolver.count(bits));
+            assertTrue((bits[secretIndex >>> 6] & (1L << secretIndex)) != 0, "secret ruled out");
+        }
+    }
+
+    @Test
+    void testConsistent_GuessWithLeadingZero() {
+        ResponseMatrix matrix = ResponseMatrix.current(4);
+        int secretKey = BullsCowsEngine.encodeSecret(1234, 4);
+        GuessHistory history = new GuessHistory();
+        history.add("0123", BullsCowsEngine.score(secretKey, "0123"), 0);  // Not in the table
+
+        long[] bits = BullsCowsSolver.consistent(matrix, history, 0, secretKey);
+
+        int[] remaining = BullsCowsSolver.indices(bits);
+        for (int index : remaining) {
+            assertEquals(BullsCowsEngine.score(secretKey, "0123"),
+                    BullsCowsEngine.score(matrix.getTable().keyAt(index), "0123"));
+        }
+        assertTrue(Arrays.stream(remaining).anyMatch(index -> matrix.getTable().secretAt(index) == 1234));
+    }
+
+    @Test
+    void testConsistent_RevealedPositions() {
+        ResponseMatrix matrix = ResponseMatrix.current(5);
+        int secretKey = BullsCowsEngine.encodeSecret(52803, 5);
+
+        long[] bits = BullsCowsSolver.consistent(matrix, new GuessHistory(), 0b10001, secretKey);
+
+        int[] remaining = BullsCowsSolver.indices(bits);
+        assertTrue(remaining.length > 0);
+        for (int index : remaining) {
+            int key = matrix.getTable().keyAt(index);
+            assertEquals(5, BullsCowsEngine.digitAt(key, 0));
+            assertEquals(3, BullsCowsEngine.digitAt(key, 4));
+        }
+    }
+
+    @Test
+    void testBestGuess_NoneOrOneLeft() {
+        ResponseMatrix matrix = ResponseMatrix.current(3);
+        long[] bits = new long[BullsCowsSolver.all(matrix.getTable()).length];
+        assertEquals(-1, BullsCowsSolver.bestGuess(matrix, bits, 1_000_000));
+
+        bits[1] = 1L << 5;
+        assertEquals(69, BullsCowsSolver.bestGuess(matrix, bits, 1_000_000));
+    }
+
+    @Test
+    void testBestGuess_SolvesThreeDigitGames() {
+        ResponseMatrix matrix = ResponseMatrix.forDigits(3);
+        CandidateTable table = matrix.getTable();
+        Random random = new Random(11);
+
+        for (int game = 0; game < 30; game++) {
+            int secretKey = table.keyAt(random.nextInt(table.size()));
+            GuessHistory history = new GuessHistory();
+            int turns = 0;
+            boolean solved = false;
+            while (!solved && turns < 10) {
+                long[] bits = BullsCowsSolver.consistent(matrix, history, 0, secretKey);
+                int guess = BullsCowsSolver.bestGuess(matrix, bits, 10_000_000);
+                int result = BullsCowsEngine.score(secretKey, table.keyAt(guess));
+                history.add(table.secretAt(guess), result, 0);
+                solved = BullsCowsEngine.isSolved(result, 3);
+                turns++;
+            }
+            assertTrue(solved && turns <= 7, "took " + turns + " guesses");
+        }
+    }
+
+    @Test
+    void testBestGuess_WithinSmallBudget() {
+        ResponseMatrix matrix = ResponseMatrix.current(5);
+        long[] bits = BullsCowsSolver.all(matrix.getTable());
+
+        int guess = BullsCowsSolver.bestGuess(matrix, bits, 50_000);
+
+        assertTrue(guess >= 0 && guess < matrix.getTable().size());
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.numberguessinggame.util;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class CandidateTableTest {
+
+    @Test
+    void testSizes() {
+        assertEquals(648, CandidateTable.forDigits(3).size());
+        assertEquals(4536, CandidateTable.forDigits(4).size());
+        assertEquals(27216, CandidateTable.forDigits(5).size());
+    }
+
+    @Test
+    void testSecrets_AscendingUniqueDigitsNoLeadingZero() {
+        for (int digits = CandidateTable.MIN_DIGITS; digits <= BullsCowsEngine.MAX_DIGITS; digits++) {
+            CandidateTable table = CandidateTable.forDigits(digits);
+            int previous = -1;
+            for (int i = 0; i < table.size(); i++) {
+                int secret = table.secretAt(i);
+                String text = String.valueOf(secret);
+                assertEquals(digits, text.length(), "length of " + secret);
+                assertEquals(digits, text.chars().distinct().count(), "repeated digit in " + secret);
+                assertTrue(secret > previous, "not ascending at " + i);
+                previous = secret;
+            }
+        }
+    }
+
+    @Test
+    void testIndexOf_RoundTrip() {
+        CandidateTable table = CandidateTable.forDigits(4);
+        for (int i = 0; i < table.size(); i++) {
+            assertEquals(i, table.indexOf(table.secretAt(i)));
+            assertEquals(BullsCowsEngine.encodeSecret(table.secretAt(i), 4), table.keyAt(i));
+        }
+    }
+
+    @Test
+    void testIndexOf_InvalidSecrets() {
+        CandidateTable table = CandidateTable.forDigits(4);
+        assertEquals(-1, table.indexOf(1123));   // Repeated digit
+        assertEquals(-1, table.indexOf(123));    // 0123, leading zero
+        assertEquals(-1, table.indexOf(12345));  // Too long
+        assertEquals(-1, table.indexOf(-1));
+        assertFalse(table.contains(1123));
+        assertTrue(table.contains(1234));
+    }
+
+    @Test
+    void testForDifficulty() {
+        assertSame(CandidateTable.forDigits(3), CandidateTable.forDifficulty(0));
+        assertSame(CandidateTable.forDigits(4), CandidateTable.forDifficulty(1));
+        assertSame(CandidateTable.forDigits(5), CandidateTable.forDifficulty(2));
+        assertEquals(5, CandidateTable.forDifficulty(2).getDigitCount());
+    }
+
+    @Test
+    void testForDigits_OutOfRange() {
+        assertThrows(IllegalArgumentException.class, () -> CandidateTable.forDigits(2));
+        assertThrows(IllegalArgumentException.class, () -> CandidateTable.forDigits(6));
+    }
+
+    @Test
+    void testRandom_SeededIsReproducible() {
+        CandidateTable table = CandidateTable.forDigits(5);
+        Random first = new Random(7);
+        Random second = new Random(7);
+        for (int i = 0; i < 100; i++) {
+            int secret = table.random(first);
+            assertEquals(secret, table.random(second));
+            assertTrue(table.contains(secret));
+        }
+        assertTrue(table.contains(table.random()));
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.numberguessinggame.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class ConcurrentBitmapTest {
+
+    @Test
+    void testAddRemoveContains() {
+        ConcurrentBitmap bitmap = new ConcurrentBitmap();
+
+        assertTrue(bitmap.add(42));
+        assertFalse(bitmap.add(42));
+        assertTrue(bitmap.contains(42));
+        assertFalse(bitmap.contains(43));
+        assertEquals(1, bitmap.cardinality());
+
+        assertTrue(bitmap.remove(42));
+        assertFalse(bitmap.remove(42));
+        assertFalse(bitmap.remove(1L << 40));  // On a page never created
+        assertFalse(bitmap.contains(42));
+        assertEquals(0, bitmap.cardinality());
+    }
+
+    @Test
+    void testPageAndWordBoundaries() {
+        ConcurrentBitmap bitmap = new ConcurrentBitmap();
+        long[] ids = {0, 63, 64, 4095, 4096, 4097, Long.MAX_VALUE};
+        for (long id : ids) {
+            bitmap.add(id);
+        }
+
+        for (long id : ids) {
+            assertTrue(bitmap.contains(id), "missing " + id);
+        }
+        assertFalse(bitmap.contains(62));
+        assertFalse(bitmap.contains(4098));
+        assertArrayEquals(ids, toArray(bitmap.iterator()));
+    }
+
+    @Test
+    void testNegativeIds() {
+        ConcurrentBitmap bitmap = new ConcurrentBitmap();
+
+        assertThrows(IllegalArgumentException.class, () -> bitmap.add(-1));
+        assertFalse(bitmap.contains(-1));
+        assertFalse(bitmap.remove(-1));
+        assertArrayEquals(new boolean[] {false}, bitmap.containsEach(new long[] {-1}));
+    }
+
+    @Test
+    void testContainsEachAndIterator_MatchTreeSet() {
+        ConcurrentBitmap bitmap = new ConcurrentBitmap();
+        TreeSet<Long> expected = new TreeSet<>();
+        Random random = new Random(22);
+        for (int i = 0; i < 50000; i++) {
+            long id = random.nextInt(200000);
+            if (random.nextInt(4) == 0) {
+                assertEquals(expected.remove(id), bitmap.remove(id));
+            } else {
+                assertEquals(expected.add(id), bitmap.add(id));
+            }
+        }
+
+        assertEquals(expected.size(), bitmap.cardinality());
+        assertArrayEquals(expected.stream().mapToLong(Long::longValue).toArray(), toArray(bitmap.iterator()));
+
+        long[] probe = new long[5000];
+        for (int i = 0; i < probe.length; i++) {
+            probe[i] = random.nextInt(200000);
+        }
+        boolean[] present = bitmap.containsEach(probe);
+        for (int i = 0; i < probe.length; i++) {
+            assertEquals(expected.contains(probe[i]), present[i]);
+        }
+    }
+
+    @Test
+    void testIterator_EmptyAndExhausted() {
+        ConcurrentBitmap bitmap = new ConcurrentBitmap();
+        assertFalse(bitmap.iterator().hasNext());
+
+        bitmap.add(7);
+        bitmap.remove(7);  // Leaves an empty page behind
+        PrimitiveIterator.OfLong iterator = bitmap.iterator();
+        assertFalse(iterator.hasNext());
+        assertThrows(NoSuchElementException.class, iterator::nextLong);
+    }
+
+    @Test
+    void testConcurrentAdds_SameWords() throws Exception {
+        ConcurrentBitmap bitmap = new ConcurrentBitmap();
+        int threads = 8;
+        int idsPerThread = 20000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int offset = t;
+                // Interleaved ids, so every thread sets bits in the same words
+                tasks.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < idsPerThread; i++) {
+                        bitmap.add((long) i * threads + offset);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> task : tasks) {
+                task.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals((long) threads * idsPerThread, bitmap.cardinality());
+        for (long id = 0; id < (long) threads * idsPerThread; id++) {
+            assertTrue(bitmap.contains(id), "lost " + id);
+        }
+    }
+
+    private static long[] toArray(PrimitiveIterator.OfLong iterator) {
+        List<Long> ids = new ArrayList<>();
+        iterator.forEachRemaining((long id) -> ids.add(id));
+        return ids.stream().mapToLong(Long::longValue).toArray();
+    }
+}
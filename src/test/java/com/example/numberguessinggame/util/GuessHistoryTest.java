@@ -0,0 +1,131 @@
+package com.example.numberguessinggame.util;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class GuessHistoryTest {
+
+    @Test
+    void testAdd_FieldsReadBack() {
+        GuessHistory history = new GuessHistory();
+        int secretKey = BullsCowsEngine.encodeSecret(51234, 5);
+        history.add("51243", BullsCowsEngine.score(secretKey, "51243"), 4200);
+
+        assertEquals(1, history.size());
+        assertEquals(51243, history.guessAt(0));
+        assertEquals(3, BullsCowsEngine.bulls(history.resultAt(0)));
+        assertEquals(2, BullsCowsEngine.cows(history.resultAt(0)));
+        assertEquals(4200, history.offsetAt(0));
+    }
+
+    @Test
+    void testLeadingZero_KeptByDigitCount() {
+        GuessHistory history = new GuessHistory();
+        history.add("0123", 0, 0);
+
+        assertEquals(123, history.guessAt(0));
+        assertEquals(0, BullsCowsEngine.digitAt(history.keyAt(0, 4), 0));
+        assertEquals(BullsCowsEngine.encodeGuess("0123"), history.keyAt(0, 4));
+    }
+
+    @Test
+    void testOffsets_Clamped() {
+        GuessHistory history = new GuessHistory();
+        history.add(123, 0, -5);
+        history.add(456, 0, 1L << 40);
+
+        assertEquals(0, history.offsetAt(0));
+        assertEquals(0xFFFFFFFFL, history.offsetAt(1));
+    }
+
+    @Test
+    void testToBytes_RoundTrip() {
+        GuessHistory history = sampleHistory(40);
+
+        GuessHistory copy = GuessHistory.fromBytes(history.toBytes());
+
+        assertSameEntries(history, copy);
+    }
+
+    @Test
+    void testToBytes_Compact() {
+        // Three digits, one result, and a gap under 128 ms takes one varint byte
+        GuessHistory history = new GuessHistory();
+        for (int i = 0; i < 10; i++) {
+            history.add(1234 + i, 0x11, i * 100L);
+        }
+
+        assertEquals(1 + 1 + 10 * 5, history.toBytes().length);
+    }
+
+    @Test
+    void testToBytes_EmptyAndOutOfOrderOffsets() {
+        assertEquals(0, GuessHistory.fromBytes(new GuessHistory().toBytes()).size());
+
+        GuessHistory history = new GuessHistory();
+        history.add(123, 0, 5000);
+        history.add(456, 0, 3000);  // Earlier than the previous guess
+        GuessHistory copy = GuessHistory.fromBytes(history.toBytes());
+
+        assertEquals(5000, copy.offsetAt(0));
+        assertEquals(5000, copy.offsetAt(1));
+    }
+
+    @Test
+    void testFromBytes_UnknownFormat() {
+        assertThrows(IllegalArgumentException.class, () -> GuessHistory.fromBytes(new byte[0]));
+        assertThrows(IllegalArgumentException.class, () -> GuessHistory.fromBytes(new byte[] {9, 0}));
+    }
+
+    @Test
+    void testWriteRead_RoundTrip() throws IOException {
+        GuessHistory history = sampleHistory(20);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        history.write(new DataOutputStream(bytes));
+
+        GuessHistory copy = GuessHistory.read(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+
+        assertEquals(4 + 20 * 8, bytes.size());
+        assertSameEntries(history, copy);
+    }
+
+    @Test
+    void testClear() {
+        GuessHistory history = sampleHistory(12);
+        history.clear();
+
+        assertTrue(history.isEmpty());
+        history.add(789, 0x20, 10);
+        assertEquals(789, history.guessAt(0));
+    }
+
+    private static GuessHistory sampleHistory(int guesses) {
+        CandidateTable table = CandidateTable.forDigits(5);
+        int secretKey = table.keyAt(1000);
+        GuessHistory history = new GuessHistory();
+        long offset = 0;
+        for (int i = 0; i < guesses; i++) {
+            int index = (i * 7919) % table.size();
+            offset += 250L * i * i;  // Growing gaps, up to multi-byte varints
+            history.add(table.secretAt(index), BullsCowsEngine.score(secretKey, table.keyAt(index)), offset);
+        }
+        return history;
+    }
+
+    private static void assertSameEntries(GuessHistory expected, GuessHistory actual) {
+        assertEquals(expected.size(), actual.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.guessAt(i), actual.guessAt(i));
+            assertEquals(expected.resultAt(i), actual.resultAt(i));
+            assertEquals(expected.offsetAt(i), actual.offsetAt(i));
+        }
+    }
+}
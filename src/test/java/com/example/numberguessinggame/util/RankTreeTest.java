@@ -0,0 +1,115 @@
+package com.example.numberguessinggame.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+
+class RankTreeTest {
+
+    private record Player(long id, int score) {
+    }
+
+    // Highest score first, then lowest id, as on a leaderboard
+    private static final Comparator<Player> LEADERBOARD =
+            Comparator.comparingInt(Player::score).reversed().thenComparingLong(Player::id);
+
+    @Test
+    void testAddRemove_Duplicates() {
+        RankTree<Integer> tree = new RankTree<>(Comparator.naturalOrder());
+
+        assertTrue(tree.add(5));
+        assertFalse(tree.add(5));
+        assertEquals(1, tree.size());
+        assertTrue(tree.remove(5));
+        assertFalse(tree.remove(5));
+        assertTrue(tree.isEmpty());
+    }
+
+    @Test
+    void testRanks_MatchSortedOrder() {
+        RankTree<Integer> tree = new RankTree<>(Comparator.naturalOrder());
+        TreeSet<Integer> expected = new TreeSet<>();
+        Random random = new Random(19);
+
+        for (int i = 0; i < 20000; i++) {
+            int value = random.nextInt(5000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(expected.remove(value), tree.remove(value));
+            } else {
+                assertEquals(expected.add(value), tree.add(value));
+            }
+        }
+
+        assertEquals(expected.size(), tree.size());
+        List<Integer> sorted = new ArrayList<>(expected);
+        for (int i = 0; i < sorted.size(); i++) {
+            assertEquals(sorted.get(i), tree.get(i));
+            assertEquals(i, tree.indexOf(sorted.get(i)));
+        }
+        for (int value = 0; value < 5000; value++) {
+            if (!expected.contains(value)) {
+                assertEquals(-1, tree.indexOf(value));
+            }
+        }
+    }
+
+    @Test
+    void testLeaderboardOrder_TieBrokenById() {
+        RankTree<Player> tree = new RankTree<>(LEADERBOARD);
+        tree.add(new Player(3, 100));
+        tree.add(new Player(1, 100));
+        tree.add(new Player(2, 250));
+        tree.add(new Player(4, 50));
+
+        assertEquals(2, tree.get(0).id());
+        assertEquals(1, tree.indexOf(new Player(1, 100)));
+        assertEquals(2, tree.indexOf(new Player(3, 100)));
+        assertEquals(3, tree.indexOf(new Player(4, 50)));
+
+        // A score change is a remove and an add
+        tree.remove(new Player(4, 50));
+        tree.add(new Player(4, 300));
+        assertEquals(0, tree.indexOf(new Player(4, 300)));
+        assertEquals(-1, tree.indexOf(new Player(4, 50)));
+    }
+
+    @Test
+    void testSortedInsertions_StayBalanced() {
+        RankTree<Integer> tree = new RankTree<>(Comparator.naturalOrder());
+        for (int i = 0; i < 200000; i++) {
+            tree.add(i);
+        }
+
+        assertEquals(200000, tree.size());
+        assertEquals(123456, tree.indexOf(123456));
+        assertEquals(199999, tree.get(199999).intValue());
+    }
+
+    @Test
+    void testGet_OutOfBounds() {
+        RankTree<Integer> tree = new RankTree<>(Comparator.naturalOrder());
+        tree.add(1);
+
+        assertThrows(IndexOutOfBoundsException.class, () -> tree.get(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> tree.get(-1));
+    }
+
+    @Test
+    void testClear() {
+        RankTree<Integer> tree = new RankTree<>(Comparator.naturalOrder());
+        tree.add(1);
+        tree.add(2);
+        tree.clear();
+
+        assertTrue(tree.isEmpty());
+        assertEquals(-1, tree.indexOf(1));
+    }
+}
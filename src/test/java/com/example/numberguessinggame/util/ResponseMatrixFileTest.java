@@ -0,0 +1,95 @@
+package com.example.numberguessinggame.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class ResponseMatrixFileTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void testWriteThenMap_RoundTrip() throws IOException {
+        CandidateTable table = CandidateTable.forDigits(3);
+
+        Path file = ResponseMatrixFile.write(directory, table);
+        MappedByteBuffer mapped = ResponseMatrixFile.map(directory, table);
+
+        assertEquals(ResponseMatrixFile.pathFor(directory, 3), file);
+        assertEquals(16 + (long) table.size() * table.size(), Files.size(file));
+        assertArrayEquals(ResponseMatrix.compute(table), bytes(mapped));
+    }
+
+    @Test
+    void testMap_WritesMissingFile() throws IOException {
+        CandidateTable table = CandidateTable.forDigits(4);
+
+        MappedByteBuffer mapped = ResponseMatrixFile.map(directory, table);
+
+        assertTrue(Files.isRegularFile(ResponseMatrixFile.pathFor(directory, 4)));
+        assertArrayEquals(ResponseMatrix.compute(table), bytes(mapped));
+        assertNoTempFiles();
+    }
+
+    @Test
+    void testMap_RewritesStaleFile() throws IOException {
+        CandidateTable table = CandidateTable.forDigits(3);
+        Path file = ResponseMatrixFile.pathFor(directory, 3);
+        Files.write(file, new byte[16 + table.size() * table.size()]);  // Right size, no header
+
+        MappedByteBuffer mapped = ResponseMatrixFile.map(directory, table);
+
+        assertArrayEquals(ResponseMatrix.compute(table), bytes(mapped));
+    }
+
+    @Test
+    void testMap_ReusesValidFile() throws IOException {
+        CandidateTable table = CandidateTable.forDigits(3);
+        Path file = ResponseMatrixFile.write(directory, table);
+        // Change one result; a valid header means the file is mapped as it is
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[] {0x7F}), 16);
+        }
+
+        MappedByteBuffer mapped = ResponseMatrixFile.map(directory, table);
+
+        assertEquals(0x7F, mapped.get(0));
+    }
+
+    @Test
+    void testMappedMatrix_AgreesWithScoring() throws IOException {
+        CandidateTable table = CandidateTable.forDigits(4);
+        MappedByteBuffer mapped = ResponseMatrixFile.map(directory, table);
+
+        for (int guess = 0; guess < table.size(); guess += 97) {
+            for (int secret = 0; secret < table.size(); secret += 13) {
+                assertEquals(BullsCowsEngine.score(table.keyAt(secret), table.keyAt(guess)),
+                        mapped.get(guess * table.size() + secret));
+            }
+        }
+    }
+
+    private void assertNoTempFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    private static byte[] bytes(MappedByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.duplicate().get(bytes);
+        return bytes;
+    }
+}